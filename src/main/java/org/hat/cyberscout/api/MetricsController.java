@@ -0,0 +1,93 @@
+package org.hat.cyberscout.api;
+
+import java.util.Map;
+import org.hat.cyberscout.http.HostCircuitBreaker;
+import org.hat.cyberscout.http.HostInFlightLimiter;
+import org.hat.cyberscout.http.HostRateLimiter;
+import org.hat.cyberscout.http.HttpProbeService;
+import org.hat.cyberscout.http.HttpTransport;
+import org.hat.cyberscout.http.LatencyHistogram;
+import org.hat.cyberscout.http.LatencyRecorder;
+import org.hat.cyberscout.http.ScanResponseCache;
+import org.hat.cyberscout.http.SingleFlight;
+import org.hat.cyberscout.scan.persist.ObservationSink;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+
+    private final HttpTransport transport;
+    private final HostInFlightLimiter inFlightLimiter;
+    private final ObservationSink observationSink;
+    private final ScanResponseCache responseCache;
+    private final HttpProbeService probeService;
+    private final LatencyRecorder latencyRecorder;
+    private final HostRateLimiter rateLimiter;
+    private final HostCircuitBreaker circuitBreaker;
+
+    public MetricsController(
+            HttpTransport transport,
+            HostInFlightLimiter inFlightLimiter,
+            ObservationSink observationSink,
+            ScanResponseCache responseCache,
+            HttpProbeService probeService,
+            LatencyRecorder latencyRecorder,
+            HostRateLimiter rateLimiter,
+            HostCircuitBreaker circuitBreaker
+    ) {
+        this.transport = transport;
+        this.inFlightLimiter = inFlightLimiter;
+        this.observationSink = observationSink;
+        this.responseCache = responseCache;
+        this.probeService = probeService;
+        this.latencyRecorder = latencyRecorder;
+        this.rateLimiter = rateLimiter;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @GetMapping("/http")
+    public HttpMetrics http() {
+        return new HttpMetrics(transport.hostStats(), inFlightLimiter.snapshot(), probeService.coalescingStats());
+    }
+
+    @GetMapping("/observations")
+    public ObservationSink.ObservationSinkStats observations() {
+        return observationSink.stats();
+    }
+
+    @GetMapping("/latency")
+    public LatencyMetrics latency() {
+        return new LatencyMetrics(latencyRecorder.hosts(), latencyRecorder.endpoints());
+    }
+
+    @GetMapping("/rate-limits")
+    public Map<String, HostRateLimiter.RateStats> rateLimits() {
+        return rateLimiter.snapshot();
+    }
+
+    @GetMapping("/circuit-breakers")
+    public Map<String, HostCircuitBreaker.CircuitStats> circuitBreakers() {
+        return circuitBreaker.snapshot();
+    }
+
+    @GetMapping("/cache")
+    public ScanResponseCache.CacheStats cache() {
+        return responseCache.stats();
+    }
+
+    public record HttpMetrics(
+            Map<String, HttpTransport.HostConnectionStats> connections,
+            Map<String, HostInFlightLimiter.WindowStats> inFlightWindows,
+            SingleFlight.Stats coalescedProbes
+    ) {
+    }
+
+    public record LatencyMetrics(
+            Map<String, Map<String, LatencyHistogram.LatencySummary>> hosts,
+            Map<String, Map<String, LatencyHistogram.LatencySummary>> endpoints
+    ) {
+    }
+}
@@ -1,5 +1,6 @@
 package org.hat.cyberscout.attack;
 
+import java.time.Duration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 @ConfigurationProperties(prefix = "cyberscout.attack")
@@ -8,6 +9,12 @@ public class AttackProperties {
     // Safe-by-default: disabled unless explicitly enabled in a dev profile.
     private boolean enabled = false;
 
+    // Requests each OpenAPI check family may send per run, spent on the highest-priority operations first.
+    private int openApiRequestBudget = 30;
+
+    // A sweep still running after this returns the findings it has so far.
+    private Duration openApiSweepTimeout = Duration.ofSeconds(60);
+
     public boolean isEnabled() {
         return enabled;
     }
@@ -15,5 +22,20 @@ public class AttackProperties {
     public void setEnabled(boolean enabled) {
         this.enabled = enabled;
     }
-}
 
+    public int getOpenApiRequestBudget() {
+        return openApiRequestBudget;
+    }
+
+    public void setOpenApiRequestBudget(int openApiRequestBudget) {
+        this.openApiRequestBudget = openApiRequestBudget;
+    }
+
+    public Duration getOpenApiSweepTimeout() {
+        return openApiSweepTimeout;
+    }
+
+    public void setOpenApiSweepTimeout(Duration openApiSweepTimeout) {
+        this.openApiSweepTimeout = openApiSweepTimeout;
+    }
+}
@@ -1,99 +1,130 @@
 package org.hat.cyberscout.attack.checks;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import org.hat.cyberscout.attack.AttackProperties;
+import org.hat.cyberscout.attack.checks.OperationScheduler.ScoredOperation;
 import org.hat.cyberscout.http.HttpProbeResult;
 import org.hat.cyberscout.http.HttpProber;
+import org.hat.cyberscout.openapi.OpenApiIndex;
 import org.hat.cyberscout.openapi.OpenApiOperation;
-import org.hat.cyberscout.openapi.OpenApiParser;
+import org.hat.cyberscout.policy.AttackExecutionRequest;
+import org.hat.cyberscout.policy.PolicyEnforcer;
+import org.hat.cyberscout.policy.PolicyProperties;
 import org.hat.cyberscout.scan.model.Finding;
 import org.hat.cyberscout.scan.model.Owasp2021;
 import org.hat.cyberscout.scan.model.OwaspStandard;
 import org.hat.cyberscout.scan.model.OwaspTop10_2025;
 import org.hat.cyberscout.scan.model.Severity;
+import org.hat.cyberscout.scan.persist.OpenApiCoverage;
+import org.hat.cyberscout.scan.persist.OpenApiCoverageRepository;
 import org.hat.cyberscout.scan.persist.ScanPersistenceProperties;
+import org.hat.cyberscout.util.UrlUtils;
 import org.springframework.stereotype.Component;
 
 @Component
 public class OpenApiAttackChecks {
 
+    public static final String AUTHZ_SMOKE = "OPENAPI_AUTHZ_SMOKE";
+    public static final String TYPE_VALIDATION = "OPENAPI_TYPE_VALIDATION";
+
     private final HttpProber httpProber;
     private final ScanPersistenceProperties scanProperties;
-
-    public OpenApiAttackChecks(HttpProber httpProber, ScanPersistenceProperties scanProperties) {
+    private final PolicyProperties policyProperties;
+    private final PolicyEnforcer policyEnforcer;
+    private final AttackProperties attackProperties;
+    private final OpenApiCoverageRepository coverageRepository;
+
+    public OpenApiAttackChecks(
+            HttpProber httpProber,
+            ScanPersistenceProperties scanProperties,
+            PolicyProperties policyProperties,
+            PolicyEnforcer policyEnforcer,
+            AttackProperties attackProperties,
+            OpenApiCoverageRepository coverageRepository
+    ) {
         this.httpProber = httpProber;
         this.scanProperties = scanProperties;
+        this.policyProperties = policyProperties;
+        this.policyEnforcer = policyEnforcer;
+        this.attackProperties = attackProperties;
+        this.coverageRepository = coverageRepository;
     }
 
-    public List<Finding> authzSmoke(Long scanRunId, URI baseUri, String baseUrl, JsonNode openApiDoc) {
-        List<Finding> findings = new ArrayList<>();
-        List<OpenApiOperation> ops = OpenApiParser.parseOperations(openApiDoc, 200);
-
-        int tested = 0;
-        for (OpenApiOperation op : ops) {
-            if (!op.secured()) {
-                continue;
-            }
-            // Keep bounded.
-            if (tested >= 10) {
-                break;
-            }
-
+    public List<Finding> authzSmoke(Long scanRunId, URI baseUri, String baseUrl, OpenApiIndex index) {
+        // Keep bounded: one request per operation, highest score first, until the budget is spent.
+        // The requests carry no credentials, so reads go before anything that could change state.
+        List<ScoredOperation> plan = plan(scanRunId, AUTHZ_SMOKE, index.bySecured(true), false);
+        OperationSweep.Result result = sweep(plan, (op, slot) -> {
             String method = op.method();
-            HttpProbeResult res;
-            if (isBodyMethod(method)) {
-                // For auth smoke, body is irrelevant; use {}.
-                res = httpProber.probeJson(scanRunId, baseUri, op.path(), method, "{}");
-            } else {
-                res = httpProber.probe(scanRunId, baseUri, op.path(), method);
+            if (!policyAllows(baseUri, op, method) || !slot.takeRequest()) {
+                return CompletableFuture.completedFuture(null);
             }
-            tested++;
-
-            // Expected: 401/403. Suspicious: 2xx.
-            if (res.statusCode() >= 200 && res.statusCode() < 300) {
-                findings.add(new Finding(
-                        mapAccessControl(),
-                        "A01_OPENAPI_SECURED_ENDPOINT_2XX_WITHOUT_AUTH",
-                        res.url(),
-                        Severity.HIGH,
-                        0.80,
-                        "OpenAPI indicates security but endpoint returned 2xx without auth",
-                        "{\"method\":\"" + method + "\",\"status\":" + res.statusCode() + "}"
-                ));
-            }
-        }
+            CompletableFuture<HttpProbeResult> probe = isBodyMethod(method)
+                    // For auth smoke, body is irrelevant; use {}.
+                    ? httpProber.probeJsonAsync(scanRunId, baseUri, op.samplePath(), method, "{}")
+                    : httpProber.probeAsync(scanRunId, baseUri, op.samplePath(), method);
+            return probe.thenAccept(res -> {
+                slot.answered();
+                // Expected: 401/403. Suspicious: 2xx.
+                if (res.statusCode() >= 200 && res.statusCode() < 300) {
+                    slot.report(new Finding(
+                            mapAccessControl(),
+                            "A01_OPENAPI_SECURED_ENDPOINT_2XX_WITHOUT_AUTH",
+                            res.url(),
+                            Severity.HIGH,
+                            0.80,
+                            "OpenAPI indicates security but endpoint returned 2xx without auth",
+                            "{\"method\":\"" + method + "\",\"status\":" + res.statusCode() + "}"
+                    ));
+                }
+            });
+        });
 
-        return findings;
+        recordCoverage(scanRunId, AUTHZ_SMOKE, plan, result.answered());
+        return result.findings();
     }
 
-    public List<Finding> typeValidation(Long scanRunId, URI baseUri, String baseUrl, JsonNode openApiDoc) {
-        List<Finding> findings = new ArrayList<>();
-        List<OpenApiOperation> ops = OpenApiParser.parseOperations(openApiDoc, 200);
-
-        int tested = 0;
-        for (OpenApiOperation op : ops) {
-            if (!isBodyMethod(op.method())) {
-                continue;
-            }
-            if (op.jsonTypeMismatchBody() == null) {
-                continue;
-            }
-            // If operation is secured, we will likely hit 401/403; skip to avoid noise.
-            if (op.secured()) {
-                continue;
-            }
-            if (tested >= 8) {
-                break;
+    public List<Finding> typeValidation(Long scanRunId, URI baseUri, String baseUrl, OpenApiIndex index) {
+        // If operation is secured, we will likely hit 401/403; skip to avoid noise.
+        List<OpenApiOperation> eligible = new ArrayList<>();
+        for (OpenApiOperation op : index.bySecured(false)) {
+            if (isBodyMethod(op.method()) && op.requestSchema() != null) {
+                eligible.add(op);
             }
+        }
+        List<ScoredOperation> plan = plan(scanRunId, TYPE_VALIDATION, eligible, true);
+        OperationSweep.Result result = sweep(plan, (op, slot) -> policyAllows(baseUri, op, op.method())
+                ? nextMismatch(scanRunId, baseUri, op, op.mismatchCorpus().iterator(), payloadBudget(), false, slot)
+                : CompletableFuture.completedFuture(null));
 
-            HttpProbeResult res = httpProber.probeJson(scanRunId, baseUri, op.path(), op.method(), op.jsonTypeMismatchBody());
-            tested++;
+        recordCoverage(scanRunId, TYPE_VALIDATION, plan, result.answered());
+        return result.findings();
+    }
 
-            if (res.statusCode() >= 500) {
-                findings.add(new Finding(
+    // Bodies are generated only as far as they are sent: at most the policy's payloads per target,
+    // one after the other, stopping at the first 5xx.
+    private CompletableFuture<Void> nextMismatch(
+            Long scanRunId,
+            URI baseUri,
+            OpenApiOperation op,
+            Iterator<String> corpus,
+            int remaining,
+            boolean verboseReported,
+            OperationSweep.Slot slot
+    ) {
+        if (remaining <= 0 || !corpus.hasNext() || !slot.takeRequest()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return httpProber.probeJsonAsync(scanRunId, baseUri, op.samplePath(), op.method(), corpus.next()).thenCompose(res -> {
+            slot.answered();
+            boolean serverError = res.statusCode() >= 500;
+            if (serverError) {
+                slot.report(new Finding(
                         mapMisconfiguration(),
                         "A05_OPENAPI_TYPE_MISMATCH_5XX",
                         res.url(),
@@ -104,12 +135,13 @@ public class OpenApiAttackChecks {
                 ));
             }
 
+            boolean verbose = false;
             String body = res.bodyExcerpt();
-            if (body != null) {
+            if (body != null && !verboseReported) {
                 String b = body.toLowerCase(Locale.ROOT);
-                boolean verbose = b.contains("exception") || b.contains("stacktrace") || b.contains("traceback") || b.contains("org.springframework");
+                verbose = b.contains("exception") || b.contains("stacktrace") || b.contains("traceback") || b.contains("org.springframework");
                 if (verbose) {
-                    findings.add(new Finding(
+                    slot.report(new Finding(
                             mapMisconfiguration(),
                             "A05_OPENAPI_TYPE_MISMATCH_VERBOSE_ERROR",
                             res.url(),
@@ -120,9 +152,62 @@ public class OpenApiAttackChecks {
                     ));
                 }
             }
+            if (serverError) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return nextMismatch(scanRunId, baseUri, op, corpus, remaining - 1, verboseReported || verbose, slot);
+        });
+    }
+
+    // Operations are probed concurrently, as many as the policy lets run against one host, so a wide
+    // budget costs about as much wall-clock time as a narrow sequential one.
+    private OperationSweep.Result sweep(List<ScoredOperation> plan, OperationSweep.OperationCheck check) {
+        return OperationSweep.run(
+                plan,
+                attackProperties.getOpenApiRequestBudget(),
+                policyProperties.getMaxConcurrentAttacks(),
+                attackProperties.getOpenApiSweepTimeout(),
+                check
+        ).join();
+    }
+
+    // Operations whose path template cannot be filled in are left out: there is no URL to probe.
+    private List<ScoredOperation> plan(Long scanRunId, String checkFamily, List<OpenApiOperation> eligible, boolean mutatingFirst) {
+        List<OpenApiOperation> probeable = new ArrayList<>(eligible.size());
+        for (OpenApiOperation op : eligible) {
+            if (op.samplePath() != null) {
+                probeable.add(op);
+            }
+        }
+        if (probeable.isEmpty()) {
+            return List.of();
+        }
+        return OperationScheduler.prioritize(probeable, coverageRepository.testedEarlier(scanRunId, checkFamily), mutatingFirst);
+    }
+
+    private void recordCoverage(Long scanRunId, String checkFamily, List<ScoredOperation> plan, boolean[] answered) {
+        List<OpenApiCoverage> entries = new ArrayList<>(plan.size());
+        for (int i = 0; i < plan.size(); i++) {
+            OpenApiOperation op = plan.get(i).operation();
+            entries.add(new OpenApiCoverage(op.method(), op.path(), plan.get(i).score(), answered[i]));
         }
+        coverageRepository.saveAll(scanRunId, checkFamily, entries);
+    }
+
+    // The prober would refuse the request outright; checked before a request is taken from the budget.
+    private boolean policyAllows(URI baseUri, OpenApiOperation op, String method) {
+        URI target = baseUri.resolve(op.samplePath());
+        return policyEnforcer.evaluate(new AttackExecutionRequest(
+                target.getHost(),
+                UrlUtils.effectivePort(target),
+                method.toUpperCase(Locale.ROOT),
+                target.getPath() == null || target.getPath().isBlank() ? "/" : target.getPath(),
+                1
+        )).allowed();
+    }
 
-        return findings;
+    private int payloadBudget() {
+        return Math.min(policyProperties.getMaxPayloadsPerTarget(), policyProperties.getMaxRequestsPerTarget());
     }
 
     private boolean isBodyMethod(String methodUpper) {
@@ -0,0 +1,91 @@
+package org.hat.cyberscout.attack.checks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import org.hat.cyberscout.openapi.OpenApiOperation;
+
+// Orders OpenAPI operations so a check's request budget goes to the ones most likely to matter first.
+public final class OperationScheduler {
+
+    static final int SECURED = 3;
+    static final int PREFERRED_METHOD = 3;
+    static final int SENSITIVE_TOKEN = 2;
+    static final int MAX_SENSITIVE = 6;
+    static final int MAX_COMPLEXITY = 3;
+    static final int TESTED_EARLIER = -5;
+
+    private static final Set<String> SENSITIVE_TOKENS = Set.of(
+            "admin", "internal", "debug", "config", "setting", "user", "account", "profile", "auth", "login",
+            "token", "password", "secret", "key", "role", "permission", "payment", "billing", "invoice",
+            "order", "export", "import", "upload", "file", "transfer", "wallet"
+    );
+
+    private OperationScheduler() {
+    }
+
+    public record ScoredOperation(OpenApiOperation operation, int score) {
+    }
+
+    public static List<ScoredOperation> prioritize(
+            Collection<OpenApiOperation> operations,
+            Set<String> testedEarlier,
+            boolean mutatingFirst
+    ) {
+        List<ScoredOperation> scored = new ArrayList<>(operations.size());
+        for (OpenApiOperation op : operations) {
+            scored.add(new ScoredOperation(op, score(op, testedEarlier.contains(key(op)), mutatingFirst)));
+        }
+        // List.sort is stable, so equal scores stay in document order.
+        scored.sort(Comparator.comparingInt(ScoredOperation::score).reversed());
+        return scored;
+    }
+
+    public static String key(OpenApiOperation op) {
+        return op.method() + " " + op.path();
+    }
+
+    static int score(OpenApiOperation op, boolean testedEarlier, boolean mutatingFirst) {
+        int score = 0;
+        if (op.secured()) {
+            score += SECURED;
+        }
+        if (isMutating(op.method()) == mutatingFirst) {
+            score += PREFERRED_METHOD;
+        }
+        score += Math.min(MAX_SENSITIVE, SENSITIVE_TOKEN * sensitiveTokens(op.path()));
+        score += Math.min(MAX_COMPLEXITY, complexity(op));
+        if (testedEarlier) {
+            score += TESTED_EARLIER;
+        }
+        return score;
+    }
+
+    private static boolean isMutating(String method) {
+        return switch (method) {
+            case "POST", "PUT", "PATCH", "DELETE" -> true;
+            default -> false;
+        };
+    }
+
+    private static int sensitiveTokens(String path) {
+        int hits = 0;
+        for (String token : path.toLowerCase(Locale.ROOT).split("[^a-z0-9]+")) {
+            // Plurals count: /users, /orders.
+            String singular = token.length() > 3 && token.endsWith("s") ? token.substring(0, token.length() - 1) : token;
+            if (SENSITIVE_TOKENS.contains(token) || SENSITIVE_TOKENS.contains(singular)) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    // One point per three body properties. Path variables add nothing: the probes fill them with a sample
+    // value, which rarely names a resource that exists.
+    private static int complexity(OpenApiOperation op) {
+        return op.requestSchema() == null ? 0 : op.requestSchema().properties().size() / 3;
+    }
+}
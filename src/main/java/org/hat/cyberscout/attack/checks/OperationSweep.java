@@ -0,0 +1,144 @@
+package org.hat.cyberscout.attack.checks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import org.hat.cyberscout.attack.checks.OperationScheduler.ScoredOperation;
+import org.hat.cyberscout.openapi.OpenApiOperation;
+import org.hat.cyberscout.scan.model.Finding;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Runs one check over a ranked plan with up to parallelism operations in flight, started in plan order.
+final class OperationSweep {
+
+    private static final Logger log = LoggerFactory.getLogger(OperationSweep.class);
+
+    // Probes one operation; every request must be taken from slot first, once it has been built and
+    // passed the policy. A check that throws is taken to have sent nothing.
+    interface OperationCheck {
+        CompletableFuture<Void> check(OpenApiOperation op, Slot slot);
+    }
+
+    record Result(List<Finding> findings, boolean[] answered, boolean timedOut) {
+    }
+
+    private final List<ScoredOperation> plan;
+    private final int parallelism;
+    private final long deadlineNanos;
+    private final OperationCheck check;
+    private final boolean[] answered;
+    private final Queue<Finding> findings = new ConcurrentLinkedQueue<>();
+    private final CompletableFuture<Result> done = new CompletableFuture<>();
+
+    private int budget;
+    private int next;
+    private int inFlight;
+
+    private OperationSweep(List<ScoredOperation> plan, int budget, int parallelism, Duration timeout, OperationCheck check) {
+        this.plan = plan;
+        this.budget = budget;
+        this.parallelism = Math.max(1, parallelism);
+        this.deadlineNanos = System.nanoTime() + timeout.toNanos();
+        this.check = check;
+        this.answered = new boolean[plan.size()];
+    }
+
+    static CompletableFuture<Result> run(List<ScoredOperation> plan, int budget, int parallelism, Duration timeout, OperationCheck check) {
+        OperationSweep sweep = new OperationSweep(plan, budget, parallelism, timeout, check);
+        CompletableFuture.delayedExecutor(timeout.toNanos(), TimeUnit.NANOSECONDS).execute(() -> sweep.finish(true));
+        sweep.pump();
+        return sweep.done;
+    }
+
+    final class Slot {
+
+        private final int index;
+        private int taken;
+
+        private Slot(int index) {
+            this.index = index;
+        }
+
+        // False once the budget is spent or the sweep is over; the check then stops probing.
+        boolean takeRequest() {
+            synchronized (OperationSweep.this) {
+                if (done.isDone() || budget <= 0 || System.nanoTime() - deadlineNanos >= 0) {
+                    return false;
+                }
+                budget--;
+                taken++;
+                return true;
+            }
+        }
+
+        private void refund() {
+            synchronized (OperationSweep.this) {
+                budget += taken;
+                taken = 0;
+            }
+        }
+
+        void answered() {
+            synchronized (OperationSweep.this) {
+                answered[index] = true;
+            }
+        }
+
+        void report(Finding finding) {
+            findings.add(finding);
+        }
+    }
+
+    private synchronized void pump() {
+        while (inFlight < parallelism && next < plan.size() && budget > 0
+                && !done.isDone() && System.nanoTime() - deadlineNanos < 0) {
+            int index = next++;
+            inFlight++;
+            Slot slot = new Slot(index);
+            CompletableFuture<Void> checked;
+            try {
+                checked = check.check(plan.get(index).operation(), slot);
+            } catch (RuntimeException e) {
+                slot.refund();
+                checked = CompletableFuture.failedFuture(e);
+            }
+            if (checked.isDone()) {
+                // Answered from cache or skipped; settled here rather than recursing through pump().
+                inFlight--;
+                checked.whenComplete((ignored, error) -> logFailure(index, error));
+            } else {
+                checked.whenComplete((ignored, error) -> onChecked(index, error));
+            }
+        }
+        if (inFlight == 0) {
+            finish(false);
+        }
+    }
+
+    private synchronized void onChecked(int index, Throwable error) {
+        inFlight--;
+        logFailure(index, error);
+        pump();
+    }
+
+    private void logFailure(int index, Throwable error) {
+        if (error != null) {
+            log.debug("Check of {} failed: {}", OperationScheduler.key(plan.get(index).operation()), error.toString());
+        }
+    }
+
+    private synchronized void finish(boolean timedOut) {
+        if (done.isDone()) {
+            return;
+        }
+        if (timedOut) {
+            log.info("OpenAPI sweep hit its deadline with {} operations in flight and {} not started", inFlight, plan.size() - next);
+        }
+        done.complete(new Result(new ArrayList<>(findings), answered.clone(), timedOut));
+    }
+}
@@ -147,6 +147,7 @@ public class ExecuteAttackDelegate implements JavaDelegate {
         }
 
         execution.setVariable("responseStatus", result.statusCode());
+        execution.setVariable("probeOutcome", result.outcome().name());
         execution.setVariable("responseBody", result.bodyExcerpt());
     }
 
@@ -2,6 +2,11 @@ package org.hat.cyberscout.camunda;
 
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
+import org.hat.cyberscout.http.ScanResponseCache;
+import org.hat.cyberscout.openapi.OpenApiIndexCache;
+import org.hat.cyberscout.recon.Soft404Baselines;
+import org.hat.cyberscout.scan.persist.EndpointInventoryRepository;
+import org.hat.cyberscout.scan.persist.ObservationSink;
 import org.hat.cyberscout.scan.persist.ScanRunRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,17 +18,41 @@ public class FinishScanRunDelegate implements JavaDelegate {
     private static final Logger log = LoggerFactory.getLogger(FinishScanRunDelegate.class);
 
     private final ScanRunRepository scanRunRepository;
+    private final ObservationSink observationSink;
+    private final ScanResponseCache responseCache;
+    private final EndpointInventoryRepository inventoryRepository;
+    private final Soft404Baselines soft404Baselines;
+    private final OpenApiIndexCache openApiIndexCache;
 
-    public FinishScanRunDelegate(ScanRunRepository scanRunRepository) {
+    public FinishScanRunDelegate(
+            ScanRunRepository scanRunRepository,
+            ObservationSink observationSink,
+            ScanResponseCache responseCache,
+            EndpointInventoryRepository inventoryRepository,
+            Soft404Baselines soft404Baselines,
+            OpenApiIndexCache openApiIndexCache
+    ) {
         this.scanRunRepository = scanRunRepository;
+        this.observationSink = observationSink;
+        this.responseCache = responseCache;
+        this.inventoryRepository = inventoryRepository;
+        this.soft404Baselines = soft404Baselines;
+        this.openApiIndexCache = openApiIndexCache;
     }
 
     @Override
     public void execute(DelegateExecution execution) {
         Long scanRunId = asLong(execution.getVariable("scanRunId"));
+        responseCache.evictScan(scanRunId);
+        soft404Baselines.evictScan(scanRunId);
+        openApiIndexCache.evictScan(scanRunId);
+        inventoryRepository.release(asLong(execution.getVariable("inventoryId")));
+        inventoryRepository.release(asLong(execution.getVariable("attackInventoryId")));
         if (scanRunId == null || !scanRunRepository.isEnabled()) {
             return;
         }
+        // Observations are written behind the probes; make sure this run's are stored before it is marked finished.
+        observationSink.flush();
         scanRunRepository.finishRun(scanRunId, "FINISHED");
         log.info("Finished scan run {}", scanRunId);
     }
@@ -1,9 +1,15 @@
 package org.hat.cyberscout.camunda;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
 import org.camunda.bpm.engine.delegate.BpmnError;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
 import org.hat.cyberscout.ai.AiPayloadGenerator;
+import org.hat.cyberscout.openapi.MismatchCorpus;
+import org.hat.cyberscout.openapi.OpenApiIndexCache;
+import org.hat.cyberscout.openapi.OpenApiOperation;
 import org.hat.cyberscout.policy.PolicyProperties;
 import org.springframework.stereotype.Component;
 
@@ -12,10 +18,16 @@ public class GenerateCustomPayloadDelegate implements JavaDelegate {
 
     private final PolicyProperties policyProperties;
     private final AiPayloadGenerator payloadGenerator;
+    private final OpenApiIndexCache openApiIndexCache;
 
-    public GenerateCustomPayloadDelegate(PolicyProperties policyProperties, AiPayloadGenerator payloadGenerator) {
+    public GenerateCustomPayloadDelegate(
+            PolicyProperties policyProperties,
+            AiPayloadGenerator payloadGenerator,
+            OpenApiIndexCache openApiIndexCache
+    ) {
         this.policyProperties = policyProperties;
         this.payloadGenerator = payloadGenerator;
+        this.openApiIndexCache = openApiIndexCache;
     }
 
     @Override
@@ -38,9 +50,52 @@ public class GenerateCustomPayloadDelegate implements JavaDelegate {
             throw new BpmnError("INVALID_LLM_FORMAT", e.getMessage());
         }
 
+        List<String> payloads = withSchemaPayloads(asLong(execution.getVariable("scanRunId")), path,
+                (String) execution.getVariable("targetTemplate"), method, generated.payloads(), payloadLimit);
+
         execution.setVariable("strategyUsed", strategy);
-        execution.setVariable("payloads", generated.payloads());
-        execution.setVariable("payloadCount", generated.payloads().size());
+        execution.setVariable("payloads", payloads);
+        execution.setVariable("payloadCount", payloads.size());
         execution.setVariable("payloadSource", generated.source());
     }
+
+    // When the scan's OpenAPI index describes the target's request body, bodies from its mismatch corpus go
+    // first; they are the payloads most likely to reach validation code. A clustered target is looked up by
+    // its template, since the OpenAPI document names /users/{id} rather than /users/42.
+    private List<String> withSchemaPayloads(
+            Long scanRunId,
+            String path,
+            String template,
+            String method,
+            List<String> payloads,
+            int limit
+    ) {
+        MismatchCorpus corpus = openApiIndexCache.forScan(scanRunId)
+                .flatMap(index -> (template == null ? Optional.<OpenApiOperation>empty() : index.find(template, method))
+                        .or(() -> index.find(path, method)))
+                .map(OpenApiOperation::mismatchCorpus)
+                .orElse(null);
+        if (corpus == null || limit <= 0) {
+            return payloads;
+        }
+        // One slot is left to the generator when there is room for both; with a single slot the corpus wins.
+        int schemaSlots = payloads.isEmpty() ? limit : Math.max(1, limit - 1);
+        List<String> out = new ArrayList<>(corpus.take(schemaSlots));
+        for (String payload : payloads) {
+            if (out.size() >= limit) {
+                break;
+            }
+            if (!out.contains(payload)) {
+                out.add(payload);
+            }
+        }
+        return out.isEmpty() ? payloads : out;
+    }
+
+    private Long asLong(Object value) {
+        if (value instanceof Long longValue) return longValue;
+        if (value instanceof Integer intValue) return intValue.longValue();
+        if (value instanceof String stringValue) return Long.parseLong(stringValue);
+        return null;
+    }
 }
@@ -5,9 +5,14 @@ import java.util.List;
 import java.util.Map;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
-import org.hat.cyberscout.recon.EndpointCandidate;
+import org.hat.cyberscout.recon.EndpointInventory;
+import org.hat.cyberscout.recon.PathClusterer;
+import org.hat.cyberscout.recon.ReconProperties;
 import org.hat.cyberscout.recon.ReconResult;
+import org.hat.cyberscout.recon.ReconStep;
 import org.hat.cyberscout.recon.UrlReconService;
+import org.hat.cyberscout.scan.IncrementalScan;
+import org.hat.cyberscout.scan.persist.EndpointInventoryRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -18,9 +23,20 @@ public class IdentifyAttackSurfaceDelegate implements JavaDelegate {
     private static final Logger log = LoggerFactory.getLogger(IdentifyAttackSurfaceDelegate.class);
 
     private final UrlReconService urlReconService;
+    private final EndpointInventoryRepository inventoryRepository;
+    private final IncrementalScan incrementalScan;
+    private final ReconProperties reconProperties;
 
-    public IdentifyAttackSurfaceDelegate(UrlReconService urlReconService) {
+    public IdentifyAttackSurfaceDelegate(
+            UrlReconService urlReconService,
+            EndpointInventoryRepository inventoryRepository,
+            IncrementalScan incrementalScan,
+            ReconProperties reconProperties
+    ) {
         this.urlReconService = urlReconService;
+        this.inventoryRepository = inventoryRepository;
+        this.incrementalScan = incrementalScan;
+        this.reconProperties = reconProperties;
     }
 
     @Override
@@ -31,7 +47,8 @@ public class IdentifyAttackSurfaceDelegate implements JavaDelegate {
             baseUrl = "http://localhost:8080";
         }
 
-        ReconResult recon = urlReconService.recon(baseUrl);
+        Long scanRunId = asLong(execution.getVariable("scanRunId"));
+        ReconResult recon = urlReconService.recon(scanRunId, baseUrl);
         execution.setVariable("baseUrl", recon.baseUri().toString());
 
         // Fingerprint goes to process variables for traceability in Cockpit.
@@ -44,9 +61,16 @@ public class IdentifyAttackSurfaceDelegate implements JavaDelegate {
         fp.put("hasXContentTypeOptions", recon.fingerprint().hasXContentTypeOptions());
         execution.setVariable("fingerprint", fp);
 
-        List<Map<String, Object>> targetList = recon.endpoints().stream()
-                .map(this::toTarget)
+        // Per-step timing, to see which recon step dominates on slow targets.
+        List<Map<String, Object>> steps = recon.steps().stream()
+                .map(this::toStep)
                 .toList();
+        execution.setVariable("reconSteps", steps);
+        execution.setVariable("reconDurationMs", recon.durationMs());
+        execution.setVariable("reconPartial", recon.partial());
+        if (recon.partial()) {
+            log.warn("Recon of {} hit its deadline after {} ms; continuing with partial results {}", baseUrl, recon.durationMs(), steps);
+        }
 
         boolean hasOpenApi = recon.endpoints().stream().anyMatch(e -> "OPENAPI".equalsIgnoreCase(e.techHint()));
         boolean hasActuator = recon.endpoints().stream().anyMatch(e -> e.path() != null && e.path().startsWith("/actuator"));
@@ -59,20 +83,44 @@ public class IdentifyAttackSurfaceDelegate implements JavaDelegate {
         execution.setVariable("hasH2Console", hasH2Console);
         execution.setVariable("apiLikely", apiLikely);
 
-        execution.setVariable("targetList", targetList);
-        execution.setVariable("targetCount", targetList.size());
+        // The endpoints themselves stay out of the engine's variable tables; the subprocess reads
+        // target (targetOffset + loopCounter) from the inventory.
+        EndpointInventory inventory = PathClusterer.cluster(recon.endpoints(), reconProperties.getPathClusterRepresentatives());
+        long inventoryId = inventoryRepository.save(scanRunId, recon.baseUri(), inventory);
+        int targetCount = Math.min(inventory.targetCount(), reconProperties.getMaxAttackTargets());
+        execution.setVariable("inventoryId", inventoryId);
+        execution.setVariable("endpointCount", inventory.targetCount());
+        execution.setVariable("targetOffset", 0);
+        if (scanRunId != null && Boolean.TRUE.equals(execution.getVariable("incremental"))) {
+            // Recon checks still see the whole inventory; the subprocess only gets new or changed targets.
+            IncrementalScan.Plan plan = incrementalScan.plan(
+                    scanRunId, asLong(execution.getVariable("previousScanRunId")), recon.baseUri(), inventory,
+                    reconProperties.getMaxAttackTargets());
+            execution.setVariable("attackInventoryId", inventoryRepository.save(scanRunId, recon.baseUri(), plan.targets()));
+            execution.setVariable("unchangedPathCount", plan.unchangedPaths());
+            execution.setVariable("carriedFindingCount", plan.carriedFindings());
+            targetCount = Math.min(plan.targets().targetCount(), reconProperties.getMaxAttackTargets());
+        }
+        execution.setVariable("targetCount", targetCount);
         if (execution.getVariable("campaignId") == null) {
             execution.setVariable("campaignId", 1L);
         }
-        log.info("Identified {} targets for audit", targetList.size());
+        log.info("Identified {} endpoints ({} paths standing for {} discovered), {} targets for audit",
+                inventory.targetCount(), inventory.pathCount(), inventory.representedPathCount(), targetCount);
     }
 
-    private Map<String, Object> toTarget(EndpointCandidate endpoint) {
-        Map<String, Object> target = new HashMap<>();
-        target.put("path", endpoint.path());
-        target.put("tech", endpoint.techHint());
-        target.put("method", endpoint.method());
-        return target;
+    private Map<String, Object> toStep(ReconStep step) {
+        Map<String, Object> out = new HashMap<>();
+        out.put("name", step.name());
+        out.put("status", step.status().name());
+        out.put("elapsedMs", step.elapsedMs());
+        return out;
     }
 
+    private Long asLong(Object value) {
+        if (value instanceof Long longValue) return longValue;
+        if (value instanceof Integer intValue) return intValue.longValue();
+        if (value instanceof String stringValue) return Long.parseLong(stringValue);
+        return null;
+    }
 }
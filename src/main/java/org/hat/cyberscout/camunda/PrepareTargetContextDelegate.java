@@ -3,22 +3,56 @@ package org.hat.cyberscout.camunda;
 import java.util.Map;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
+import org.hat.cyberscout.recon.EndpointCandidate;
+import org.hat.cyberscout.recon.EndpointInventory;
+import org.hat.cyberscout.scan.persist.EndpointInventoryRepository;
 import org.springframework.stereotype.Component;
 
 @Component("prepareTargetContextDelegate")
 public class PrepareTargetContextDelegate implements JavaDelegate {
 
+    private final EndpointInventoryRepository inventoryRepository;
+
+    public PrepareTargetContextDelegate(EndpointInventoryRepository inventoryRepository) {
+        this.inventoryRepository = inventoryRepository;
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public void execute(DelegateExecution execution) {
-        Map<String, Object> target = (Map<String, Object>) execution.getVariable("target");
+        // Instances started before the endpoint inventory still carry their target as a map.
+        if (execution.getVariable("target") instanceof Map<?, ?> legacy) {
+            Map<String, Object> target = (Map<String, Object>) legacy;
+            execution.setVariable("targetPath", target.getOrDefault("path", "/api/unknown"));
+            execution.setVariable("tech", target.getOrDefault("tech", "UNKNOWN"));
+            execution.setVariable("httpMethod", target.getOrDefault("method", "GET"));
+            return;
+        }
+
+        // Incremental runs attack a separate inventory holding only new or changed targets.
+        Object attackInventoryId = execution.getVariable("attackInventoryId");
+        long inventoryId = asLong(attackInventoryId != null ? attackInventoryId : execution.getVariable("inventoryId"));
+        int index = asInt(execution.getVariable("targetOffset")) + asInt(execution.getVariable("loopCounter"));
+        EndpointInventory inventory = inventoryRepository.find(inventoryId)
+                .orElseThrow(() -> new IllegalStateException("Endpoint inventory " + inventoryId + " is not available"));
+        EndpointCandidate target = inventory.target(index);
 
-        String path = (String) target.getOrDefault("path", "/api/unknown");
-        String tech = (String) target.getOrDefault("tech", "UNKNOWN");
-        String method = (String) target.getOrDefault("method", "GET");
+        execution.setVariable("targetPath", target.path());
+        // The cluster template the path stands for (e.g. the OpenAPI path), or null.
+        execution.setVariable("targetTemplate", inventory.template(inventory.pathIndex(index)));
+        execution.setVariable("tech", target.techHint() == null ? "UNKNOWN" : target.techHint());
+        execution.setVariable("httpMethod", target.method());
+    }
+
+    private long asLong(Object value) {
+        if (value instanceof Number number) return number.longValue();
+        if (value instanceof String stringValue) return Long.parseLong(stringValue);
+        throw new IllegalStateException("inventoryId is missing");
+    }
 
-        execution.setVariable("targetPath", path);
-        execution.setVariable("tech", tech);
-        execution.setVariable("httpMethod", method);
+    private int asInt(Object value) {
+        if (value instanceof Number number) return number.intValue();
+        if (value instanceof String stringValue) return Integer.parseInt(stringValue);
+        return 0;
     }
 }
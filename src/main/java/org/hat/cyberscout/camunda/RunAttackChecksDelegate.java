@@ -1,6 +1,5 @@
 package org.hat.cyberscout.camunda;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import java.net.URI;
 import java.util.List;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
@@ -8,6 +7,8 @@ import org.camunda.bpm.engine.delegate.JavaDelegate;
 import org.hat.cyberscout.attack.AttackProperties;
 import org.hat.cyberscout.attack.checks.OpenApiAttackChecks;
 import org.hat.cyberscout.openapi.OpenApiDocumentService;
+import org.hat.cyberscout.openapi.OpenApiIndex;
+import org.hat.cyberscout.recon.ReconProperties;
 import org.hat.cyberscout.scan.model.Finding;
 import org.hat.cyberscout.scan.persist.ScanRunRepository;
 import org.hat.cyberscout.util.UrlUtils;
@@ -24,17 +25,20 @@ public class RunAttackChecksDelegate implements JavaDelegate {
     private final OpenApiDocumentService openApiDocumentService;
     private final OpenApiAttackChecks openApiAttackChecks;
     private final ScanRunRepository scanRunRepository;
+    private final ReconProperties reconProperties;
 
     public RunAttackChecksDelegate(
             AttackProperties attackProperties,
             OpenApiDocumentService openApiDocumentService,
             OpenApiAttackChecks openApiAttackChecks,
-            ScanRunRepository scanRunRepository
+            ScanRunRepository scanRunRepository,
+            ReconProperties reconProperties
     ) {
         this.attackProperties = attackProperties;
         this.openApiDocumentService = openApiDocumentService;
         this.openApiAttackChecks = openApiAttackChecks;
         this.scanRunRepository = scanRunRepository;
+        this.reconProperties = reconProperties;
     }
 
     @Override
@@ -53,27 +57,30 @@ public class RunAttackChecksDelegate implements JavaDelegate {
         URI baseUri = UrlUtils.parseBaseUrl(baseUrl);
 
         List<String> enabledFamilies = (List<String>) execution.getVariable("enabledCheckFamilies");
-        boolean doAuthz = enabledFamilies != null && enabledFamilies.contains("OPENAPI_AUTHZ_SMOKE");
-        boolean doTypeVal = enabledFamilies != null && enabledFamilies.contains("OPENAPI_TYPE_VALIDATION");
+        boolean doAuthz = enabledFamilies != null && enabledFamilies.contains(OpenApiAttackChecks.AUTHZ_SMOKE);
+        boolean doTypeVal = enabledFamilies != null && enabledFamilies.contains(OpenApiAttackChecks.TYPE_VALIDATION);
 
         if (!doAuthz && !doTypeVal) {
             execution.setVariable("attackFindingCount", 0);
             return;
         }
 
-        JsonNode openApiDoc = openApiDocumentService.fetchOpenApi(scanRunId, baseUri).orElse(null);
-        if (openApiDoc == null) {
+        // Recon normally compiled the document already; the index is only downloaded when it did not.
+        OpenApiIndex index = openApiDocumentService
+                .index(scanRunId, baseUri, reconProperties.getOpenApiMaxOperations())
+                .orElse(null);
+        if (index == null) {
             execution.setVariable("attackFindingCount", 0);
             return;
         }
 
         int total = 0;
         if (doAuthz) {
-            List<Finding> findings = openApiAttackChecks.authzSmoke(scanRunId, baseUri, baseUrl, openApiDoc);
+            List<Finding> findings = openApiAttackChecks.authzSmoke(scanRunId, baseUri, baseUrl, index);
             total += persist(scanRunId, findings);
         }
         if (doTypeVal) {
-            List<Finding> findings = openApiAttackChecks.typeValidation(scanRunId, baseUri, baseUrl, openApiDoc);
+            List<Finding> findings = openApiAttackChecks.typeValidation(scanRunId, baseUri, baseUrl, index);
             total += persist(scanRunId, findings);
         }
 
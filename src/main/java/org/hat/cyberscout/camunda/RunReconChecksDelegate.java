@@ -8,9 +8,11 @@ import java.util.Map;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
 import org.hat.cyberscout.recon.EndpointCandidate;
+import org.hat.cyberscout.recon.EndpointInventory;
 import org.hat.cyberscout.recon.TechFingerprint;
 import org.hat.cyberscout.scan.ReconChecks;
 import org.hat.cyberscout.scan.model.Finding;
+import org.hat.cyberscout.scan.persist.EndpointInventoryRepository;
 import org.hat.cyberscout.scan.persist.ScanRunRepository;
 import org.hat.cyberscout.util.UrlUtils;
 import org.slf4j.Logger;
@@ -24,10 +26,16 @@ public class RunReconChecksDelegate implements JavaDelegate {
 
     private final ReconChecks reconChecks;
     private final ScanRunRepository scanRunRepository;
+    private final EndpointInventoryRepository inventoryRepository;
 
-    public RunReconChecksDelegate(ReconChecks reconChecks, ScanRunRepository scanRunRepository) {
+    public RunReconChecksDelegate(
+            ReconChecks reconChecks,
+            ScanRunRepository scanRunRepository,
+            EndpointInventoryRepository inventoryRepository
+    ) {
         this.reconChecks = reconChecks;
         this.scanRunRepository = scanRunRepository;
+        this.inventoryRepository = inventoryRepository;
     }
 
     @Override
@@ -56,9 +64,15 @@ public class RunReconChecksDelegate implements JavaDelegate {
                 Map.of()
         );
 
+        Long inventoryId = asLong(execution.getVariable("inventoryId"));
         List<Map<String, Object>> targetList = (List<Map<String, Object>>) execution.getVariable("targetList");
         List<EndpointCandidate> endpoints = new ArrayList<>();
-        if (targetList != null) {
+        if (inventoryId != null) {
+            endpoints = inventoryRepository.find(inventoryId)
+                    .map(EndpointInventory::targets)
+                    .orElseThrow(() -> new IllegalStateException("Endpoint inventory " + inventoryId + " is not available"));
+        } else if (targetList != null) {
+            // Instances started before the endpoint inventory.
             for (Map<String, Object> t : targetList) {
                 endpoints.add(new EndpointCandidate(
                         (String) t.get("path"),
@@ -0,0 +1,69 @@
+package org.hat.cyberscout.http;
+
+import java.nio.charset.StandardCharsets;
+
+// Response body captured up to a byte limit.
+public record BoundedBody(byte[] bytes, boolean truncated) {
+
+    public static final BoundedBody EMPTY = new BoundedBody(new byte[0], false);
+
+    public boolean isEmpty() {
+        return bytes == null || bytes.length == 0;
+    }
+
+    public int length() {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    // Decodes the captured bytes as UTF-8.
+    public String utf8() {
+        if (isEmpty()) {
+            return "";
+        }
+        int end = truncated ? completeUtf8Length(bytes, bytes.length) : bytes.length;
+        return new String(bytes, 0, end, StandardCharsets.UTF_8);
+    }
+
+    public String excerpt(int maxChars) {
+        if (isEmpty()) {
+            return null;
+        }
+        String s = utf8();
+        if (s.length() <= maxChars) {
+            return s;
+        }
+        int end = maxChars;
+        // Never split a surrogate pair.
+        if (end > 0 && Character.isHighSurrogate(s.charAt(end - 1))) {
+            end--;
+        }
+        return s.substring(0, end);
+    }
+
+    static int completeUtf8Length(byte[] bytes, int length) {
+        // Walk back over at most 3 continuation bytes to the lead byte of the last sequence.
+        int i = length - 1;
+        int continuation = 0;
+        while (i >= 0 && continuation < 3 && (bytes[i] & 0xC0) == 0x80) {
+            i--;
+            continuation++;
+        }
+        if (i < 0) {
+            return length;
+        }
+        int lead = bytes[i] & 0xFF;
+        int expected;
+        if (lead < 0x80) {
+            expected = 1;
+        } else if ((lead & 0xE0) == 0xC0) {
+            expected = 2;
+        } else if ((lead & 0xF0) == 0xE0) {
+            expected = 3;
+        } else if ((lead & 0xF8) == 0xF0) {
+            expected = 4;
+        } else {
+            return length; // invalid lead byte; let the decoder substitute it
+        }
+        return continuation + 1 >= expected ? length : i;
+    }
+}
@@ -0,0 +1,116 @@
+package org.hat.cyberscout.http;
+
+import java.io.ByteArrayOutputStream;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
+
+// Body handler that stops consuming the response once maxBytes have been captured and cancels the rest of the
+// stream, so a multi-MB response costs at most maxBytes of heap.
+public final class BoundedBodyHandler implements HttpResponse.BodyHandler<BoundedBody> {
+
+    // Sees each captured chunk of a body as it arrives, e.g. to parse a page while the rest is in transit.
+    @FunctionalInterface
+    public interface BodyTap {
+
+        void chunk(byte[] bytes, int offset, int length);
+    }
+
+    private final int maxBytes;
+    private final ProbeClock clock;
+    private final Function<HttpResponse.ResponseInfo, BodyTap> taps;
+
+    private BoundedBodyHandler(int maxBytes, ProbeClock clock, Function<HttpResponse.ResponseInfo, BodyTap> taps) {
+        this.maxBytes = Math.max(0, maxBytes);
+        this.clock = clock;
+        this.taps = taps;
+    }
+
+    public static BoundedBodyHandler of(int maxBytes) {
+        return new BoundedBodyHandler(maxBytes, null, null);
+    }
+
+    // taps picks the tap for a response from its status and headers; it returns null to skip the body.
+    public static BoundedBodyHandler of(int maxBytes, Function<HttpResponse.ResponseInfo, BodyTap> taps) {
+        return new BoundedBodyHandler(maxBytes, null, taps);
+    }
+
+    static BoundedBodyHandler of(int maxBytes, ProbeClock clock) {
+        return new BoundedBodyHandler(maxBytes, clock, null);
+    }
+
+    @Override
+    public HttpResponse.BodySubscriber<BoundedBody> apply(HttpResponse.ResponseInfo responseInfo) {
+        // Called by the client as soon as the status line and headers are parsed.
+        if (clock != null) {
+            clock.headersReceived();
+        }
+        return new BoundedBodySubscriber(maxBytes, taps == null ? null : taps.apply(responseInfo));
+    }
+
+    static final class BoundedBodySubscriber implements HttpResponse.BodySubscriber<BoundedBody> {
+
+        private final int maxBytes;
+        private final BodyTap tap;
+        private final ByteArrayOutputStream buffer;
+        private final CompletableFuture<BoundedBody> result = new CompletableFuture<>();
+        private Flow.Subscription subscription;
+
+        BoundedBodySubscriber(int maxBytes, BodyTap tap) {
+            this.maxBytes = maxBytes;
+            this.tap = tap;
+            this.buffer = new ByteArrayOutputStream(Math.min(maxBytes, 8192));
+        }
+
+        @Override
+        public CompletionStage<BoundedBody> getBody() {
+            return result;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> items) {
+            if (result.isDone()) {
+                return;
+            }
+            for (ByteBuffer item : items) {
+                int room = maxBytes - buffer.size();
+                int take = Math.min(room, item.remaining());
+                if (take > 0) {
+                    byte[] chunk = new byte[take];
+                    item.get(chunk);
+                    buffer.writeBytes(chunk);
+                    if (tap != null) {
+                        tap.chunk(chunk, 0, take);
+                    }
+                }
+                if (item.hasRemaining()) {
+                    // Limit reached: keep what we have and stop the transfer.
+                    result.complete(new BoundedBody(buffer.toByteArray(), true));
+                    subscription.cancel();
+                    return;
+                }
+            }
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            result.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            result.complete(new BoundedBody(buffer.toByteArray(), false));
+        }
+    }
+}
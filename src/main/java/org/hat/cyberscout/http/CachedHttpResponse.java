@@ -0,0 +1,34 @@
+package org.hat.cyberscout.http;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Optional;
+import javax.net.ssl.SSLSession;
+
+// A response served from ScanResponseCache without (or after a 304 from) the network.
+record CachedHttpResponse(
+        int statusCode,
+        HttpRequest request,
+        HttpHeaders headers,
+        BoundedBody body,
+        HttpClient.Version version
+) implements HttpResponse<BoundedBody> {
+
+    @Override
+    public Optional<HttpResponse<BoundedBody>> previousResponse() {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<SSLSession> sslSession() {
+        return Optional.empty();
+    }
+
+    @Override
+    public URI uri() {
+        return request.uri();
+    }
+}
@@ -0,0 +1,45 @@
+package org.hat.cyberscout.http;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Reports end of input after limit bytes, so a streamed body is never read past it.
+public final class CappedInputStream extends FilterInputStream {
+
+    private long remaining;
+
+    public CappedInputStream(InputStream in, long limit) {
+        super(in);
+        this.remaining = Math.max(0, limit);
+    }
+
+    // Whether reads stopped at the limit.
+    public boolean limitReached() {
+        return remaining <= 0;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (remaining <= 0) {
+            return -1;
+        }
+        int b = super.read();
+        if (b >= 0) {
+            remaining--;
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int off, int len) throws IOException {
+        if (remaining <= 0) {
+            return -1;
+        }
+        int n = super.read(buffer, off, (int) Math.min(len, remaining));
+        if (n > 0) {
+            remaining -= n;
+        }
+        return n;
+    }
+}
@@ -0,0 +1,172 @@
+package org.hat.cyberscout.http;
+
+import java.net.ConnectException;
+import java.net.http.HttpTimeoutException;
+import java.nio.channels.UnresolvedAddressException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Component;
+
+// Circuit breaker per target host (host:port).
+@Component
+public class HostCircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final HttpTransportProperties properties;
+    private final Map<String, Circuit> circuits = new ConcurrentHashMap<>();
+
+    public HostCircuitBreaker(HttpTransportProperties properties) {
+        this.properties = properties;
+    }
+
+    // Whether a probe may be sent now.
+    public boolean tryAcquire(String hostKey) {
+        if (!properties.isCircuitBreakerEnabled()) {
+            return true;
+        }
+        return circuit(hostKey).tryAcquire(System.nanoTime());
+    }
+
+    // Cheap check before a probe queues for the rate limiter and in-flight window; does not take a half-open
+    // trial.
+    public boolean isOpen(String hostKey) {
+        if (!properties.isCircuitBreakerEnabled()) {
+            return false;
+        }
+        Circuit circuit = circuits.get(hostKey);
+        return circuit != null && circuit.isOpen(System.nanoTime());
+    }
+
+    public void onResponse(String hostKey) {
+        if (properties.isCircuitBreakerEnabled()) {
+            circuit(hostKey).completed(false, false);
+        }
+    }
+
+    public void onFailure(String hostKey, Throwable error) {
+        if (properties.isCircuitBreakerEnabled()) {
+            circuit(hostKey).completed(true, isConnectivityFailure(error));
+        }
+    }
+
+    // A slot granted by tryAcquire that was never used: gives back a half-open trial, records nothing.
+    public void onAbandoned(String hostKey) {
+        if (properties.isCircuitBreakerEnabled()) {
+            circuit(hostKey).abandoned();
+        }
+    }
+
+    public Map<String, CircuitStats> snapshot() {
+        Map<String, CircuitStats> out = new TreeMap<>();
+        long now = System.nanoTime();
+        circuits.forEach((host, circuit) -> out.put(host, circuit.stats(now)));
+        return out;
+    }
+
+    static boolean isConnectivityFailure(Throwable error) {
+        Throwable t = error;
+        while (t instanceof CompletionException && t.getCause() != null) {
+            t = t.getCause();
+        }
+        // HttpConnectTimeoutException is an HttpTimeoutException.
+        return t instanceof HttpTimeoutException
+                || t instanceof ConnectException
+                || t instanceof UnresolvedAddressException
+                || t != null && t.getCause() instanceof ConnectException;
+    }
+
+    private Circuit circuit(String hostKey) {
+        return circuits.computeIfAbsent(hostKey, k -> new Circuit(properties));
+    }
+
+    public record CircuitStats(
+            State state,
+            int consecutiveFailures,
+            long opened,
+            long shortCircuited,
+            long openForMs
+    ) {
+    }
+
+    private static final class Circuit {
+
+        private final HttpTransportProperties properties;
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private int trialsInFlight;
+        private long openedAt;
+        private long opened;
+        private long shortCircuited;
+
+        Circuit(HttpTransportProperties properties) {
+            this.properties = properties;
+        }
+
+        synchronized boolean isOpen(long now) {
+            if (state == State.OPEN && now - openedAt < properties.getCircuitBreakerOpenDuration().toNanos()) {
+                shortCircuited++;
+                return true;
+            }
+            return false;
+        }
+
+        synchronized boolean tryAcquire(long now) {
+            if (state == State.OPEN && now - openedAt >= properties.getCircuitBreakerOpenDuration().toNanos()) {
+                state = State.HALF_OPEN;
+                trialsInFlight = 0;
+            }
+            if (state == State.CLOSED) {
+                return true;
+            }
+            if (state == State.HALF_OPEN && trialsInFlight < properties.getCircuitBreakerHalfOpenTrials()) {
+                trialsInFlight++;
+                return true;
+            }
+            shortCircuited++;
+            return false;
+        }
+
+        synchronized void completed(boolean failed, boolean connectivityFailure) {
+            if (state == State.HALF_OPEN) {
+                trialsInFlight = Math.max(0, trialsInFlight - 1);
+            }
+            if (!failed) {
+                // Any HTTP response, even a 5xx, proves the host is reachable.
+                consecutiveFailures = 0;
+                state = State.CLOSED;
+                return;
+            }
+            if (!connectivityFailure) {
+                return;
+            }
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN || consecutiveFailures >= properties.getCircuitBreakerFailureThreshold()) {
+                if (state != State.OPEN) {
+                    opened++;
+                }
+                state = State.OPEN;
+                openedAt = System.nanoTime();
+            }
+        }
+
+        synchronized void abandoned() {
+            if (state == State.HALF_OPEN) {
+                trialsInFlight = Math.max(0, trialsInFlight - 1);
+            }
+        }
+
+        synchronized CircuitStats stats(long now) {
+            long openFor = state == State.OPEN
+                    ? Math.max(0, properties.getCircuitBreakerOpenDuration().toNanos() - (now - openedAt)) / 1_000_000L
+                    : 0;
+            return new CircuitStats(state, consecutiveFailures, opened, shortCircuited, openFor);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package org.hat.cyberscout.http;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.OffsetDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import org.hat.cyberscout.scan.persist.HttpObservation;
+import org.hat.cyberscout.scan.persist.ObservationSink;
+import org.springframework.stereotype.Component;
+
+// The per-host protections every request to a target goes through: circuit check, rate limiter,
+// in-flight window, then the breaker's send-time check. Probes and all recon sources share it.
+@Component
+public class HostGate {
+
+    private final HostRateLimiter rateLimiter;
+    private final HostInFlightLimiter inFlightLimiter;
+    private final HostCircuitBreaker circuitBreaker;
+    private final ObservationSink observationSink;
+
+    public HostGate(
+            HostRateLimiter rateLimiter,
+            HostInFlightLimiter inFlightLimiter,
+            HostCircuitBreaker circuitBreaker,
+            ObservationSink observationSink
+    ) {
+        this.rateLimiter = rateLimiter;
+        this.inFlightLimiter = inFlightLimiter;
+        this.circuitBreaker = circuitBreaker;
+        this.observationSink = observationSink;
+    }
+
+    // For callers that record their own observation (HttpProbeService, OpenAPI documents).
+    public CompletableFuture<Permit> enter(URI target, boolean paced) {
+        return enter(null, "GET", target, paced);
+    }
+
+    // The permit records a basic observation row for the run when it completes.
+    public CompletableFuture<Permit> enter(Long scanRunId, HttpRequest request) {
+        return enter(scanRunId, request.method(), request.uri(), true);
+    }
+
+    // Blocking variant for readers that stream bodies on their own (virtual) thread.
+    public Permit acquire(Long scanRunId, HttpRequest request) throws IOException, InterruptedException {
+        CompletableFuture<Permit> entering = enter(scanRunId, request);
+        try {
+            return entering.get();
+        } catch (InterruptedException e) {
+            // A slot granted after the caller gave up goes straight back; no request was sent.
+            entering.thenAccept(Permit::abandon);
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(
+            Long scanRunId,
+            HttpRequest request,
+            Function<HttpRequest, CompletableFuture<HttpResponse<T>>> send
+    ) {
+        return enter(scanRunId, request).thenCompose(permit -> {
+            CompletableFuture<HttpResponse<T>> sent;
+            try {
+                sent = send.apply(request);
+            } catch (RuntimeException e) {
+                sent = CompletableFuture.failedFuture(e);
+            }
+            return sent.whenComplete(permit::completed);
+        });
+    }
+
+    private CompletableFuture<Permit> enter(Long scanRunId, String method, URI target, boolean paced) {
+        String hostKey = HostInFlightLimiter.hostKey(target);
+        long start = System.nanoTime();
+        if (circuitBreaker.isOpen(hostKey)) {
+            refused(scanRunId, method, target, start);
+            return CompletableFuture.failedFuture(new HostUnavailableException(hostKey));
+        }
+        CompletableFuture<Void> ready = paced ? rateLimiter.acquire(hostKey) : CompletableFuture.completedFuture(null);
+        return ready.thenCompose(r -> inFlightLimiter.acquire(hostKey)).thenCompose(granted -> {
+            // Checked again at send time: the host may have gone down while this request was queued.
+            if (!circuitBreaker.tryAcquire(hostKey)) {
+                inFlightLimiter.release(hostKey);
+                refused(scanRunId, method, target, start);
+                return CompletableFuture.failedFuture(new HostUnavailableException(hostKey));
+            }
+            return CompletableFuture.completedFuture(new Permit(scanRunId, method, target, hostKey, start));
+        });
+    }
+
+    private void refused(Long scanRunId, String method, URI target, long start) {
+        if (scanRunId != null) {
+            int elapsed = millis(System.nanoTime() - start);
+            observationSink.record(observation(scanRunId, method, target, null, ProbeOutcome.CIRCUIT_OPEN, elapsed, elapsed));
+        }
+    }
+
+    private static HttpObservation observation(
+            long scanRunId,
+            String method,
+            URI target,
+            Integer status,
+            ProbeOutcome outcome,
+            int totalMs,
+            int queueMs
+    ) {
+        return new HttpObservation(
+                scanRunId,
+                method,
+                target.toString(),
+                status,
+                outcome.name(),
+                totalMs,
+                queueMs,
+                null,
+                null,
+                null,
+                null,
+                null,
+                OffsetDateTime.now()
+        );
+    }
+
+    private static int millis(long nanos) {
+        return (int) Math.min(Integer.MAX_VALUE, nanos / 1_000_000L);
+    }
+
+    // One granted slot. completed() or abandon() must be called once; later calls are ignored. A response
+    // counts as answered even when reading its body failed afterwards.
+    public final class Permit {
+
+        private final Long scanRunId;
+        private final String method;
+        private final URI target;
+        private final String hostKey;
+        private final long startNanos;
+        private final long grantedNanos = System.nanoTime();
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        private Permit(Long scanRunId, String method, URI target, String hostKey, long startNanos) {
+            this.scanRunId = scanRunId;
+            this.method = method;
+            this.target = target;
+            this.hostKey = hostKey;
+            this.startNanos = startNanos;
+        }
+
+        // For a slot no request went out on: frees it without an observation or a verdict on the host.
+        public void abandon() {
+            if (done.compareAndSet(false, true)) {
+                inFlightLimiter.release(hostKey);
+                circuitBreaker.onAbandoned(hostKey);
+            }
+        }
+
+        public void completed(HttpResponse<?> response, Throwable error) {
+            if (!done.compareAndSet(false, true)) {
+                return;
+            }
+            inFlightLimiter.release(hostKey);
+            if (response != null) {
+                circuitBreaker.onResponse(hostKey);
+                rateLimiter.onResponse(hostKey, response.statusCode(), response.headers().firstValue("retry-after"));
+            } else {
+                circuitBreaker.onFailure(hostKey, error);
+                rateLimiter.onFailure(hostKey, error);
+            }
+            if (scanRunId != null) {
+                long now = System.nanoTime();
+                observationSink.record(observation(
+                        scanRunId,
+                        method,
+                        target,
+                        response != null ? response.statusCode() : null,
+                        response != null ? ProbeOutcome.RESPONSE : ProbeOutcome.FAILED,
+                        millis(now - startNanos),
+                        millis(grantedNanos - startNanos)
+                ));
+            }
+        }
+    }
+}
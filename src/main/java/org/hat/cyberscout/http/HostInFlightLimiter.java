@@ -0,0 +1,81 @@
+package org.hat.cyberscout.http;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import org.hat.cyberscout.policy.PolicyProperties;
+import org.hat.cyberscout.util.UrlUtils;
+import org.springframework.stereotype.Component;
+
+// Bounded in-flight window per target host, sized by cyberscout.policy.max-concurrent-attacks.
+@Component
+public class HostInFlightLimiter {
+
+    private static final CompletableFuture<Void> GRANTED = CompletableFuture.completedFuture(null);
+
+    private final PolicyProperties policyProperties;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    public HostInFlightLimiter(PolicyProperties policyProperties) {
+        this.policyProperties = policyProperties;
+    }
+
+    public static String hostKey(URI uri) {
+        return uri.getHost() + ":" + UrlUtils.effectivePort(uri);
+    }
+
+    public CompletableFuture<Void> acquire(String hostKey) {
+        Window window = windows.computeIfAbsent(hostKey, k -> new Window());
+        synchronized (window) {
+            if (window.inFlight < Math.max(1, policyProperties.getMaxConcurrentAttacks())) {
+                window.inFlight++;
+                return GRANTED;
+            }
+            CompletableFuture<Void> waiter = new CompletableFuture<>();
+            window.waiters.add(waiter);
+            return waiter;
+        }
+    }
+
+    public void release(String hostKey) {
+        Window window = windows.get(hostKey);
+        if (window == null) {
+            return;
+        }
+        while (true) {
+            CompletableFuture<Void> next;
+            synchronized (window) {
+                next = window.waiters.poll();
+                if (next == null) {
+                    window.inFlight = Math.max(0, window.inFlight - 1);
+                    return;
+                }
+            }
+            // Hand the slot over outside the lock; a waiter cancelled by its caller is skipped.
+            if (next.complete(null)) {
+                return;
+            }
+        }
+    }
+
+    public Map<String, WindowStats> snapshot() {
+        Map<String, WindowStats> out = new LinkedHashMap<>();
+        windows.forEach((host, window) -> {
+            synchronized (window) {
+                out.put(host, new WindowStats(window.inFlight, window.waiters.size()));
+            }
+        });
+        return out;
+    }
+
+    public record WindowStats(int inFlight, int queued) {
+    }
+
+    private static final class Window {
+        private int inFlight;
+        private final ArrayDeque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+    }
+}
@@ -0,0 +1,178 @@
+package org.hat.cyberscout.http;
+
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Component;
+
+// Adaptive token bucket per target host.
+@Component
+public class HostRateLimiter {
+
+    private static final CompletableFuture<Void> GRANTED = CompletableFuture.completedFuture(null);
+
+    private final HttpTransportProperties properties;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    public HostRateLimiter(HttpTransportProperties properties) {
+        this.properties = properties;
+    }
+
+    public CompletableFuture<Void> acquire(String hostKey) {
+        if (!properties.isRateLimitEnabled()) {
+            return GRANTED;
+        }
+        long waitNanos = bucket(hostKey).reserve(System.nanoTime());
+        if (waitNanos <= 0) {
+            return GRANTED;
+        }
+        return CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS));
+    }
+
+    // Feeds the outcome of an exchange back into the host's rate.
+    public void onResponse(String hostKey, int status, Optional<String> retryAfter) {
+        if (!properties.isRateLimitEnabled()) {
+            return;
+        }
+        Bucket bucket = bucket(hostKey);
+        if (status == 429 || status == 503) {
+            long pauseNanos = retryAfter.map(v -> parseRetryAfter(v, ZonedDateTime.now()))
+                    .map(d -> Math.min(d.toNanos(), properties.getRateLimitMaxRetryAfter().toNanos()))
+                    .orElse(0L);
+            bucket.decrease(System.nanoTime(), pauseNanos);
+        } else if (status > 0) {
+            bucket.increase();
+        }
+    }
+
+    public void onFailure(String hostKey, Throwable error) {
+        if (!properties.isRateLimitEnabled()) {
+            return;
+        }
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof HttpTimeoutException) {
+            bucket(hostKey).decrease(System.nanoTime(), 0);
+        }
+    }
+
+    public Map<String, RateStats> snapshot() {
+        Map<String, RateStats> out = new TreeMap<>();
+        long now = System.nanoTime();
+        buckets.forEach((host, bucket) -> out.put(host, bucket.stats(now)));
+        return out;
+    }
+
+    // Delta-seconds or an HTTP date (RFC 9110, section 10.2.3); empty for anything else.
+    static Duration parseRetryAfter(String value, ZonedDateTime now) {
+        String v = value.trim();
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(v)));
+        } catch (NumberFormatException ignored) {
+            // not delta-seconds
+        }
+        try {
+            ZonedDateTime at = ZonedDateTime.parse(v, DateTimeFormatter.RFC_1123_DATE_TIME);
+            Duration d = Duration.between(now, at);
+            return d.isNegative() ? Duration.ZERO : d;
+        } catch (DateTimeParseException ignored) {
+            return null;
+        }
+    }
+
+    private Bucket bucket(String hostKey) {
+        return buckets.computeIfAbsent(hostKey, k -> new Bucket(properties));
+    }
+
+    public record RateStats(
+            double ratePerSecond,
+            long pausedForMs,
+            long requests,
+            long delayedRequests,
+            long totalWaitMs,
+            long maxWaitMs,
+            long backoffs,
+            long retryAfterPauses
+    ) {
+    }
+
+    // Generic cell rate algorithm: a "theoretical arrival time" advanced by one interval per request,
+    // with the burst as tolerance. Equivalent to a token bucket without a refill timer.
+    private static final class Bucket {
+
+        private final HttpTransportProperties properties;
+        private double rate;
+        // nanoTime may be negative; MIN_VALUE means "never set".
+        private long theoreticalArrival = Long.MIN_VALUE;
+        private long pausedUntil = Long.MIN_VALUE;
+        private long requests;
+        private long delayed;
+        private long totalWaitNanos;
+        private long maxWaitNanos;
+        private long backoffs;
+        private long retryAfterPauses;
+
+        Bucket(HttpTransportProperties properties) {
+            this.properties = properties;
+            this.rate = clamp(properties.getRateLimitInitialPerSecond());
+        }
+
+        synchronized long reserve(long now) {
+            long interval = (long) (1_000_000_000L / rate);
+            long tolerance = interval * (properties.getRateLimitBurst() - 1);
+            long earliest = Math.max(now, pausedUntil);
+            long tat = Math.max(theoreticalArrival, earliest);
+            long sendAt = Math.max(earliest, tat - tolerance);
+            theoreticalArrival = tat + interval;
+
+            long wait = sendAt - now;
+            requests++;
+            if (wait > 0) {
+                delayed++;
+                totalWaitNanos += wait;
+                maxWaitNanos = Math.max(maxWaitNanos, wait);
+            }
+            return wait;
+        }
+
+        synchronized void increase() {
+            rate = clamp(rate + properties.getRateLimitIncreaseStep());
+        }
+
+        synchronized void decrease(long now, long pauseNanos) {
+            rate = clamp(rate * properties.getRateLimitDecreaseFactor());
+            backoffs++;
+            if (pauseNanos > 0) {
+                pausedUntil = pausedUntil == Long.MIN_VALUE ? now + pauseNanos : Math.max(pausedUntil, now + pauseNanos);
+                retryAfterPauses++;
+            }
+        }
+
+        synchronized RateStats stats(long now) {
+            return new RateStats(
+                    Math.round(rate * 100) / 100.0,
+                    pausedUntil == Long.MIN_VALUE ? 0 : Math.max(0, pausedUntil - now) / 1_000_000L,
+                    requests,
+                    delayed,
+                    totalWaitNanos / 1_000_000L,
+                    maxWaitNanos / 1_000_000L,
+                    backoffs,
+                    retryAfterPauses
+            );
+        }
+
+        private double clamp(double value) {
+            double min = properties.getRateLimitMinPerSecond();
+            double max = Math.max(min, properties.getRateLimitMaxPerSecond());
+            return Math.max(min, Math.min(max, value));
+        }
+    }
+}
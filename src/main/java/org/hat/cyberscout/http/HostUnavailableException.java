@@ -0,0 +1,11 @@
+package org.hat.cyberscout.http;
+
+import java.io.IOException;
+
+// Thrown instead of sending when the host's circuit is open.
+public class HostUnavailableException extends IOException {
+
+    public HostUnavailableException(String hostKey) {
+        super("Circuit open for " + hostKey);
+    }
+}
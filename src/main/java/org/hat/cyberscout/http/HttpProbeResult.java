@@ -8,7 +8,28 @@ public record HttpProbeResult(
         int statusCode,
         int durationMs,
         Map<String, String> responseHeaders,
-        String bodyExcerpt
+        String bodyExcerpt,
+        ProbeTimings timings,
+        ProbeOutcome outcome
 ) {
-}
 
+    public HttpProbeResult(
+            String url,
+            String method,
+            int statusCode,
+            int durationMs,
+            Map<String, String> responseHeaders,
+            String bodyExcerpt
+    ) {
+        this(
+                url,
+                method,
+                statusCode,
+                durationMs,
+                responseHeaders,
+                bodyExcerpt,
+                ProbeTimings.totalOnly(durationMs),
+                statusCode > 0 ? ProbeOutcome.RESPONSE : ProbeOutcome.FAILED
+        );
+    }
+}
@@ -1,18 +1,26 @@
 package org.hat.cyberscout.http;
 
+import jakarta.annotation.PreDestroy;
+import java.net.InetAddress;
 import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpClient.Redirect;
+import java.net.UnknownHostException;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.time.Duration;
+import java.time.OffsetDateTime;
 import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
 import org.hat.cyberscout.policy.AttackExecutionRequest;
 import org.hat.cyberscout.policy.PolicyDecision;
 import org.hat.cyberscout.policy.PolicyEnforcer;
-import org.hat.cyberscout.scan.persist.ScanRunRepository;
+import org.hat.cyberscout.scan.persist.HttpObservation;
+import org.hat.cyberscout.scan.persist.ObservationSink;
 import org.hat.cyberscout.util.UrlUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,82 +30,116 @@ import org.springframework.stereotype.Service;
 public class HttpProbeService implements HttpProber {
 
     private static final Logger log = LoggerFactory.getLogger(HttpProbeService.class);
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+    private static final ProbeOptions JSON_OPTIONS = new ProbeOptions(false, false, false);
+    private static final Pattern IP_LITERAL = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}");
+    private static final int RESOLVER_THREADS = 2;
 
-    private final HttpClient httpClient;
+    private final HttpTransport transport;
     private final PolicyEnforcer policyEnforcer;
-    private final ScanRunRepository scanRunRepository;
+    private final ObservationSink observationSink;
+    private final ScanResponseCache responseCache;
+    private final LatencyRecorder latencyRecorder;
+    private final HostGate hostGate;
+    private final SingleFlight<ProbeKey, HttpProbeResult> inFlightProbes = new SingleFlight<>();
+    // InetAddress lookups block, so they run here rather than on the client's or the caller's threads.
+    private final ExecutorService resolver = Executors.newFixedThreadPool(
+            RESOLVER_THREADS, Thread.ofPlatform().daemon().name("cyberscout-dns-", 0).factory());
+    private final SingleFlight<String, Void> lookups = new SingleFlight<>();
 
-    public HttpProbeService(PolicyEnforcer policyEnforcer, ScanRunRepository scanRunRepository) {
-        this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(5))
-                .followRedirects(Redirect.NEVER)
-                .build();
+    public HttpProbeService(
+            HttpTransport transport,
+            PolicyEnforcer policyEnforcer,
+            ObservationSink observationSink,
+            ScanResponseCache responseCache,
+            LatencyRecorder latencyRecorder,
+            HostGate hostGate
+    ) {
+        this.transport = transport;
         this.policyEnforcer = policyEnforcer;
-        this.scanRunRepository = scanRunRepository;
+        this.observationSink = observationSink;
+        this.responseCache = responseCache;
+        this.latencyRecorder = latencyRecorder;
+        this.hostGate = hostGate;
     }
 
     @Override
     public HttpProbeResult probe(Long scanRunId, URI baseUri, String path, String method) {
-        URI target = baseUri.resolve(path == null ? "/" : path);
-        String m = method == null ? "GET" : method.toUpperCase(Locale.ROOT);
+        return await(probeAsync(scanRunId, baseUri, path, method));
+    }
 
-        // Enforce allowlist/boundaries (host/port/path/method).
-        AttackExecutionRequest req = new AttackExecutionRequest(
-                target.getHost(),
-                UrlUtils.effectivePort(target),
-                m,
-                target.getPath() == null || target.getPath().isBlank() ? "/" : target.getPath(),
-                1
-        );
-        PolicyDecision decision = policyEnforcer.evaluate(req);
-        if (!decision.allowed()) {
-            throw new IllegalStateException("HTTP probe blocked by policy: " + String.join("; ", decision.reasons()));
-        }
+    @Override
+    public HttpProbeResult probe(Long scanRunId, URI baseUri, String path, String method, ProbeOptions options) {
+        return await(probeAsync(scanRunId, baseUri, path, method, options));
+    }
 
-        long start = System.nanoTime();
-        int status = 0;
-        Map<String, String> headers = Map.of();
-        String excerpt = null;
+    @Override
+    public HttpProbeResult probeJson(Long scanRunId, URI baseUri, String path, String method, String jsonBody) {
+        return await(probeJsonAsync(scanRunId, baseUri, path, method, jsonBody));
+    }
 
-        try {
-            HttpRequest request = HttpRequest.newBuilder(target)
-                    .timeout(Duration.ofSeconds(12))
-                    .header("User-Agent", "Cyber-Scout-Pro/0.1 (local)")
-                    .method(m, HttpRequest.BodyPublishers.noBody())
-                    .build();
+    @Override
+    public CompletableFuture<HttpProbeResult> probeAsync(Long scanRunId, URI baseUri, String path, String method) {
+        return probeAsync(scanRunId, baseUri, path, method, ProbeOptions.DEFAULT);
+    }
 
-            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
-            status = response.statusCode();
-            headers = flattenHeaders(response.headers().map());
-            excerpt = excerptUtf8(response.body(), 2000);
-            return new HttpProbeResult(target.toString(), m, status, durationMs(start), headers, excerpt);
-        } catch (Exception e) {
-            log.warn("HTTP probe failed {} {}: {}", m, target, e.getMessage());
-            return new HttpProbeResult(target.toString(), m, status, durationMs(start), headers, null);
-        } finally {
-            if (scanRunId != null && scanRunRepository.isEnabled()) {
-                scanRunRepository.insertObservation(
-                        scanRunId,
-                        m,
-                        target.toString(),
-                        status == 0 ? null : status,
-                        durationMs(start),
-                        headers.isEmpty() ? null : headers.toString(),
-                        excerpt
-                );
-            }
+    public CompletableFuture<HttpProbeResult> probeAsync(
+            Long scanRunId,
+            URI baseUri,
+            String path,
+            String method,
+            ProbeOptions options
+    ) {
+        URI target = baseUri.resolve(path == null ? "/" : path);
+        String m = method == null ? "GET" : method.toUpperCase(Locale.ROOT);
+
+        // Enforce allowlist/boundaries (host/port/path/method) before anything is queued.
+        enforcePolicy(target, m);
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(target)
+                .timeout(transport.properties().getProbeTimeout())
+                .header("User-Agent", "Cyber-Scout-Pro/0.1 (local)")
+                .method(m, HttpRequest.BodyPublishers.noBody());
+        if ("GET".equals(m) && transport.properties().isRangeRequestsEnabled()) {
+            builder.header("Range", "bytes=0-" + (captureBytes() - 1));
         }
+        HttpRequest request = builder.build();
+        if (options.coalesce() && IDEMPOTENT_METHODS.contains(m)) {
+            // Multi-instance branches often fire the same GET at the same moment; they share one exchange
+            // (and one observation row).
+            ProbeKey key = new ProbeKey(scanRunId, m, target, request.headers().firstValue("Range").orElse(null));
+            return inFlightProbes.run(key, () -> exchange(scanRunId, target, m, request, "HTTP probe", options));
+        }
+        return exchange(scanRunId, target, m, request, "HTTP probe", options);
     }
 
     @Override
-    public HttpProbeResult probeJson(Long scanRunId, URI baseUri, String path, String method, String jsonBody) {
+    public CompletableFuture<HttpProbeResult> probeJsonAsync(Long scanRunId, URI baseUri, String path, String method, String jsonBody) {
         URI target = baseUri.resolve(path == null ? "/" : path);
         String m = method == null ? "POST" : method.toUpperCase(Locale.ROOT);
 
+        enforcePolicy(target, m);
+
+        String body = jsonBody == null ? "" : jsonBody;
+        HttpRequest request = HttpRequest.newBuilder(target)
+                .timeout(transport.properties().getProbeTimeout())
+                .header("User-Agent", "Cyber-Scout-Pro/0.1 (local)")
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json, */*")
+                .method(m, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return exchange(scanRunId, target, m, request, "HTTP JSON probe", JSON_OPTIONS);
+    }
+
+    public SingleFlight.Stats coalescingStats() {
+        return inFlightProbes.stats();
+    }
+
+    private void enforcePolicy(URI target, String method) {
         AttackExecutionRequest req = new AttackExecutionRequest(
                 target.getHost(),
                 UrlUtils.effectivePort(target),
-                m,
+                method,
                 target.getPath() == null || target.getPath().isBlank() ? "/" : target.getPath(),
                 1
         );
@@ -105,63 +147,164 @@ public class HttpProbeService implements HttpProber {
         if (!decision.allowed()) {
             throw new IllegalStateException("HTTP probe blocked by policy: " + String.join("; ", decision.reasons()));
         }
+    }
+
+    private CompletableFuture<HttpProbeResult> exchange(
+            Long scanRunId,
+            URI target,
+            String m,
+            HttpRequest request,
+            String label,
+            ProbeOptions options
+    ) {
+        ProbeClock clock = new ProbeClock();
+        boolean cacheable = options.cacheable();
+        if (cacheable) {
+            // A fresh cached answer does not need an in-flight slot.
+            var cached = responseCache.lookupFresh(scanRunId, request, captureBytes());
+            if (cached.isPresent()) {
+                return CompletableFuture.completedFuture(complete(scanRunId, target, m, clock, cached.get(), null, true, label));
+            }
+        }
+        // The in-flight window is per host: sibling probes to the same target queue up in the gate
+        // instead of opening unbounded parallel exchanges.
+        return hostGate.enter(target, !options.bypassRateLimiter()).handle((permit, refused) -> {
+            if (refused != null) {
+                return CompletableFuture.completedFuture(shortCircuited(scanRunId, target, m, clock));
+            }
+            clock.slotAcquired();
+            CompletableFuture<HttpResponse<BoundedBody>> sent = resolve(target, clock).thenCompose(ignored -> cacheable
+                    ? responseCache.fetch(scanRunId, request, captureBytes(), clock)
+                    : transport.sendAsync(request, BoundedBodyHandler.of(captureBytes(), clock)));
+            return sent.handle((response, error) -> {
+                permit.completed(response, error);
+                return complete(scanRunId, target, m, clock, response, error, false, label);
+            });
+        }).thenCompose(probe -> probe);
+    }
+
+    private CompletableFuture<Void> resolve(URI target, ProbeClock clock) {
+        // The JDK client resolves inside connect; resolving up front (answered by the JVM address cache
+        // afterwards) is the only way to see DNS time on its own. Probes to the same host share a lookup.
+        String host = target.getHost();
+        if (host == null || IP_LITERAL.matcher(host).matches() || host.startsWith("[")) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return lookups.run(host, () -> CompletableFuture.runAsync(() -> lookup(host), resolver))
+                .handle((ignored, error) -> {
+                    clock.resolved();
+                    return null;
+                });
+    }
+
+    private static void lookup(String host) {
+        try {
+            InetAddress.getByName(host);
+        } catch (UnknownHostException e) {
+            // The exchange itself reports the failure.
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        resolver.shutdownNow();
+    }
+
+    private HttpProbeResult shortCircuited(Long scanRunId, URI target, String m, ProbeClock clock) {
+        log.debug("HTTP probe skipped, circuit open for {}: {} {}", HostInFlightLimiter.hostKey(target), m, target);
+        ProbeTimings timings = clock.timings();
+        if (scanRunId != null) {
+            observationSink.record(new HttpObservation(
+                    scanRunId,
+                    m,
+                    target.toString(),
+                    null,
+                    ProbeOutcome.CIRCUIT_OPEN.name(),
+                    timings.totalMs(),
+                    timings.queueMs(),
+                    null,
+                    null,
+                    null,
+                    null,
+                    null,
+                    OffsetDateTime.now()
+            ));
+        }
+        return new HttpProbeResult(target.toString(), m, 0, timings.totalMs(), Map.of(), null, timings, ProbeOutcome.CIRCUIT_OPEN);
+    }
 
-        long start = System.nanoTime();
+    private HttpProbeResult complete(
+            Long scanRunId,
+            URI target,
+            String m,
+            ProbeClock clock,
+            HttpResponse<BoundedBody> response,
+            Throwable error,
+            boolean cached,
+            String label
+    ) {
         int status = 0;
         Map<String, String> headers = Map.of();
         String excerpt = null;
 
-        try {
-            String body = jsonBody == null ? "" : jsonBody;
-            HttpRequest request = HttpRequest.newBuilder(target)
-                    .timeout(Duration.ofSeconds(12))
-                    .header("User-Agent", "Cyber-Scout-Pro/0.1 (local)")
-                    .header("Content-Type", "application/json")
-                    .header("Accept", "application/json, */*")
-                    .method(m, HttpRequest.BodyPublishers.ofString(body))
-                    .build();
-
-            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (error == null) {
             status = response.statusCode();
             headers = flattenHeaders(response.headers().map());
-            excerpt = excerptUtf8(response.body(), 2000);
-            return new HttpProbeResult(target.toString(), m, status, durationMs(start), headers, excerpt);
-        } catch (Exception e) {
-            log.warn("HTTP JSON probe failed {} {}: {}", m, target, e.getMessage());
-            return new HttpProbeResult(target.toString(), m, status, durationMs(start), headers, null);
-        } finally {
-            if (scanRunId != null && scanRunRepository.isEnabled()) {
-                scanRunRepository.insertObservation(
-                        scanRunId,
-                        m,
-                        target.toString(),
-                        status == 0 ? null : status,
-                        durationMs(start),
-                        headers.isEmpty() ? null : headers.toString(),
-                        excerpt
-                );
+            excerpt = response.body().excerpt(2000);
+        } else {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            log.warn("{} failed {} {}: {}", label, m, target, cause.getMessage());
+        }
+
+        ProbeOutcome outcome = cached ? ProbeOutcome.CACHED : error == null ? ProbeOutcome.RESPONSE : ProbeOutcome.FAILED;
+        ProbeTimings timings = clock.timings();
+        if (!cached) {
+            // A cache hit takes no time on the wire and would drag the host's percentiles down.
+            latencyRecorder.record(m, target, timings);
+        }
+        if (scanRunId != null) {
+            // Write-behind: the probe never waits on the database.
+            observationSink.record(new HttpObservation(
+                    scanRunId,
+                    m,
+                    target.toString(),
+                    status == 0 ? null : status,
+                    outcome.name(),
+                    timings.totalMs(),
+                    timings.queueMs(),
+                    timings.dnsMs(),
+                    timings.ttfbMs(),
+                    timings.downloadMs(),
+                    headers.isEmpty() ? null : headers.toString(),
+                    excerpt,
+                    OffsetDateTime.now()
+            ));
+        }
+        return new HttpProbeResult(target.toString(), m, status, timings.totalMs(), headers, excerpt, timings, outcome);
+    }
+
+    private static HttpProbeResult await(CompletableFuture<HttpProbeResult> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            // Keep the blocking API's exception surface unchanged (e.g. persistence errors).
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
             }
+            throw e;
         }
     }
 
+    private int captureBytes() {
+        return transport.properties().getMaxCaptureBytes();
+    }
+
     private Map<String, String> flattenHeaders(Map<String, java.util.List<String>> raw) {
         Map<String, String> out = new LinkedHashMap<>();
         raw.forEach((k, v) -> out.put(k.toLowerCase(Locale.ROOT), String.join(",", v)));
         return out;
     }
 
-    private int durationMs(long startNano) {
-        return (int) Math.min(Integer.MAX_VALUE, (System.nanoTime() - startNano) / 1_000_000L);
-    }
-
-    private String excerptUtf8(byte[] bytes, int maxChars) {
-        if (bytes == null || bytes.length == 0) {
-            return null;
-        }
-        String s = new String(bytes, java.nio.charset.StandardCharsets.UTF_8);
-        if (s.length() <= maxChars) {
-            return s;
-        }
-        return s.substring(0, maxChars);
+    private record ProbeKey(Long scanRunId, String method, URI target, String range) {
     }
 }
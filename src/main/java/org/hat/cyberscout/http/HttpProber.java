@@ -1,12 +1,27 @@
 package org.hat.cyberscout.http;
 
 import java.net.URI;
+import java.util.concurrent.CompletableFuture;
 
 public interface HttpProber {
     HttpProbeResult probe(Long scanRunId, URI baseUri, String path, String method);
 
+    default HttpProbeResult probe(Long scanRunId, URI baseUri, String path, String method, ProbeOptions options) {
+        return probe(scanRunId, baseUri, path, method);
+    }
+
     default HttpProbeResult probeJson(Long scanRunId, URI baseUri, String path, String method, String jsonBody) {
         // Optional operation; implementations may override for real JSON execution.
         return probe(scanRunId, baseUri, path, method);
     }
+
+    // Async variants let callers fan out many probes and join on them. Implementations that only
+    // support blocking I/O fall back to running the probe on the calling thread.
+    default CompletableFuture<HttpProbeResult> probeAsync(Long scanRunId, URI baseUri, String path, String method) {
+        return CompletableFuture.completedFuture(probe(scanRunId, baseUri, path, method));
+    }
+
+    default CompletableFuture<HttpProbeResult> probeJsonAsync(Long scanRunId, URI baseUri, String path, String method, String jsonBody) {
+        return CompletableFuture.completedFuture(probeJson(scanRunId, baseUri, path, method, jsonBody));
+    }
 }
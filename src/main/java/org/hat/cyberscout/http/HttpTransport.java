@@ -0,0 +1,163 @@
+package org.hat.cyberscout.http;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpClient.Redirect;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.hat.cyberscout.util.UrlUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+// The single HTTP client shared by recon, probing and OpenAPI fetching, so one scan reuses the same pooled
+// (HTTP/1.1 keep-alive) or multiplexed (HTTP/2) connections to its target.
+@Component
+public class HttpTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(HttpTransport.class);
+    private static final String CONNECTION_POOL_SIZE = "jdk.httpclient.connectionPoolSize";
+    private static final String KEEP_ALIVE_TIMEOUT = "jdk.httpclient.keepalive.timeout";
+
+    private final HttpTransportProperties properties;
+    private final HttpClient client;
+    private final ExecutorService executor;
+    private final Map<String, HostCounters> hosts = new ConcurrentHashMap<>();
+
+    public HttpTransport(HttpTransportProperties properties) {
+        this.properties = properties;
+        // Pool size and keep-alive are JVM-wide: the JDK reads them once, when the first client is built, so
+        // they are set here unless the launcher already did; see CONFIGURATION.md.
+        setIfAbsent(CONNECTION_POOL_SIZE, String.valueOf(properties.getConnectionPoolSize()));
+        setIfAbsent(KEEP_ALIVE_TIMEOUT, String.valueOf(properties.getKeepAliveTimeout().toSeconds()));
+        log.debug("HTTP connection pool: connectionPoolSize={}, keepalive.timeout={}",
+                System.getProperty(CONNECTION_POOL_SIZE), System.getProperty(KEEP_ALIVE_TIMEOUT));
+
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .connectTimeout(properties.getConnectTimeout())
+                .followRedirects(Redirect.NEVER)
+                .version(properties.isHttp2Enabled() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1);
+        if (properties.getExecutorThreads() > 0) {
+            this.executor = Executors.newFixedThreadPool(
+                    properties.getExecutorThreads(),
+                    Thread.ofPlatform().daemon().name("cyberscout-http-", 0).factory()
+            );
+            builder.executor(executor);
+        } else {
+            this.executor = null;
+        }
+        this.client = builder.build();
+    }
+
+    public HttpTransportProperties properties() {
+        return properties;
+    }
+
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        HostCounters counters = counters(request.uri());
+        counters.begin();
+        CompletableFuture<HttpResponse<T>> sent;
+        try {
+            sent = client.sendAsync(request, handler);
+        } catch (RuntimeException e) {
+            counters.end(null);
+            throw e;
+        }
+        return sent.whenComplete((response, error) -> counters.end(response));
+    }
+
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws IOException, InterruptedException {
+        HostCounters counters = counters(request.uri());
+        counters.begin();
+        HttpResponse<T> response = null;
+        try {
+            response = client.send(request, handler);
+            return response;
+        } finally {
+            counters.end(response);
+        }
+    }
+
+    public Map<String, HostConnectionStats> hostStats() {
+        Map<String, HostConnectionStats> out = new LinkedHashMap<>();
+        hosts.forEach((host, counters) -> out.put(host, counters.snapshot()));
+        return out;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        client.shutdownNow();
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void setIfAbsent(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+
+    private HostCounters counters(URI uri) {
+        return hosts.computeIfAbsent(uri.getHost() + ":" + UrlUtils.effectivePort(uri), k -> new HostCounters());
+    }
+
+    // Per-host transport counters.
+    public record HostConnectionStats(
+            long requests,
+            long failures,
+            long http2Responses,
+            long http1Responses,
+            int inFlight,
+            int peakInFlight,
+            long estimatedConnections,
+            double reuseRatio
+    ) {
+    }
+
+    private static final class HostCounters {
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong http2 = new AtomicLong();
+        private final AtomicLong http1 = new AtomicLong();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger peakInFlight = new AtomicInteger();
+
+        void begin() {
+            requests.incrementAndGet();
+            int now = inFlight.incrementAndGet();
+            peakInFlight.accumulateAndGet(now, Math::max);
+        }
+
+        void end(HttpResponse<?> response) {
+            inFlight.decrementAndGet();
+            if (response == null) {
+                failures.incrementAndGet();
+            } else if (response.version() == HttpClient.Version.HTTP_2) {
+                http2.incrementAndGet();
+            } else {
+                http1.incrementAndGet();
+            }
+        }
+
+        HostConnectionStats snapshot() {
+            long total = requests.get();
+            long h2 = http2.get();
+            long h1 = http1.get();
+            int peak = peakInFlight.get();
+            long connections = (h2 > 0 ? 1 : 0) + (h1 > 0 || h2 == 0 ? peak : 0);
+            double reuse = total == 0 ? 0.0 : Math.max(0.0, 1.0 - (double) connections / total);
+            return new HostConnectionStats(total, failures.get(), h2, h1, inFlight.get(), peak, connections, reuse);
+        }
+    }
+}
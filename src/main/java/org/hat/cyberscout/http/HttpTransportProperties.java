@@ -0,0 +1,376 @@
+package org.hat.cyberscout.http;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import java.time.Duration;
+import org.hibernate.validator.constraints.time.DurationMin;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Validated
+@ConfigurationProperties(prefix = "cyberscout.http")
+public class HttpTransportProperties {
+
+    // Negotiate HTTP/2 (ALPN on TLS, upgrade on cleartext); falls back to HTTP/1.1 per target.
+    private boolean http2Enabled = true;
+
+    // Worker threads for async exchanges (0 = JDK default cached pool).
+    @Min(0)
+    @Max(1024)
+    private int executorThreads = 0;
+
+    // Idle HTTP/1.1 connections kept per JVM (0 = unbounded); applied when the client is built, unless the
+    // jdk.httpclient.connectionPoolSize system property was set at launch.
+    @Min(0)
+    private int connectionPoolSize = 64;
+
+    // How long an idle connection is kept; likewise jdk.httpclient.keepalive.timeout.
+    @NotNull
+    @DurationMin(seconds = 1)
+    private Duration keepAliveTimeout = Duration.ofSeconds(30);
+
+    @NotNull
+    @DurationMin(millis = 1)
+    private Duration connectTimeout = Duration.ofSeconds(5);
+
+    // Timeout of a single active probe (HttpProbeService).
+    @NotNull
+    @DurationMin(millis = 1)
+    private Duration probeTimeout = Duration.ofSeconds(12);
+
+    // Timeout of the recon fingerprint HEAD.
+    @NotNull
+    @DurationMin(millis = 1)
+    private Duration fingerprintTimeout = Duration.ofSeconds(8);
+
+    // Timeout of recon GETs (homepage crawl, OpenAPI discovery).
+    @NotNull
+    @DurationMin(millis = 1)
+    private Duration reconTimeout = Duration.ofSeconds(10);
+
+    // Timeout of OpenAPI document downloads used by the attack checks.
+    @NotNull
+    @DurationMin(millis = 1)
+    private Duration documentTimeout = Duration.ofSeconds(15);
+
+    // Bytes captured from a probe response; the rest of the body is never read.
+    @Min(1)
+    private int maxCaptureBytes = 8192;
+
+    // Bytes accepted for documents parsed in full (crawled pages).
+    @Min(1)
+    private int maxDocumentBytes = 1_000_000;
+
+    // Bytes read from an OpenAPI document.
+    @Min(1)
+    private long maxOpenApiBytes = 64L * 1024 * 1024;
+
+    // Also ask the server for only the captured prefix (Range: bytes=0-N) on GET probes.
+    private boolean rangeRequestsEnabled = false;
+
+    // Reuse GET responses within a scan run (see ScanResponseCache).
+    private boolean responseCacheEnabled = true;
+
+    // How long a cached response is served without revalidation.
+    @NotNull
+    private Duration responseCacheFreshFor = Duration.ofSeconds(60);
+
+    @Min(0)
+    private long responseCacheMaxBytesPerScan = 8L * 1024 * 1024;
+
+    // Larger bodies are never cached.
+    @Min(0)
+    private int responseCacheMaxEntryBytes = 1_000_000;
+
+    // Scan runs whose cache is kept at the same time (least recently used runs are dropped).
+    @Min(1)
+    private int responseCacheMaxScans = 16;
+
+    // Per-host adaptive request rate for probes (see HostRateLimiter).
+    private boolean rateLimitEnabled = true;
+
+    // Starting rate of a host, in requests per second.
+    @Positive
+    private double rateLimitInitialPerSecond = 10;
+
+    @Positive
+    private double rateLimitMinPerSecond = 0.5;
+
+    @Positive
+    private double rateLimitMaxPerSecond = 50;
+
+    // Requests a host may receive back to back before the rate applies.
+    @Min(1)
+    private int rateLimitBurst = 4;
+
+    // Additive increase per healthy response, in requests per second.
+    @PositiveOrZero
+    private double rateLimitIncreaseStep = 0.5;
+
+    // Multiplicative decrease on 429, 503 and timeouts.
+    @Positive
+    @DecimalMax("1")
+    private double rateLimitDecreaseFactor = 0.5;
+
+    // Longest Retry-After that is honoured; longer values are capped.
+    @NotNull
+    private Duration rateLimitMaxRetryAfter = Duration.ofSeconds(60);
+
+    // Fail fast on hosts that stopped answering (see HostCircuitBreaker).
+    private boolean circuitBreakerEnabled = true;
+
+    // Consecutive connect failures or timeouts that open a host's circuit.
+    @Min(1)
+    private int circuitBreakerFailureThreshold = 5;
+
+    // How long an open circuit rejects probes before trial requests are let through.
+    @NotNull
+    private Duration circuitBreakerOpenDuration = Duration.ofSeconds(30);
+
+    @Min(1)
+    private int circuitBreakerHalfOpenTrials = 1;
+
+    public boolean isHttp2Enabled() {
+        return http2Enabled;
+    }
+
+    public void setHttp2Enabled(boolean http2Enabled) {
+        this.http2Enabled = http2Enabled;
+    }
+
+    public int getExecutorThreads() {
+        return executorThreads;
+    }
+
+    public void setExecutorThreads(int executorThreads) {
+        this.executorThreads = executorThreads;
+    }
+
+    public int getConnectionPoolSize() {
+        return connectionPoolSize;
+    }
+
+    public void setConnectionPoolSize(int connectionPoolSize) {
+        this.connectionPoolSize = connectionPoolSize;
+    }
+
+    public Duration getKeepAliveTimeout() {
+        return keepAliveTimeout;
+    }
+
+    public void setKeepAliveTimeout(Duration keepAliveTimeout) {
+        this.keepAliveTimeout = keepAliveTimeout;
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public Duration getProbeTimeout() {
+        return probeTimeout;
+    }
+
+    public void setProbeTimeout(Duration probeTimeout) {
+        this.probeTimeout = probeTimeout;
+    }
+
+    public Duration getFingerprintTimeout() {
+        return fingerprintTimeout;
+    }
+
+    public void setFingerprintTimeout(Duration fingerprintTimeout) {
+        this.fingerprintTimeout = fingerprintTimeout;
+    }
+
+    public Duration getReconTimeout() {
+        return reconTimeout;
+    }
+
+    public void setReconTimeout(Duration reconTimeout) {
+        this.reconTimeout = reconTimeout;
+    }
+
+    public Duration getDocumentTimeout() {
+        return documentTimeout;
+    }
+
+    public void setDocumentTimeout(Duration documentTimeout) {
+        this.documentTimeout = documentTimeout;
+    }
+
+    public int getMaxCaptureBytes() {
+        return maxCaptureBytes;
+    }
+
+    public void setMaxCaptureBytes(int maxCaptureBytes) {
+        this.maxCaptureBytes = maxCaptureBytes;
+    }
+
+    public int getMaxDocumentBytes() {
+        return maxDocumentBytes;
+    }
+
+    public void setMaxDocumentBytes(int maxDocumentBytes) {
+        this.maxDocumentBytes = maxDocumentBytes;
+    }
+
+    public long getMaxOpenApiBytes() {
+        return maxOpenApiBytes;
+    }
+
+    public void setMaxOpenApiBytes(long maxOpenApiBytes) {
+        this.maxOpenApiBytes = maxOpenApiBytes;
+    }
+
+    public boolean isRangeRequestsEnabled() {
+        return rangeRequestsEnabled;
+    }
+
+    public void setRangeRequestsEnabled(boolean rangeRequestsEnabled) {
+        this.rangeRequestsEnabled = rangeRequestsEnabled;
+    }
+
+    public boolean isResponseCacheEnabled() {
+        return responseCacheEnabled;
+    }
+
+    public void setResponseCacheEnabled(boolean responseCacheEnabled) {
+        this.responseCacheEnabled = responseCacheEnabled;
+    }
+
+    public Duration getResponseCacheFreshFor() {
+        return responseCacheFreshFor;
+    }
+
+    public void setResponseCacheFreshFor(Duration responseCacheFreshFor) {
+        this.responseCacheFreshFor = responseCacheFreshFor;
+    }
+
+    public long getResponseCacheMaxBytesPerScan() {
+        return responseCacheMaxBytesPerScan;
+    }
+
+    public void setResponseCacheMaxBytesPerScan(long responseCacheMaxBytesPerScan) {
+        this.responseCacheMaxBytesPerScan = responseCacheMaxBytesPerScan;
+    }
+
+    public int getResponseCacheMaxEntryBytes() {
+        return responseCacheMaxEntryBytes;
+    }
+
+    public void setResponseCacheMaxEntryBytes(int responseCacheMaxEntryBytes) {
+        this.responseCacheMaxEntryBytes = responseCacheMaxEntryBytes;
+    }
+
+    public int getResponseCacheMaxScans() {
+        return responseCacheMaxScans;
+    }
+
+    public void setResponseCacheMaxScans(int responseCacheMaxScans) {
+        this.responseCacheMaxScans = responseCacheMaxScans;
+    }
+
+    public boolean isRateLimitEnabled() {
+        return rateLimitEnabled;
+    }
+
+    public void setRateLimitEnabled(boolean rateLimitEnabled) {
+        this.rateLimitEnabled = rateLimitEnabled;
+    }
+
+    public double getRateLimitInitialPerSecond() {
+        return rateLimitInitialPerSecond;
+    }
+
+    public void setRateLimitInitialPerSecond(double rateLimitInitialPerSecond) {
+        this.rateLimitInitialPerSecond = rateLimitInitialPerSecond;
+    }
+
+    public double getRateLimitMinPerSecond() {
+        return rateLimitMinPerSecond;
+    }
+
+    public void setRateLimitMinPerSecond(double rateLimitMinPerSecond) {
+        this.rateLimitMinPerSecond = rateLimitMinPerSecond;
+    }
+
+    public double getRateLimitMaxPerSecond() {
+        return rateLimitMaxPerSecond;
+    }
+
+    public void setRateLimitMaxPerSecond(double rateLimitMaxPerSecond) {
+        this.rateLimitMaxPerSecond = rateLimitMaxPerSecond;
+    }
+
+    public int getRateLimitBurst() {
+        return rateLimitBurst;
+    }
+
+    public void setRateLimitBurst(int rateLimitBurst) {
+        this.rateLimitBurst = rateLimitBurst;
+    }
+
+    public double getRateLimitIncreaseStep() {
+        return rateLimitIncreaseStep;
+    }
+
+    public void setRateLimitIncreaseStep(double rateLimitIncreaseStep) {
+        this.rateLimitIncreaseStep = rateLimitIncreaseStep;
+    }
+
+    public double getRateLimitDecreaseFactor() {
+        return rateLimitDecreaseFactor;
+    }
+
+    public void setRateLimitDecreaseFactor(double rateLimitDecreaseFactor) {
+        this.rateLimitDecreaseFactor = rateLimitDecreaseFactor;
+    }
+
+    public Duration getRateLimitMaxRetryAfter() {
+        return rateLimitMaxRetryAfter;
+    }
+
+    public void setRateLimitMaxRetryAfter(Duration rateLimitMaxRetryAfter) {
+        this.rateLimitMaxRetryAfter = rateLimitMaxRetryAfter;
+    }
+
+    public boolean isCircuitBreakerEnabled() {
+        return circuitBreakerEnabled;
+    }
+
+    public void setCircuitBreakerEnabled(boolean circuitBreakerEnabled) {
+        this.circuitBreakerEnabled = circuitBreakerEnabled;
+    }
+
+    public int getCircuitBreakerFailureThreshold() {
+        return circuitBreakerFailureThreshold;
+    }
+
+    public void setCircuitBreakerFailureThreshold(int circuitBreakerFailureThreshold) {
+        this.circuitBreakerFailureThreshold = circuitBreakerFailureThreshold;
+    }
+
+    public Duration getCircuitBreakerOpenDuration() {
+        return circuitBreakerOpenDuration;
+    }
+
+    public void setCircuitBreakerOpenDuration(Duration circuitBreakerOpenDuration) {
+        this.circuitBreakerOpenDuration = circuitBreakerOpenDuration;
+    }
+
+    public int getCircuitBreakerHalfOpenTrials() {
+        return circuitBreakerHalfOpenTrials;
+    }
+
+    public void setCircuitBreakerHalfOpenTrials(int circuitBreakerHalfOpenTrials) {
+        this.circuitBreakerHalfOpenTrials = circuitBreakerHalfOpenTrials;
+    }
+}
@@ -0,0 +1,89 @@
+package org.hat.cyberscout.http;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Component;
+
+// Per-host and per-endpoint latency histograms of the probe phases since startup.
+@Component
+public class LatencyRecorder {
+
+    static final int MAX_ENDPOINTS = 1000;
+    static final String OTHER_ENDPOINTS = "(other)";
+
+    private final Map<String, PhaseHistograms> byHost = new ConcurrentHashMap<>();
+    private final Map<String, PhaseHistograms> byEndpoint = new ConcurrentHashMap<>();
+
+    public void record(String method, URI target, ProbeTimings timings) {
+        byHost.computeIfAbsent(HostInFlightLimiter.hostKey(target), k -> new PhaseHistograms()).record(timings);
+        endpointHistograms(endpointKey(method, target)).record(timings);
+    }
+
+    public Map<String, Map<String, LatencyHistogram.LatencySummary>> hosts() {
+        return snapshot(byHost);
+    }
+
+    public Map<String, Map<String, LatencyHistogram.LatencySummary>> endpoints() {
+        return snapshot(byEndpoint);
+    }
+
+    public static String endpointKey(String method, URI target) {
+        String path = target.getRawPath() == null || target.getRawPath().isEmpty() ? "/" : target.getRawPath();
+        return method + " " + HostInFlightLimiter.hostKey(target) + path;
+    }
+
+    private PhaseHistograms endpointHistograms(String key) {
+        PhaseHistograms h = byEndpoint.get(key);
+        if (h != null) {
+            return h;
+        }
+        // Crawled and generated paths are unbounded; keep memory flat.
+        if (byEndpoint.size() >= MAX_ENDPOINTS) {
+            return byEndpoint.computeIfAbsent(OTHER_ENDPOINTS, k -> new PhaseHistograms());
+        }
+        return byEndpoint.computeIfAbsent(key, k -> new PhaseHistograms());
+    }
+
+    private static Map<String, Map<String, LatencyHistogram.LatencySummary>> snapshot(Map<String, PhaseHistograms> source) {
+        Map<String, Map<String, LatencyHistogram.LatencySummary>> out = new TreeMap<>();
+        source.forEach((k, v) -> out.put(k, v.summary()));
+        return out;
+    }
+
+    // One histogram per phase of ProbeTimings; phases that were not measured are skipped.
+    public static final class PhaseHistograms {
+
+        private final LatencyHistogram total = new LatencyHistogram();
+        private final LatencyHistogram queue = new LatencyHistogram();
+        private final LatencyHistogram dns = new LatencyHistogram();
+        private final LatencyHistogram ttfb = new LatencyHistogram();
+        private final LatencyHistogram download = new LatencyHistogram();
+
+        public void record(ProbeTimings t) {
+            total.record(t.totalMs());
+            recordIfPresent(queue, t.queueMs());
+            recordIfPresent(dns, t.dnsMs());
+            recordIfPresent(ttfb, t.ttfbMs());
+            recordIfPresent(download, t.downloadMs());
+        }
+
+        public Map<String, LatencyHistogram.LatencySummary> summary() {
+            Map<String, LatencyHistogram.LatencySummary> out = new LinkedHashMap<>();
+            out.put("total", total.summary());
+            out.put("queue", queue.summary());
+            out.put("dns", dns.summary());
+            out.put("ttfb", ttfb.summary());
+            out.put("download", download.summary());
+            return out;
+        }
+
+        private static void recordIfPresent(LatencyHistogram histogram, Integer millis) {
+            if (millis != null) {
+                histogram.record(millis);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package org.hat.cyberscout.http;
+
+// Marks the phase boundaries of one exchange; timings() turns them into ProbeTimings.
+final class ProbeClock {
+
+    private final long createdAt = System.nanoTime();
+    private volatile long slotAcquiredAt;
+    private volatile long resolvedAt;
+    private volatile long headersAt;
+
+    void slotAcquired() {
+        slotAcquiredAt = System.nanoTime();
+    }
+
+    void resolved() {
+        resolvedAt = System.nanoTime();
+    }
+
+    void headersReceived() {
+        headersAt = System.nanoTime();
+    }
+
+    ProbeTimings timings() {
+        long now = System.nanoTime();
+        long start = slotAcquiredAt == 0 ? createdAt : slotAcquiredAt;
+        long sent = resolvedAt == 0 ? start : resolvedAt;
+        return new ProbeTimings(
+                slotAcquiredAt == 0 ? null : millis(slotAcquiredAt - createdAt),
+                resolvedAt == 0 ? null : millis(resolvedAt - start),
+                headersAt == 0 ? null : millis(headersAt - sent),
+                headersAt == 0 ? null : millis(now - headersAt),
+                millis(now - start)
+        );
+    }
+
+    private static int millis(long nanos) {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(0, nanos) / 1_000_000L);
+    }
+}
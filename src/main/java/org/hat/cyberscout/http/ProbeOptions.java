@@ -0,0 +1,11 @@
+package org.hat.cyberscout.http;
+
+// Per-probe switches for the shared HTTP pipeline.
+public record ProbeOptions(boolean cacheable, boolean coalesce, boolean bypassRateLimiter) {
+
+    public static final ProbeOptions DEFAULT = new ProbeOptions(true, true, false);
+
+    // For probes that are repeated on purpose (e.g. the rate-limit probe): every one must hit the target, at
+    // the caller's pace, or throttling could not be observed.
+    public static final ProbeOptions REPEATED = new ProbeOptions(false, false, true);
+}
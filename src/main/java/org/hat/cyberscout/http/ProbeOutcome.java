@@ -0,0 +1,12 @@
+package org.hat.cyberscout.http;
+
+// How a probe ended.
+public enum ProbeOutcome {
+    RESPONSE,
+    // Answered from the scan's response cache without a request; its timings are not latencies.
+    CACHED,
+    // Connect error, timeout or other I/O failure.
+    FAILED,
+    // Not sent: the host's circuit breaker is open after repeated connect failures or timeouts.
+    CIRCUIT_OPEN
+}
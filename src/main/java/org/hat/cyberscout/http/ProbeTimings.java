@@ -0,0 +1,9 @@
+package org.hat.cyberscout.http;
+
+// Per-phase wall time of one probe, in milliseconds.
+public record ProbeTimings(Integer queueMs, Integer dnsMs, Integer ttfbMs, Integer downloadMs, int totalMs) {
+
+    public static ProbeTimings totalOnly(int totalMs) {
+        return new ProbeTimings(null, null, null, null, totalMs);
+    }
+}
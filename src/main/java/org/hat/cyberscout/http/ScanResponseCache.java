@@ -0,0 +1,341 @@
+package org.hat.cyberscout.http;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.springframework.stereotype.Component;
+
+// Scan-scoped cache for idempotent GETs, so documents fetched by several phases of one run (OpenAPI
+// discovery, exposure checks, attack checks, the home page) cross the network once.
+@Component
+public class ScanResponseCache {
+
+    // Heuristically cacheable status codes (RFC 9111, section 4.2.2).
+    private static final Set<Integer> CACHEABLE_STATUS = Set.of(200, 203, 204, 300, 301, 404, 405, 410, 414, 501);
+    private static final int ENTRY_OVERHEAD_BYTES = 512;
+
+    private final HttpTransport transport;
+    private final HostGate hostGate;
+    private final HttpTransportProperties properties;
+    private final Map<Long, ScanEntries> scans;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong revalidated = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ScanResponseCache(HttpTransport transport, HostGate hostGate) {
+        this.transport = transport;
+        this.hostGate = hostGate;
+        this.properties = transport.properties();
+        this.scans = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ScanEntries> eldest) {
+                return size() > properties.getResponseCacheMaxScans();
+            }
+        };
+    }
+
+    // Returns a fresh cached response without touching the network, if there is one.
+    public Optional<HttpResponse<BoundedBody>> lookupFresh(Long scanRunId, HttpRequest request, int maxBytes) {
+        if (!cacheable(scanRunId, request)) {
+            return Optional.empty();
+        }
+        Entry entry = find(scanRunId, request, maxBytes);
+        if (entry == null || !entry.isFresh(freshForNanos())) {
+            return Optional.empty();
+        }
+        hits.incrementAndGet();
+        return Optional.of(entry.toResponse(request, maxBytes));
+    }
+
+    // Serves the request from the cache when possible, revalidates stale entries that have validators, and
+    // otherwise sends it through the shared transport and stores a cacheable answer.
+    public CompletableFuture<HttpResponse<BoundedBody>> fetch(Long scanRunId, HttpRequest request, int maxBytes) {
+        return fetch(scanRunId, request, maxBytes, r -> hostGate.sendAsync(scanRunId, r,
+                gated -> transport.sendAsync(gated, BoundedBodyHandler.of(maxBytes))), null);
+    }
+
+    // Same, with the body also handed to the tap taps picks for the response as it streams in. A cached
+    // answer is handed over in one chunk.
+    public CompletableFuture<HttpResponse<BoundedBody>> fetch(
+            Long scanRunId,
+            HttpRequest request,
+            int maxBytes,
+            Function<HttpResponse.ResponseInfo, BoundedBodyHandler.BodyTap> taps
+    ) {
+        return fetch(scanRunId, request, maxBytes, r -> hostGate.sendAsync(scanRunId, r,
+                gated -> transport.sendAsync(gated, BoundedBodyHandler.of(maxBytes, taps))), taps);
+    }
+
+    // For HttpProbeService, which already holds a gate permit for the exchange.
+    CompletableFuture<HttpResponse<BoundedBody>> fetch(Long scanRunId, HttpRequest request, int maxBytes, ProbeClock clock) {
+        return fetch(scanRunId, request, maxBytes, r -> transport.sendAsync(r, BoundedBodyHandler.of(maxBytes, clock)), null);
+    }
+
+    private CompletableFuture<HttpResponse<BoundedBody>> fetch(
+            Long scanRunId,
+            HttpRequest request,
+            int maxBytes,
+            Function<HttpRequest, CompletableFuture<HttpResponse<BoundedBody>>> send,
+            Function<HttpResponse.ResponseInfo, BoundedBodyHandler.BodyTap> taps
+    ) {
+        if (!cacheable(scanRunId, request)) {
+            return send.apply(request);
+        }
+        Entry entry = find(scanRunId, request, maxBytes);
+        if (entry != null && entry.isFresh(freshForNanos())) {
+            hits.incrementAndGet();
+            return CompletableFuture.completedFuture(replay(entry.toResponse(request, maxBytes), taps));
+        }
+        if (entry != null && entry.hasValidators()) {
+            HttpRequest.Builder conditional = HttpRequest.newBuilder(request, (name, value) -> true);
+            if (entry.etag != null) {
+                conditional.header("If-None-Match", entry.etag);
+            }
+            if (entry.lastModified != null) {
+                conditional.header("If-Modified-Since", entry.lastModified);
+            }
+            return send.apply(conditional.build()).thenApply(response -> {
+                if (response.statusCode() == 304) {
+                    revalidated.incrementAndGet();
+                    entry.touch();
+                    return replay(entry.toResponse(request, maxBytes), taps);
+                }
+                misses.incrementAndGet();
+                store(scanRunId, request, maxBytes, response);
+                return response;
+            });
+        }
+        misses.incrementAndGet();
+        return send.apply(request).thenApply(response -> {
+            store(scanRunId, request, maxBytes, response);
+            return response;
+        });
+    }
+
+    public void evictScan(Long scanRunId) {
+        if (scanRunId == null) {
+            return;
+        }
+        synchronized (scans) {
+            scans.remove(scanRunId);
+        }
+    }
+
+    public CacheStats stats() {
+        int scanCount;
+        long entries = 0;
+        long bytes = 0;
+        synchronized (scans) {
+            scanCount = scans.size();
+            for (ScanEntries s : scans.values()) {
+                synchronized (s) {
+                    entries += s.entries.size();
+                    bytes += s.bytes;
+                }
+            }
+        }
+        return new CacheStats(hits.get(), revalidated.get(), misses.get(), evictions.get(), scanCount, entries, bytes);
+    }
+
+    private boolean cacheable(Long scanRunId, HttpRequest request) {
+        return scanRunId != null
+                && properties.isResponseCacheEnabled()
+                && "GET".equals(request.method())
+                && request.bodyPublisher().map(p -> p.contentLength() <= 0).orElse(true);
+    }
+
+    private Entry find(Long scanRunId, HttpRequest request, int maxBytes) {
+        ScanEntries s;
+        synchronized (scans) {
+            s = scans.get(scanRunId);
+        }
+        if (s == null) {
+            return null;
+        }
+        synchronized (s) {
+            Entry entry = s.entries.get(key(request));
+            if (entry == null || !entry.matchesVary(request.headers()) || !entry.covers(maxBytes)) {
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    private void store(Long scanRunId, HttpRequest request, int maxBytes, HttpResponse<BoundedBody> response) {
+        if (!CACHEABLE_STATUS.contains(response.statusCode())) {
+            return;
+        }
+        HttpHeaders headers = response.headers();
+        String cacheControl = headers.firstValue("cache-control").orElse("").toLowerCase(Locale.ROOT);
+        if (cacheControl.contains("no-store") || cacheControl.contains("private")) {
+            return;
+        }
+        String vary = headers.allValues("vary").stream().reduce((a, b) -> a + "," + b).orElse("");
+        if (vary.contains("*")) {
+            return;
+        }
+        BoundedBody body = response.body() == null ? BoundedBody.EMPTY : response.body();
+        if (body.length() > properties.getResponseCacheMaxEntryBytes()) {
+            return;
+        }
+
+        Map<String, String> varyValues = new LinkedHashMap<>();
+        for (String name : vary.split(",")) {
+            String n = name.trim().toLowerCase(Locale.ROOT);
+            if (!n.isEmpty()) {
+                varyValues.put(n, request.headers().firstValue(n).orElse(""));
+            }
+        }
+        Entry entry = new Entry(
+                response.statusCode(),
+                headers,
+                body,
+                maxBytes,
+                response.version(),
+                headers.firstValue("etag").orElse(null),
+                headers.firstValue("last-modified").orElse(null),
+                cacheControl.contains("no-cache") || cacheControl.contains("max-age=0"),
+                varyValues
+        );
+
+        ScanEntries s;
+        synchronized (scans) {
+            s = scans.computeIfAbsent(scanRunId, k -> new ScanEntries());
+        }
+        synchronized (s) {
+            Entry previous = s.entries.put(key(request), entry);
+            if (previous != null) {
+                s.bytes -= previous.weight();
+            }
+            s.bytes += entry.weight();
+            Iterator<Entry> lru = s.entries.values().iterator();
+            while (s.bytes > properties.getResponseCacheMaxBytesPerScan() && lru.hasNext()) {
+                Entry eldest = lru.next();
+                lru.remove();
+                s.bytes -= eldest.weight();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private static HttpResponse<BoundedBody> replay(
+            HttpResponse<BoundedBody> response,
+            Function<HttpResponse.ResponseInfo, BoundedBodyHandler.BodyTap> taps
+    ) {
+        if (taps == null || response.body().isEmpty()) {
+            return response;
+        }
+        BoundedBodyHandler.BodyTap tap = taps.apply(new Info(response.statusCode(), response.headers(), response.version()));
+        if (tap != null) {
+            tap.chunk(response.body().bytes(), 0, response.body().length());
+        }
+        return response;
+    }
+
+    private long freshForNanos() {
+        return properties.getResponseCacheFreshFor().toNanos();
+    }
+
+    private static String key(HttpRequest request) {
+        return request.method() + " " + request.uri() + " " + request.headers().firstValue("range").orElse("");
+    }
+
+    public record CacheStats(long hits, long revalidated, long misses, long evictions, int scans, long entries, long bytes) {
+    }
+
+    private record Info(int statusCode, HttpHeaders headers, HttpClient.Version version)
+            implements HttpResponse.ResponseInfo {
+    }
+
+    private static final class ScanEntries {
+        private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+        private long bytes;
+    }
+
+    private static final class Entry {
+        private final int status;
+        private final HttpHeaders headers;
+        private final BoundedBody body;
+        private final int captureLimit;
+        private final HttpClient.Version version;
+        private final String etag;
+        private final String lastModified;
+        private final boolean mustRevalidate;
+        private final Map<String, String> varyValues;
+        private volatile long storedAtNanos;
+
+        Entry(
+                int status,
+                HttpHeaders headers,
+                BoundedBody body,
+                int captureLimit,
+                HttpClient.Version version,
+                String etag,
+                String lastModified,
+                boolean mustRevalidate,
+                Map<String, String> varyValues
+        ) {
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+            this.captureLimit = captureLimit;
+            this.version = version;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.mustRevalidate = mustRevalidate;
+            this.varyValues = varyValues;
+            this.storedAtNanos = System.nanoTime();
+        }
+
+        boolean isFresh(long freshForNanos) {
+            return !mustRevalidate && System.nanoTime() - storedAtNanos < freshForNanos;
+        }
+
+        boolean hasValidators() {
+            return etag != null || lastModified != null;
+        }
+
+        void touch() {
+            storedAtNanos = System.nanoTime();
+        }
+
+        boolean covers(int maxBytes) {
+            // A capture cut at a smaller limit cannot answer a request that wants more of the body.
+            return !body.truncated() || captureLimit >= maxBytes;
+        }
+
+        boolean matchesVary(HttpHeaders requestHeaders) {
+            for (Map.Entry<String, String> v : varyValues.entrySet()) {
+                if (!v.getValue().equals(requestHeaders.firstValue(v.getKey()).orElse(""))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        long weight() {
+            return (long) body.length() + ENTRY_OVERHEAD_BYTES;
+        }
+
+        HttpResponse<BoundedBody> toResponse(HttpRequest request, int maxBytes) {
+            BoundedBody served = body;
+            if (body.length() > maxBytes) {
+                served = new BoundedBody(Arrays.copyOf(body.bytes(), maxBytes), true);
+            }
+            return new CachedHttpResponse(status, request, headers, served, version);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.hat.cyberscout.openapi;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// A resolved request body schema, reduced to what MismatchCorpus needs.
+public record BodySchema(String type, boolean arrayOfObjects, List<Property> properties) {
+
+    public BodySchema {
+        properties = List.copyOf(properties);
+    }
+
+    public record Property(
+            String name,
+            String type,
+            String format,
+            boolean required,
+            boolean nullable,
+            Integer minLength,
+            Integer maxLength,
+            BigDecimal minimum,
+            BigDecimal maximum,
+            List<String> enumValues,
+            List<Property> properties
+    ) {
+
+        public Property {
+            enumValues = enumValues == null ? List.of() : List.copyOf(enumValues);
+            properties = properties == null ? List.of() : List.copyOf(properties);
+        }
+
+        public Property(
+                String name,
+                String type,
+                String format,
+                boolean required,
+                boolean nullable,
+                Integer minLength,
+                Integer maxLength,
+                BigDecimal minimum,
+                BigDecimal maximum,
+                List<String> enumValues
+        ) {
+            this(name, type, format, required, nullable, minLength, maxLength, minimum, maximum, enumValues, List.of());
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package org.hat.cyberscout.openapi;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+// The request bodies that contradict a BodySchema, generated lazily in order of expected signal. Each body
+// carries valid values for the other required properties, so it reaches the check of the one it breaks.
+public final class MismatchCorpus implements Iterable<String> {
+
+    private static final MismatchCorpus EMPTY = new MismatchCorpus(null);
+    private static final int MAX_BOUNDARY_LENGTH = 4096;
+
+    private enum Tier { REQUIRED_TYPE, REQUIRED_NULL, MISSING_REQUIRED, OPTIONAL_TYPE, BOUNDARY, OPTIONAL_NULL, BODY }
+
+    private static final Tier[] TIERS = Tier.values();
+
+    private final BodySchema schema;
+
+    private MismatchCorpus(BodySchema schema) {
+        this.schema = schema;
+    }
+
+    public static MismatchCorpus of(BodySchema schema) {
+        return schema == null ? EMPTY : new MismatchCorpus(schema);
+    }
+
+    // The body with the most signal, or null when there is none.
+    public String first() {
+        Iterator<String> it = iterator();
+        return it.hasNext() ? it.next() : null;
+    }
+
+    // At most limit bodies; only those are generated.
+    public List<String> take(int limit) {
+        List<String> out = new ArrayList<>(Math.max(0, Math.min(limit, 16)));
+        Iterator<String> it = iterator();
+        while (out.size() < limit && it.hasNext()) {
+            out.add(it.next());
+        }
+        return out;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return schema == null ? List.<String>of().iterator() : new Generator(schema);
+    }
+
+    private static final class Generator implements Iterator<String> {
+
+        private final BodySchema schema;
+        // Path from the top level to each target property, parents before their children.
+        private final List<List<BodySchema.Property>> properties;
+        private final Set<Long> seen = new HashSet<>();
+
+        private int tier;
+        private int property = -1;
+        private List<String> bodies = List.of();
+        private int body;
+        private String next;
+
+        Generator(BodySchema schema) {
+            this.schema = schema;
+            this.properties = new ArrayList<>();
+            flatten(schema.properties(), List.of(), properties);
+        }
+
+        private static void flatten(List<BodySchema.Property> level, List<BodySchema.Property> parents,
+                                    List<List<BodySchema.Property>> out) {
+            for (BodySchema.Property p : level) {
+                List<BodySchema.Property> path = new ArrayList<>(parents.size() + 1);
+                path.addAll(parents);
+                path.add(p);
+                out.add(path);
+                flatten(p.properties(), path, out);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = advance();
+            }
+            return next != null;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String out = next;
+            next = null;
+            return out;
+        }
+
+        private String advance() {
+            while (true) {
+                while (body < bodies.size()) {
+                    String candidate = bodies.get(body++);
+                    if (seen.add(structuralHash(candidate))) {
+                        return candidate;
+                    }
+                }
+                if (!step()) {
+                    return null;
+                }
+            }
+        }
+
+        // Moves to the next property (or tier) and generates its bodies; false once everything is done.
+        private boolean step() {
+            while (tier < TIERS.length) {
+                Tier current = TIERS[tier];
+                if (current == Tier.BODY) {
+                    tier++;
+                    bodies = bodyVariants();
+                    body = 0;
+                    return true;
+                }
+                property++;
+                if (property >= properties.size()) {
+                    tier++;
+                    property = -1;
+                    continue;
+                }
+                bodies = variants(current, properties.get(property));
+                body = 0;
+                return true;
+            }
+            return false;
+        }
+
+        private List<String> variants(Tier tier, List<BodySchema.Property> path) {
+            BodySchema.Property p = path.get(path.size() - 1);
+            return switch (tier) {
+                case REQUIRED_TYPE -> p.required() ? List.of(with(path, wrongValue(p.type()))) : List.of();
+                case REQUIRED_NULL -> p.required() && !p.nullable() ? List.of(with(path, "null")) : List.of();
+                case MISSING_REQUIRED -> p.required() ? List.of(with(path, null)) : List.of();
+                case OPTIONAL_TYPE -> p.required() ? List.of() : List.of(with(path, wrongValue(p.type())));
+                case BOUNDARY -> boundaryValues(p).stream().map(v -> with(path, v)).toList();
+                case OPTIONAL_NULL -> !p.required() && !p.nullable() ? List.of(with(path, "null")) : List.of();
+                case BODY -> List.of();
+            };
+        }
+
+        // Bodies of the wrong shape altogether; for a scalar or property-less body these are all there is.
+        private List<String> bodyVariants() {
+            if (!properties.isEmpty()) {
+                return List.of("null");
+            }
+            return switch (schema.type()) {
+                case "object" -> List.of("[]", "null");
+                case "array" -> List.of("{}", "null");
+                default -> List.of(wrongValue(schema.type()), "null");
+            };
+        }
+
+        // The required properties with valid values, and the last property of {@code target} set to
+        // {@code value} (left out when null); the objects on the way to it are always written.
+        private String with(List<BodySchema.Property> target, String value) {
+            StringBuilder out = new StringBuilder(64);
+            if (schema.arrayOfObjects()) {
+                out.append('[');
+            }
+            object(out, schema.properties(), target, 0, value);
+            if (schema.arrayOfObjects()) {
+                out.append(']');
+            }
+            return out.toString();
+        }
+
+        private static void object(StringBuilder out, List<BodySchema.Property> level,
+                                   List<BodySchema.Property> target, int depth, String value) {
+            out.append('{');
+            boolean firstField = true;
+            for (BodySchema.Property p : level) {
+                boolean onPath = depth < target.size() && p == target.get(depth);
+                boolean isTarget = onPath && depth == target.size() - 1;
+                if (isTarget && value == null || !onPath && !p.required()) {
+                    continue;
+                }
+                if (!firstField) {
+                    out.append(',');
+                }
+                firstField = false;
+                out.append(quote(p.name())).append(':');
+                if (isTarget) {
+                    out.append(value);
+                } else if (onPath) {
+                    object(out, p.properties(), target, depth + 1, value);
+                } else {
+                    out.append(validValue(p));
+                }
+            }
+            out.append('}');
+        }
+    }
+
+    private static String wrongValue(String expected) {
+        if (expected == null) {
+            return "\"x\"";
+        }
+        return switch (expected) {
+            case "string" -> "123";
+            case "array" -> "{}";
+            default -> "\"x\"";
+        };
+    }
+
+    private static String validValue(BodySchema.Property p) {
+        String type = p.type() == null ? "" : p.type();
+        if (!p.enumValues().isEmpty()) {
+            String value = p.enumValues().get(0);
+            return ("integer".equals(type) || "number".equals(type)) && isNumber(value) ? value : quote(value);
+        }
+        return switch (type) {
+            case "string" -> quote(validString(p));
+            case "integer" -> validNumber(p).setScale(0, RoundingMode.CEILING).toPlainString();
+            case "number" -> validNumber(p).toPlainString();
+            case "boolean" -> "true";
+            case "array" -> "[]";
+            case "object" -> validObject(p.properties());
+            default -> "\"x\"";
+        };
+    }
+
+    private static String validObject(List<BodySchema.Property> properties) {
+        StringBuilder out = new StringBuilder(32).append('{');
+        for (BodySchema.Property p : properties) {
+            if (p.required()) {
+                if (out.length() > 1) {
+                    out.append(',');
+                }
+                out.append(quote(p.name())).append(':').append(validValue(p));
+            }
+        }
+        return out.append('}').toString();
+    }
+
+    private static String validString(BodySchema.Property p) {
+        if (p.format() != null) {
+            switch (p.format()) {
+                case "uuid":
+                    return "00000000-0000-4000-8000-000000000000";
+                case "date":
+                    return "2024-01-01";
+                case "date-time":
+                    return "2024-01-01T00:00:00Z";
+                case "email":
+                    return "user@example.com";
+                case "uri":
+                    return "https://example.com/";
+                default:
+                    break;
+            }
+        }
+        int length = p.minLength() == null ? 1 : Math.max(1, p.minLength());
+        if (p.maxLength() != null) {
+            length = Math.min(length, Math.max(0, p.maxLength()));
+        }
+        return "a".repeat(Math.min(length, MAX_BOUNDARY_LENGTH));
+    }
+
+    private static BigDecimal validNumber(BodySchema.Property p) {
+        if (p.minimum() != null) {
+            return p.minimum();
+        }
+        if (p.maximum() != null && p.maximum().compareTo(BigDecimal.ONE) < 0) {
+            return p.maximum();
+        }
+        return BigDecimal.ONE;
+    }
+
+    private static List<String> boundaryValues(BodySchema.Property p) {
+        List<String> out = new ArrayList<>(4);
+        String type = p.type() == null ? "" : p.type();
+        switch (type) {
+            case "string" -> {
+                if (!p.enumValues().isEmpty()) {
+                    out.add(quote(p.enumValues().get(0) + "-not-allowed"));
+                }
+                if (p.maxLength() != null && p.maxLength() < MAX_BOUNDARY_LENGTH) {
+                    out.add(quote("a".repeat(Math.max(0, p.maxLength()) + 1)));
+                }
+                if (p.minLength() != null && p.minLength() > 0 && p.minLength() <= MAX_BOUNDARY_LENGTH) {
+                    out.add(quote("a".repeat(p.minLength() - 1)));
+                }
+                if (p.format() != null) {
+                    out.add(quote("not-a-" + p.format()));
+                }
+            }
+            case "integer", "number" -> {
+                if (p.minimum() != null) {
+                    out.add(p.minimum().subtract(BigDecimal.ONE).toPlainString());
+                }
+                if (p.maximum() != null) {
+                    out.add(p.maximum().add(BigDecimal.ONE).toPlainString());
+                }
+                if ("integer".equals(type)) {
+                    out.add("9223372036854775808");
+                    out.add("1.5");
+                }
+            }
+            default -> {
+            }
+        }
+        return out;
+    }
+
+    private static boolean isNumber(String value) {
+        try {
+            new BigDecimal(value);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    // FNV-1a over the body text; property order is fixed by the schema, so equal text is equal structure.
+    private static long structuralHash(String body) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < body.length(); i++) {
+            hash ^= body.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static String quote(String s) {
+        StringBuilder out = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        return out.append('"').toString();
+    }
+}
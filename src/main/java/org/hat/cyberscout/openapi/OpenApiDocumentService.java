@@ -1,57 +1,96 @@
 package org.hat.cyberscout.openapi;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpClient.Redirect;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.time.Duration;
+import java.nio.ByteBuffer;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.hat.cyberscout.http.BoundedBody;
+import org.hat.cyberscout.http.CappedInputStream;
+import org.hat.cyberscout.http.HostGate;
+import org.hat.cyberscout.http.HttpTransport;
+import org.hat.cyberscout.http.ProbeOutcome;
 import org.hat.cyberscout.policy.AttackExecutionRequest;
 import org.hat.cyberscout.policy.PolicyDecision;
 import org.hat.cyberscout.policy.PolicyEnforcer;
-import org.hat.cyberscout.scan.persist.ScanRunRepository;
+import org.hat.cyberscout.scan.persist.HttpObservation;
+import org.hat.cyberscout.scan.persist.ObservationSink;
 import org.hat.cyberscout.util.UrlUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+// Downloads OpenAPI documents and reads their operations as the body streams in.
 @Service
 public class OpenApiDocumentService {
 
     private static final Logger log = LoggerFactory.getLogger(OpenApiDocumentService.class);
+    private static final int EXCERPT_CHARS = 2000;
 
-    private final HttpClient httpClient;
+    private final HttpTransport transport;
+    private final HostGate hostGate;
     private final ObjectMapper objectMapper;
     private final PolicyEnforcer policyEnforcer;
-    private final ScanRunRepository scanRunRepository;
+    private final ObservationSink observationSink;
+    private final OpenApiIndexCache indexCache;
 
-    public OpenApiDocumentService(ObjectMapper objectMapper, PolicyEnforcer policyEnforcer, ScanRunRepository scanRunRepository) {
-        this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(5))
-                .followRedirects(Redirect.NEVER)
-                .build();
+    public OpenApiDocumentService(
+            HttpTransport transport,
+            HostGate hostGate,
+            ObjectMapper objectMapper,
+            PolicyEnforcer policyEnforcer,
+            ObservationSink observationSink,
+            OpenApiIndexCache indexCache
+    ) {
+        this.transport = transport;
+        this.hostGate = hostGate;
         this.objectMapper = objectMapper;
         this.policyEnforcer = policyEnforcer;
-        this.scanRunRepository = scanRunRepository;
+        this.observationSink = observationSink;
+        this.indexCache = indexCache;
     }
 
-    public Optional<JsonNode> fetchOpenApi(Long scanRunId, URI baseUri) {
-        Optional<JsonNode> doc = fetchJson(scanRunId, baseUri, "/v3/api-docs");
-        if (doc.isPresent()) {
-            return doc;
+    // The index recon settled on for this scan run; without one, the first document found at /v3/api-docs or
+    // /openapi.json, which then becomes the run's index.
+    public Optional<OpenApiIndex> index(Long scanRunId, URI baseUri, int limit) {
+        Optional<OpenApiIndex> known = indexCache.forScan(scanRunId);
+        if (known.isPresent()) {
+            return known;
+        }
+        Optional<OpenApiIndex> index = fetchIndexAsync(scanRunId, baseUri.resolve("/v3/api-docs"), limit).join();
+        if (index.isEmpty()) {
+            index = fetchIndexAsync(scanRunId, baseUri.resolve("/openapi.json"), limit).join();
         }
-        return fetchJson(scanRunId, baseUri, "/openapi.json");
+        index.ifPresent(found -> indexCache.assign(scanRunId, found));
+        return index;
     }
 
-    private Optional<JsonNode> fetchJson(Long scanRunId, URI baseUri, String path) {
-        URI uri = baseUri.resolve(path);
+    // Makes index the one later phases of the scan run get from index(...).
+    public void assignToScan(Long scanRunId, OpenApiIndex index) {
+        indexCache.assign(scanRunId, index);
+    }
 
+    // Empty when the policy forbids the GET, the answer is not a 2xx JSON document, or it fails before any
+    // operation is read.
+    public CompletableFuture<Optional<OpenApiIndex>> fetchIndexAsync(Long scanRunId, URI uri, int limit) {
         AttackExecutionRequest req = new AttackExecutionRequest(
                 uri.getHost(),
                 UrlUtils.effectivePort(uri),
@@ -61,62 +100,121 @@ public class OpenApiDocumentService {
         );
         PolicyDecision decision = policyEnforcer.evaluate(req);
         if (!decision.allowed()) {
-            return Optional.empty();
+            return CompletableFuture.completedFuture(Optional.empty());
         }
 
+        CompletableFuture<Optional<OpenApiIndex>> done = new CompletableFuture<>();
+        Thread worker = Thread.ofVirtual().name("cyberscout-openapi").start(() -> {
+            try {
+                done.complete(read(scanRunId, uri, limit));
+            } catch (RuntimeException e) {
+                done.completeExceptionally(e);
+            }
+        });
+        CompletableFuture.delayedExecutor(transport.properties().getDocumentTimeout().toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+            if (!done.isDone()) {
+                worker.interrupt();
+            }
+        });
+        return done;
+    }
+
+    private Optional<OpenApiIndex> read(Long scanRunId, URI uri, int limit) {
         long start = System.nanoTime();
-        int status = 0;
-        String headersText = null;
-        String excerpt = null;
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(transport.properties().getDocumentTimeout())
+                .header("Accept", "application/json")
+                .header("User-Agent", "Cyber-Scout-Pro/0.1 (local)")
+                .GET()
+                .build();
 
+        // No scan run for the gate: the observation is recorded below, with the document's excerpt.
+        HostGate.Permit permit;
         try {
-            HttpRequest request = HttpRequest.newBuilder(uri)
-                    .timeout(Duration.ofSeconds(15))
-                    .header("Accept", "application/json")
-                    .header("User-Agent", "Cyber-Scout-Pro/0.1 (local)")
-                    .GET()
-                    .build();
-
-            HttpResponse<byte[]> resp = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
-            status = resp.statusCode();
-
-            Map<String, String> headers = flattenHeaders(resp.headers().map());
-            headersText = headers.toString();
-            excerpt = excerptUtf8(resp.body(), 2000);
-
-            if (scanRunId != null && scanRunRepository.isEnabled()) {
-                scanRunRepository.insertObservation(
-                        scanRunId,
-                        "GET",
-                        uri.toString(),
-                        status,
-                        durationMs(start),
-                        headersText,
-                        excerpt
-                );
-            }
-
-            if (status / 100 != 2) {
-                return Optional.empty();
-            }
+            permit = hostGate.acquire(null, request);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        } catch (IOException e) {
+            log.warn("OpenAPI fetch skipped {}: {}", uri, e.getMessage());
+            return Optional.empty();
+        }
+        HttpResponse<InputStream> resp;
+        try {
+            resp = transport.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            permit.completed(null, e);
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        } catch (IOException | RuntimeException e) {
+            permit.completed(null, e);
+            log.warn("OpenAPI fetch failed {}: {}", uri, e.getMessage());
+            return Optional.empty();
+        }
 
-            // Cap to 1MB to stay safe in memory; OpenAPI docs can be large.
-            byte[] body = resp.body();
-            if (body == null || body.length == 0) {
-                return Optional.empty();
+        int status = resp.statusCode();
+        List<OpenApiOperation> ops = new ArrayList<>();
+        boolean parsed = false;
+        CappedInputStream capped = new CappedInputStream(resp.body(), transport.properties().getMaxOpenApiBytes());
+        MessageDigest digest = sha256();
+        // The limit decides how much of the document is read, so it is part of the key.
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(limit).flip());
+        PrefixCapture body = new PrefixCapture(new DigestInputStream(capped, digest), EXCERPT_CHARS);
+        try (body) {
+            if (status / 100 == 2) {
+                try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+                    OpenApiStreamParser.parse(parser, limit, ops::add);
+                }
+                parsed = true;
+            } else {
+                body.readNBytes(EXCERPT_CHARS);
             }
-            if (body.length > 1_000_000) {
-                log.warn("OpenAPI doc too large ({} bytes) at {}", body.length, uri);
-                return Optional.empty();
+        } catch (IOException e) {
+            // Interrupted reads land here as well. Operations read before the failure are kept.
+            if (capped.limitReached()) {
+                log.warn("OpenAPI doc at {} larger than {} bytes; kept the {} operations read before the cut",
+                        uri, transport.properties().getMaxOpenApiBytes(), ops.size());
+            } else {
+                log.warn("OpenAPI read failed {} after {} operations: {}", uri, ops.size(), e.getMessage());
             }
-            return Optional.of(objectMapper.readTree(body));
-        } catch (Exception e) {
-            log.warn("OpenAPI fetch failed {}: {}", uri, e.getMessage());
+        } finally {
+            permit.completed(resp, null);
+        }
+
+        if (scanRunId != null) {
+            observationSink.record(new HttpObservation(
+                    scanRunId,
+                    "GET",
+                    uri.toString(),
+                    status,
+                    ProbeOutcome.RESPONSE.name(),
+                    durationMs(start),
+                    null,
+                    null,
+                    null,
+                    null,
+                    flattenHeaders(resp.headers().map()).toString(),
+                    body.excerpt(),
+                    OffsetDateTime.now()
+            ));
+        }
+
+        if (status / 100 != 2 || (!parsed && ops.isEmpty())) {
             return Optional.empty();
         }
+        OpenApiIndex index = OpenApiIndex.of(HexFormat.of().formatHex(digest.digest()), ops);
+        return Optional.of(parsed ? indexCache.intern(index) : index);
     }
 
-    private Map<String, String> flattenHeaders(Map<String, java.util.List<String>> raw) {
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private Map<String, String> flattenHeaders(Map<String, List<String>> raw) {
         Map<String, String> out = new LinkedHashMap<>();
         raw.forEach((k, v) -> out.put(k.toLowerCase(Locale.ROOT), String.join(",", v)));
         return out;
@@ -126,15 +224,39 @@ public class OpenApiDocumentService {
         return (int) Math.min(Integer.MAX_VALUE, (System.nanoTime() - startNano) / 1_000_000L);
     }
 
-    private String excerptUtf8(byte[] bytes, int maxChars) {
-        if (bytes == null || bytes.length == 0) {
-            return null;
+    // Keeps the first bytes read for the observation excerpt.
+    private static final class PrefixCapture extends FilterInputStream {
+
+        private final byte[] prefix;
+        private int length;
+
+        PrefixCapture(InputStream in, int size) {
+            super(in);
+            this.prefix = new byte[size];
         }
-        String s = new String(bytes, java.nio.charset.StandardCharsets.UTF_8);
-        if (s.length() <= maxChars) {
-            return s;
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0 && length < prefix.length) {
+                prefix[length++] = (byte) b;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            int n = super.read(buffer, off, len);
+            if (n > 0 && length < prefix.length) {
+                int keep = Math.min(n, prefix.length - length);
+                System.arraycopy(buffer, off, prefix, length, keep);
+                length += keep;
+            }
+            return n;
+        }
+
+        String excerpt() {
+            return new BoundedBody(Arrays.copyOf(prefix, length), false).excerpt(EXCERPT_CHARS);
         }
-        return s.substring(0, maxChars);
     }
 }
-
@@ -0,0 +1,103 @@
+package org.hat.cyberscout.openapi;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+// The operations of one OpenAPI document, compiled once into the lookups the checks use.
+public final class OpenApiIndex {
+
+    private final String contentHash;
+    private final List<OpenApiOperation> operations;
+    private final Map<String, List<OpenApiOperation>> byPath;
+    private final Map<String, List<OpenApiOperation>> byMethod;
+    private final Map<String, List<OpenApiOperation>> byContentType;
+    private final List<OpenApiOperation> secured;
+    private final List<OpenApiOperation> unsecured;
+
+    private OpenApiIndex(String contentHash, List<OpenApiOperation> operations) {
+        this.contentHash = contentHash;
+        this.operations = List.copyOf(operations);
+        Map<String, List<OpenApiOperation>> paths = new LinkedHashMap<>();
+        Map<String, List<OpenApiOperation>> methods = new LinkedHashMap<>();
+        Map<String, List<OpenApiOperation>> contentTypes = new LinkedHashMap<>();
+        List<OpenApiOperation> withSecurity = new ArrayList<>();
+        List<OpenApiOperation> withoutSecurity = new ArrayList<>();
+        for (OpenApiOperation op : this.operations) {
+            paths.computeIfAbsent(op.path(), k -> new ArrayList<>()).add(op);
+            methods.computeIfAbsent(op.method(), k -> new ArrayList<>()).add(op);
+            if (op.requestContentType() != null) {
+                contentTypes.computeIfAbsent(mediaType(op.requestContentType()), k -> new ArrayList<>()).add(op);
+            }
+            (op.secured() ? withSecurity : withoutSecurity).add(op);
+        }
+        this.byPath = frozen(paths);
+        this.byMethod = frozen(methods);
+        this.byContentType = frozen(contentTypes);
+        this.secured = List.copyOf(withSecurity);
+        this.unsecured = List.copyOf(withoutSecurity);
+    }
+
+    public static OpenApiIndex of(String contentHash, List<OpenApiOperation> operations) {
+        return new OpenApiIndex(contentHash, operations);
+    }
+
+    public String contentHash() {
+        return contentHash;
+    }
+
+    public List<OpenApiOperation> operations() {
+        return operations;
+    }
+
+    public int size() {
+        return operations.size();
+    }
+
+    public List<OpenApiOperation> byPath(String pathTemplate) {
+        return byPath.getOrDefault(pathTemplate, List.of());
+    }
+
+    public Optional<OpenApiOperation> find(String pathTemplate, String method) {
+        if (method == null) {
+            return Optional.empty();
+        }
+        String upper = method.toUpperCase(Locale.ROOT);
+        for (OpenApiOperation op : byPath(pathTemplate)) {
+            if (op.method().equals(upper)) {
+                return Optional.of(op);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public List<OpenApiOperation> byMethod(String method) {
+        return method == null ? List.of() : byMethod.getOrDefault(method.toUpperCase(Locale.ROOT), List.of());
+    }
+
+    public List<OpenApiOperation> bySecured(boolean securedOperations) {
+        return securedOperations ? secured : unsecured;
+    }
+
+    // Operations whose request body is sent as contentType; parameters and case are ignored, so
+    // application/json; charset=utf-8 finds application/json.
+    public List<OpenApiOperation> byRequestContentType(String contentType) {
+        return contentType == null ? List.of() : byContentType.getOrDefault(mediaType(contentType), List.of());
+    }
+
+    private static String mediaType(String contentType) {
+        int semicolon = contentType.indexOf(';');
+        String type = semicolon >= 0 ? contentType.substring(0, semicolon) : contentType;
+        return type.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Map<String, List<OpenApiOperation>> frozen(Map<String, List<OpenApiOperation>> index) {
+        Map<String, List<OpenApiOperation>> copy = new LinkedHashMap<>();
+        index.forEach((key, ops) -> copy.put(key, List.copyOf(ops)));
+        return Collections.unmodifiableMap(copy);
+    }
+}
@@ -0,0 +1,73 @@
+package org.hat.cyberscout.openapi;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import org.hat.cyberscout.scan.persist.ScanPersistenceProperties;
+import org.springframework.stereotype.Component;
+
+// Compiled OpenApiIndexes by content hash, plus the index each scan run settled on.
+@Component
+public class OpenApiIndexCache {
+
+    private static final int MAX_SCANS = 64;
+
+    private final Map<String, OpenApiIndex> indexes;
+    private final Map<Long, String> scans = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+            return size() > MAX_SCANS;
+        }
+    };
+
+    public OpenApiIndexCache(ScanPersistenceProperties properties) {
+        int capacity = Math.max(1, properties.getOpenApiIndexCacheSize());
+        this.indexes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, OpenApiIndex> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    // The cached index for the same document if there is one, else index, now cached.
+    public OpenApiIndex intern(OpenApiIndex index) {
+        synchronized (this) {
+            OpenApiIndex existing = indexes.get(index.contentHash());
+            if (existing != null) {
+                return existing;
+            }
+            indexes.put(index.contentHash(), index);
+            return index;
+        }
+    }
+
+    public void assign(Long scanRunId, OpenApiIndex index) {
+        if (scanRunId == null) {
+            return;
+        }
+        synchronized (this) {
+            indexes.putIfAbsent(index.contentHash(), index);
+            scans.put(scanRunId, index.contentHash());
+        }
+    }
+
+    public Optional<OpenApiIndex> forScan(Long scanRunId) {
+        if (scanRunId == null) {
+            return Optional.empty();
+        }
+        synchronized (this) {
+            String hash = scans.get(scanRunId);
+            return Optional.ofNullable(hash == null ? null : indexes.get(hash));
+        }
+    }
+
+    public void evictScan(Long scanRunId) {
+        if (scanRunId == null) {
+            return;
+        }
+        synchronized (this) {
+            scans.remove(scanRunId);
+        }
+    }
+}
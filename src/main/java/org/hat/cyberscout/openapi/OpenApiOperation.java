@@ -1,10 +1,59 @@
 package org.hat.cyberscout.openapi;
 
+import java.net.URI;
+
 public record OpenApiOperation(
         String path,
         String method,
         boolean secured,
-        String jsonTypeMismatchBody
+        String requestContentType,
+        BodySchema requestSchema
 ) {
-}
 
+    // Ids are most often numeric, and "1" is also a valid string.
+    private static final String SAMPLE_PATH_VALUE = "1";
+
+    // The bodies that contradict the request schema, best first; empty without one.
+    public MismatchCorpus mismatchCorpus() {
+        return MismatchCorpus.of(requestSchema);
+    }
+
+    // The path with every {variable} filled with a sample value, so it can be requested; null when the
+    // template is malformed or the result is not a valid URI path.
+    public String samplePath() {
+        if (path == null) {
+            return null;
+        }
+        StringBuilder out = new StringBuilder(path.length());
+        int i = 0;
+        while (i < path.length()) {
+            char c = path.charAt(i);
+            if (c == '}') {
+                return null;
+            }
+            if (c != '{') {
+                out.append(c);
+                i++;
+                continue;
+            }
+            int close = path.indexOf('}', i + 1);
+            if (close < 0 || close == i + 1 || path.lastIndexOf('{', close) != i) {
+                return null;
+            }
+            out.append(SAMPLE_PATH_VALUE);
+            i = close + 1;
+        }
+        String sample = out.toString();
+        try {
+            URI.create(sample);
+        } catch (IllegalArgumentException invalid) {
+            return null;
+        }
+        return sample;
+    }
+
+    // The first body of mismatchCorpus(), or null.
+    public String jsonTypeMismatchBody() {
+        return mismatchCorpus().first();
+    }
+}
@@ -18,6 +18,7 @@ public final class OpenApiParser {
         }
 
         boolean globalSecured = isNonEmptySecurityArray(openApiRoot.get("security"));
+        SchemaResolver schemas = new SchemaResolver(openApiRoot.path("components").get("schemas"));
 
         JsonNode paths = openApiRoot.get("paths");
         if (paths == null || !paths.isObject()) {
@@ -46,8 +47,7 @@ public final class OpenApiParser {
                 }
 
                 boolean secured = effectiveSecured(globalSecured, op.get("security"));
-                String mismatchBody = jsonTypeMismatchBody(op);
-                ops.add(new OpenApiOperation(path, methodUpper, secured, mismatchBody));
+                ops.add(new OpenApiOperation(path, methodUpper, secured, requestContentType(op), requestSchema(op, schemas)));
             }
         }
 
@@ -73,80 +73,41 @@ public final class OpenApiParser {
         return node != null && node.isArray() && node.size() > 0;
     }
 
-    private static String jsonTypeMismatchBody(JsonNode operation) {
+    // The media type the mismatch body is built for: application/json, else the first mentioning json,
+    // else the first listed.
+    private static String requestContentType(JsonNode operation) {
         JsonNode requestBody = operation.get("requestBody");
-        if (requestBody == null || !requestBody.isObject()) {
+        JsonNode content = requestBody == null ? null : requestBody.get("content");
+        if (content == null || !content.isObject() || content.isEmpty()) {
             return null;
         }
-
-        JsonNode content = requestBody.get("content");
-        if (content == null || !content.isObject()) {
-            return null;
+        if (content.has("application/json")) {
+            return "application/json";
         }
-
-        // Prefer application/json.
-        JsonNode appJson = content.get("application/json");
-        if (appJson == null) {
-            Iterator<String> cts = content.fieldNames();
-            while (cts.hasNext()) {
-                String ct = cts.next();
-                if (ct.toLowerCase(Locale.ROOT).contains("json")) {
-                    appJson = content.get(ct);
-                    break;
-                }
+        Iterator<String> cts = content.fieldNames();
+        String first = null;
+        while (cts.hasNext()) {
+            String ct = cts.next();
+            if (first == null) {
+                first = ct;
+            }
+            if (ct.toLowerCase(Locale.ROOT).contains("json")) {
+                return ct;
             }
         }
-        if (appJson == null || !appJson.isObject()) {
-            return null;
-        }
-
-        JsonNode schema = appJson.get("schema");
-        if (schema == null || !schema.isObject()) {
-            return null;
-        }
-
-        // Only handle the simple case: object schema with properties.
-        JsonNode type = schema.get("type");
-        if (type == null || !"object".equalsIgnoreCase(type.asText())) {
-            return null;
-        }
-
-        JsonNode props = schema.get("properties");
-        if (props == null || !props.isObject()) {
-            return null;
-        }
+        return first;
+    }
 
-        Iterator<String> names = props.fieldNames();
-        if (!names.hasNext()) {
+    private static BodySchema requestSchema(JsonNode operation, SchemaResolver schemas) {
+        String contentType = requestContentType(operation);
+        // Only JSON bodies get one.
+        if (contentType == null || !contentType.toLowerCase(Locale.ROOT).contains("json")) {
             return null;
         }
-        String propName = names.next();
-        JsonNode prop = props.get(propName);
-        if (prop == null || !prop.isObject()) {
+        JsonNode mediaType = operation.get("requestBody").get("content").get(contentType);
+        if (mediaType == null || !mediaType.isObject()) {
             return null;
         }
-
-        String expected = prop.has("type") ? prop.get("type").asText() : null;
-        String wrongValue = wrongValueForType(expected);
-        return "{\"" + escapeJson(propName) + "\":" + wrongValue + "}";
-    }
-
-    private static String wrongValueForType(String expected) {
-        if (expected == null) {
-            return "\"x\"";
-        }
-        return switch (expected.toLowerCase(Locale.ROOT)) {
-            case "string" -> "123";
-            case "integer", "number" -> "\"x\"";
-            case "boolean" -> "\"x\"";
-            case "array" -> "{}";
-            case "object" -> "\"x\"";
-            default -> "\"x\"";
-        };
-    }
-
-    private static String escapeJson(String s) {
-        return s.replace("\\", "\\\\").replace("\"", "\\\"");
+        return schemas.resolve(mediaType.get("schema"));
     }
 }
-
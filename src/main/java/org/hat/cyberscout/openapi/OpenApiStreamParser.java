@@ -0,0 +1,278 @@
+package org.hat.cyberscout.openapi;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+// Token-level counterpart of OpenApiParser: the same operations, in the same order, read from a JsonParser
+// without building a tree of the document.
+public final class OpenApiStreamParser {
+
+    private static final ObjectMapper TREES = new ObjectMapper();
+
+    private OpenApiStreamParser() {
+    }
+
+    public static List<OpenApiOperation> parseOperations(JsonFactory factory, InputStream json, int limit) throws IOException {
+        List<OpenApiOperation> ops = new ArrayList<>();
+        try (JsonParser parser = factory.createParser(json)) {
+            parse(parser, limit, ops::add);
+        }
+        return ops;
+    }
+
+    // Hands every operation to sink as soon as it is settled.
+    public static int parse(JsonParser parser, int limit, Consumer<OpenApiOperation> sink) throws IOException {
+        Parse parse = new Parse(parser, limit, sink);
+        try {
+            parse.document();
+        } finally {
+            parse.flush();
+        }
+        return parse.emitted;
+    }
+
+    private record Pending(String path, String method, Boolean secured, RequestBody requestBody) {
+
+        boolean needsComponents() {
+            return requestBody.schema() != null && requestBody.schema().findValue("$ref") != null;
+        }
+    }
+
+    // The schema is that of a JSON media type only.
+    private record RequestBody(String contentType, JsonNode schema) {
+
+        static final RequestBody NONE = new RequestBody(null, null);
+    }
+
+    private static final class Parse {
+
+        private final JsonParser parser;
+        private final int limit;
+        private final Consumer<OpenApiOperation> sink;
+        private final ArrayDeque<Pending> pending = new ArrayDeque<>();
+
+        private boolean globalKnown;
+        private boolean globalSecured;
+        private boolean componentsKnown;
+        private SchemaResolver schemas = new SchemaResolver(null);
+        private int read;
+        private int emitted;
+
+        Parse(JsonParser parser, int limit, Consumer<OpenApiOperation> sink) {
+            this.parser = parser;
+            this.limit = limit;
+            this.sink = sink;
+        }
+
+        void document() throws IOException {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("security".equals(name)) {
+                    globalSecured = value == JsonToken.START_ARRAY && nonEmptyArray();
+                    globalKnown = true;
+                    parser.skipChildren();
+                    drain();
+                } else if ("paths".equals(name) && value == JsonToken.START_OBJECT && read < limit) {
+                    paths();
+                } else if ("components".equals(name) && value == JsonToken.START_OBJECT) {
+                    components();
+                    componentsKnown = true;
+                    drain();
+                } else {
+                    parser.skipChildren();
+                }
+                if (done()) {
+                    return;
+                }
+            }
+        }
+
+        // Enough operations settled; the rest of the document is not read.
+        private boolean done() {
+            return read >= limit && pending.isEmpty();
+        }
+
+        private void components() throws IOException {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("schemas".equals(name) && value == JsonToken.START_OBJECT) {
+                    schemas = new SchemaResolver(TREES.readTree(parser));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        private void paths() throws IOException {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String path = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (value == JsonToken.START_OBJECT && read < limit) {
+                    pathItem(path);
+                } else {
+                    parser.skipChildren();
+                }
+                if (done()) {
+                    return;
+                }
+            }
+        }
+
+        private void pathItem(String path) throws IOException {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String method = parser.currentName().toUpperCase(Locale.ROOT);
+                JsonToken value = parser.nextToken();
+                if (value == JsonToken.START_OBJECT && read < limit && isHttpMethod(method)) {
+                    operation(path, method);
+                } else {
+                    parser.skipChildren();
+                }
+                if (done()) {
+                    return;
+                }
+            }
+        }
+
+        private void operation(String path, String method) throws IOException {
+            Boolean secured = null;
+            RequestBody body = RequestBody.NONE;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("security".equals(name) && value == JsonToken.START_ARRAY) {
+                    // OpenAPI: "security: []" means explicitly no security for this operation.
+                    secured = nonEmptyArray();
+                    parser.skipChildren();
+                } else if ("requestBody".equals(name) && value == JsonToken.START_OBJECT) {
+                    body = requestBody();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            read++;
+            pending.add(new Pending(path, method, secured, body));
+            drain();
+        }
+
+        private RequestBody requestBody() throws IOException {
+            RequestBody body = RequestBody.NONE;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("content".equals(name) && value == JsonToken.START_OBJECT) {
+                    body = content();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return body;
+        }
+
+        // Prefer application/json, else the first media type mentioning json, else the first one.
+        private RequestBody content() throws IOException {
+            JsonNode exact = null;
+            boolean exactSeen = false;
+            JsonNode other = null;
+            String otherType = null;
+            String firstType = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String mediaType = parser.currentName();
+                parser.nextToken();
+                if (firstType == null) {
+                    firstType = mediaType;
+                }
+                if (!exactSeen && "application/json".equals(mediaType)) {
+                    exactSeen = true;
+                    exact = mediaType();
+                } else if (!exactSeen && otherType == null && mediaType.toLowerCase(Locale.ROOT).contains("json")) {
+                    otherType = mediaType;
+                    other = mediaType();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (exactSeen) {
+                return new RequestBody("application/json", exact);
+            }
+            return otherType != null ? new RequestBody(otherType, other) : new RequestBody(firstType, null);
+        }
+
+        private JsonNode mediaType() throws IOException {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                return null;
+            }
+            JsonNode schema = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("schema".equals(name) && value == JsonToken.START_OBJECT) {
+                    schema = TREES.readTree(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return schema;
+        }
+
+        private boolean nonEmptyArray() throws IOException {
+            JsonToken first = parser.nextToken();
+            if (first == JsonToken.END_ARRAY) {
+                return false;
+            }
+            // Positioned on the first element; skip it and the rest of the array.
+            parser.skipChildren();
+            JsonToken next;
+            while ((next = parser.nextToken()) != JsonToken.END_ARRAY && next != null) {
+                parser.skipChildren();
+            }
+            return true;
+        }
+
+        private void drain() {
+            while (!pending.isEmpty() && emitted < limit) {
+                Pending next = pending.peek();
+                if ((next.secured() == null && !globalKnown) || (!componentsKnown && next.needsComponents())) {
+                    return;
+                }
+                pending.poll();
+                emit(next, next.secured() != null ? next.secured() : globalSecured);
+            }
+        }
+
+        void flush() {
+            globalKnown = true;
+            componentsKnown = true;
+            drain();
+        }
+
+        private void emit(Pending op, boolean secured) {
+            emitted++;
+            JsonNode schema = op.requestBody().schema();
+            sink.accept(new OpenApiOperation(op.path(), op.method(), secured, op.requestBody().contentType(),
+                    schema == null ? null : schemas.resolve(schema)));
+        }
+    }
+
+    private static boolean isHttpMethod(String methodUpper) {
+        return switch (methodUpper) {
+            case "GET", "POST", "PUT", "PATCH", "DELETE" -> true;
+            default -> false;
+        };
+    }
+}
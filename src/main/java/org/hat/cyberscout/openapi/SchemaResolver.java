@@ -0,0 +1,257 @@
+package org.hat.cyberscout.openapi;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Resolves a request body schema into a BodySchema, following $refs into components.schemas and merging allOf
+// parts (and the first oneOf/anyOf alternative) into one shape.
+final class SchemaResolver {
+
+    private static final String COMPONENT_PREFIX = "#/components/schemas/";
+    // Nested object levels carried into BodySchema; also where recursive schemas stop.
+    private static final int MAX_NESTING = 4;
+
+    private final JsonNode components;
+    // A null value marks a component that is unresolvable or an alias still being resolved.
+    private final Map<String, Shape> compiled = new HashMap<>();
+
+    SchemaResolver(JsonNode componentSchemas) {
+        this.components = componentSchemas != null && componentSchemas.isObject() ? componentSchemas : null;
+    }
+
+    // The body this schema describes, or null when its type cannot be told. Operations whose body is the same
+    // component get the same BodySchema.
+    BodySchema resolve(JsonNode schema) {
+        Shape shape = compile(schema);
+        if (shape == null || shape.type == null) {
+            return null;
+        }
+        if (shape.body == null) {
+            if ("array".equals(shape.type) && shape.items != null && "object".equals(shape.items.type)
+                    && !shape.items.properties.isEmpty()) {
+                shape.body = new BodySchema("array", true, properties(shape.items, 1));
+            } else {
+                shape.body = new BodySchema(shape.type, false, "object".equals(shape.type) ? properties(shape, 1) : List.of());
+            }
+        }
+        return shape.body;
+    }
+
+    // Converted once per shape and depth, so a component used by many operations or properties is shared.
+    private static List<BodySchema.Property> properties(Shape object, int depth) {
+        List<BodySchema.Property> cached = object.converted.get(depth);
+        if (cached != null) {
+            return cached;
+        }
+        List<BodySchema.Property> out = new ArrayList<>(object.properties.size());
+        object.properties.forEach((name, p) -> out.add(p == null
+                ? new BodySchema.Property(name, null, null, object.required.contains(name), false, null, null, null, null, null)
+                : new BodySchema.Property(name, p.type, p.format, object.required.contains(name), p.nullable,
+                        p.minLength, p.maxLength, p.minimum, p.maximum, p.enumValues,
+                        "object".equals(p.type) && depth < MAX_NESTING ? properties(p, depth + 1) : List.of())));
+        List<BodySchema.Property> converted = List.copyOf(out);
+        object.converted.put(depth, converted);
+        return converted;
+    }
+
+    private Shape compile(JsonNode schema) {
+        if (schema == null || !schema.isObject()) {
+            return null;
+        }
+        JsonNode ref = schema.get("$ref");
+        if (ref != null && ref.isTextual()) {
+            return component(ref.asText());
+        }
+        Shape shape = new Shape();
+        merge(shape, schema);
+        return shape;
+    }
+
+    private Shape component(String ref) {
+        if (components == null || !ref.startsWith(COMPONENT_PREFIX)) {
+            return null;
+        }
+        // JSON pointer escapes.
+        String name = ref.substring(COMPONENT_PREFIX.length()).replace("~1", "/").replace("~0", "~");
+        if (compiled.containsKey(name)) {
+            return compiled.get(name);
+        }
+        JsonNode schema = components.get(name);
+        if (schema == null || !schema.isObject()) {
+            compiled.put(name, null);
+            return null;
+        }
+        if (schema.has("$ref")) {
+            // An alias; the placeholder stops alias loops.
+            compiled.put(name, null);
+            Shape target = compile(schema);
+            compiled.put(name, target);
+            return target;
+        }
+        // Registered before it is filled in, so self references get this instance.
+        Shape shape = new Shape();
+        compiled.put(name, shape);
+        merge(shape, schema);
+        return shape;
+    }
+
+    private void merge(Shape into, JsonNode schema) {
+        if (into.type == null) {
+            into.type = type(schema.get("type"));
+        }
+        into.nullable |= nullable(schema);
+        if (into.format == null && schema.path("format").isTextual()) {
+            into.format = schema.get("format").asText().toLowerCase(Locale.ROOT);
+        }
+        if (into.minLength == null && schema.path("minLength").canConvertToInt()) {
+            into.minLength = schema.get("minLength").asInt();
+        }
+        if (into.maxLength == null && schema.path("maxLength").canConvertToInt()) {
+            into.maxLength = schema.get("maxLength").asInt();
+        }
+        if (into.minimum == null && schema.path("minimum").isNumber()) {
+            into.minimum = schema.get("minimum").decimalValue();
+        }
+        if (into.maximum == null && schema.path("maximum").isNumber()) {
+            into.maximum = schema.get("maximum").decimalValue();
+        }
+        if (into.enumValues == null && schema.path("enum").isArray()) {
+            List<String> values = new ArrayList<>();
+            for (JsonNode value : schema.get("enum")) {
+                if (value.isValueNode() && !value.isNull()) {
+                    values.add(value.asText());
+                }
+            }
+            into.enumValues = values;
+        }
+        JsonNode allOf = schema.get("allOf");
+        if (allOf != null && allOf.isArray()) {
+            for (JsonNode part : allOf) {
+                include(into, compile(part));
+            }
+        }
+        JsonNode alternatives = schema.has("oneOf") ? schema.get("oneOf") : schema.get("anyOf");
+        if (alternatives != null && alternatives.isArray() && !alternatives.isEmpty()) {
+            include(into, compile(alternatives.get(0)));
+        }
+        JsonNode properties = schema.get("properties");
+        if (properties != null && properties.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> fields = properties.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                if (!into.properties.containsKey(field.getKey())) {
+                    into.properties.put(field.getKey(), compile(field.getValue()));
+                }
+            }
+        }
+        JsonNode required = schema.get("required");
+        if (required != null && required.isArray()) {
+            for (JsonNode name : required) {
+                if (name.isTextual()) {
+                    into.required.add(name.asText());
+                }
+            }
+        }
+        if (into.items == null) {
+            into.items = compile(schema.get("items"));
+        }
+        if (into.type == null && !into.properties.isEmpty()) {
+            into.type = "object";
+        } else if (into.type == null && into.items != null) {
+            into.type = "array";
+        }
+    }
+
+    private static void include(Shape into, Shape part) {
+        if (part == null || part == into) {
+            return;
+        }
+        if (into.type == null) {
+            into.type = part.type;
+        }
+        into.nullable |= part.nullable;
+        if (into.format == null) {
+            into.format = part.format;
+        }
+        if (into.minLength == null) {
+            into.minLength = part.minLength;
+        }
+        if (into.maxLength == null) {
+            into.maxLength = part.maxLength;
+        }
+        if (into.minimum == null) {
+            into.minimum = part.minimum;
+        }
+        if (into.maximum == null) {
+            into.maximum = part.maximum;
+        }
+        if (into.enumValues == null) {
+            into.enumValues = part.enumValues;
+        }
+        part.properties.forEach(into.properties::putIfAbsent);
+        into.required.addAll(part.required);
+        if (into.items == null) {
+            into.items = part.items;
+        }
+    }
+
+    // OpenAPI 3.1 allows a list of types; the first one that is not "null" counts.
+    private static String type(JsonNode type) {
+        if (type == null) {
+            return null;
+        }
+        if (type.isTextual()) {
+            return type.asText().toLowerCase(Locale.ROOT);
+        }
+        if (type.isArray()) {
+            for (JsonNode t : type) {
+                if (t.isTextual() && !"null".equals(t.asText())) {
+                    return t.asText().toLowerCase(Locale.ROOT);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean nullable(JsonNode schema) {
+        if (schema.path("nullable").asBoolean(false)) {
+            return true;
+        }
+        JsonNode type = schema.get("type");
+        if (type != null && type.isArray()) {
+            for (JsonNode t : type) {
+                if ("null".equals(t.asText())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static final class Shape {
+
+        String type;
+        String format;
+        boolean nullable;
+        Integer minLength;
+        Integer maxLength;
+        BigDecimal minimum;
+        BigDecimal maximum;
+        List<String> enumValues;
+        final Map<String, Shape> properties = new LinkedHashMap<>();
+        final Set<String> required = new LinkedHashSet<>();
+        Shape items;
+        // What resolve() and properties() built from this shape; only read once it is fully merged.
+        BodySchema body;
+        final Map<Integer, List<BodySchema.Property>> converted = new HashMap<>(4);
+    }
+}
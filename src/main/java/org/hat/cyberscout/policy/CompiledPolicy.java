@@ -0,0 +1,271 @@
+package org.hat.cyberscout.policy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Immutable matcher built once from PolicyProperties.
+final class CompiledPolicy {
+
+    private static final String[] KNOWN_METHODS = {"GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS", "TRACE"};
+
+    private final Set<String> exactHosts;
+    private final String[] wildcardSuffixes;
+    private final int[] cidrNetworks;
+    private final int[] cidrMasks;
+    private final BitSet ports;
+    private final int methodMask;
+    private final Set<String> extraMethods;
+    private final PrefixTrie pathPrefixes;
+    private final int maxPayloadsPerTarget;
+
+    private CompiledPolicy(
+            Set<String> exactHosts,
+            String[] wildcardSuffixes,
+            int[] cidrNetworks,
+            int[] cidrMasks,
+            BitSet ports,
+            int methodMask,
+            Set<String> extraMethods,
+            PrefixTrie pathPrefixes,
+            int maxPayloadsPerTarget
+    ) {
+        this.exactHosts = exactHosts;
+        this.wildcardSuffixes = wildcardSuffixes;
+        this.cidrNetworks = cidrNetworks;
+        this.cidrMasks = cidrMasks;
+        this.ports = ports;
+        this.methodMask = methodMask;
+        this.extraMethods = extraMethods;
+        this.pathPrefixes = pathPrefixes;
+        this.maxPayloadsPerTarget = maxPayloadsPerTarget;
+    }
+
+    static CompiledPolicy compile(PolicyProperties properties) {
+        Set<String> exact = new HashSet<>();
+        List<String> wildcards = new ArrayList<>();
+        List<int[]> cidrs = new ArrayList<>();
+        for (String raw : nullSafe(properties.getAllowedHosts())) {
+            String host = raw.trim().toLowerCase(Locale.ROOT);
+            if (host.startsWith("*.")) {
+                wildcards.add(host.substring(1));
+            } else if (host.indexOf('/') > 0) {
+                cidrs.add(parseCidr(host));
+            } else if (!host.isEmpty()) {
+                exact.add(host);
+            }
+        }
+
+        BitSet ports = new BitSet(65536);
+        for (Integer port : nullSafe(properties.getAllowedPorts())) {
+            if (port != null && port >= 0 && port <= 65535) {
+                ports.set(port);
+            }
+        }
+
+        int mask = 0;
+        Set<String> extra = new HashSet<>();
+        for (String raw : nullSafe(properties.getAllowedMethods())) {
+            String method = raw.trim().toUpperCase(Locale.ROOT);
+            int bit = methodBit(method);
+            if (bit != 0) {
+                mask |= bit;
+            } else {
+                extra.add(method);
+            }
+        }
+
+        int[] networks = new int[cidrs.size()];
+        int[] masks = new int[cidrs.size()];
+        for (int i = 0; i < cidrs.size(); i++) {
+            networks[i] = cidrs.get(i)[0];
+            masks[i] = cidrs.get(i)[1];
+        }
+
+        return new CompiledPolicy(
+                Set.copyOf(exact),
+                wildcards.toArray(String[]::new),
+                networks,
+                masks,
+                ports,
+                mask,
+                Set.copyOf(extra),
+                PrefixTrie.of(nullSafe(properties.getAllowedPathPrefixes())),
+                properties.getMaxPayloadsPerTarget()
+        );
+    }
+
+    boolean hostAllowed(String host) {
+        if (host == null) {
+            return false;
+        }
+        // toLowerCase returns the same instance when nothing changes, so the usual case does not allocate.
+        String h = host.toLowerCase(Locale.ROOT);
+        if (exactHosts.contains(h)) {
+            return true;
+        }
+        for (String suffix : wildcardSuffixes) {
+            if (h.length() > suffix.length() && h.endsWith(suffix)) {
+                return true;
+            }
+        }
+        if (cidrNetworks.length > 0) {
+            long address = parseIpv4(h);
+            if (address >= 0) {
+                for (int i = 0; i < cidrNetworks.length; i++) {
+                    if (((int) address & cidrMasks[i]) == cidrNetworks[i]) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    boolean portAllowed(int port) {
+        return port >= 0 && port <= 65535 && ports.get(port);
+    }
+
+    boolean methodAllowed(String method) {
+        if (method == null) {
+            return false;
+        }
+        int bit = methodBit(method);
+        if (bit != 0) {
+            return (methodMask & bit) != 0;
+        }
+        return !extraMethods.isEmpty() && extraMethods.contains(method.toUpperCase(Locale.ROOT));
+    }
+
+    boolean pathAllowed(String path) {
+        return path != null && pathPrefixes.matchesPrefixOf(path);
+    }
+
+    boolean payloadCountAllowed(int payloadCount) {
+        return payloadCount <= maxPayloadsPerTarget;
+    }
+
+    private static int methodBit(String method) {
+        for (int i = 0; i < KNOWN_METHODS.length; i++) {
+            if (KNOWN_METHODS[i].equalsIgnoreCase(method)) {
+                return 1 << i;
+            }
+        }
+        return 0;
+    }
+
+    private static int[] parseCidr(String rule) {
+        int slash = rule.indexOf('/');
+        long network = parseIpv4(rule.substring(0, slash));
+        int bits;
+        try {
+            bits = Integer.parseInt(rule.substring(slash + 1));
+        } catch (NumberFormatException e) {
+            bits = -1;
+        }
+        if (network < 0 || bits < 0 || bits > 32) {
+            throw new IllegalArgumentException("Invalid allowed host CIDR rule (IPv4 a.b.c.d/n expected): " + rule);
+        }
+        int mask = bits == 0 ? 0 : -1 << (32 - bits);
+        return new int[] {(int) network & mask, mask};
+    }
+
+    // Dotted-quad IPv4 literal to its unsigned value, or -1 when s is not one.
+    static long parseIpv4(String s) {
+        long value = 0;
+        int octet = -1;
+        int dots = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                octet = (octet < 0 ? 0 : octet * 10) + (c - '0');
+                if (octet > 255) {
+                    return -1;
+                }
+            } else if (c == '.' && octet >= 0 && dots < 3) {
+                value = (value << 8) | octet;
+                octet = -1;
+                dots++;
+            } else {
+                return -1;
+            }
+        }
+        if (dots != 3 || octet < 0) {
+            return -1;
+        }
+        return (value << 8) | octet;
+    }
+
+    private static <T> Collection<T> nullSafe(Collection<T> values) {
+        return values == null ? List.of() : values;
+    }
+
+    // Character trie over the allowed prefixes.
+    static final class PrefixTrie {
+
+        private final char[] labels;
+        private final PrefixTrie[] children;
+        private final boolean terminal;
+
+        private PrefixTrie(char[] labels, PrefixTrie[] children, boolean terminal) {
+            this.labels = labels;
+            this.children = children;
+            this.terminal = terminal;
+        }
+
+        static PrefixTrie of(Collection<String> prefixes) {
+            Builder root = new Builder();
+            for (String prefix : prefixes) {
+                if (prefix == null) {
+                    continue;
+                }
+                Builder node = root;
+                for (int i = 0; i < prefix.length(); i++) {
+                    node = node.children.computeIfAbsent(prefix.charAt(i), c -> new Builder());
+                }
+                node.terminal = true;
+            }
+            return root.build();
+        }
+
+        boolean matchesPrefixOf(String path) {
+            PrefixTrie node = this;
+            for (int i = 0; ; i++) {
+                if (node.terminal) {
+                    return true;
+                }
+                if (i == path.length()) {
+                    return false;
+                }
+                int idx = Arrays.binarySearch(node.labels, path.charAt(i));
+                if (idx < 0) {
+                    return false;
+                }
+                node = node.children[idx];
+            }
+        }
+
+        private static final class Builder {
+            private final TreeMap<Character, Builder> children = new TreeMap<>();
+            private boolean terminal;
+
+            PrefixTrie build() {
+                char[] labels = new char[children.size()];
+                PrefixTrie[] built = new PrefixTrie[children.size()];
+                int i = 0;
+                for (var entry : children.entrySet()) {
+                    labels[i] = entry.getKey();
+                    built[i] = entry.getValue().build();
+                    i++;
+                }
+                return new PrefixTrie(labels, built, terminal);
+            }
+        }
+    }
+}
@@ -2,45 +2,46 @@ package org.hat.cyberscout.policy;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 import org.springframework.stereotype.Component;
 
 @Component
 public class PolicyEnforcer {
 
-    private final PolicyProperties properties;
+    private static final PolicyDecision ALLOWED = new PolicyDecision(true, List.of());
+
+    private final CompiledPolicy policy;
 
     public PolicyEnforcer(PolicyProperties properties) {
-        this.properties = properties;
+        // Properties are bound once at startup; every probe is checked against the compiled form.
+        this.policy = CompiledPolicy.compile(properties);
     }
 
     public PolicyDecision evaluate(AttackExecutionRequest request) {
-        List<String> violations = new ArrayList<>();
+        boolean hostAllowed = policy.hostAllowed(request.host());
+        boolean portAllowed = policy.portAllowed(request.port());
+        boolean methodAllowed = policy.methodAllowed(request.method());
+        boolean pathAllowed = policy.pathAllowed(request.path());
+        boolean payloadsAllowed = policy.payloadCountAllowed(request.payloadCount());
+        if (hostAllowed && portAllowed && methodAllowed && pathAllowed && payloadsAllowed) {
+            return ALLOWED;
+        }
 
-        if (!properties.getAllowedHosts().contains(request.host())) {
+        List<String> violations = new ArrayList<>();
+        if (!hostAllowed) {
             violations.add("Host not allowed: " + request.host());
         }
-
-        if (!properties.getAllowedPorts().contains(request.port())) {
+        if (!portAllowed) {
             violations.add("Port not allowed: " + request.port());
         }
-
-        String normalizedMethod = request.method().toUpperCase(Locale.ROOT);
-        if (!properties.getAllowedMethods().contains(normalizedMethod)) {
+        if (!methodAllowed) {
             violations.add("HTTP method not allowed: " + request.method());
         }
-
-        boolean pathAllowed = properties.getAllowedPathPrefixes()
-                .stream()
-                .anyMatch(request.path()::startsWith);
         if (!pathAllowed) {
             violations.add("Path outside allowed prefixes: " + request.path());
         }
-
-        if (request.payloadCount() > properties.getMaxPayloadsPerTarget()) {
+        if (!payloadsAllowed) {
             violations.add("Payload count exceeds max allowed: " + request.payloadCount());
         }
-
-        return new PolicyDecision(violations.isEmpty(), violations);
+        return new PolicyDecision(false, violations);
     }
 }
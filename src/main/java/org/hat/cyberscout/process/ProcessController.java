@@ -54,9 +54,19 @@ public class ProcessController {
         variables.put("targetHost", baseUri.getHost());
         variables.put("targetPort", UrlUtils.effectivePort(baseUri));
 
+        // Looked up before this run exists, so the baseline is the previous finished run.
+        Long previousRunId = Boolean.TRUE.equals(request.incremental())
+                ? scanRunRepository.latestFinishedRun(request.campaignId(), baseUri).orElse(null)
+                : null;
         Long scanRunId = scanRunRepository.createRun(request.campaignId(), baseUri).orElse(null);
         if (scanRunId != null) {
             variables.put("scanRunId", scanRunId);
+            if (Boolean.TRUE.equals(request.incremental())) {
+                variables.put("incremental", true);
+                if (previousRunId != null) {
+                    variables.put("previousScanRunId", previousRunId);
+                }
+            }
         }
 
         if (request.forceInvalidPayload() != null) {
@@ -107,7 +117,8 @@ public class ProcessController {
     public record StartCyberScoutRequest(
             @NotNull @Min(1) Long campaignId,
             @NotNull String baseUrl,
-            Boolean forceInvalidPayload
+            Boolean forceInvalidPayload,
+            Boolean incremental
     ) {
     }
 
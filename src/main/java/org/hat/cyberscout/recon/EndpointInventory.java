@@ -0,0 +1,182 @@
+package org.hat.cyberscout.recon;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Immutable attack surface of one scan: each distinct path is stored once with a bitmask of its methods, and
+// targets (one per path and method) are addressed by index.
+public final class EndpointInventory {
+
+    // Bit i of a method mask stands for METHODS.get(i).
+    public static final List<String> METHODS = List.of("GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS", "TRACE");
+
+    private final String[] paths;
+    private final byte[] methodMasks;
+    private final String[] techHints;
+    private final String[] templates;
+    private final int[] clusterSizes;
+    // firstTarget[p] is the index of path p's first target; the last element is the target count.
+    private final int[] firstTarget;
+
+    private EndpointInventory(String[] paths, byte[] methodMasks, String[] techHints, String[] templates, int[] clusterSizes) {
+        this.paths = paths;
+        this.methodMasks = methodMasks;
+        this.techHints = techHints;
+        this.templates = templates;
+        this.clusterSizes = clusterSizes;
+        this.firstTarget = new int[paths.length + 1];
+        for (int p = 0; p < paths.length; p++) {
+            firstTarget[p + 1] = firstTarget[p] + Integer.bitCount(methodMasks[p] & 0xFF);
+        }
+    }
+
+    public static EndpointInventory of(List<EndpointCandidate> endpoints) {
+        Builder builder = new Builder();
+        for (EndpointCandidate endpoint : endpoints) {
+            builder.add(endpoint.path(), endpoint.method(), endpoint.techHint());
+        }
+        return builder.build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int pathCount() {
+        return paths.length;
+    }
+
+    public int targetCount() {
+        return firstTarget[paths.length];
+    }
+
+    public String path(int pathIndex) {
+        return paths[pathIndex];
+    }
+
+    public int methodMask(int pathIndex) {
+        return methodMasks[pathIndex] & 0xFF;
+    }
+
+    public String techHint(int pathIndex) {
+        return techHints[pathIndex];
+    }
+
+    // The cluster template this path was chosen for, or null if it only stands for itself.
+    public String template(int pathIndex) {
+        return templates[pathIndex];
+    }
+
+    // Number of discovered paths this path represents, itself included.
+    public int clusterSize(int pathIndex) {
+        return clusterSizes[pathIndex];
+    }
+
+    // Discovered paths covered by this inventory; more than pathCount() when paths were clustered.
+    public int representedPathCount() {
+        int total = 0;
+        for (int size : clusterSizes) {
+            total += size;
+        }
+        return total;
+    }
+
+    public EndpointCandidate target(int index) {
+        int p = pathIndex(index);
+        int mask = methodMasks[p] & 0xFF;
+        for (int skip = index - firstTarget[p]; skip > 0; skip--) {
+            mask &= mask - 1;
+        }
+        return new EndpointCandidate(paths[p], METHODS.get(Integer.numberOfTrailingZeros(mask)), techHints[p]);
+    }
+
+    // The index of the path the target at index belongs to.
+    public int pathIndex(int index) {
+        if (index < 0 || index >= targetCount()) {
+            throw new IndexOutOfBoundsException("Target " + index + " of " + targetCount());
+        }
+        int search = Arrays.binarySearch(firstTarget, index);
+        // Every path has at least one method, so firstTarget is strictly increasing.
+        return search >= 0 ? search : -search - 2;
+    }
+
+    // Targets in index order, materialized one at a time.
+    public List<EndpointCandidate> targets() {
+        return new AbstractList<>() {
+            @Override
+            public EndpointCandidate get(int index) {
+                return target(index);
+            }
+
+            @Override
+            public int size() {
+                return targetCount();
+            }
+        };
+    }
+
+    public static int methodBit(String method) {
+        int i = method == null ? -1 : METHODS.indexOf(method.toUpperCase(Locale.ROOT));
+        return i < 0 ? 0 : 1 << i;
+    }
+
+    // Collects endpoints in discovery order.
+    public static final class Builder {
+
+        private final Map<String, Integer> index = new LinkedHashMap<>();
+        private final Map<String, String> hints = new HashMap<>();
+        private final List<String> techHints = new ArrayList<>();
+        private final List<String> templates = new ArrayList<>();
+        private byte[] masks = new byte[16];
+        private int[] clusterSizes = new int[16];
+
+        private Builder() {
+        }
+
+        public Builder add(String path, String method, String techHint) {
+            return addPath(path, methodBit(method), techHint);
+        }
+
+        public Builder addPath(String path, int methodMask, String techHint) {
+            return addPath(path, methodMask, techHint, null, 1);
+        }
+
+        // Like addPath(); the template and cluster size of a path's first addition are kept.
+        public Builder addPath(String path, int methodMask, String techHint, String template, int clusterSize) {
+            if (path == null || (methodMask & 0xFF) == 0) {
+                return this;
+            }
+            Integer p = index.get(path);
+            if (p == null) {
+                p = index.size();
+                index.put(path, p);
+                // Only a handful of distinct hints exist; share one instance per value.
+                techHints.add(techHint == null ? null : hints.computeIfAbsent(techHint, h -> h));
+                templates.add(template);
+                if (p == masks.length) {
+                    masks = Arrays.copyOf(masks, masks.length * 2);
+                    clusterSizes = Arrays.copyOf(clusterSizes, clusterSizes.length * 2);
+                }
+                clusterSizes[p] = Math.max(1, clusterSize);
+            }
+            masks[p] |= (byte) methodMask;
+            return this;
+        }
+
+        public EndpointInventory build() {
+            int n = index.size();
+            return new EndpointInventory(
+                    index.keySet().toArray(new String[0]),
+                    Arrays.copyOf(masks, n),
+                    techHints.toArray(new String[0]),
+                    templates.toArray(new String[0]),
+                    Arrays.copyOf(clusterSizes, n));
+        }
+    }
+}
@@ -0,0 +1,510 @@
+package org.hat.cyberscout.recon;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Single-pass scanner for link-bearing attributes (href, src, action, formaction) in HTML bytes.
+public final class HtmlLinkScanner {
+
+    public enum Attribute {
+        HREF, SRC, ACTION, FORMACTION
+    }
+
+    @FunctionalInterface
+    public interface LinkSink {
+
+        void link(String tag, Attribute attribute, String value);
+    }
+
+    private static final int MAX_NAME = 16;
+    private static final int MAX_VALUE = 2048;
+    private static final byte[] SCRIPT = "script".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] STYLE = "style".getBytes(StandardCharsets.US_ASCII);
+    // Tags whose attributes are parsed; on any other tag only the closing '>' is looked for.
+    private static final String[] LINK_TAGS = {
+            "a", "img", "link", "script", "form", "button", "iframe", "frame", "area", "source", "input", "embed",
+            "base", "video", "audio", "track", "object"
+    };
+
+    // Byte classes, looked up instead of compared one by one in the loops that run over names and spaces.
+    private static final byte SPACE = 1;
+    private static final byte NAME_END = 2;
+    private static final byte[] CLASSES = new byte[256];
+
+    static {
+        for (char c : " \n\t\r\f".toCharArray()) {
+            CLASSES[c] = SPACE | NAME_END;
+        }
+        for (char c : "=>/".toCharArray()) {
+            CLASSES[c] = NAME_END;
+        }
+    }
+
+    private static final int TEXT = 0;
+    private static final int TAG_OPEN = 1;
+    private static final int TAG_NAME = 2;
+    private static final int IN_TAG = 3;
+    private static final int ATTR_NAME = 4;
+    private static final int AFTER_ATTR_NAME = 5;
+    private static final int BEFORE_VALUE = 6;
+    private static final int VALUE_QUOTED = 7;
+    private static final int VALUE_UNQUOTED = 8;
+    private static final int MARKUP_DECLARATION = 9;
+    private static final int COMMENT = 10;
+    private static final int SKIP_TAG = 11;
+    private static final int RAW_TEXT = 12;
+    private static final int OTHER_TAG = 13;
+
+    private final LinkSink sink;
+    private final byte[] tag = new byte[MAX_NAME];
+    private final byte[] name = new byte[MAX_NAME];
+    private final byte[] value = new byte[MAX_VALUE];
+
+    private int state = TEXT;
+    private int tagLength;
+    private boolean endTag;
+    // Set once the tag name is complete; null when the tag has no link attributes.
+    private String linkTag;
+    private int nameLength;
+    private Attribute attribute;
+    private int valueLength;
+    private boolean valueOverflow;
+    private byte quote;
+    private boolean afterEquals;
+    private int dashes;
+    private byte[] rawTextEnd;
+    private int rawTextMatched;
+
+    public HtmlLinkScanner(LinkSink sink) {
+        this.sink = sink;
+    }
+
+    public static void scan(byte[] html, int length, LinkSink sink) {
+        new HtmlLinkScanner(sink).feed(html, 0, length);
+    }
+
+    public void feed(ByteBuffer chunk) {
+        if (chunk.hasArray()) {
+            feed(chunk.array(), chunk.arrayOffset() + chunk.position(), chunk.remaining());
+            chunk.position(chunk.limit());
+        } else {
+            while (chunk.hasRemaining()) {
+                accept(chunk.get());
+            }
+        }
+    }
+
+    public void feed(byte[] bytes, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+        while (i < end) {
+            // Text, attribute values, scripts, comments and tags without links make up most of a page; skip
+            // them in tight loops and leave only the delimiters to the state machine.
+            if (state == TEXT) {
+                i = indexOf(bytes, i, end, (byte) '<');
+                if (i + 1 < end && bytes[i + 1] == '/') {
+                    // End tags carry no links: skip straight to their '>'.
+                    i = indexOf(bytes, i + 2, end, (byte) '>');
+                    if (i < end) {
+                        i++;
+                    } else {
+                        state = SKIP_TAG;
+                    }
+                    continue;
+                }
+            } else if (state == VALUE_QUOTED) {
+                int start = i;
+                i = indexOf(bytes, i, end, quote);
+                appendValue(bytes, start, i - start);
+            } else if (state == RAW_TEXT && rawTextMatched == 0) {
+                i = indexOf(bytes, i, end, (byte) '<');
+            } else if (state == COMMENT && dashes == 0) {
+                i = indexOf(bytes, i, end, (byte) '-');
+            } else if (state == OTHER_TAG) {
+                i = skipAttributes(bytes, i, end);
+            } else if (state == SKIP_TAG) {
+                i = indexOf(bytes, i, end, (byte) '>');
+            } else if (state == TAG_NAME) {
+                while (i < end && isNameByte(bytes[i])) {
+                    appendTag(bytes[i++]);
+                }
+            } else if (state == IN_TAG) {
+                while (i < end && isSpace(bytes[i])) {
+                    i++;
+                }
+            } else if (state == ATTR_NAME) {
+                while (i < end && isNameByte(bytes[i])) {
+                    appendName(bytes[i++]);
+                }
+            }
+            if (i < end) {
+                accept(bytes[i++]);
+            }
+        }
+    }
+
+    private void accept(byte b) {
+        switch (state) {
+            case TEXT -> {
+                if (b == '<') {
+                    state = TAG_OPEN;
+                }
+            }
+            case TAG_OPEN -> {
+                if (isLetter(b)) {
+                    endTag = false;
+                    tagLength = 0;
+                    appendTag(b);
+                    state = TAG_NAME;
+                } else if (b == '/') {
+                    endTag = true;
+                    tagLength = 0;
+                    state = TAG_NAME;
+                } else if (b == '!') {
+                    dashes = 0;
+                    state = MARKUP_DECLARATION;
+                } else if (b != '<') {
+                    state = TEXT;
+                }
+            }
+            case TAG_NAME -> {
+                if (b == '>') {
+                    closeTag();
+                } else if (isSpace(b) || b == '/') {
+                    linkTag = endTag ? null : knownTag();
+                    state = linkTag != null ? IN_TAG : endTag ? SKIP_TAG : OTHER_TAG;
+                    quote = 0;
+                    afterEquals = false;
+                } else {
+                    appendTag(b);
+                }
+            }
+            case IN_TAG -> {
+                if (b == '>') {
+                    closeTag();
+                } else if (!isSpace(b) && b != '/') {
+                    startName(b);
+                }
+            }
+            case ATTR_NAME -> {
+                if (b == '=') {
+                    state = BEFORE_VALUE;
+                } else if (b == '>') {
+                    closeTag();
+                } else if (isSpace(b)) {
+                    state = AFTER_ATTR_NAME;
+                } else if (b == '/') {
+                    state = IN_TAG;
+                } else {
+                    appendName(b);
+                }
+            }
+            case AFTER_ATTR_NAME -> {
+                if (b == '=') {
+                    state = BEFORE_VALUE;
+                } else if (b == '>') {
+                    closeTag();
+                } else if (b == '/') {
+                    state = IN_TAG;
+                } else if (!isSpace(b)) {
+                    startName(b);
+                }
+            }
+            case BEFORE_VALUE -> {
+                if (b == '"' || b == '\'') {
+                    startValue();
+                    quote = b;
+                    state = VALUE_QUOTED;
+                } else if (b == '>') {
+                    closeTag();
+                } else if (!isSpace(b)) {
+                    startValue();
+                    appendValue(b);
+                    state = VALUE_UNQUOTED;
+                }
+            }
+            case VALUE_QUOTED -> {
+                if (b == quote) {
+                    endValue();
+                    state = IN_TAG;
+                } else {
+                    appendValue(b);
+                }
+            }
+            case VALUE_UNQUOTED -> {
+                if (isSpace(b)) {
+                    endValue();
+                    state = IN_TAG;
+                } else if (b == '>') {
+                    endValue();
+                    closeTag();
+                } else {
+                    appendValue(b);
+                }
+            }
+            case MARKUP_DECLARATION -> {
+                // "<!--" opens a comment; anything else ("<!DOCTYPE", "<![CDATA[") is skipped to '>'.
+                if (b == '-' && dashes < 2) {
+                    if (++dashes == 2) {
+                        dashes = 0;
+                        state = COMMENT;
+                    }
+                } else {
+                    state = b == '>' ? TEXT : SKIP_TAG;
+                }
+            }
+            case COMMENT -> {
+                if (b == '-') {
+                    dashes++;
+                } else {
+                    if (b == '>' && dashes >= 2) {
+                        state = TEXT;
+                    }
+                    dashes = 0;
+                }
+            }
+            case OTHER_TAG -> {
+                if (quote != 0) {
+                    if (b == quote) {
+                        quote = 0;
+                    }
+                } else if (b == '>') {
+                    closeTag();
+                } else {
+                    if ((b == '"' || b == '\'') && afterEquals) {
+                        quote = b;
+                    }
+                    if (!isSpace(b)) {
+                        afterEquals = b == '=';
+                    }
+                }
+            }
+            case SKIP_TAG -> {
+                if (b == '>') {
+                    state = TEXT;
+                }
+            }
+            case RAW_TEXT -> rawText(b);
+            default -> throw new IllegalStateException("Unknown state " + state);
+        }
+    }
+
+    // Inside <script> or <style> only the matching end tag means anything.
+    private void rawText(byte b) {
+        if (rawTextMatched == 0) {
+            rawTextMatched = b == '<' ? 1 : 0;
+        } else if (rawTextMatched == 1) {
+            rawTextMatched = b == '/' ? 2 : (b == '<' ? 1 : 0);
+        } else if (rawTextMatched - 2 < rawTextEnd.length) {
+            if (lower(b) == rawTextEnd[rawTextMatched - 2]) {
+                rawTextMatched++;
+            } else {
+                rawTextMatched = b == '<' ? 1 : 0;
+            }
+        } else if (isSpace(b) || b == '>' || b == '/') {
+            state = b == '>' ? TEXT : SKIP_TAG;
+        } else {
+            rawTextMatched = b == '<' ? 1 : 0;
+        }
+    }
+
+    private void closeTag() {
+        if (!endTag && (tagIs(SCRIPT) || tagIs(STYLE))) {
+            rawTextEnd = tagIs(SCRIPT) ? SCRIPT : STYLE;
+            rawTextMatched = 0;
+            state = RAW_TEXT;
+        } else {
+            state = TEXT;
+        }
+    }
+
+    private void startName(byte b) {
+        nameLength = 0;
+        name[nameLength++] = lower(b);
+        state = ATTR_NAME;
+    }
+
+    private void startValue() {
+        attribute = endTag ? null : linkAttribute();
+        valueLength = 0;
+        valueOverflow = false;
+    }
+
+    private void appendName(byte b) {
+        if (nameLength < MAX_NAME) {
+            name[nameLength++] = lower(b);
+        } else {
+            nameLength = MAX_NAME + 1;
+        }
+    }
+
+    private void appendValue(byte[] bytes, int offset, int length) {
+        if (attribute == null || length == 0) {
+            return;
+        }
+        if (valueLength + length <= MAX_VALUE) {
+            System.arraycopy(bytes, offset, value, valueLength, length);
+            valueLength += length;
+        } else {
+            valueOverflow = true;
+        }
+    }
+
+    private void appendValue(byte b) {
+        if (attribute == null) {
+            return;
+        }
+        if (valueLength < MAX_VALUE) {
+            value[valueLength++] = b;
+        } else {
+            valueOverflow = true;
+        }
+    }
+
+    private void endValue() {
+        if (attribute == null || valueOverflow) {
+            return;
+        }
+        int start = 0;
+        int end = valueLength;
+        while (start < end && isSpace(value[start])) {
+            start++;
+        }
+        while (end > start && isSpace(value[end - 1])) {
+            end--;
+        }
+        if (start == end) {
+            return;
+        }
+        String link = new String(value, start, end - start, StandardCharsets.UTF_8);
+        if (link.indexOf('&') >= 0) {
+            link = link.replace("&amp;", "&");
+        }
+        sink.link(linkTag, attribute, link);
+    }
+
+    // Index of the '>' closing a tag whose attributes are not wanted, or end. A quote opens a value only
+    // right after '=', and a quoted value may contain '>'.
+    private int skipAttributes(byte[] bytes, int i, int end) {
+        while (i < end) {
+            if (quote != 0) {
+                i = indexOf(bytes, i, end, quote);
+                if (i < end) {
+                    quote = 0;
+                    i++;
+                }
+                continue;
+            }
+            if (afterEquals) {
+                while (i < end && isSpace(bytes[i])) {
+                    i++;
+                }
+                if (i == end) {
+                    return i;
+                }
+                afterEquals = false;
+                if (bytes[i] == '"' || bytes[i] == '\'') {
+                    quote = bytes[i++];
+                    continue;
+                }
+            }
+            while (i < end) {
+                byte b = bytes[i];
+                if (b == '>') {
+                    return i;
+                }
+                i++;
+                if (b == '=') {
+                    afterEquals = true;
+                    break;
+                }
+            }
+        }
+        return i;
+    }
+
+    // The LINK_TAGS entry naming the current tag, or null.
+    private String knownTag() {
+        for (String known : LINK_TAGS) {
+            if (tagIs(known)) {
+                return known;
+            }
+        }
+        return null;
+    }
+
+    private Attribute linkAttribute() {
+        return switch (nameLength) {
+            case 3 -> nameIs("src") ? Attribute.SRC : null;
+            case 4 -> nameIs("href") ? Attribute.HREF : null;
+            case 6 -> nameIs("action") ? Attribute.ACTION : null;
+            case 10 -> nameIs("formaction") ? Attribute.FORMACTION : null;
+            default -> null;
+        };
+    }
+
+    private boolean nameIs(String expected) {
+        for (int i = 0; i < nameLength; i++) {
+            if (name[i] != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean tagIs(byte[] expected) {
+        if (tagLength != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < tagLength; i++) {
+            if (tag[i] != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean tagIs(String expected) {
+        if (tagLength != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < tagLength; i++) {
+            if (tag[i] != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void appendTag(byte b) {
+        if (tagLength < MAX_NAME) {
+            tag[tagLength] = lower(b);
+        }
+        tagLength++;
+    }
+
+    // First index of target in [from, to), or to.
+    private static int indexOf(byte[] bytes, int from, int to, byte target) {
+        int i = from;
+        while (i < to && bytes[i] != target) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isLetter(byte b) {
+        return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z');
+    }
+
+    private static boolean isNameByte(byte b) {
+        return (CLASSES[b & 0xFF] & NAME_END) == 0;
+    }
+
+    private static boolean isSpace(byte b) {
+        return (CLASSES[b & 0xFF] & SPACE) != 0;
+    }
+
+    private static byte lower(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+    }
+}
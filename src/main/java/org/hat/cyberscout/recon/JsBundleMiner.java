@@ -0,0 +1,280 @@
+package org.hat.cyberscout.recon;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import org.hat.cyberscout.http.HostGate;
+import org.hat.cyberscout.http.HttpTransport;
+import org.hat.cyberscout.policy.AttackExecutionRequest;
+import org.hat.cyberscout.policy.PolicyEnforcer;
+import org.hat.cyberscout.util.UrlUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+// Mines same-origin JavaScript for the API routes the front end calls.
+@Component
+public class JsBundleMiner {
+
+    private static final Logger log = LoggerFactory.getLogger(JsBundleMiner.class);
+    private static final int MAX_ENDPOINTS = 2000;
+    private static final Pattern API_PATH = Pattern.compile(
+            "(^|/)(api|rest|graphql|gql|rpc|v\\d{1,2})(/|$)|^/(auth|oauth2?|admin|internal|actuator)(/|$)");
+    private static final List<String> ASSET_EXTENSIONS = List.of(
+            ".css", ".png", ".jpg", ".jpeg", ".gif", ".svg", ".ico", ".webp", ".woff", ".woff2", ".ttf", ".map",
+            ".html", ".htm", ".txt", ".md");
+
+    private final HttpTransport transport;
+    private final HostGate hostGate;
+    private final PolicyEnforcer policyEnforcer;
+    private final ReconProperties properties;
+
+    public JsBundleMiner(HttpTransport transport, HostGate hostGate, PolicyEnforcer policyEnforcer, ReconProperties properties) {
+        this.transport = transport;
+        this.hostGate = hostGate;
+        this.policyEnforcer = policyEnforcer;
+        this.properties = properties;
+    }
+
+    public record MiningStats(int scriptsRead, long bytesScanned, int endpointsFound, boolean budgetExhausted) {
+    }
+
+    // Downloads the scripts among paths (by extension) and hands every endpoint found to onFound.
+    public CompletableFuture<MiningStats> mine(
+            Long scanRunId,
+            URI origin,
+            Collection<String> paths,
+            long deadlineNanos,
+            Consumer<EndpointCandidate> onFound
+    ) {
+        Mining mining = new Mining(scanRunId, origin, deadlineNanos, onFound);
+        mining.start(paths);
+        return mining.done;
+    }
+
+    static boolean isScript(String path) {
+        String lower = path.toLowerCase(Locale.ROOT);
+        return lower.endsWith(".js") || lower.endsWith(".mjs");
+    }
+
+    // The endpoint path a literal names, or null: same origin only, query dropped, static assets and scripts
+    // excluded.
+    static String endpointPath(URI origin, String literal, boolean requestArgument) {
+        String value = literal.trim();
+        if (!(value.startsWith("/") && !value.startsWith("//"))
+                && !value.regionMatches(true, 0, "http://", 0, 7)
+                && !value.regionMatches(true, 0, "https://", 0, 8)) {
+            return null;
+        }
+        if (value.indexOf(' ') >= 0) {
+            return null;
+        }
+        String path = SiteCrawler.normalize(origin, origin, value);
+        if (path == null || path.equals("/") || isScript(path) || isAsset(path)) {
+            return null;
+        }
+        return requestArgument || API_PATH.matcher(path).find() ? path : null;
+    }
+
+    private static boolean isAsset(String path) {
+        String lower = path.toLowerCase(Locale.ROOT);
+        for (String extension : ASSET_EXTENSIONS) {
+            if (lower.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private final class Mining {
+
+        private final Long scanRunId;
+        private final URI origin;
+        private final long deadlineNanos;
+        private final Consumer<EndpointCandidate> onFound;
+        private final AtomicLong budget = new AtomicLong(Math.max(0, properties.getBundleMaxBytes()));
+        private final ArrayDeque<String> queue = new ArrayDeque<>();
+        private final Set<String> scripts = new HashSet<>();
+        private final Set<String> endpoints = new HashSet<>();
+        private final CompletableFuture<MiningStats> done = new CompletableFuture<>();
+
+        private int inFlight;
+        private int read;
+        private long scanned;
+
+        Mining(Long scanRunId, URI origin, long deadlineNanos, Consumer<EndpointCandidate> onFound) {
+            this.scanRunId = scanRunId;
+            this.origin = origin;
+            this.deadlineNanos = deadlineNanos;
+            this.onFound = onFound;
+        }
+
+        synchronized void start(Collection<String> paths) {
+            for (String path : paths) {
+                if (isScript(path)) {
+                    offer(path);
+                }
+            }
+            pump();
+        }
+
+        private void pump() {
+            while (inFlight < properties.getBundleWorkers()
+                    && !queue.isEmpty()
+                    && budget.get() > 0
+                    && System.nanoTime() - deadlineNanos < 0) {
+                String path = queue.poll();
+                inFlight++;
+                CompletableFuture<Long> download;
+                try {
+                    download = download(path);
+                } catch (RuntimeException e) {
+                    download = CompletableFuture.failedFuture(e);
+                }
+                download.whenComplete((bytes, error) -> onDownloaded(path, bytes, error));
+            }
+            if (inFlight == 0 && !done.isDone()) {
+                log.debug("Mined {} scripts on {}: {} bytes, {} endpoints", read, origin, scanned, endpoints.size());
+                done.complete(new MiningStats(read, scanned, endpoints.size(), budget.get() <= 0));
+            }
+        }
+
+        private synchronized void onDownloaded(String path, Long bytes, Throwable error) {
+            inFlight--;
+            if (error != null) {
+                log.debug("Script download of {} failed: {}", path, error.toString());
+            } else if (bytes > 0) {
+                read++;
+                scanned += bytes;
+            }
+            pump();
+        }
+
+        private void offer(String path) {
+            if (scripts.size() < properties.getBundleMaxScripts() && policyAllows(path) && scripts.add(path)) {
+                queue.add(path);
+            }
+        }
+
+        private CompletableFuture<Long> download(String path) {
+            HttpRequest request = HttpRequest.newBuilder(origin.resolve(path))
+                    .timeout(transport.properties().getReconTimeout())
+                    .GET()
+                    .header("Accept", "application/javascript, */*")
+                    .build();
+            // The scanner runs on the client's completion threads, outside the mining lock.
+            JsEndpointScanner scanner = new JsEndpointScanner(this::onLiteral);
+            return hostGate.sendAsync(scanRunId, request, r -> transport.sendAsync(r, info -> info.statusCode() / 100 == 2
+                            ? new ScanningSubscriber(scanner, budget, deadlineNanos)
+                            : HttpResponse.BodySubscribers.replacing(0L)))
+                    .thenApply(HttpResponse::body);
+        }
+
+        private synchronized void onLiteral(String literal, String method) {
+            String value = literal.trim();
+            if (value.startsWith("/") && !value.startsWith("//") && isScript(value)) {
+                String script = SiteCrawler.normalize(origin, origin, value);
+                if (script != null) {
+                    offer(script);
+                    pump();
+                }
+                return;
+            }
+            String path = endpointPath(origin, value, method != null);
+            String verb = method != null ? method : "GET";
+            if (path != null && endpoints.size() < MAX_ENDPOINTS && endpoints.add(verb + " " + path)) {
+                onFound.accept(new EndpointCandidate(path, verb, "JS_BUNDLE"));
+            }
+        }
+
+        private boolean policyAllows(String path) {
+            return policyEnforcer.evaluate(new AttackExecutionRequest(
+                    origin.getHost(), UrlUtils.effectivePort(origin), "GET", path, 1)).allowed();
+        }
+    }
+
+    // Feeds a response body to the scanner as it arrives, taking every chunk out of the shared budget.
+    private static final class ScanningSubscriber implements HttpResponse.BodySubscriber<Long> {
+
+        private final JsEndpointScanner scanner;
+        private final AtomicLong budget;
+        private final long deadlineNanos;
+        private final CompletableFuture<Long> result = new CompletableFuture<>();
+        private Flow.Subscription subscription;
+        private long scanned;
+
+        ScanningSubscriber(JsEndpointScanner scanner, AtomicLong budget, long deadlineNanos) {
+            this.scanner = scanner;
+            this.budget = budget;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        @Override
+        public CompletionStage<Long> getBody() {
+            return result;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> items) {
+            if (result.isDone()) {
+                return;
+            }
+            for (ByteBuffer item : items) {
+                int length = item.remaining();
+                int granted = (int) take(length);
+                if (granted > 0) {
+                    scanner.feed(item.slice(item.position(), granted));
+                    scanned += granted;
+                }
+                if (granted < length || System.nanoTime() - deadlineNanos >= 0) {
+                    result.complete(scanned);
+                    subscription.cancel();
+                    return;
+                }
+            }
+            subscription.request(1);
+        }
+
+        private long take(long wanted) {
+            while (true) {
+                long left = budget.get();
+                if (left <= 0) {
+                    return 0;
+                }
+                long granted = Math.min(left, wanted);
+                if (budget.compareAndSet(left, left - granted)) {
+                    return granted;
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            result.complete(scanned);
+        }
+
+        @Override
+        public void onComplete() {
+            result.complete(scanned);
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package org.hat.cyberscout.recon;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Single-pass scanner for string literals in JavaScript bytes.
+public final class JsEndpointScanner {
+
+    @FunctionalInterface
+    public interface LiteralSink {
+
+        void literal(String value, String method);
+    }
+
+    static final int MAX_LITERAL = 512;
+    private static final int CONTEXT = 16;
+
+    // Calls whose first argument is a URL, matched against the code right before the literal with
+    // whitespace removed.
+    private static final String[][] CALLS = {
+            {"fetch(", "GET"},
+            {"axios(", "GET"},
+            {".get(", "GET"},
+            {".post(", "POST"},
+            {".put(", "PUT"},
+            {".patch(", "PATCH"},
+            {".delete(", "DELETE"},
+            {".head(", "HEAD"},
+            {"url:", "GET"},
+    };
+
+    private static final int CODE = 0;
+    private static final int QUOTED = 1;
+    private static final int TEMPLATE = 2;
+    private static final int TEMPLATE_EXPRESSION = 3;
+    private static final int LINE_COMMENT = 4;
+    private static final int BLOCK_COMMENT = 5;
+    private static final int REGEX = 6;
+
+    private final LiteralSink sink;
+    private final byte[] literal = new byte[MAX_LITERAL];
+    // Last significant (non-whitespace) code bytes, as a ring.
+    private final byte[] context = new byte[CONTEXT];
+
+    private int state = CODE;
+    private byte quote;
+    private boolean escaped;
+    private boolean slashPending;
+    private boolean slashStartsRegex;
+    private boolean previousStar;
+    private boolean previousDollar;
+    private boolean regexClass;
+    private int expressionDepth;
+    private int literalLength;
+    private boolean literalOverflow;
+    private boolean literalCut;
+    private String literalMethod;
+    private long contextCount;
+
+    public JsEndpointScanner(LiteralSink sink) {
+        this.sink = sink;
+    }
+
+    public static void scan(byte[] script, int length, LiteralSink sink) {
+        new JsEndpointScanner(sink).feed(script, 0, length);
+    }
+
+    public void feed(ByteBuffer chunk) {
+        if (chunk.hasArray()) {
+            feed(chunk.array(), chunk.arrayOffset() + chunk.position(), chunk.remaining());
+            chunk.position(chunk.limit());
+        } else {
+            while (chunk.hasRemaining()) {
+                next(chunk.get());
+            }
+        }
+    }
+
+    public void feed(byte[] bytes, int offset, int length) {
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            next(bytes[i]);
+        }
+    }
+
+    private void next(byte b) {
+        switch (state) {
+            case CODE -> code(b);
+            case QUOTED -> quoted(b);
+            case TEMPLATE -> template(b);
+            case TEMPLATE_EXPRESSION -> {
+                if (b == '{') {
+                    expressionDepth++;
+                } else if (b == '}' && --expressionDepth == 0) {
+                    state = TEMPLATE;
+                }
+            }
+            case LINE_COMMENT -> {
+                if (b == '\n' || b == '\r') {
+                    state = CODE;
+                }
+            }
+            case BLOCK_COMMENT -> {
+                if (b == '/' && previousStar) {
+                    state = CODE;
+                }
+                previousStar = b == '*';
+            }
+            case REGEX -> regex(b);
+            default -> throw new IllegalStateException("state " + state);
+        }
+    }
+
+    private void code(byte b) {
+        if (slashPending) {
+            slashPending = false;
+            if (b == '/') {
+                state = LINE_COMMENT;
+                return;
+            }
+            if (b == '*') {
+                state = BLOCK_COMMENT;
+                previousStar = false;
+                return;
+            }
+            if (slashStartsRegex) {
+                state = REGEX;
+                regexClass = false;
+                escaped = false;
+                regex(b);
+                return;
+            }
+            remember((byte) '/');
+        }
+        switch (b) {
+            case ' ', '\t', '\n', '\r' -> {
+            }
+            case '\'', '"', '`' -> {
+                literalMethod = callMethod();
+                literalLength = 0;
+                literalOverflow = false;
+                literalCut = false;
+                escaped = false;
+                previousDollar = false;
+                quote = b;
+                state = b == '`' ? TEMPLATE : QUOTED;
+            }
+            case '/' -> {
+                slashPending = true;
+                slashStartsRegex = regexMayFollow(contextCount == 0 ? 0 : context[(int) ((contextCount - 1) % CONTEXT)]);
+            }
+            default -> remember(b);
+        }
+    }
+
+    private void quoted(byte b) {
+        if (escaped) {
+            escaped = false;
+            append(b);
+        } else if (b == '\\') {
+            escaped = true;
+        } else if (b == quote) {
+            endLiteral();
+        } else if (b == '\n' || b == '\r') {
+            // Unterminated: resynchronize on the next line rather than swallow the rest of the file.
+            state = CODE;
+        } else {
+            append(b);
+        }
+    }
+
+    private void template(byte b) {
+        if (escaped) {
+            escaped = false;
+            append(b);
+            previousDollar = false;
+            return;
+        }
+        if (b == '\\') {
+            escaped = true;
+        } else if (b == '`') {
+            endLiteral();
+            return;
+        } else if (b == '{' && previousDollar) {
+            // Only the part before the first substitution can be a fixed path.
+            if (!literalCut && !literalOverflow) {
+                literalLength--;
+            }
+            literalCut = true;
+            expressionDepth = 1;
+            state = TEMPLATE_EXPRESSION;
+            previousDollar = false;
+            return;
+        } else {
+            append(b);
+        }
+        previousDollar = b == '$';
+    }
+
+    private void regex(byte b) {
+        if (escaped) {
+            escaped = false;
+        } else if (b == '\\') {
+            escaped = true;
+        } else if (b == '[') {
+            regexClass = true;
+        } else if (b == ']') {
+            regexClass = false;
+        } else if (b == '/' && !regexClass) {
+            state = CODE;
+            remember((byte) '/');
+        } else if (b == '\n' || b == '\r') {
+            state = CODE;
+        }
+    }
+
+    private void append(byte b) {
+        if (literalCut) {
+            return;
+        }
+        if (literalLength < MAX_LITERAL) {
+            literal[literalLength++] = b;
+        } else {
+            literalOverflow = true;
+        }
+    }
+
+    private void endLiteral() {
+        state = CODE;
+        remember(quote);
+        if (!literalOverflow && literalLength > 0) {
+            sink.literal(new String(literal, 0, literalLength, StandardCharsets.UTF_8), literalMethod);
+        }
+    }
+
+    private void remember(byte b) {
+        context[(int) (contextCount++ % CONTEXT)] = b;
+    }
+
+    private String callMethod() {
+        int length = (int) Math.min(contextCount, CONTEXT);
+        byte[] recent = new byte[length];
+        for (int i = 0; i < length; i++) {
+            recent[i] = context[(int) ((contextCount - length + i) % CONTEXT)];
+        }
+        String code = new String(recent, StandardCharsets.ISO_8859_1);
+        for (String[] call : CALLS) {
+            if (code.endsWith(call[0])) {
+                return call[1];
+            }
+        }
+        return null;
+    }
+
+    // Whether a / after previous starts a regex rather than a division.
+    private static boolean regexMayFollow(byte previous) {
+        return switch (previous) {
+            case 0, '(', ',', '=', ':', '[', '!', '&', '|', '?', '{', '}', ';', '+', '-', '*', '%', '<', '>', '~', '^' -> true;
+            default -> false;
+        };
+    }
+}
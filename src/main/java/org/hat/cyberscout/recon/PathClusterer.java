@@ -0,0 +1,226 @@
+package org.hat.cyberscout.recon;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Builds the endpoint inventory with equivalent paths folded together.
+public final class PathClusterer {
+
+    private static final int MIN_HEX_LENGTH = 8;
+    private static final int MIN_SLUG_WORDS = 3;
+    // Methods a concrete path may inherit from the rest of its cluster; anything else it must have been seen with.
+    private static final int SAFE_METHODS = EndpointInventory.methodBit("GET")
+            | EndpointInventory.methodBit("HEAD")
+            | EndpointInventory.methodBit("OPTIONS");
+
+    private PathClusterer() {
+    }
+
+    public static EndpointInventory cluster(List<EndpointCandidate> endpoints, int representatives) {
+        if (representatives < 1) {
+            return EndpointInventory.of(endpoints);
+        }
+        List<String[]> apiTemplates = new ArrayList<>();
+        Map<String, Boolean> apiPaths = new LinkedHashMap<>();
+        for (EndpointCandidate endpoint : endpoints) {
+            if ("OPENAPI".equals(endpoint.techHint()) && endpoint.path() != null
+                    && apiPaths.put(endpoint.path(), Boolean.TRUE) == null && endpoint.path().indexOf('{') >= 0) {
+                apiTemplates.add(endpoint.path().split("/", -1));
+            }
+        }
+
+        Map<String, Cluster> clusters = new LinkedHashMap<>();
+        for (EndpointCandidate endpoint : endpoints) {
+            if (endpoint.path() == null) {
+                continue;
+            }
+            String key = apiPaths.containsKey(endpoint.path())
+                    ? endpoint.path()
+                    : templateOf(endpoint.path(), apiTemplates);
+            clusters.computeIfAbsent(key, Cluster::new).add(endpoint);
+        }
+
+        EndpointInventory.Builder builder = EndpointInventory.builder();
+        for (Cluster cluster : clusters.values()) {
+            cluster.addTo(builder, representatives);
+        }
+        return builder.build();
+    }
+
+    // The cluster key of path: the most specific matching OpenAPI template, else the path with its variable
+    // segments replaced, else the path itself.
+    static String templateOf(String path, List<String[]> apiTemplates) {
+        if (path.indexOf('{') >= 0) {
+            return path;
+        }
+        String[] segments = path.split("/", -1);
+        String[] best = null;
+        int bestLiterals = -1;
+        for (String[] template : apiTemplates) {
+            int literals = matchingLiterals(template, segments);
+            if (literals > bestLiterals) {
+                best = template;
+                bestLiterals = literals;
+            }
+        }
+        if (best != null) {
+            return String.join("/", best);
+        }
+
+        // Hyphenated API segments are route names (/api/reset-password-token), not slugs.
+        boolean slugs = !isApiPath(segments);
+        StringBuilder key = new StringBuilder(path.length());
+        boolean variable = false;
+        for (int i = 1; i < segments.length; i++) {
+            key.append('/');
+            String segment = segments[i];
+            int dot = segment.lastIndexOf('.');
+            String name = dot > 0 ? segment.substring(0, dot) : segment;
+            String kind = kindOf(name, slugs);
+            if (kind == null) {
+                key.append(segment);
+            } else {
+                variable = true;
+                key.append(kind).append(dot > 0 ? segment.substring(dot) : "");
+            }
+        }
+        return variable ? key.toString() : path;
+    }
+
+    // Number of literal segments of template equal to those of segments, or -1 if the path does not match it.
+    private static int matchingLiterals(String[] template, String[] segments) {
+        if (template.length != segments.length) {
+            return -1;
+        }
+        int literals = 0;
+        for (int i = 0; i < template.length; i++) {
+            String t = template[i];
+            if (t.startsWith("{") && t.endsWith("}")) {
+                if (segments[i].isEmpty()) {
+                    return -1;
+                }
+            } else if (t.equals(segments[i])) {
+                literals++;
+            } else {
+                return -1;
+            }
+        }
+        return literals;
+    }
+
+    private static boolean isApiPath(String[] segments) {
+        for (String segment : segments) {
+            if (segment.equals("api") || segment.equals("graphql") || segment.matches("v[0-9]+")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static String kindOf(String segment, boolean slugs) {
+        int length = segment.length();
+        if (length == 0) {
+            return null;
+        }
+        boolean digits = true;
+        boolean hex = true;
+        for (int i = 0; i < length; i++) {
+            char c = segment.charAt(i);
+            digits &= c >= '0' && c <= '9';
+            hex &= (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+        }
+        if (digits) {
+            return "{int}";
+        }
+        if (length == 36 && isUuid(segment)) {
+            return "{uuid}";
+        }
+        if (hex && length >= MIN_HEX_LENGTH && segment.chars().anyMatch(Character::isDigit)) {
+            return "{hex}";
+        }
+        return slugs && isSlug(segment) ? "{slug}" : null;
+    }
+
+    private static boolean isUuid(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            boolean dash = i == 8 || i == 13 || i == 18 || i == 23;
+            if (dash != (c == '-') || (!dash && Character.digit(c, 16) < 0)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSlug(String s) {
+        int words = 1;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '-') {
+                // No empty words: "a--b", "-a", "a-".
+                if (i == 0 || i == s.length() - 1 || s.charAt(i - 1) == '-') {
+                    return false;
+                }
+                words++;
+            } else if (!((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9'))) {
+                return false;
+            }
+        }
+        return words >= MIN_SLUG_WORDS;
+    }
+
+    private static final class Cluster {
+
+        private final String key;
+        // Distinct paths in discovery order, with their merged method masks and first tech hint.
+        private final Map<String, int[]> masks = new LinkedHashMap<>();
+        private final Map<String, String> hints = new LinkedHashMap<>();
+
+        Cluster(String key) {
+            this.key = key;
+        }
+
+        void add(EndpointCandidate endpoint) {
+            masks.computeIfAbsent(endpoint.path(), p -> new int[1])[0] |= EndpointInventory.methodBit(endpoint.method());
+            hints.putIfAbsent(endpoint.path(), endpoint.techHint());
+        }
+
+        void addTo(EndpointInventory.Builder builder, int representatives) {
+            int union = 0;
+            for (int[] mask : masks.values()) {
+                union |= mask[0];
+            }
+            // An OpenAPI template cannot be requested as written; the concrete paths that matched it
+            // stand in for it, and it is kept itself only when none did. A concrete path only takes the
+            // safe methods of the others: DELETE on the template must not become DELETE on a real id.
+            int shared = union & SAFE_METHODS;
+            if (masks.size() > 1 && masks.containsKey(key)) {
+                masks.remove(key);
+                if (masks.size() == 1) {
+                    String path = masks.keySet().iterator().next();
+                    builder.addPath(path, masks.get(path)[0] | shared, hints.get(path), key, 1);
+                    return;
+                }
+            }
+            if (masks.size() == 1) {
+                String path = masks.keySet().iterator().next();
+                builder.addPath(path, masks.get(path)[0], hints.get(path));
+                return;
+            }
+            // Representatives share the cluster's paths between them, so the sizes add up to the total.
+            int kept = Math.min(representatives, masks.size());
+            int share = masks.size() / kept;
+            int extra = masks.size() % kept;
+            int i = 0;
+            for (String path : masks.keySet()) {
+                if (i == kept) {
+                    break;
+                }
+                builder.addPath(path, masks.get(path)[0] | shared, hints.get(path), key, share + (i < extra ? 1 : 0));
+                i++;
+            }
+        }
+    }
+}
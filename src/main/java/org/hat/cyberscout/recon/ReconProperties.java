@@ -0,0 +1,208 @@
+package org.hat.cyberscout.recon;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "cyberscout.recon")
+public class ReconProperties {
+
+    // Overall budget of one recon; steps still running at the deadline are dropped.
+    private Duration deadline = Duration.ofSeconds(12);
+
+    // Check well-known guesses (/admin, /actuator, ...), robots.txt and sitemap paths and GET routes mined
+    // from scripts against responses to random paths and drop those that get the same answer.
+    private boolean soft404Enabled = true;
+
+    // Paths from robots.txt, sitemaps and scripts checked against the not-found baseline per recon; the rest
+    // are kept unchecked.
+    private int soft404MaxDiscoveredPaths = 200;
+
+    // Link hops followed from the home page.
+    private int crawlMaxDepth = 2;
+
+    // Pages the crawler may fetch per recon.
+    private int crawlMaxRequests = 40;
+
+    // Crawl fetches in flight at once.
+    private int crawlWorkers = 4;
+
+    // Distinct paths the crawler reports; also sizes its dedupe filter.
+    private int crawlMaxLinks = 1000;
+
+    // Read robots.txt rules and sitemaps as sources of paths.
+    private boolean sitemapEnabled = true;
+
+    // Sitemap documents read per recon, sitemap indexes included.
+    private int sitemapMaxDocuments = 10;
+
+    // Bytes read from one sitemap after decompression (the protocol's own limit is 50 MB).
+    private int sitemapMaxBytes = 50 * 1024 * 1024;
+
+    // Distinct paths taken from robots.txt and sitemaps.
+    private int sitemapMaxEntries = 5000;
+
+    // Mine same-origin scripts for the API routes they call.
+    private boolean bundleEnabled = true;
+
+    // Scripts downloaded per recon, lazy-loaded chunks included.
+    private int bundleMaxScripts = 20;
+
+    // Bytes read across all scripts of one recon; the download that crosses it is cut off.
+    private int bundleMaxBytes = 8 * 1024 * 1024;
+
+    // Concurrent script downloads.
+    private int bundleWorkers = 3;
+
+    // Operations read from the target's OpenAPI document; the rest of the document is not downloaded.
+    private int openApiMaxOperations = 5000;
+
+    // Paths kept per cluster of equivalent paths (/items/1, /items/2, ...); below 1 turns clustering off.
+    private int pathClusterRepresentatives = 1;
+
+    // Targets of the endpoint inventory that go through the attack subprocess (OpenAPI operations first).
+    private int maxAttackTargets = 80;
+
+    public Duration getDeadline() {
+        return deadline;
+    }
+
+    public void setDeadline(Duration deadline) {
+        this.deadline = deadline;
+    }
+
+    public boolean isSoft404Enabled() {
+        return soft404Enabled;
+    }
+
+    public void setSoft404Enabled(boolean soft404Enabled) {
+        this.soft404Enabled = soft404Enabled;
+    }
+
+    public int getSoft404MaxDiscoveredPaths() {
+        return soft404MaxDiscoveredPaths;
+    }
+
+    public void setSoft404MaxDiscoveredPaths(int soft404MaxDiscoveredPaths) {
+        this.soft404MaxDiscoveredPaths = soft404MaxDiscoveredPaths;
+    }
+
+    public int getCrawlMaxDepth() {
+        return crawlMaxDepth;
+    }
+
+    public void setCrawlMaxDepth(int crawlMaxDepth) {
+        this.crawlMaxDepth = crawlMaxDepth;
+    }
+
+    public int getCrawlMaxRequests() {
+        return crawlMaxRequests;
+    }
+
+    public void setCrawlMaxRequests(int crawlMaxRequests) {
+        this.crawlMaxRequests = crawlMaxRequests;
+    }
+
+    public int getCrawlWorkers() {
+        return crawlWorkers;
+    }
+
+    public void setCrawlWorkers(int crawlWorkers) {
+        this.crawlWorkers = crawlWorkers;
+    }
+
+    public int getCrawlMaxLinks() {
+        return crawlMaxLinks;
+    }
+
+    public void setCrawlMaxLinks(int crawlMaxLinks) {
+        this.crawlMaxLinks = crawlMaxLinks;
+    }
+
+    public boolean isSitemapEnabled() {
+        return sitemapEnabled;
+    }
+
+    public void setSitemapEnabled(boolean sitemapEnabled) {
+        this.sitemapEnabled = sitemapEnabled;
+    }
+
+    public int getSitemapMaxDocuments() {
+        return sitemapMaxDocuments;
+    }
+
+    public void setSitemapMaxDocuments(int sitemapMaxDocuments) {
+        this.sitemapMaxDocuments = sitemapMaxDocuments;
+    }
+
+    public int getSitemapMaxBytes() {
+        return sitemapMaxBytes;
+    }
+
+    public void setSitemapMaxBytes(int sitemapMaxBytes) {
+        this.sitemapMaxBytes = sitemapMaxBytes;
+    }
+
+    public int getSitemapMaxEntries() {
+        return sitemapMaxEntries;
+    }
+
+    public void setSitemapMaxEntries(int sitemapMaxEntries) {
+        this.sitemapMaxEntries = sitemapMaxEntries;
+    }
+
+    public boolean isBundleEnabled() {
+        return bundleEnabled;
+    }
+
+    public void setBundleEnabled(boolean bundleEnabled) {
+        this.bundleEnabled = bundleEnabled;
+    }
+
+    public int getBundleMaxScripts() {
+        return bundleMaxScripts;
+    }
+
+    public void setBundleMaxScripts(int bundleMaxScripts) {
+        this.bundleMaxScripts = bundleMaxScripts;
+    }
+
+    public int getBundleMaxBytes() {
+        return bundleMaxBytes;
+    }
+
+    public void setBundleMaxBytes(int bundleMaxBytes) {
+        this.bundleMaxBytes = bundleMaxBytes;
+    }
+
+    public int getBundleWorkers() {
+        return bundleWorkers;
+    }
+
+    public void setBundleWorkers(int bundleWorkers) {
+        this.bundleWorkers = bundleWorkers;
+    }
+
+    public int getOpenApiMaxOperations() {
+        return openApiMaxOperations;
+    }
+
+    public void setOpenApiMaxOperations(int openApiMaxOperations) {
+        this.openApiMaxOperations = openApiMaxOperations;
+    }
+
+    public int getPathClusterRepresentatives() {
+        return pathClusterRepresentatives;
+    }
+
+    public void setPathClusterRepresentatives(int pathClusterRepresentatives) {
+        this.pathClusterRepresentatives = pathClusterRepresentatives;
+    }
+
+    public int getMaxAttackTargets() {
+        return maxAttackTargets;
+    }
+
+    public void setMaxAttackTargets(int maxAttackTargets) {
+        this.maxAttackTargets = maxAttackTargets;
+    }
+}
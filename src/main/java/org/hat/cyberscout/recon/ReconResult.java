@@ -3,6 +3,16 @@ package org.hat.cyberscout.recon;
 import java.net.URI;
 import java.util.List;
 
-public record ReconResult(URI baseUri, TechFingerprint fingerprint, List<EndpointCandidate> endpoints) {
-}
+public record ReconResult(
+        URI baseUri,
+        TechFingerprint fingerprint,
+        List<EndpointCandidate> endpoints,
+        List<ReconStep> steps,
+        long durationMs
+) {
 
+    // True when at least one step missed the recon deadline, so the endpoint list may be incomplete.
+    public boolean partial() {
+        return steps.stream().anyMatch(s -> s.status() == ReconStep.Status.TIMED_OUT);
+    }
+}
@@ -0,0 +1,12 @@
+package org.hat.cyberscout.recon;
+
+// Outcome of one recon step; elapsedMs is measured from the start of recon, so steps that ran concurrently
+// can be compared directly.
+public record ReconStep(String name, Status status, long elapsedMs) {
+
+    public enum Status {
+        COMPLETED,
+        FAILED,
+        TIMED_OUT
+    }
+}
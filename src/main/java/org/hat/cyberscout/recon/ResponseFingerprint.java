@@ -0,0 +1,81 @@
+package org.hat.cyberscout.recon;
+
+// Compact similarity fingerprint of a response: status, a 64-bit simhash over the words of the first
+// WINDOW_CHARS characters, and the body length when the whole body was seen.
+public record ResponseFingerprint(int status, long simhash, int length) {
+
+    public static final int WINDOW_CHARS = 2000;
+
+    static final int UNKNOWN_LENGTH = -1;
+    private static final int MAX_HAMMING_DISTANCE = 6;
+    private static final int MIN_LENGTH_SLACK = 64;
+
+    // A 3xx Location is hashed with the body, so redirects to different places stay different.
+    public static ResponseFingerprint of(String requestedPath, int status, String location, String body, boolean complete) {
+        boolean blank = requestedPath != null && requestedPath.length() > 1;
+        String text = body == null ? "" : body;
+        if (blank) {
+            text = text.replace(requestedPath, "");
+        }
+        int length = complete ? text.length() : UNKNOWN_LENGTH;
+        if (status / 100 == 3 && location != null) {
+            int query = location.indexOf('?');
+            String target = query >= 0 ? location.substring(0, query) : location;
+            text = (blank ? target.replace(requestedPath, "") : target) + " " + text;
+        }
+        return new ResponseFingerprint(status, simhash(text), length);
+    }
+
+    public boolean similarTo(ResponseFingerprint other) {
+        if (status != other.status || Long.bitCount(simhash ^ other.simhash) > MAX_HAMMING_DISTANCE) {
+            return false;
+        }
+        if (length == UNKNOWN_LENGTH || other.length == UNKNOWN_LENGTH) {
+            return true;
+        }
+        int slack = Math.max(MIN_LENGTH_SLACK, Math.max(length, other.length) / 10);
+        return Math.abs(length - other.length) <= slack;
+    }
+
+    static long simhash(CharSequence text) {
+        int[] weights = new int[64];
+        int end = Math.min(text.length(), WINDOW_CHARS);
+        long hash = 0;
+        int tokenLength = 0;
+        for (int i = 0; i <= end; i++) {
+            char c = i < end ? text.charAt(i) : ' ';
+            if (Character.isLetter(c)) {
+                if (tokenLength == 0) {
+                    hash = 0xcbf29ce484222325L;
+                }
+                hash = (hash ^ Character.toLowerCase(c)) * 0x100000001b3L;
+                tokenLength++;
+                continue;
+            }
+            // Single letters carry no signal and are mostly fragments of hex ids.
+            if (tokenLength > 1) {
+                long h = mix(hash);
+                for (int bit = 0; bit < 64; bit++) {
+                    weights[bit] += ((h >>> bit) & 1) == 1 ? 1 : -1;
+                }
+            }
+            tokenLength = 0;
+        }
+        long simhash = 0;
+        for (int bit = 0; bit < 64; bit++) {
+            if (weights[bit] > 0) {
+                simhash |= 1L << bit;
+            }
+        }
+        return simhash;
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
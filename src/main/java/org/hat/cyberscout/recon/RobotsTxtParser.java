@@ -0,0 +1,77 @@
+package org.hat.cyberscout.recon;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+// Line-oriented robots.txt reader.
+public final class RobotsTxtParser {
+
+    static final int MAX_LINE_BYTES = 2048;
+
+    public interface Sink {
+
+        boolean rule(boolean allow, String pattern);
+
+        boolean sitemap(String url);
+    }
+
+    private RobotsTxtParser() {
+    }
+
+    // Reads at most maxBytes from in.
+    public static void parse(InputStream in, long maxBytes, Sink sink) throws IOException {
+        byte[] chunk = new byte[8192];
+        byte[] line = new byte[MAX_LINE_BYTES];
+        int lineLength = 0;
+        boolean overlong = false;
+        long remaining = maxBytes;
+        while (remaining > 0) {
+            int n = in.read(chunk, 0, (int) Math.min(chunk.length, remaining));
+            if (n < 0) {
+                if (!overlong && lineLength > 0) {
+                    line(line, lineLength, sink);
+                }
+                return;
+            }
+            remaining -= n;
+            for (int i = 0; i < n; i++) {
+                byte b = chunk[i];
+                if (b == '\n' || b == '\r') {
+                    if (!overlong && lineLength > 0 && !line(line, lineLength, sink)) {
+                        return;
+                    }
+                    lineLength = 0;
+                    overlong = false;
+                } else if (lineLength < line.length) {
+                    line[lineLength++] = b;
+                } else {
+                    overlong = true;
+                }
+            }
+        }
+    }
+
+    private static boolean line(byte[] bytes, int length, Sink sink) {
+        String text = new String(bytes, 0, length, StandardCharsets.UTF_8);
+        int comment = text.indexOf('#');
+        if (comment >= 0) {
+            text = text.substring(0, comment);
+        }
+        int colon = text.indexOf(':');
+        if (colon < 0) {
+            return true;
+        }
+        String value = text.substring(colon + 1).trim();
+        if (value.isEmpty()) {
+            return true;
+        }
+        return switch (text.substring(0, colon).trim().toLowerCase(Locale.ROOT)) {
+            case "allow" -> sink.rule(true, value);
+            case "disallow" -> sink.rule(false, value);
+            case "sitemap" -> sink.sitemap(value);
+            default -> true;
+        };
+    }
+}
@@ -0,0 +1,234 @@
+package org.hat.cyberscout.recon;
+
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import org.hat.cyberscout.http.BoundedBody;
+import org.hat.cyberscout.http.HttpTransport;
+import org.hat.cyberscout.http.ScanResponseCache;
+import org.hat.cyberscout.policy.AttackExecutionRequest;
+import org.hat.cyberscout.policy.PolicyEnforcer;
+import org.hat.cyberscout.util.UrlUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+// Breadth-first crawl of one origin.
+@Component
+public class SiteCrawler {
+
+    private static final Logger log = LoggerFactory.getLogger(SiteCrawler.class);
+    private static final double DEDUPE_FALSE_POSITIVE_RATE = 0.01;
+    private static final int MAX_PATH_LENGTH = 255;
+
+    private final HttpTransport transport;
+    private final ScanResponseCache responseCache;
+    private final PolicyEnforcer policyEnforcer;
+    private final ReconProperties properties;
+
+    public SiteCrawler(
+            HttpTransport transport,
+            ScanResponseCache responseCache,
+            PolicyEnforcer policyEnforcer,
+            ReconProperties properties
+    ) {
+        this.transport = transport;
+        this.responseCache = responseCache;
+        this.policyEnforcer = policyEnforcer;
+        this.properties = properties;
+    }
+
+    public record CrawlStats(int pagesFetched, int pathsDiscovered, int frontierLeft, boolean linkLimitReached) {
+    }
+
+    // Crawls from origin's root until the frontier is empty, the request budget is spent or deadlineNanos
+    // passes.
+    public CompletableFuture<CrawlStats> crawl(
+            Long scanRunId,
+            URI origin,
+            long deadlineNanos,
+            Consumer<EndpointCandidate> onDiscovered
+    ) {
+        Crawl crawl = new Crawl(scanRunId, origin, deadlineNanos, onDiscovered);
+        crawl.start();
+        return crawl.done;
+    }
+
+    private record Page(String path, int depth) {
+    }
+
+    // A path found on a page.
+    record Link(String path, boolean follow) {
+    }
+
+    private final class Crawl {
+
+        private final Long scanRunId;
+        private final URI origin;
+        private final long deadlineNanos;
+        private final Consumer<EndpointCandidate> onDiscovered;
+        private final UrlBloomFilter seen;
+        private final ArrayDeque<Page> frontier = new ArrayDeque<>();
+        private final CompletableFuture<CrawlStats> done = new CompletableFuture<>();
+
+        private int inFlight;
+        private int fetched;
+        private int discovered;
+        private boolean linkLimitReached;
+
+        Crawl(Long scanRunId, URI origin, long deadlineNanos, Consumer<EndpointCandidate> onDiscovered) {
+            this.scanRunId = scanRunId;
+            this.origin = origin;
+            this.deadlineNanos = deadlineNanos;
+            this.onDiscovered = onDiscovered;
+            this.seen = UrlBloomFilter.create(properties.getCrawlMaxLinks(), DEDUPE_FALSE_POSITIVE_RATE);
+        }
+
+        synchronized void start() {
+            offer("/", 0, true);
+            pump();
+        }
+
+        // Callers hold the lock. A fetch that completes synchronously (cache hit) re-enters through
+        // onFetched, which is fine: the monitor is reentrant and the counters are already updated.
+        private void pump() {
+            while (inFlight < properties.getCrawlWorkers()
+                    && fetched < properties.getCrawlMaxRequests()
+                    && !frontier.isEmpty()
+                    && System.nanoTime() - deadlineNanos < 0) {
+                Page page = frontier.poll();
+                inFlight++;
+                fetched++;
+                CompletableFuture<List<Link>> links;
+                try {
+                    links = fetch(page);
+                } catch (RuntimeException e) {
+                    links = CompletableFuture.failedFuture(e);
+                }
+                links.whenComplete((found, error) -> onFetched(page, found, error));
+            }
+            if (inFlight == 0 && !done.isDone()) {
+                log.debug("Crawl of {} done: {} pages fetched, {} paths, {} left in frontier",
+                        origin, fetched, discovered, frontier.size());
+                done.complete(new CrawlStats(fetched, discovered, frontier.size(), linkLimitReached));
+            }
+        }
+
+        private synchronized void onFetched(Page page, List<Link> links, Throwable error) {
+            inFlight--;
+            if (error != null) {
+                log.debug("Crawl fetch of {} failed: {}", page.path(), error.toString());
+            } else {
+                for (Link link : links) {
+                    offer(link.path(), page.depth() + 1, link.follow());
+                }
+            }
+            pump();
+        }
+
+        private void offer(String path, int depth, boolean follow) {
+            if (discovered >= properties.getCrawlMaxLinks()) {
+                linkLimitReached = true;
+                return;
+            }
+            if (!seen.add(path)) {
+                return;
+            }
+            discovered++;
+            onDiscovered.accept(new EndpointCandidate(path, "GET", "CRAWL"));
+            if (follow && depth <= properties.getCrawlMaxDepth() && policyAllows(path)) {
+                frontier.add(new Page(path, depth));
+            }
+        }
+
+        private CompletableFuture<List<Link>> fetch(Page page) {
+            URI pageUri = origin.resolve(page.path());
+            HttpRequest request = HttpRequest.newBuilder(pageUri)
+                    .timeout(transport.properties().getReconTimeout())
+                    .GET()
+                    .header("Accept", "text/html, */*")
+                    .build();
+            // The page is scanned chunk by chunk as it arrives, on the client's threads and outside the crawl
+            // lock; links past the capture limit are simply not seen.
+            List<Link> found = new ArrayList<>();
+            HtmlLinkScanner scanner = new HtmlLinkScanner((tag, attribute, value) ->
+                    found.add(new Link(value, attribute != HtmlLinkScanner.Attribute.SRC)));
+            return responseCache.fetch(scanRunId, request, transport.properties().getMaxDocumentBytes(),
+                            info -> info.statusCode() / 100 == 2 && isHtml(info.headers()) ? scanner::feed : null)
+                    .thenApply(resp -> linksOf(pageUri, resp, found));
+        }
+
+        private List<Link> linksOf(URI pageUri, HttpResponse<BoundedBody> resp, List<Link> found) {
+            List<Link> links = new ArrayList<>();
+            if (resp.statusCode() / 100 == 3) {
+                resp.headers().firstValue("Location")
+                        .map(location -> normalize(origin, pageUri, location))
+                        .ifPresent(path -> links.add(new Link(path, true)));
+                return links;
+            }
+            for (Link link : found) {
+                String path = normalize(origin, pageUri, link.path());
+                if (path != null) {
+                    links.add(new Link(path, link.follow()));
+                }
+            }
+            return links;
+        }
+
+        private boolean policyAllows(String path) {
+            return policyEnforcer.evaluate(new AttackExecutionRequest(
+                    origin.getHost(), UrlUtils.effectivePort(origin), "GET", path, 1)).allowed();
+        }
+    }
+
+    private static boolean isHtml(HttpHeaders headers) {
+        Optional<String> contentType = headers.firstValue("Content-Type");
+        return contentType.isEmpty() || contentType.get().toLowerCase(Locale.ROOT).contains("html");
+    }
+
+    // Resolves raw against the page it was found on and reduces it to a canonical path: same origin only, no
+    // query or fragment, dot segments and repeated slashes collapsed, no trailing slash.
+    static String normalize(URI origin, URI page, String raw) {
+        URI resolved;
+        try {
+            resolved = page.resolve(raw.trim()).normalize();
+        } catch (IllegalArgumentException invalid) {
+            return null;
+        }
+        if (resolved.getScheme() == null
+                || !resolved.getScheme().equalsIgnoreCase(origin.getScheme())
+                || resolved.getHost() == null
+                || !resolved.getHost().equalsIgnoreCase(origin.getHost())
+                || UrlUtils.effectivePort(resolved) != UrlUtils.effectivePort(origin)) {
+            return null;
+        }
+        String rawPath = resolved.getRawPath();
+        if (rawPath == null || rawPath.isEmpty()) {
+            return "/";
+        }
+        StringBuilder path = new StringBuilder(rawPath.length());
+        for (int i = 0; i < rawPath.length(); i++) {
+            char c = rawPath.charAt(i);
+            if (c == '/' && path.length() > 0 && path.charAt(path.length() - 1) == '/') {
+                continue;
+            }
+            path.append(c);
+        }
+        if (path.length() > 1 && path.charAt(path.length() - 1) == '/') {
+            path.setLength(path.length() - 1);
+        }
+        String normalized = path.toString();
+        if (!normalized.startsWith("/") || normalized.startsWith("/..") || normalized.length() > MAX_PATH_LENGTH) {
+            return null;
+        }
+        return normalized;
+    }
+}
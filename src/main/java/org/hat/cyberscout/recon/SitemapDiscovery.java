@@ -0,0 +1,227 @@
+package org.hat.cyberscout.recon;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import javax.xml.stream.XMLStreamException;
+import org.hat.cyberscout.http.CappedInputStream;
+import org.hat.cyberscout.http.HostGate;
+import org.hat.cyberscout.http.HttpTransport;
+import org.hat.cyberscout.policy.AttackExecutionRequest;
+import org.hat.cyberscout.policy.PolicyEnforcer;
+import org.hat.cyberscout.util.UrlUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+// Reads the paths a site lists about itself: Allow/Disallow rules of robots.txt and the pages of its
+// sitemaps, following sitemap indexes.
+@Component
+public class SitemapDiscovery {
+
+    private static final Logger log = LoggerFactory.getLogger(SitemapDiscovery.class);
+    private static final double DEDUPE_FALSE_POSITIVE_RATE = 0.01;
+    // Larger than crawlers are required to read (RFC 9309, section 2.5).
+    private static final long ROBOTS_MAX_BYTES = 512 * 1024;
+
+    private final HttpTransport transport;
+    private final HostGate hostGate;
+    private final PolicyEnforcer policyEnforcer;
+    private final ReconProperties properties;
+
+    public SitemapDiscovery(HttpTransport transport, HostGate hostGate, PolicyEnforcer policyEnforcer, ReconProperties properties) {
+        this.transport = transport;
+        this.hostGate = hostGate;
+        this.policyEnforcer = policyEnforcer;
+        this.properties = properties;
+    }
+
+    public record DiscoveryStats(int documentsRead, int pathsDiscovered, boolean entryLimitReached) {
+    }
+
+    // Hands every new same-origin path to onDiscovered as it is parsed.
+    public CompletableFuture<DiscoveryStats> discover(
+            Long scanRunId,
+            URI origin,
+            long deadlineNanos,
+            Consumer<EndpointCandidate> onDiscovered
+    ) {
+        Discovery discovery = new Discovery(scanRunId, origin, deadlineNanos, onDiscovered);
+        CompletableFuture<DiscoveryStats> done = new CompletableFuture<>();
+        Thread worker = Thread.ofVirtual().name("cyberscout-sitemaps").start(() -> {
+            try {
+                done.complete(discovery.run());
+            } catch (RuntimeException e) {
+                done.completeExceptionally(e);
+            }
+        });
+        long remaining = Math.max(0, deadlineNanos - System.nanoTime());
+        CompletableFuture.delayedExecutor(remaining, TimeUnit.NANOSECONDS).execute(() -> {
+            if (!done.isDone()) {
+                worker.interrupt();
+            }
+        });
+        return done;
+    }
+
+    private final class Discovery implements RobotsTxtParser.Sink, SitemapParser.Sink {
+
+        private final Long scanRunId;
+        private final URI origin;
+        private final long deadlineNanos;
+        private final Consumer<EndpointCandidate> onDiscovered;
+        private final UrlBloomFilter seen;
+        private final ArrayDeque<URI> sitemaps = new ArrayDeque<>();
+        private final Set<String> queuedSitemaps = new HashSet<>();
+
+        private int documentsRead;
+        private int discovered;
+        private boolean entryLimitReached;
+
+        Discovery(Long scanRunId, URI origin, long deadlineNanos, Consumer<EndpointCandidate> onDiscovered) {
+            this.scanRunId = scanRunId;
+            this.origin = origin;
+            this.deadlineNanos = deadlineNanos;
+            this.onDiscovered = onDiscovered;
+            this.seen = UrlBloomFilter.create(Math.max(1, properties.getSitemapMaxEntries()), DEDUPE_FALSE_POSITIVE_RATE);
+        }
+
+        DiscoveryStats run() {
+            read(origin.resolve("/robots.txt"), false);
+            if (sitemaps.isEmpty()) {
+                sitemap("/sitemap.xml");
+            }
+            while (!sitemaps.isEmpty() && !entryLimitReached && beforeDeadline()) {
+                read(sitemaps.poll(), true);
+            }
+            log.debug("Sitemap discovery on {} done: {} documents, {} paths, {} sitemaps not read",
+                    origin, documentsRead, discovered, sitemaps.size());
+            return new DiscoveryStats(documentsRead, discovered, entryLimitReached);
+        }
+
+        private void read(URI uri, boolean xml) {
+            if (!policyAllows(uri.getRawPath())) {
+                return;
+            }
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .timeout(transport.properties().getReconTimeout())
+                    .GET()
+                    .build();
+            HostGate.Permit permit;
+            try {
+                permit = hostGate.acquire(scanRunId, request);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                log.debug("Reading {} skipped: {}", uri, e.getMessage());
+                return;
+            }
+            // The slot is held until the body is read; the parsers pull straight from the connection.
+            HttpResponse<InputStream> resp = null;
+            Throwable error = null;
+            try {
+                resp = transport.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                try (InputStream body = resp.body()) {
+                    if (resp.statusCode() / 100 != 2) {
+                        return;
+                    }
+                    documentsRead++;
+                    if (xml) {
+                        SitemapParser.parse(new CappedInputStream(decoded(body), properties.getSitemapMaxBytes()), this);
+                    } else {
+                        RobotsTxtParser.parse(body, ROBOTS_MAX_BYTES, this);
+                    }
+                }
+            } catch (InterruptedException e) {
+                error = e;
+                Thread.currentThread().interrupt();
+            } catch (IOException | XMLStreamException e) {
+                error = e;
+                // Whatever was parsed before the error is kept.
+                log.debug("Reading {} stopped: {}", uri, e.toString());
+            } finally {
+                permit.completed(resp, error);
+            }
+        }
+
+        @Override
+        public boolean rule(boolean allow, String pattern) {
+            // Only the literal prefix of a pattern is a path; "/private/*.json$" stands for /private.
+            int wildcard = pattern.length();
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                if (c == '*' || c == '$') {
+                    wildcard = i;
+                    break;
+                }
+            }
+            return offer(pattern.substring(0, wildcard));
+        }
+
+        @Override
+        public boolean sitemap(String url) {
+            URI uri;
+            try {
+                uri = origin.resolve(url).normalize();
+            } catch (IllegalArgumentException invalid) {
+                return true;
+            }
+            // Sitemaps hosted elsewhere are out of scope.
+            if (SiteCrawler.normalize(origin, origin, uri.toString()) != null
+                    && queuedSitemaps.size() < properties.getSitemapMaxDocuments()
+                    && queuedSitemaps.add(uri.toString())) {
+                sitemaps.add(uri);
+            }
+            return beforeDeadline();
+        }
+
+        @Override
+        public boolean url(String loc) {
+            return offer(loc);
+        }
+
+        private boolean offer(String raw) {
+            String path = SiteCrawler.normalize(origin, origin, raw);
+            if (path == null || !seen.add(path)) {
+                return beforeDeadline();
+            }
+            if (discovered >= properties.getSitemapMaxEntries()) {
+                entryLimitReached = true;
+                return false;
+            }
+            discovered++;
+            onDiscovered.accept(new EndpointCandidate(path, "GET", "SITEMAP"));
+            return beforeDeadline();
+        }
+
+        private boolean beforeDeadline() {
+            return System.nanoTime() - deadlineNanos < 0 && !Thread.currentThread().isInterrupted();
+        }
+
+        private boolean policyAllows(String path) {
+            return policyEnforcer.evaluate(new AttackExecutionRequest(
+                    origin.getHost(), UrlUtils.effectivePort(origin), "GET", path, 1)).allowed();
+        }
+    }
+
+    // Sitemaps may be served gzipped under a .gz name without Content-Encoding, so the magic bytes decide.
+    private static InputStream decoded(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in);
+        buffered.mark(2);
+        int b1 = buffered.read();
+        int b2 = buffered.read();
+        buffered.reset();
+        return b1 == 0x1f && b2 == 0x8b ? new GZIPInputStream(buffered) : buffered;
+    }
+}
@@ -0,0 +1,97 @@
+package org.hat.cyberscout.recon;
+
+import java.io.InputStream;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+// Pull parser for sitemap urlset and sitemapindex documents.
+public final class SitemapParser {
+
+    static final String NAMESPACE = "http://www.sitemaps.org/schemas/sitemap/0.9";
+    static final int MAX_LOC_CHARS = 2048;
+
+    private static final XMLInputFactory FACTORY = newFactory();
+
+    public interface Sink {
+
+        // A page of a urlset.
+        boolean url(String loc);
+
+        // A nested sitemap of a sitemapindex.
+        boolean sitemap(String loc);
+    }
+
+    private SitemapParser() {
+    }
+
+    public static void parse(InputStream in, Sink sink) throws XMLStreamException {
+        XMLStreamReader reader = FACTORY.createXMLStreamReader(in);
+        try {
+            StringBuilder loc = new StringBuilder();
+            boolean inLoc = false;
+            // The entry element being read (url or sitemap) and its depth; extension elements such as
+            // image:loc sit deeper or in another namespace and are skipped.
+            String entry = null;
+            int entryDepth = -1;
+            int depth = 0;
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT -> {
+                        depth++;
+                        String name = reader.getLocalName();
+                        if (!inSitemapNamespace(reader)) {
+                            break;
+                        }
+                        if (entry == null && (name.equals("url") || name.equals("sitemap"))) {
+                            entry = name;
+                            entryDepth = depth;
+                        } else if (entry != null && depth == entryDepth + 1 && name.equals("loc")) {
+                            inLoc = true;
+                            loc.setLength(0);
+                        }
+                    }
+                    case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA -> {
+                        if (inLoc && loc.length() < MAX_LOC_CHARS) {
+                            int length = Math.min(reader.getTextLength(), MAX_LOC_CHARS - loc.length());
+                            loc.append(reader.getTextCharacters(), reader.getTextStart(), length);
+                        }
+                    }
+                    case XMLStreamConstants.END_ELEMENT -> {
+                        if (inLoc && depth == entryDepth + 1) {
+                            inLoc = false;
+                            String value = loc.toString().trim();
+                            boolean more = value.isEmpty()
+                                    || (entry.equals("url") ? sink.url(value) : sink.sitemap(value));
+                            if (!more) {
+                                return;
+                            }
+                        } else if (depth == entryDepth) {
+                            entry = null;
+                            entryDepth = -1;
+                        }
+                        depth--;
+                    }
+                    default -> {
+                    }
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static boolean inSitemapNamespace(XMLStreamReader reader) {
+        String namespace = reader.getNamespaceURI();
+        return namespace == null || namespace.isEmpty() || namespace.equals(NAMESPACE);
+    }
+
+    private static XMLInputFactory newFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        return factory;
+    }
+}
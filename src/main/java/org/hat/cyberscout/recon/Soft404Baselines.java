@@ -0,0 +1,92 @@
+package org.hat.cyberscout.recon;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.hat.cyberscout.http.HttpProbeResult;
+import org.springframework.stereotype.Component;
+
+// What each scanned origin answers for paths that do not exist, so any probe result can be checked against it
+// with a few integer comparisons.
+@Component
+public class Soft404Baselines {
+
+    private static final int MAX_BASELINES = 64;
+
+    private final Map<Key, Baseline> baselines = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Baseline> eldest) {
+            return size() > MAX_BASELINES;
+        }
+    };
+
+    // Responses to random paths on one origin.
+    public record Baseline(List<ResponseFingerprint> samples) {
+
+        public boolean matches(ResponseFingerprint fingerprint) {
+            for (ResponseFingerprint sample : samples) {
+                if (sample.similarTo(fingerprint)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private record Key(Long scanRunId, String origin) {
+    }
+
+    public void put(Long scanRunId, URI origin, Baseline baseline) {
+        if (scanRunId == null) {
+            return;
+        }
+        synchronized (baselines) {
+            baselines.put(new Key(scanRunId, origin(origin)), baseline);
+        }
+    }
+
+    public Optional<Baseline> find(Long scanRunId, URI origin) {
+        if (scanRunId == null) {
+            return Optional.empty();
+        }
+        synchronized (baselines) {
+            return Optional.ofNullable(baselines.get(new Key(scanRunId, origin(origin))));
+        }
+    }
+
+    // false when no baseline was taken for this scan and origin.
+    public boolean isSoft404(Long scanRunId, URI origin, HttpProbeResult result) {
+        if (result.statusCode() <= 0) {
+            return false;
+        }
+        return find(scanRunId, origin)
+                .map(baseline -> baseline.matches(fingerprint(result)))
+                .orElse(false);
+    }
+
+    public void evictScan(Long scanRunId) {
+        if (scanRunId == null) {
+            return;
+        }
+        synchronized (baselines) {
+            baselines.keySet().removeIf(key -> scanRunId.equals(key.scanRunId()));
+        }
+    }
+
+    static ResponseFingerprint fingerprint(HttpProbeResult result) {
+        String excerpt = result.bodyExcerpt();
+        String location = result.responseHeaders() == null ? null : result.responseHeaders().get("location");
+        return ResponseFingerprint.of(
+                URI.create(result.url()).getRawPath(),
+                result.statusCode(),
+                location,
+                excerpt,
+                excerpt == null || excerpt.length() < ResponseFingerprint.WINDOW_CHARS);
+    }
+
+    private static String origin(URI uri) {
+        return uri.getScheme() + "://" + uri.getRawAuthority();
+    }
+}
@@ -0,0 +1,124 @@
+package org.hat.cyberscout.recon;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import org.hat.cyberscout.http.BoundedBody;
+import org.hat.cyberscout.http.HttpTransport;
+import org.hat.cyberscout.http.ScanResponseCache;
+import org.hat.cyberscout.policy.AttackExecutionRequest;
+import org.hat.cyberscout.policy.PolicyEnforcer;
+import org.hat.cyberscout.util.UrlUtils;
+import org.springframework.stereotype.Component;
+
+// Finds candidate paths that only look present because the target answers every unknown path with the same
+// page.
+@Component
+public class Soft404Detector {
+
+    private final HttpTransport transport;
+    private final ScanResponseCache responseCache;
+    private final Soft404Baselines baselines;
+    private final PolicyEnforcer policyEnforcer;
+
+    public Soft404Detector(
+            HttpTransport transport,
+            ScanResponseCache responseCache,
+            Soft404Baselines baselines,
+            PolicyEnforcer policyEnforcer
+    ) {
+        this.transport = transport;
+        this.responseCache = responseCache;
+        this.baselines = baselines;
+        this.policyEnforcer = policyEnforcer;
+    }
+
+    // Fetches the baseline and then every path in paths, returning those that match it.
+    public CompletableFuture<Set<String>> absentPaths(Long scanRunId, URI origin, Collection<String> paths) {
+        return baseline(scanRunId, origin).thenCompose(baseline -> absentPaths(scanRunId, origin, paths, baseline));
+    }
+
+    // Like absentPaths(), against a baseline that was already taken.
+    public CompletableFuture<Set<String>> absentPaths(
+            Long scanRunId,
+            URI origin,
+            Collection<String> paths,
+            Soft404Baselines.Baseline baseline
+    ) {
+        if (baseline.samples().isEmpty()) {
+            return CompletableFuture.completedFuture(Set.of());
+        }
+        // Paths the policy rejects are not fetched, so they are never reported absent.
+        List<String> ordered = paths.stream().filter(path -> policyAllows(origin, path)).toList();
+        List<CompletableFuture<Boolean>> checks = new ArrayList<>();
+        for (String path : ordered) {
+            checks.add(fingerprint(scanRunId, origin, path)
+                    .thenApply(baseline::matches)
+                    .exceptionally(error -> false));
+        }
+        return CompletableFuture.allOf(checks.toArray(CompletableFuture[]::new)).thenApply(done -> {
+            Set<String> absent = new LinkedHashSet<>();
+            for (int i = 0; i < ordered.size(); i++) {
+                if (checks.get(i).join()) {
+                    absent.add(ordered.get(i));
+                }
+            }
+            return absent;
+        });
+    }
+
+    CompletableFuture<Soft404Baselines.Baseline> baseline(Long scanRunId, URI origin) {
+        // Shapes routers commonly treat differently: a bare segment, a nested one and a file.
+        List<String> probes = List.of("/" + randomToken(), "/" + randomToken() + "/" + randomToken(), "/" + randomToken() + ".html");
+        List<CompletableFuture<ResponseFingerprint>> samples = new ArrayList<>();
+        for (String path : probes) {
+            if (!policyAllows(origin, path)) {
+                continue;
+            }
+            samples.add(fingerprint(scanRunId, origin, path).exceptionally(error -> null));
+        }
+        return CompletableFuture.allOf(samples.toArray(CompletableFuture[]::new)).thenApply(done -> {
+            List<ResponseFingerprint> fingerprints = samples.stream()
+                    .map(CompletableFuture::join)
+                    .filter(f -> f != null)
+                    .toList();
+            Soft404Baselines.Baseline baseline = new Soft404Baselines.Baseline(fingerprints);
+            baselines.put(scanRunId, origin, baseline);
+            return baseline;
+        });
+    }
+
+    private CompletableFuture<ResponseFingerprint> fingerprint(Long scanRunId, URI origin, String path) {
+        HttpRequest request = HttpRequest.newBuilder(origin.resolve(path))
+                .timeout(transport.properties().getReconTimeout())
+                .GET()
+                .build();
+        return responseCache.fetch(scanRunId, request, transport.properties().getMaxCaptureBytes())
+                .thenApply(resp -> fingerprint(path, resp));
+    }
+
+    private boolean policyAllows(URI origin, String path) {
+        return policyEnforcer.evaluate(new AttackExecutionRequest(
+                origin.getHost(), UrlUtils.effectivePort(origin), "GET", path, 1)).allowed();
+    }
+
+    private static ResponseFingerprint fingerprint(String path, HttpResponse<BoundedBody> resp) {
+        return ResponseFingerprint.of(
+                path,
+                resp.statusCode(),
+                resp.headers().firstValue("Location").orElse(null),
+                resp.body().utf8(),
+                !resp.body().truncated());
+    }
+
+    private static String randomToken() {
+        return "cs" + Long.toHexString(ThreadLocalRandom.current().nextLong() >>> 4);
+    }
+}
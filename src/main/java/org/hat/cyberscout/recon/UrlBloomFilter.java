@@ -0,0 +1,79 @@
+package org.hat.cyberscout.recon;
+
+// Fixed-size Bloom filter over normalized URL paths.
+final class UrlBloomFilter {
+
+    private final long[] words;
+    private final int bitCount;
+    private final int hashCount;
+
+    private UrlBloomFilter(int bitCount, int hashCount) {
+        this.words = new long[(bitCount + 63) >>> 6];
+        this.bitCount = words.length * 64;
+        this.hashCount = hashCount;
+    }
+
+    static UrlBloomFilter create(int expectedEntries, double falsePositiveRate) {
+        if (expectedEntries < 1) {
+            throw new IllegalArgumentException("expectedEntries must be positive");
+        }
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("falsePositiveRate must be in (0, 1)");
+        }
+        double ln2 = Math.log(2);
+        long bits = (long) Math.ceil(-expectedEntries * Math.log(falsePositiveRate) / (ln2 * ln2));
+        int hashes = (int) Math.max(1, Math.round((double) bits / expectedEntries * ln2));
+        return new UrlBloomFilter((int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, bits)), hashes);
+    }
+
+    // Adds value and returns true if it was not (probably) present before.
+    boolean add(CharSequence value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        boolean added = false;
+        for (int i = 0; i < hashCount; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bitCount);
+            long mask = 1L << bit;
+            int word = bit >>> 6;
+            if ((words[word] & mask) == 0) {
+                words[word] |= mask;
+                added = true;
+            }
+        }
+        return added;
+    }
+
+    boolean mightContain(CharSequence value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((words[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int sizeInBytes() {
+        return words.length * Long.BYTES;
+    }
+
+    // 64-bit FNV-1a over the UTF-16 units, finished with the murmur3 avalanche step.
+    private static long hash(CharSequence value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            h = (h ^ (c & 0xff)) * 0x100000001b3L;
+            h = (h ^ (c >>> 8)) * 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
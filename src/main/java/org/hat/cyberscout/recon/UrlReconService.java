@@ -2,15 +2,11 @@ package org.hat.cyberscout.recon;
 
 import static java.util.stream.Collectors.toMap;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpClient.Redirect;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -18,6 +14,16 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import org.hat.cyberscout.http.HostGate;
+import org.hat.cyberscout.http.HttpTransport;
+import org.hat.cyberscout.openapi.OpenApiDocumentService;
+import org.hat.cyberscout.openapi.OpenApiIndex;
+import org.hat.cyberscout.openapi.OpenApiOperation;
 import org.hat.cyberscout.util.UrlUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,53 +33,169 @@ import org.springframework.stereotype.Service;
 public class UrlReconService {
 
     private static final Logger log = LoggerFactory.getLogger(UrlReconService.class);
+    private static final TechFingerprint NO_FINGERPRINT = new TechFingerprint(null, null, false, false, false, false, Map.of());
 
-    private final HttpClient httpClient;
-    private final ObjectMapper objectMapper;
+    // Common endpoints (safe discovery only). These are guesses, so they are checked against the
+    // target's not-found baseline before they become candidates.
+    private static final List<String> WELL_KNOWN_PATHS = List.of(
+            "/robots.txt",
+            "/sitemap.xml",
+            "/.well-known/security.txt",
+            "/swagger-ui",
+            "/swagger-ui/",
+            "/v3/api-docs",
+            "/v3/api-docs/",
+            "/openapi.json",
+            "/actuator",
+            "/actuator/health",
+            "/graphql",
+            "/login",
+            "/admin",
+            "/h2-console"
+    );
 
-    public UrlReconService(ObjectMapper objectMapper) {
-        this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(5))
-                .followRedirects(Redirect.NEVER)
-                .build();
-        this.objectMapper = objectMapper;
+    private final HttpTransport transport;
+    private final HostGate hostGate;
+    private final SiteCrawler crawler;
+    private final Soft404Detector soft404Detector;
+    private final SitemapDiscovery sitemapDiscovery;
+    private final JsBundleMiner bundleMiner;
+    private final OpenApiDocumentService openApiDocumentService;
+    private final ReconProperties reconProperties;
+
+    public UrlReconService(
+            HttpTransport transport,
+            HostGate hostGate,
+            SiteCrawler crawler,
+            Soft404Detector soft404Detector,
+            SitemapDiscovery sitemapDiscovery,
+            JsBundleMiner bundleMiner,
+            OpenApiDocumentService openApiDocumentService,
+            ReconProperties reconProperties
+    ) {
+        this.transport = transport;
+        this.hostGate = hostGate;
+        this.crawler = crawler;
+        this.soft404Detector = soft404Detector;
+        this.sitemapDiscovery = sitemapDiscovery;
+        this.bundleMiner = bundleMiner;
+        this.openApiDocumentService = openApiDocumentService;
+        this.reconProperties = reconProperties;
     }
 
     public ReconResult recon(String baseUrl) {
+        return recon(null, baseUrl);
+    }
+
+    // With a scan run id the crawl and soft-404 GETs go through the scan's response cache, so later phases
+    // (exposure probes) reuse them, and every recon request is recorded as an observation.
+    public ReconResult recon(Long scanRunId, String baseUrl) {
         URI baseUri = UrlUtils.parseBaseUrl(baseUrl);
+        long startNanos = System.nanoTime();
+        long deadlineNanos = startNanos + reconProperties.getDeadline().toNanos();
+        List<ReconStep> steps = Collections.synchronizedList(new ArrayList<>());
 
-        TechFingerprint fingerprint = fingerprint(baseUri);
+        // All steps start at once and share one deadline; a step that misses it contributes its fallback.
+        CompletableFuture<TechFingerprint> fingerprintStep = step(
+                "fingerprint", startNanos, deadlineNanos, steps, NO_FINGERPRINT, () -> fingerprintAsync(scanRunId, baseUri));
+        // Crawled paths are collected as they are found, so a crawl cut off by the deadline still counts.
+        Set<String> crawled = Collections.synchronizedSet(new LinkedHashSet<>());
+        CompletableFuture<SiteCrawler.CrawlStats> crawlStep = step(
+                "crawl", startNanos, deadlineNanos, steps, null,
+                () -> crawler.crawl(scanRunId, baseUri, deadlineNanos, candidate -> crawled.add(candidate.path())));
+        Set<String> listed = Collections.synchronizedSet(new LinkedHashSet<>());
+        CompletableFuture<SitemapDiscovery.DiscoveryStats> sitemapStep = reconProperties.isSitemapEnabled()
+                ? step("sitemaps", startNanos, deadlineNanos, steps, null,
+                        () -> sitemapDiscovery.discover(scanRunId, baseUri, deadlineNanos, candidate -> listed.add(candidate.path())))
+                : CompletableFuture.completedFuture(null);
+        // Scripts are only known once the crawl has seen the pages, so bundle mining follows it.
+        List<EndpointCandidate> mined = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<JsBundleMiner.MiningStats> bundleStep = reconProperties.isBundleEnabled()
+                ? step("js-bundles", startNanos, deadlineNanos, steps, null,
+                        () -> crawlStep.thenCompose(stats -> bundleMiner.mine(scanRunId, baseUri, snapshot(crawled), deadlineNanos, mined::add)))
+                : CompletableFuture.completedFuture(null);
+        CompletableFuture<Optional<OpenApiIndex>> apiDocsStep = step(
+                "openapi-v3-api-docs", startNanos, deadlineNanos, steps, Optional.empty(),
+                () -> openApiDocumentService.fetchIndexAsync(
+                        scanRunId, baseUri.resolve("/v3/api-docs"), reconProperties.getOpenApiMaxOperations()));
+        // /openapi.json is only a fallback, fetched once /v3/api-docs has come back without a document.
+        CompletableFuture<Optional<OpenApiIndex>> openApiStep = apiDocsStep.thenCompose(found ->
+                found.isPresent() || System.nanoTime() - deadlineNanos >= 0
+                        ? CompletableFuture.completedFuture(found)
+                        : step("openapi-json", startNanos, deadlineNanos, steps, Optional.empty(),
+                                () -> openApiDocumentService.fetchIndexAsync(
+                                        scanRunId, baseUri.resolve("/openapi.json"), reconProperties.getOpenApiMaxOperations())));
+        // The not-found baseline is taken once. Well-known guesses are checked against it right away,
+        // paths from robots.txt, sitemaps and scripts once those steps are done.
+        CompletableFuture<Set<String>> soft404Step = CompletableFuture.completedFuture(Set.of());
+        CompletableFuture<Set<String>> discoveredSoft404Step = CompletableFuture.completedFuture(Set.of());
+        if (reconProperties.isSoft404Enabled()) {
+            CompletableFuture<Soft404Baselines.Baseline> baseline = soft404Detector.baseline(scanRunId, baseUri);
+            soft404Step = step("soft-404", startNanos, deadlineNanos, steps, Set.of(),
+                    () -> baseline.thenCompose(b -> soft404Detector.absentPaths(scanRunId, baseUri, WELL_KNOWN_PATHS, b)));
+            discoveredSoft404Step = step("soft-404-discovered", startNanos, deadlineNanos, steps, Set.of(),
+                    () -> CompletableFuture.allOf(sitemapStep, bundleStep).thenCompose(done -> baseline.thenCompose(b ->
+                            soft404Detector.absentPaths(scanRunId, baseUri, discoveredGuesses(listed, mined), b))));
+        }
+        CompletableFuture.allOf(fingerprintStep, crawlStep, sitemapStep, bundleStep, openApiStep,
+                soft404Step, discoveredSoft404Step).join();
+
+        TechFingerprint fingerprint = fingerprintStep.join();
         List<EndpointCandidate> endpoints = new ArrayList<>();
 
-        // Common endpoints (safe discovery only)
         Set<String> candidates = new LinkedHashSet<>();
         candidates.add("/");
-        candidates.add("/robots.txt");
-        candidates.add("/sitemap.xml");
-        candidates.add("/.well-known/security.txt");
-        candidates.add("/swagger-ui");
-        candidates.add("/swagger-ui/");
-        candidates.add("/v3/api-docs");
-        candidates.add("/v3/api-docs/");
-        candidates.add("/openapi.json");
-        candidates.add("/actuator");
-        candidates.add("/actuator/health");
-        candidates.add("/graphql");
-        candidates.add("/login");
-        candidates.add("/admin");
-        candidates.add("/h2-console");
-
-        // Crawl a tiny bit from home page to discover same-origin links (depth 1).
-        candidates.addAll(extractSameOriginLinks(baseUri.resolve("/"), 30));
+        Set<String> absent = soft404Step.join();
+        for (String path : WELL_KNOWN_PATHS) {
+            if (!absent.contains(path)) {
+                candidates.add(path);
+            }
+        }
+        if (!absent.isEmpty()) {
+            log.debug("Dropped {} well-known paths answered like a missing page on {}: {}", absent.size(), baseUri, absent);
+        }
+
+        synchronized (crawled) {
+            candidates.addAll(crawled);
+        }
+        Set<String> absentDiscovered = discoveredSoft404Step.join();
+        synchronized (listed) {
+            for (String path : listed) {
+                if (!absentDiscovered.contains(path)) {
+                    candidates.add(path);
+                }
+            }
+        }
+        if (!absentDiscovered.isEmpty()) {
+            log.debug("Dropped {} robots.txt, sitemap and script paths answered like a missing page on {}",
+                    absentDiscovered.size(), baseUri);
+        }
 
         // If OpenAPI is present, use it to enumerate paths/methods.
-        endpoints.addAll(openApiEndpointsIfPresent(baseUri));
+        // The attack checks and payload generation later in the run read the same index.
+        Optional<OpenApiIndex> index = openApiStep.join();
+        index.ifPresent(found -> {
+            openApiDocumentService.assignToScan(scanRunId, found);
+            for (OpenApiOperation op : found.operations()) {
+                endpoints.add(new EndpointCandidate(op.path(), op.method(), "OPENAPI"));
+            }
+        });
 
-        // Add HTTP GET candidates that we haven't already covered via OpenAPI.
+        // Then the routes the front end calls, then HTTP GET candidates not already covered.
         Set<String> already = new HashSet<>();
         for (EndpointCandidate e : endpoints) {
             already.add(e.path() + "|" + e.method());
         }
+        synchronized (mined) {
+            for (EndpointCandidate e : mined) {
+                if ("GET".equals(e.method()) && absentDiscovered.contains(e.path())) {
+                    continue;
+                }
+                if (already.add(e.path() + "|" + e.method())) {
+                    endpoints.add(e);
+                }
+            }
+        }
         for (String path : candidates) {
             String key = path + "|GET";
             if (already.contains(key)) {
@@ -82,24 +204,75 @@ public class UrlReconService {
             endpoints.add(new EndpointCandidate(path, "GET", techHintFromPath(path, fingerprint)));
         }
 
-        // Keep it bounded for now.
-        if (endpoints.size() > 80) {
-            endpoints = endpoints.subList(0, 80);
+        List<ReconStep> timings;
+        synchronized (steps) {
+            timings = List.copyOf(steps);
         }
+        return new ReconResult(baseUri, fingerprint, endpoints, timings, millisSince(startNanos));
+    }
 
-        return new ReconResult(baseUri, fingerprint, endpoints);
+    // Paths only listed or referenced, never fetched: robots.txt rules and sitemap entries first (robots
+    // prefixes are the likeliest soft-404s), then GET routes from scripts. Other methods are not
+    // judged by a GET.
+    private List<String> discoveredGuesses(Set<String> listed, List<EndpointCandidate> mined) {
+        Set<String> paths = new LinkedHashSet<>();
+        synchronized (listed) {
+            paths.addAll(listed);
+        }
+        synchronized (mined) {
+            for (EndpointCandidate e : mined) {
+                if ("GET".equals(e.method())) {
+                    paths.add(e.path());
+                }
+            }
+        }
+        return paths.stream().limit(Math.max(0, reconProperties.getSoft404MaxDiscoveredPaths())).toList();
     }
 
-    private TechFingerprint fingerprint(URI baseUri) {
+    private <T> CompletableFuture<T> step(
+            String name,
+            long startNanos,
+            long deadlineNanos,
+            List<ReconStep> steps,
+            T fallback,
+            Supplier<CompletableFuture<T>> call
+    ) {
+        CompletableFuture<T> running;
         try {
-            HttpResponse<Void> resp = httpClient.send(
-                    HttpRequest.newBuilder(baseUri.resolve("/"))
-                            .timeout(Duration.ofSeconds(8))
-                            .method("HEAD", HttpRequest.BodyPublishers.noBody())
-                            .build(),
-                    HttpResponse.BodyHandlers.discarding()
-            );
+            running = call.get();
+        } catch (RuntimeException e) {
+            running = CompletableFuture.failedFuture(e);
+        }
+        // Whichever comes first, the step's own completion or the deadline, settles it. The step is
+        // recorded before the future completes so the caller sees it once allOf() returns.
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicBoolean settled = new AtomicBoolean();
+        running.whenComplete((value, error) -> {
+            if (settled.compareAndSet(false, true)) {
+                if (error != null) {
+                    log.warn("Recon step {} failed: {}", name, rootMessage(error));
+                }
+                steps.add(new ReconStep(name, error == null ? ReconStep.Status.COMPLETED : ReconStep.Status.FAILED, millisSince(startNanos)));
+                result.complete(error == null ? value : fallback);
+            }
+        });
+        long remaining = Math.max(0, deadlineNanos - System.nanoTime());
+        CompletableFuture.delayedExecutor(remaining, TimeUnit.NANOSECONDS).execute(() -> {
+            // Recon stops waiting here; the exchange itself still ends at its own request timeout.
+            if (settled.compareAndSet(false, true)) {
+                steps.add(new ReconStep(name, ReconStep.Status.TIMED_OUT, millisSince(startNanos)));
+                result.complete(fallback);
+            }
+        });
+        return result;
+    }
 
+    private CompletableFuture<TechFingerprint> fingerprintAsync(Long scanRunId, URI baseUri) {
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve("/"))
+                .timeout(transport.properties().getFingerprintTimeout())
+                .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                .build();
+        return hostGate.sendAsync(scanRunId, request, r -> transport.sendAsync(r, HttpResponse.BodyHandlers.discarding())).thenApply(resp -> {
             Map<String, String> headers = resp.headers().map().entrySet().stream()
                     .collect(toMap(
                             e -> e.getKey().toLowerCase(Locale.ROOT),
@@ -121,107 +294,25 @@ public class UrlReconService {
                     xcto,
                     headers
             );
-        } catch (Exception e) {
-            log.warn("Fingerprint HEAD failed for {}: {}", baseUri, e.getMessage());
-            return new TechFingerprint(null, null, false, false, false, false, Map.of());
-        }
+        });
     }
 
-    private List<EndpointCandidate> openApiEndpointsIfPresent(URI baseUri) {
-        List<EndpointCandidate> endpoints = new ArrayList<>();
-        Optional<JsonNode> doc = tryGetJson(baseUri.resolve("/v3/api-docs"));
-        if (doc.isEmpty()) {
-            doc = tryGetJson(baseUri.resolve("/openapi.json"));
-        }
-        if (doc.isEmpty()) {
-            return endpoints;
-        }
-
-        JsonNode paths = doc.get().get("paths");
-        if (paths == null || !paths.isObject()) {
-            return endpoints;
+    private static List<String> snapshot(Set<String> paths) {
+        synchronized (paths) {
+            return List.copyOf(paths);
         }
-
-        paths.fieldNames().forEachRemaining(path -> {
-            JsonNode methods = paths.get(path);
-            if (methods == null || !methods.isObject()) {
-                return;
-            }
-            methods.fieldNames().forEachRemaining(method -> {
-                String m = method.toUpperCase(Locale.ROOT);
-                if (!Set.of("GET", "POST", "PUT", "PATCH", "DELETE").contains(m)) {
-                    return;
-                }
-                endpoints.add(new EndpointCandidate(path, m, "OPENAPI"));
-            });
-        });
-        return endpoints;
     }
 
-    private Optional<JsonNode> tryGetJson(URI uri) {
-        try {
-            HttpResponse<String> resp = httpClient.send(
-                    HttpRequest.newBuilder(uri)
-                            .timeout(Duration.ofSeconds(10))
-                            .GET()
-                            .header("Accept", "application/json")
-                            .build(),
-                    HttpResponse.BodyHandlers.ofString()
-            );
-            if (resp.statusCode() / 100 != 2) {
-                return Optional.empty();
-            }
-            return Optional.of(objectMapper.readTree(resp.body()));
-        } catch (Exception ignored) {
-            return Optional.empty();
+    private static String rootMessage(Throwable error) {
+        Throwable t = error;
+        while (t.getCause() != null && t instanceof CompletionException) {
+            t = t.getCause();
         }
+        return t.getMessage();
     }
 
-    private Set<String> extractSameOriginLinks(URI pageUri, int maxLinks) {
-        // Deliberately minimal: we only look for href="/...". No JS execution, no forms.
-        try {
-            HttpResponse<String> resp = httpClient.send(
-                    HttpRequest.newBuilder(pageUri)
-                            .timeout(Duration.ofSeconds(10))
-                            .GET()
-                            .header("Accept", "text/html, */*")
-                            .build(),
-                    HttpResponse.BodyHandlers.ofString()
-            );
-            if (resp.statusCode() / 100 != 2) {
-                return Set.of();
-            }
-            String body = resp.body();
-            Set<String> links = new LinkedHashSet<>();
-            int idx = 0;
-            while (idx < body.length() && links.size() < maxLinks) {
-                int href = body.indexOf("href=\"/", idx);
-                if (href < 0) {
-                    break;
-                }
-                int start = href + "href=\"".length();
-                int end = body.indexOf("\"", start);
-                if (end < 0) {
-                    break;
-                }
-                String raw = body.substring(start, end);
-                // Keep path only; drop query/fragment.
-                int q = raw.indexOf('?');
-                if (q >= 0) raw = raw.substring(0, q);
-                int f = raw.indexOf('#');
-                if (f >= 0) raw = raw.substring(0, f);
-                if (raw.length() > 1 && raw.endsWith("/")) {
-                    raw = raw.substring(0, raw.length() - 1);
-                }
-                if (raw.startsWith("/") && raw.length() <= 255) {
-                    links.add(raw);
-                }
-                idx = end + 1;
-            }
-            return links;
-        } catch (Exception ignored) {
-            return Set.of();
-        }
+    private static long millisSince(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000L;
     }
 
     private String techHintFromPath(String path, TechFingerprint fp) {
@@ -249,4 +340,3 @@ public class UrlReconService {
         return "GENERIC";
     }
 }
-
@@ -1,11 +1,18 @@
 package org.hat.cyberscout.report;
 
+import java.net.URI;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import org.hat.cyberscout.http.HostInFlightLimiter;
+import org.hat.cyberscout.http.LatencyHistogram.LatencySummary;
+import org.hat.cyberscout.http.LatencyRecorder;
+import org.hat.cyberscout.http.ProbeTimings;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -48,23 +55,60 @@ public class ReportController {
         }
 
         List<FindingRow> findings = jdbcTemplate.query("""
-            SELECT owasp_standard, owasp_id, check_id, target, severity, confidence, title, evidence_json, created_at
+            SELECT owasp_standard, owasp_id, check_id, target, severity, confidence, title, evidence_json, created_at,
+                   carried_from_run_id
             FROM cyberscout.scan_finding
             WHERE scan_run_id = ?
             ORDER BY created_at ASC
             """, new FindingMapper(), scanRunId);
 
         List<ObservationRow> observations = jdbcTemplate.query("""
-            SELECT method, url, status_code, duration_ms, response_headers, response_body_excerpt, observed_at
+            SELECT method, url, status_code, outcome, duration_ms, queue_ms, dns_ms, ttfb_ms, download_ms,
+                   response_headers, response_body_excerpt, observed_at
             FROM cyberscout.http_observation
             WHERE scan_run_id = ?
             ORDER BY observed_at ASC
             """, new ObservationMapper(), scanRunId);
 
+        // The run's first inventory is the full one; an incremental run adds a second with its attack targets.
+        List<PathClusterRow> pathClusters = jdbcTemplate.query("""
+            SELECT p.template, p.path, p.cluster_size
+            FROM cyberscout.endpoint_inventory_path p
+            WHERE p.inventory_id = (SELECT MIN(id) FROM cyberscout.endpoint_inventory WHERE scan_run_id = ?)
+              AND p.template IS NOT NULL
+            ORDER BY p.ordinal
+            """, (rs, rowNum) -> new PathClusterRow(
+                rs.getString("template"),
+                rs.getString("path"),
+                rs.getInt("cluster_size")
+        ), scanRunId);
+
+        List<CheckCoverageRow> openApiCoverage = jdbcTemplate.query("""
+            SELECT check_family, COUNT(*) AS eligible, COUNT(*) FILTER (WHERE tested) AS tested
+            FROM cyberscout.openapi_check_coverage
+            WHERE scan_run_id = ?
+            GROUP BY check_family
+            ORDER BY check_family
+            """, (rs, rowNum) -> new CheckCoverageRow(
+                rs.getString("check_family"),
+                rs.getInt("eligible"),
+                rs.getInt("tested")
+        ), scanRunId);
+
         Map<String, Long> findingCounts = findings.stream()
                 .collect(java.util.stream.Collectors.groupingBy(FindingRow::severity, java.util.stream.Collectors.counting()));
 
-        return ResponseEntity.ok(new ScanRunReport(run.get(0), findings, observations, findingCounts));
+        return ResponseEntity.ok(new ScanRunReport(
+                run.get(0),
+                findings,
+                observations,
+                findingCounts,
+                pathClusters,
+                openApiCoverage,
+                latency(observations, true),
+                latency(observations, false),
+                availability(observations)
+        ));
     }
 
     @GetMapping(value = "/scan-runs/{scanRunId}.html", produces = MediaType.TEXT_HTML_VALUE)
@@ -87,7 +131,7 @@ public class ReportController {
         html.append("<p><b>Status</b>: ").append(escape(r.run().status())).append("</p>");
 
         html.append("<h2>Findings (").append(r.findings().size()).append(")</h2>");
-        html.append("<table><thead><tr><th>Severity</th><th>Standard</th><th>ID</th><th>Check</th><th>Title</th><th>Target</th><th>Confidence</th></tr></thead><tbody>");
+        html.append("<table><thead><tr><th>Severity</th><th>Standard</th><th>ID</th><th>Check</th><th>Title</th><th>Target</th><th>Confidence</th><th>Found in</th></tr></thead><tbody>");
         for (FindingRow f : r.findings()) {
             html.append("<tr>")
                     .append("<td>").append(escape(f.severity())).append("</td>")
@@ -97,17 +141,66 @@ public class ReportController {
                     .append("<td>").append(escape(f.title())).append("</td>")
                     .append("<td><code>").append(escape(f.target())).append("</code></td>")
                     .append("<td>").append(f.confidence()).append("</td>")
+                    .append("<td>").append(f.carriedFromRunId() == null ? "this run" : "run #" + f.carriedFromRunId()).append("</td>")
                     .append("</tr>");
         }
         html.append("</tbody></table>");
 
+        if (!r.pathClusters().isEmpty()) {
+            html.append("<h2>Path clusters</h2>");
+            html.append("<p>Equivalent paths were probed through representatives; a finding on a representative applies to the paths it stands for.</p>");
+            html.append("<table><thead><tr><th>Template</th><th>Probed path</th><th>Stands for</th></tr></thead><tbody>");
+            for (PathClusterRow c : r.pathClusters()) {
+                html.append("<tr>")
+                        .append("<td><code>").append(escape(c.template())).append("</code></td>")
+                        .append("<td><code>").append(escape(c.path())).append("</code></td>")
+                        .append("<td>").append(c.clusterSize()).append(c.clusterSize() == 1 ? " path" : " paths").append("</td>")
+                        .append("</tr>");
+            }
+            html.append("</tbody></table>");
+        }
+
+        if (!r.openApiCoverage().isEmpty()) {
+            html.append("<h2>OpenAPI coverage</h2>");
+            html.append("<p>Each check spends a fixed request budget on the operations it ranks highest (secured, safe methods for authorization and state-changing ones for type validation, sensitive paths, more inputs, not tested by earlier runs).</p>");
+            html.append("<table><thead><tr><th>Check</th><th>Operations tested</th><th>Eligible</th><th>Coverage</th></tr></thead><tbody>");
+            for (CheckCoverageRow c : r.openApiCoverage()) {
+                html.append("<tr>")
+                        .append("<td>").append(escape(c.checkFamily())).append("</td>")
+                        .append("<td>").append(c.tested()).append("</td>")
+                        .append("<td>").append(c.eligible()).append("</td>")
+                        .append("<td>").append(c.percent()).append(" %</td>")
+                        .append("</tr>");
+            }
+            html.append("</tbody></table>");
+        }
+
+        boolean degraded = r.availabilityByHost().values().stream().anyMatch(a -> a.failed() > 0 || a.shortCircuited() > 0);
+        if (degraded) {
+            html.append("<h2>Target availability</h2>");
+            html.append("<p>Probes to a host that stopped answering are skipped once its circuit breaker opens (<code>CIRCUIT_OPEN</code>).</p>");
+            html.append("<table><thead><tr><th>Host</th><th>Responses</th><th>Failed</th><th>Skipped (circuit open)</th></tr></thead><tbody>");
+            r.availabilityByHost().forEach((host, a) -> html.append("<tr>")
+                    .append("<td><code>").append(escape(host)).append("</code></td>")
+                    .append("<td>").append(a.responses()).append("</td>")
+                    .append("<td>").append(a.failed()).append("</td>")
+                    .append("<td>").append(a.shortCircuited()).append("</td>")
+                    .append("</tr>"));
+            html.append("</tbody></table>");
+        }
+
+        html.append("<h2>Latency by host (ms, p50 / p95 / p99)</h2>");
+        appendLatencyTable(html, "Host", r.latencyByHost());
+        html.append("<h2>Latency by endpoint (ms, p50 / p95 / p99)</h2>");
+        appendLatencyTable(html, "Endpoint", r.latencyByEndpoint());
+
         html.append("<h2>HTTP Observations (").append(r.observations().size()).append(")</h2>");
         html.append("<table><thead><tr><th>When</th><th>Method</th><th>Status</th><th>Duration(ms)</th><th>URL</th></tr></thead><tbody>");
         for (ObservationRow o : r.observations()) {
             html.append("<tr>")
                     .append("<td>").append(o.observedAt() == null ? "" : escape(o.observedAt().toString())).append("</td>")
                     .append("<td>").append(escape(o.method())).append("</td>")
-                    .append("<td>").append(o.statusCode() == null ? "" : o.statusCode()).append("</td>")
+                    .append("<td>").append(o.statusCode() == null ? escape(o.outcome()) : o.statusCode()).append("</td>")
                     .append("<td>").append(o.durationMs() == null ? "" : o.durationMs()).append("</td>")
                     .append("<td><code>").append(escape(o.url())).append("</code></td>")
                     .append("</tr>");
@@ -118,6 +211,72 @@ public class ReportController {
         return ResponseEntity.ok(html.toString());
     }
 
+    private static Map<String, Map<String, LatencySummary>> latency(List<ObservationRow> observations, boolean byHost) {
+        Map<String, LatencyRecorder.PhaseHistograms> histograms = new TreeMap<>();
+        for (ObservationRow o : observations) {
+            if (o.durationMs() == null || "CACHED".equals(o.outcome())) {
+                continue;
+            }
+            URI target;
+            try {
+                target = URI.create(o.url());
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            String key = byHost ? HostInFlightLimiter.hostKey(target) : LatencyRecorder.endpointKey(o.method(), target);
+            histograms.computeIfAbsent(key, k -> new LatencyRecorder.PhaseHistograms())
+                    .record(new ProbeTimings(o.queueMs(), o.dnsMs(), o.ttfbMs(), o.downloadMs(), o.durationMs()));
+        }
+        Map<String, Map<String, LatencySummary>> out = new LinkedHashMap<>();
+        histograms.forEach((k, v) -> out.put(k, v.summary()));
+        return out;
+    }
+
+    private static Map<String, HostAvailability> availability(List<ObservationRow> observations) {
+        Map<String, long[]> counts = new TreeMap<>();
+        for (ObservationRow o : observations) {
+            if ("CACHED".equals(o.outcome())) {
+                continue;
+            }
+            String host;
+            try {
+                host = HostInFlightLimiter.hostKey(URI.create(o.url()));
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            long[] c = counts.computeIfAbsent(host, k -> new long[3]);
+            if ("CIRCUIT_OPEN".equals(o.outcome())) {
+                c[2]++;
+            } else if (o.statusCode() == null) {
+                c[1]++;
+            } else {
+                c[0]++;
+            }
+        }
+        Map<String, HostAvailability> out = new LinkedHashMap<>();
+        counts.forEach((host, c) -> out.put(host, new HostAvailability(c[0], c[1], c[2])));
+        return out;
+    }
+
+    private static void appendLatencyTable(StringBuilder html, String label, Map<String, Map<String, LatencySummary>> rows) {
+        html.append("<table><thead><tr><th>").append(label).append("</th><th>Requests</th>")
+                .append("<th>Total</th><th>TTFB</th><th>Download</th><th>DNS</th><th>Queue</th></tr></thead><tbody>");
+        rows.forEach((key, phases) -> {
+            html.append("<tr><td><code>").append(escape(key)).append("</code></td>")
+                    .append("<td>").append(phases.get("total").count()).append("</td>");
+            for (String phase : List.of("total", "ttfb", "download", "dns", "queue")) {
+                LatencySummary l = phases.get(phase);
+                html.append("<td>");
+                if (l.count() > 0) {
+                    html.append(l.p50()).append(" / ").append(l.p95()).append(" / ").append(l.p99());
+                }
+                html.append("</td>");
+            }
+            html.append("</tr>");
+        });
+        html.append("</tbody></table>");
+    }
+
     private static String escape(String s) {
         if (s == null) return "";
         return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
@@ -135,7 +294,8 @@ public class ReportController {
             double confidence,
             String title,
             String evidenceJson,
-            OffsetDateTime createdAt
+            OffsetDateTime createdAt,
+            Long carriedFromRunId
     ) {
     }
 
@@ -143,14 +303,42 @@ public class ReportController {
             String method,
             String url,
             Integer statusCode,
+            String outcome,
             Integer durationMs,
+            Integer queueMs,
+            Integer dnsMs,
+            Integer ttfbMs,
+            Integer downloadMs,
             String responseHeaders,
             String responseBodyExcerpt,
             OffsetDateTime observedAt
     ) {
     }
 
-    public record ScanRunReport(ScanRunRow run, List<FindingRow> findings, List<ObservationRow> observations, Map<String, Long> findingCounts) {
+    public record ScanRunReport(
+            ScanRunRow run,
+            List<FindingRow> findings,
+            List<ObservationRow> observations,
+            Map<String, Long> findingCounts,
+            List<PathClusterRow> pathClusters,
+            List<CheckCoverageRow> openApiCoverage,
+            Map<String, Map<String, LatencySummary>> latencyByHost,
+            Map<String, Map<String, LatencySummary>> latencyByEndpoint,
+            Map<String, HostAvailability> availabilityByHost
+    ) {
+    }
+
+    public record PathClusterRow(String template, String path, int clusterSize) {
+    }
+
+    public record CheckCoverageRow(String checkFamily, int eligible, int tested) {
+
+        public double percent() {
+            return eligible == 0 ? 100.0 : Math.round(1000.0 * tested / eligible) / 10.0;
+        }
+    }
+
+    public record HostAvailability(long responses, long failed, long shortCircuited) {
     }
 
     private static final class ScanRunMapper implements RowMapper<ScanRunRow> {
@@ -179,7 +367,8 @@ public class ReportController {
                     rs.getDouble("confidence"),
                     rs.getString("title"),
                     rs.getString("evidence_json"),
-                    rs.getObject("created_at", OffsetDateTime.class)
+                    rs.getObject("created_at", OffsetDateTime.class),
+                    (Long) rs.getObject("carried_from_run_id")
             );
         }
     }
@@ -191,7 +380,12 @@ public class ReportController {
                     rs.getString("method"),
                     rs.getString("url"),
                     (Integer) rs.getObject("status_code"),
+                    rs.getString("outcome"),
                     (Integer) rs.getObject("duration_ms"),
+                    (Integer) rs.getObject("queue_ms"),
+                    (Integer) rs.getObject("dns_ms"),
+                    (Integer) rs.getObject("ttfb_ms"),
+                    (Integer) rs.getObject("download_ms"),
                     rs.getString("response_headers"),
                     rs.getString("response_body_excerpt"),
                     rs.getObject("observed_at", OffsetDateTime.class)
@@ -0,0 +1,242 @@
+package org.hat.cyberscout.scan;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.hat.cyberscout.http.BoundedBody;
+import org.hat.cyberscout.http.HttpTransport;
+import org.hat.cyberscout.http.ScanResponseCache;
+import org.hat.cyberscout.policy.AttackExecutionRequest;
+import org.hat.cyberscout.policy.PolicyEnforcer;
+import org.hat.cyberscout.recon.EndpointCandidate;
+import org.hat.cyberscout.recon.EndpointInventory;
+import org.hat.cyberscout.scan.persist.EndpointFingerprint;
+import org.hat.cyberscout.scan.persist.EndpointFingerprintRepository;
+import org.hat.cyberscout.scan.persist.ScanPersistenceProperties;
+import org.hat.cyberscout.scan.persist.ScanRunRepository;
+import org.hat.cyberscout.util.UrlUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+// Decides which targets of an incremental run need their checks again.
+@Component
+public class IncrementalScan {
+
+    private static final Logger log = LoggerFactory.getLogger(IncrementalScan.class);
+    private static final int MAX_VALIDATOR_LENGTH = 256;
+
+    // Findings of the attack subprocess (ExecuteAttackDelegate), by the methods that produce them.
+    private static final List<AttackCheck> ATTACK_CHECKS = List.of(
+            new AttackCheck(EndpointInventory.methodBit("GET"), List.of("A01_AUTHZ_SMOKE_UNAUTH_2XX")),
+            new AttackCheck(
+                    EndpointInventory.methodBit("POST") | EndpointInventory.methodBit("PUT") | EndpointInventory.methodBit("PATCH"),
+                    List.of("A05_JSON_MALFORMED_5XX", "A05_VERBOSE_ERROR_LEAK"))
+    );
+
+    private record AttackCheck(int methods, List<String> checkIds) {
+    }
+
+    private final HttpTransport transport;
+    private final ScanResponseCache responseCache;
+    private final PolicyEnforcer policyEnforcer;
+    private final EndpointFingerprintRepository fingerprintRepository;
+    private final ScanRunRepository scanRunRepository;
+    private final ScanPersistenceProperties properties;
+
+    public IncrementalScan(
+            HttpTransport transport,
+            ScanResponseCache responseCache,
+            PolicyEnforcer policyEnforcer,
+            EndpointFingerprintRepository fingerprintRepository,
+            ScanRunRepository scanRunRepository,
+            ScanPersistenceProperties properties
+    ) {
+        this.transport = transport;
+        this.responseCache = responseCache;
+        this.policyEnforcer = policyEnforcer;
+        this.fingerprintRepository = fingerprintRepository;
+        this.scanRunRepository = scanRunRepository;
+        this.properties = properties;
+    }
+
+    public record Plan(EndpointInventory targets, int revalidatedPaths, int unchangedPaths, int carriedFindings) {
+    }
+
+    // Revalidates inventory against previousRunId (none on a campaign's first incremental run, where every
+    // path is new) and records this run's fingerprints.
+    public Plan plan(long scanRunId, Long previousRunId, URI baseUri, EndpointInventory inventory, int maxTargets) {
+        Map<String, EndpointFingerprint> previous = previousRunId == null
+                ? Map.of()
+                : fingerprintRepository.findByRun(previousRunId);
+        int revalidated = Math.min(inventory.pathCount(), Math.max(0, properties.getIncrementalMaxRevalidations()));
+        List<CompletableFuture<EndpointFingerprint>> fetches = new ArrayList<>(revalidated);
+        for (int p = 0; p < revalidated; p++) {
+            String path = inventory.path(p);
+            fetches.add(revalidate(scanRunId, baseUri, path, previous.get(path)).exceptionally(error -> {
+                log.debug("Revalidation of {} failed: {}", path, error.toString());
+                return null;
+            }));
+        }
+        CompletableFuture.allOf(fetches.toArray(CompletableFuture[]::new)).join();
+        List<EndpointFingerprint> current = new ArrayList<>(revalidated);
+        for (CompletableFuture<EndpointFingerprint> fetch : fetches) {
+            current.add(fetch.join());
+        }
+
+        Comparison comparison = compare(inventory, current, previous, maxTargets);
+        fingerprintRepository.saveAll(scanRunId, comparison.fingerprints());
+        int carried = 0;
+        if (previousRunId != null) {
+            Map<String, List<String>> checkIdsByTarget = new LinkedHashMap<>();
+            comparison.carriedCheckIds().forEach((path, checkIds) -> checkIdsByTarget.put(baseUri + path, checkIds));
+            carried = scanRunRepository.carryForwardFindings(scanRunId, previousRunId, checkIdsByTarget);
+        }
+        log.info("Incremental scan {}: {} of {} paths unchanged since run {}, {} targets left, {} findings carried forward",
+                scanRunId, comparison.unchangedPaths().size(), inventory.pathCount(), previousRunId,
+                comparison.targets().targetCount(), carried);
+        return new Plan(comparison.targets(), revalidated, comparison.unchangedPaths().size(), carried);
+    }
+
+    record Comparison(
+            EndpointInventory targets,
+            List<EndpointFingerprint> fingerprints,
+            List<String> unchangedPaths,
+            Map<String, List<String>> carriedCheckIds
+    ) {
+    }
+
+    static Comparison compare(
+            EndpointInventory inventory,
+            List<EndpointFingerprint> current,
+            Map<String, EndpointFingerprint> previous,
+            int maxTargets
+    ) {
+        EndpointInventory.Builder targets = EndpointInventory.builder();
+        int[] covered = new int[inventory.pathCount()];
+        List<String> unchangedPaths = new ArrayList<>();
+        Map<String, List<String>> carriedCheckIds = new LinkedHashMap<>();
+        for (int p = 0; p < inventory.pathCount(); p++) {
+            String path = inventory.path(p);
+            int methods = inventory.methodMask(p);
+            EndpointFingerprint now = p < current.size() ? current.get(p) : null;
+            EndpointFingerprint before = previous.get(path);
+            if (now != null && now.sameContentAs(before)) {
+                covered[p] = methods & before.methods();
+                methods &= ~before.methods();
+                unchangedPaths.add(path);
+                List<String> checkIds = carriedCheckIds(covered[p], methods);
+                if (!checkIds.isEmpty()) {
+                    carriedCheckIds.put(path, checkIds);
+                }
+            }
+            if (methods != 0) {
+                targets.addPath(path, methods, inventory.techHint(p), inventory.template(p), inventory.clusterSize(p));
+            }
+        }
+        EndpointInventory remaining = targets.build();
+
+        // Only the targets the subprocess will reach count as checked.
+        Map<String, Integer> ordinals = new HashMap<>();
+        for (int p = 0; p < inventory.pathCount(); p++) {
+            ordinals.put(inventory.path(p), p);
+        }
+        int reached = Math.min(remaining.targetCount(), Math.max(0, maxTargets));
+        for (int i = 0; i < reached; i++) {
+            EndpointCandidate target = remaining.target(i);
+            covered[ordinals.get(target.path())] |= EndpointInventory.methodBit(target.method());
+        }
+
+        List<EndpointFingerprint> fingerprints = new ArrayList<>();
+        for (int p = 0; p < current.size(); p++) {
+            if (current.get(p) != null) {
+                fingerprints.add(current.get(p).withMethods(covered[p]));
+            }
+        }
+        return new Comparison(remaining, fingerprints, unchangedPaths, carriedCheckIds);
+    }
+
+    // Findings do not record their method, so a check's findings carry over only when none of the
+    // methods producing it is checked again; otherwise the new run reports it afresh.
+    private static List<String> carriedCheckIds(int skipped, int rechecked) {
+        List<String> checkIds = new ArrayList<>();
+        for (AttackCheck check : ATTACK_CHECKS) {
+            if ((skipped & check.methods()) != 0 && (rechecked & check.methods()) == 0) {
+                checkIds.addAll(check.checkIds());
+            }
+        }
+        return checkIds;
+    }
+
+    private CompletableFuture<EndpointFingerprint> revalidate(Long scanRunId, URI baseUri, String path, EndpointFingerprint before) {
+        URI target;
+        try {
+            target = baseUri.resolve(path);
+        } catch (IllegalArgumentException templated) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (!policyAllows(target, path)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        HttpRequest.Builder request = HttpRequest.newBuilder(target)
+                .timeout(transport.properties().getProbeTimeout())
+                .GET();
+        if (before != null && before.etag() != null) {
+            request.header("If-None-Match", before.etag());
+        }
+        if (before != null && before.lastModified() != null) {
+            request.header("If-Modified-Since", before.lastModified());
+        }
+        // The scan's response cache may already hold the page from the crawl; a miss goes out with the
+        // validators through the host gate, and a 304 is never stored.
+        return responseCache.fetch(scanRunId, request.build(), transport.properties().getMaxDocumentBytes())
+                .thenApply(response -> fingerprint(path, response, before));
+    }
+
+    private static EndpointFingerprint fingerprint(String path, HttpResponse<BoundedBody> response, EndpointFingerprint before) {
+        String etag = validator(response, "ETag");
+        String lastModified = validator(response, "Last-Modified");
+        if (response.statusCode() == 304 && before != null) {
+            return new EndpointFingerprint(
+                    path,
+                    0,
+                    before.statusCode(),
+                    etag != null ? etag : before.etag(),
+                    lastModified != null ? lastModified : before.lastModified(),
+                    before.contentHash());
+        }
+        return new EndpointFingerprint(path, 0, response.statusCode(), etag, lastModified, sha256(response.body()));
+    }
+
+    private static String validator(HttpResponse<BoundedBody> response, String name) {
+        return response.headers().firstValue(name)
+                .filter(value -> value.length() <= MAX_VALIDATOR_LENGTH)
+                .orElse(null);
+    }
+
+    private static String sha256(BoundedBody body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            if (body != null) {
+                digest.update(body.bytes(), 0, body.length());
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private boolean policyAllows(URI target, String path) {
+        return policyEnforcer.evaluate(new AttackExecutionRequest(
+                target.getHost(), UrlUtils.effectivePort(target), "GET", path, 1)).allowed();
+    }
+}
@@ -9,9 +9,11 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import org.hat.cyberscout.recon.EndpointCandidate;
+import org.hat.cyberscout.recon.Soft404Baselines;
 import org.hat.cyberscout.recon.TechFingerprint;
 import org.hat.cyberscout.http.HttpProbeResult;
 import org.hat.cyberscout.http.HttpProber;
+import org.hat.cyberscout.http.ProbeOptions;
 import org.hat.cyberscout.scan.model.Finding;
 import org.hat.cyberscout.scan.model.Owasp2021;
 import org.hat.cyberscout.scan.model.OwaspApiTop10_2023;
@@ -28,11 +30,18 @@ public class ReconChecks {
     private final ObjectMapper objectMapper;
     private final ScanPersistenceProperties scanProperties;
     private final HttpProber httpProber;
+    private final Soft404Baselines soft404Baselines;
 
-    public ReconChecks(ObjectMapper objectMapper, ScanPersistenceProperties scanProperties, HttpProber httpProber) {
+    public ReconChecks(
+            ObjectMapper objectMapper,
+            ScanPersistenceProperties scanProperties,
+            HttpProber httpProber,
+            Soft404Baselines soft404Baselines
+    ) {
         this.objectMapper = objectMapper;
         this.scanProperties = scanProperties;
         this.httpProber = httpProber;
+        this.soft404Baselines = soft404Baselines;
     }
 
     public List<Finding> evaluate(
@@ -214,7 +223,7 @@ public class ReconChecks {
 
     private List<Finding> activeActuatorHealthExposure(Long scanRunId, String baseUrl, java.net.URI baseUri) {
         HttpProbeResult res = httpProber.probe(scanRunId, baseUri, "/actuator/health", "GET");
-        if (res.statusCode() != 200) {
+        if (!isOk(res.statusCode()) || soft404Baselines.isSoft404(scanRunId, baseUri, res)) {
             return List.of();
         }
         // We keep confidence moderate because an app may expose health intentionally.
@@ -237,7 +246,8 @@ public class ReconChecks {
         int ok = 0;
         int limited = 0;
         for (int i = 0; i < n; i++) {
-            HttpProbeResult res = httpProber.probe(scanRunId, baseUri, "/", "GET");
+            // Must reach the target every time; a cached answer would hide throttling.
+            HttpProbeResult res = httpProber.probe(scanRunId, baseUri, "/", "GET", ProbeOptions.REPEATED);
             if (res.statusCode() == 429) {
                 limited++;
             }
@@ -249,6 +259,9 @@ public class ReconChecks {
         if (limited > 0) {
             return List.of(); // rate-limiting observed, no finding
         }
+        if (ok == 0) {
+            return List.of(); // target unreachable (or circuit open): nothing was measured
+        }
 
         // Low confidence heuristic: if we could do N requests with no 429, rate limiting may be absent.
         return List.of(new Finding(
@@ -266,12 +279,17 @@ public class ReconChecks {
         HttpProbeResult res = httpProber.probe(scanRunId, baseUri, path, "GET");
         String ct = res.responseHeaders() == null ? null : res.responseHeaders().get("content-type");
         boolean json = ct != null && ct.toLowerCase(Locale.ROOT).contains("application/json");
-        if (res.statusCode() == 200 && json) {
+        if (isOk(res.statusCode()) && json) {
             return Optional.of(res);
         }
         return Optional.empty();
     }
 
+    private boolean isOk(int status) {
+        // 206 is what a server answers to our Range-limited GET probes (cyberscout.http.range-requests-enabled).
+        return status == 200 || status == 206;
+    }
+
     private String toJson(Object value) {
         try {
             return objectMapper.writeValueAsString(value);
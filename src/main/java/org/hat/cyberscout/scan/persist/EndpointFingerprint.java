@@ -0,0 +1,20 @@
+package org.hat.cyberscout.scan.persist;
+
+// A path's answer to a plain GET in one incremental run.
+public record EndpointFingerprint(
+        String path,
+        int methods,
+        int statusCode,
+        String etag,
+        String lastModified,
+        String contentHash
+) {
+
+    public boolean sameContentAs(EndpointFingerprint other) {
+        return other != null && statusCode == other.statusCode && contentHash.equals(other.contentHash);
+    }
+
+    public EndpointFingerprint withMethods(int methods) {
+        return new EndpointFingerprint(path, methods, statusCode, etag, lastModified, contentHash);
+    }
+}
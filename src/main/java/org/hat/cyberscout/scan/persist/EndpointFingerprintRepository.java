@@ -0,0 +1,69 @@
+package org.hat.cyberscout.scan.persist;
+
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public class EndpointFingerprintRepository {
+
+    private static final int INSERT_BATCH_SIZE = 500;
+
+    private final ScanPersistenceProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+
+    public EndpointFingerprintRepository(ScanPersistenceProperties properties, JdbcTemplate jdbcTemplate) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Fingerprints recorded by scanRunId, by path.
+    @Transactional(readOnly = true)
+    public Map<String, EndpointFingerprint> findByRun(long scanRunId) {
+        Map<String, EndpointFingerprint> byPath = new HashMap<>();
+        if (!properties.isEnabled()) {
+            return byPath;
+        }
+        jdbcTemplate.query("""
+            SELECT path, methods, status_code, etag, last_modified, content_hash
+            FROM cyberscout.endpoint_fingerprint
+            WHERE scan_run_id = ?
+            """, rs -> {
+                String path = rs.getString("path");
+                byPath.put(path, new EndpointFingerprint(
+                        path,
+                        rs.getInt("methods"),
+                        rs.getInt("status_code"),
+                        rs.getString("etag"),
+                        rs.getString("last_modified"),
+                        rs.getString("content_hash")
+                ));
+            }, scanRunId);
+        return byPath;
+    }
+
+    @Transactional
+    public void saveAll(long scanRunId, List<EndpointFingerprint> fingerprints) {
+        if (!properties.isEnabled() || fingerprints.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("""
+            INSERT INTO cyberscout.endpoint_fingerprint
+            (scan_run_id, path, methods, status_code, etag, last_modified, content_hash)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (scan_run_id, path) DO NOTHING
+            """, fingerprints, INSERT_BATCH_SIZE, (ps, f) -> {
+                ps.setLong(1, scanRunId);
+                ps.setString(2, f.path());
+                ps.setShort(3, (short) f.methods());
+                ps.setInt(4, f.statusCode());
+                ps.setObject(5, f.etag(), Types.VARCHAR);
+                ps.setObject(6, f.lastModified(), Types.VARCHAR);
+                ps.setString(7, f.contentHash());
+            });
+    }
+}
@@ -0,0 +1,119 @@
+package org.hat.cyberscout.scan.persist;
+
+import java.net.URI;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import org.hat.cyberscout.recon.EndpointInventory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+// Stores each scan's EndpointInventory so the process only carries its id.
+@Repository
+public class EndpointInventoryRepository {
+
+    private static final int INSERT_BATCH_SIZE = 500;
+
+    private final ScanPersistenceProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final AtomicLong localIds = new AtomicLong();
+    // Copies of stored inventories, read back from the database when evicted.
+    private final Map<Long, EndpointInventory> recent;
+    // Without persistence these are the only copies, so they stay until the scan releases them.
+    private final Map<Long, EndpointInventory> unsaved = new HashMap<>();
+
+    public EndpointInventoryRepository(ScanPersistenceProperties properties, JdbcTemplate jdbcTemplate) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        int capacity = Math.max(1, properties.getInventoryCacheSize());
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, EndpointInventory> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    @Transactional
+    public long save(Long scanRunId, URI baseUri, EndpointInventory inventory) {
+        if (!properties.isEnabled()) {
+            long id = localIds.incrementAndGet();
+            synchronized (recent) {
+                unsaved.put(id, inventory);
+            }
+            return id;
+        }
+        long id = insert(scanRunId, baseUri, inventory);
+        synchronized (recent) {
+            recent.put(id, inventory);
+        }
+        return id;
+    }
+
+    private long insert(Long scanRunId, URI baseUri, EndpointInventory inventory) {
+        long id = jdbcTemplate.queryForObject("""
+            INSERT INTO cyberscout.endpoint_inventory (scan_run_id, base_url, path_count, target_count, created_at)
+            VALUES (?, ?, ?, ?, ?)
+            RETURNING id
+            """, Long.class, scanRunId, baseUri.toString(), inventory.pathCount(), inventory.targetCount(), OffsetDateTime.now());
+        List<Integer> ordinals = IntStream.range(0, inventory.pathCount()).boxed().toList();
+        jdbcTemplate.batchUpdate("""
+            INSERT INTO cyberscout.endpoint_inventory_path (inventory_id, ordinal, path, methods, tech, template, cluster_size)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """, ordinals, INSERT_BATCH_SIZE, (ps, p) -> {
+                ps.setLong(1, id);
+                ps.setInt(2, p);
+                ps.setString(3, inventory.path(p));
+                ps.setShort(4, (short) inventory.methodMask(p));
+                ps.setString(5, inventory.techHint(p));
+                ps.setString(6, inventory.template(p));
+                ps.setInt(7, inventory.clusterSize(p));
+            });
+        return id;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<EndpointInventory> find(long inventoryId) {
+        synchronized (recent) {
+            EndpointInventory cached = properties.isEnabled() ? recent.get(inventoryId) : unsaved.get(inventoryId);
+            if (cached != null || !properties.isEnabled()) {
+                return Optional.ofNullable(cached);
+            }
+        }
+        EndpointInventory.Builder builder = EndpointInventory.builder();
+        jdbcTemplate.query("""
+            SELECT path, methods, tech, template, cluster_size
+            FROM cyberscout.endpoint_inventory_path
+            WHERE inventory_id = ?
+            ORDER BY ordinal
+            """, rs -> {
+                builder.addPath(rs.getString("path"), rs.getInt("methods"), rs.getString("tech"),
+                        rs.getString("template"), rs.getInt("cluster_size"));
+            }, inventoryId);
+        EndpointInventory inventory = builder.build();
+        if (inventory.pathCount() == 0) {
+            return Optional.empty();
+        }
+        synchronized (recent) {
+            recent.putIfAbsent(inventoryId, inventory);
+        }
+        return Optional.of(inventory);
+    }
+
+    // Drops the in-memory copy once the scan is done.
+    public void release(Long inventoryId) {
+        if (inventoryId == null) {
+            return;
+        }
+        synchronized (recent) {
+            recent.remove(inventoryId);
+            unsaved.remove(inventoryId);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package org.hat.cyberscout.scan.persist;
+
+import java.time.OffsetDateTime;
+
+public record HttpObservation(
+        long scanRunId,
+        String method,
+        String url,
+        Integer statusCode,
+        String outcome,
+        Integer durationMs,
+        Integer queueMs,
+        Integer dnsMs,
+        Integer ttfbMs,
+        Integer downloadMs,
+        String responseHeaders,
+        String responseBodyExcerpt,
+        OffsetDateTime observedAt
+) {
+}
@@ -0,0 +1,226 @@
+package org.hat.cyberscout.scan.persist;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+// Write-behind sink for http_observation: probes enqueue and return, a single flusher thread writes JDBC
+// batches once observation-batch-size rows are queued or observation-flush-interval-ms has elapsed.
+@Component
+public class ObservationSink {
+
+    private static final Logger log = LoggerFactory.getLogger(ObservationSink.class);
+    // Column sizes of http_observation (V3, V6).
+    private static final int MAX_METHOD = 10;
+    private static final int MAX_URL = 1024;
+    private static final int MAX_OUTCOME = 20;
+
+    private final ScanPersistenceProperties properties;
+    private final ScanRunRepository scanRunRepository;
+    private final BlockingQueue<HttpObservation> queue;
+    // Drain + write happen under one lock so flush() never overtakes a batch in flight.
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong backpressureWaits = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final AtomicInteger queueHighWater = new AtomicInteger();
+
+    private volatile boolean running;
+    private volatile Thread flusher;
+
+    public ObservationSink(ScanPersistenceProperties properties, ScanRunRepository scanRunRepository) {
+        this.properties = properties;
+        this.scanRunRepository = scanRunRepository;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, properties.getObservationQueueCapacity()));
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!scanRunRepository.isEnabled() || running) {
+            return;
+        }
+        running = true;
+        flusher = Thread.ofPlatform().daemon().name("cyberscout-observation-flusher").start(this::runFlusher);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        Thread t = flusher;
+        if (t != null) {
+            LockSupport.unpark(t);
+            try {
+                t.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+
+    public void record(HttpObservation observation) {
+        if (!scanRunRepository.isEnabled()) {
+            return;
+        }
+        HttpObservation fitted = fitted(observation);
+        boolean accepted = queue.offer(fitted);
+        if (!accepted && Thread.currentThread().isVirtual()) {
+            backpressureWaits.incrementAndGet();
+            try {
+                accepted = queue.offer(fitted, Math.max(0, properties.getObservationOfferTimeoutMs()), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (!accepted) {
+            long n = dropped.incrementAndGet();
+            if (n == 1 || n % 1000 == 0) {
+                log.warn("HTTP observation queue full (capacity {}), dropped {} so far", queue.remainingCapacity() + queue.size(), n);
+            }
+            return;
+        }
+        enqueued.incrementAndGet();
+        int depth = queue.size();
+        queueHighWater.accumulateAndGet(depth, Math::max);
+        Thread t = flusher;
+        if (t != null && depth >= batchSize()) {
+            LockSupport.unpark(t);
+        }
+    }
+
+    // Writes everything queued so far.
+    public void flush() {
+        while (drainBatch() > 0) {
+            // keep draining
+        }
+    }
+
+    public ObservationSinkStats stats() {
+        return new ObservationSinkStats(
+                enqueued.get(),
+                written.get(),
+                dropped.get(),
+                backpressureWaits.get(),
+                batches.get(),
+                failedBatches.get(),
+                queue.size(),
+                queueHighWater.get(),
+                queue.size() + queue.remainingCapacity()
+        );
+    }
+
+    private void runFlusher() {
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(10, properties.getObservationFlushIntervalMs()));
+        while (running) {
+            // Woken early by record() once a full batch is queued.
+            LockSupport.parkNanos(this, intervalNanos);
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                log.warn("HTTP observation flush failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private int drainBatch() {
+        writeLock.lock();
+        try {
+            List<HttpObservation> batch = new ArrayList<>(Math.min(batchSize(), queue.size()));
+            queue.drainTo(batch, batchSize());
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            try {
+                scanRunRepository.insertObservations(batch);
+                written.addAndGet(batch.size());
+                batches.incrementAndGet();
+            } catch (DataIntegrityViolationException e) {
+                // A row the database refuses must not take the rest of the batch with it.
+                failedBatches.incrementAndGet();
+                log.warn("Failed to write {} HTTP observations, retrying one by one: {}", batch.size(), e.getMessage());
+                insertOneByOne(batch);
+            } catch (RuntimeException e) {
+                failedBatches.incrementAndGet();
+                dropped.addAndGet(batch.size());
+                log.warn("Failed to write {} HTTP observations: {}", batch.size(), e.getMessage());
+            }
+            return batch.size();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void insertOneByOne(List<HttpObservation> batch) {
+        for (HttpObservation observation : batch) {
+            try {
+                scanRunRepository.insertObservations(List.of(observation));
+                written.incrementAndGet();
+            } catch (RuntimeException e) {
+                dropped.incrementAndGet();
+                log.debug("Dropped HTTP observation {} {}: {}", observation.method(), observation.url(), e.getMessage());
+            }
+        }
+    }
+
+    static HttpObservation fitted(HttpObservation o) {
+        if (fits(o.method(), MAX_METHOD) && fits(o.url(), MAX_URL) && fits(o.outcome(), MAX_OUTCOME)) {
+            return o;
+        }
+        return new HttpObservation(
+                o.scanRunId(),
+                cut(o.method(), MAX_METHOD),
+                cut(o.url(), MAX_URL),
+                o.statusCode(),
+                cut(o.outcome(), MAX_OUTCOME),
+                o.durationMs(),
+                o.queueMs(),
+                o.dnsMs(),
+                o.ttfbMs(),
+                o.downloadMs(),
+                o.responseHeaders(),
+                o.responseBodyExcerpt(),
+                o.observedAt()
+        );
+    }
+
+    private static boolean fits(String value, int max) {
+        return value == null || value.length() <= max;
+    }
+
+    private static String cut(String value, int max) {
+        return fits(value, max) ? value : value.substring(0, max);
+    }
+
+    private int batchSize() {
+        return Math.max(1, properties.getObservationBatchSize());
+    }
+
+    public record ObservationSinkStats(
+            long enqueued,
+            long written,
+            long dropped,
+            long backpressureWaits,
+            long batches,
+            long failedBatches,
+            int queueDepth,
+            int queueHighWater,
+            int queueCapacity
+    ) {
+    }
+}
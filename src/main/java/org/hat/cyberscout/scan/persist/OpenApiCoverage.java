@@ -0,0 +1,6 @@
+package org.hat.cyberscout.scan.persist;
+
+// An OpenAPI operation a check could probe in a run: its priority score and whether the check's request
+// budget reached it.
+public record OpenApiCoverage(String method, String path, int score, boolean tested) {
+}
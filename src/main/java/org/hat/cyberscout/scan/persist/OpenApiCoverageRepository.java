@@ -0,0 +1,62 @@
+package org.hat.cyberscout.scan.persist;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public class OpenApiCoverageRepository {
+
+    private static final int INSERT_BATCH_SIZE = 500;
+
+    private final ScanPersistenceProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+
+    public OpenApiCoverageRepository(ScanPersistenceProperties properties, JdbcTemplate jdbcTemplate) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // "METHOD path" of the operations checkFamily tested in earlier runs of the same campaign against the
+    // same base URL.
+    @Transactional(readOnly = true)
+    public Set<String> testedEarlier(Long scanRunId, String checkFamily) {
+        Set<String> keys = new HashSet<>();
+        if (scanRunId == null || !properties.isEnabled()) {
+            return keys;
+        }
+        jdbcTemplate.query("""
+            SELECT DISTINCT c.method, c.path
+            FROM cyberscout.scan_run cur
+            JOIN cyberscout.scan_run r ON r.campaign_id = cur.campaign_id AND r.base_url = cur.base_url AND r.id <> cur.id
+            JOIN cyberscout.openapi_check_coverage c ON c.scan_run_id = r.id
+            WHERE cur.id = ? AND c.check_family = ? AND c.tested
+            """, rs -> {
+                keys.add(rs.getString("method") + " " + rs.getString("path"));
+            }, scanRunId, checkFamily);
+        return keys;
+    }
+
+    @Transactional
+    public void saveAll(Long scanRunId, String checkFamily, List<OpenApiCoverage> entries) {
+        if (scanRunId == null || !properties.isEnabled() || entries.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("""
+            INSERT INTO cyberscout.openapi_check_coverage
+            (scan_run_id, check_family, method, path, score, tested)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON CONFLICT (scan_run_id, check_family, method, path) DO UPDATE SET tested = EXCLUDED.tested OR openapi_check_coverage.tested
+            """, entries, INSERT_BATCH_SIZE, (ps, e) -> {
+                ps.setLong(1, scanRunId);
+                ps.setString(2, checkFamily);
+                ps.setString(3, e.method());
+                ps.setString(4, e.path());
+                ps.setInt(5, e.score());
+                ps.setBoolean(6, e.tested());
+            });
+    }
+}
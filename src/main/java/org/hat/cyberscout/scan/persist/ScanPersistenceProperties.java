@@ -15,6 +15,21 @@ public class ScanPersistenceProperties {
     private int activeProbingMaxRequests = 25;
     private int rateLimitProbeRequests = 15;
 
+    // HTTP observations are written behind the probes, in JDBC batches.
+    private int observationQueueCapacity = 10_000;
+    private int observationBatchSize = 200;
+    private long observationFlushIntervalMs = 500;
+    private long observationOfferTimeoutMs = 50;
+
+    // Stored endpoint inventories kept in memory; without persistence every run keeps its own until it ends.
+    private int inventoryCacheSize = 32;
+
+    // Compiled OpenAPI operation indexes kept in memory, shared by scans of the same document.
+    private int openApiIndexCacheSize = 8;
+
+    // Paths revalidated per incremental run; the rest of the inventory is checked as if new.
+    private int incrementalMaxRevalidations = 500;
+
     public boolean isEnabled() {
         return enabled;
     }
@@ -54,4 +69,60 @@ public class ScanPersistenceProperties {
     public void setRateLimitProbeRequests(int rateLimitProbeRequests) {
         this.rateLimitProbeRequests = rateLimitProbeRequests;
     }
+
+    public int getObservationQueueCapacity() {
+        return observationQueueCapacity;
+    }
+
+    public void setObservationQueueCapacity(int observationQueueCapacity) {
+        this.observationQueueCapacity = observationQueueCapacity;
+    }
+
+    public int getObservationBatchSize() {
+        return observationBatchSize;
+    }
+
+    public void setObservationBatchSize(int observationBatchSize) {
+        this.observationBatchSize = observationBatchSize;
+    }
+
+    public long getObservationFlushIntervalMs() {
+        return observationFlushIntervalMs;
+    }
+
+    public void setObservationFlushIntervalMs(long observationFlushIntervalMs) {
+        this.observationFlushIntervalMs = observationFlushIntervalMs;
+    }
+
+    public long getObservationOfferTimeoutMs() {
+        return observationOfferTimeoutMs;
+    }
+
+    public void setObservationOfferTimeoutMs(long observationOfferTimeoutMs) {
+        this.observationOfferTimeoutMs = observationOfferTimeoutMs;
+    }
+
+    public int getInventoryCacheSize() {
+        return inventoryCacheSize;
+    }
+
+    public void setInventoryCacheSize(int inventoryCacheSize) {
+        this.inventoryCacheSize = inventoryCacheSize;
+    }
+
+    public int getOpenApiIndexCacheSize() {
+        return openApiIndexCacheSize;
+    }
+
+    public void setOpenApiIndexCacheSize(int openApiIndexCacheSize) {
+        this.openApiIndexCacheSize = openApiIndexCacheSize;
+    }
+
+    public int getIncrementalMaxRevalidations() {
+        return incrementalMaxRevalidations;
+    }
+
+    public void setIncrementalMaxRevalidations(int incrementalMaxRevalidations) {
+        this.incrementalMaxRevalidations = incrementalMaxRevalidations;
+    }
 }
@@ -3,8 +3,11 @@ package org.hat.cyberscout.scan.persist;
 import java.net.URI;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.hat.cyberscout.scan.model.Finding;
 import org.springframework.dao.DataAccessException;
@@ -81,24 +84,78 @@ public class ScanRunRepository {
     }
 
     @Transactional
-    public void insertObservation(long scanRunId, String method, String url, Integer statusCode, Integer durationMs, String headers, String bodyExcerpt) {
-        if (!properties.isEnabled()) {
+    public void insertObservations(List<HttpObservation> observations) {
+        if (!properties.isEnabled() || observations.isEmpty()) {
             return;
         }
-        jdbcTemplate.update("""
+        jdbcTemplate.batchUpdate("""
             INSERT INTO cyberscout.http_observation
-            (scan_run_id, method, url, status_code, duration_ms, response_headers, response_body_excerpt, observed_at)
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
-            """,
-                scanRunId,
-                method,
-                url,
-                statusCode,
-                durationMs,
-                headers,
-                bodyExcerpt,
-                OffsetDateTime.now()
-        );
+            (scan_run_id, method, url, status_code, outcome, duration_ms, queue_ms, dns_ms, ttfb_ms, download_ms,
+             response_headers, response_body_excerpt, observed_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """, observations, observations.size(), (ps, o) -> {
+                ps.setLong(1, o.scanRunId());
+                ps.setString(2, o.method());
+                ps.setString(3, o.url());
+                ps.setObject(4, o.statusCode(), Types.INTEGER);
+                ps.setString(5, o.outcome());
+                ps.setObject(6, o.durationMs(), Types.INTEGER);
+                ps.setObject(7, o.queueMs(), Types.INTEGER);
+                ps.setObject(8, o.dnsMs(), Types.INTEGER);
+                ps.setObject(9, o.ttfbMs(), Types.INTEGER);
+                ps.setObject(10, o.downloadMs(), Types.INTEGER);
+                ps.setString(11, o.responseHeaders());
+                ps.setString(12, o.responseBodyExcerpt());
+                ps.setObject(13, o.observedAt());
+            });
+    }
+
+    // Copies previousRunId's findings with the given check ids on each target into scanRunId.
+    @Transactional
+    public int carryForwardFindings(long scanRunId, long previousRunId, Map<String, List<String>> checkIdsByTarget) {
+        List<String[]> pairs = new ArrayList<>();
+        checkIdsByTarget.forEach((target, checkIds) -> checkIds.forEach(checkId -> pairs.add(new String[] {target, checkId})));
+        if (!properties.isEnabled() || pairs.isEmpty()) {
+            return 0;
+        }
+        int[][] counts = jdbcTemplate.batchUpdate("""
+            INSERT INTO cyberscout.scan_finding
+            (scan_run_id, owasp_standard, owasp_id, check_id, target, severity, confidence, title, evidence_json, created_at,
+             carried_from_run_id)
+            SELECT ?, owasp_standard, owasp_id, check_id, target, severity, confidence, title, evidence_json, ?,
+                   COALESCE(carried_from_run_id, scan_run_id)
+            FROM cyberscout.scan_finding
+            WHERE scan_run_id = ? AND target = ? AND check_id = ?
+            """, pairs, pairs.size(), (ps, pair) -> {
+                ps.setLong(1, scanRunId);
+                ps.setObject(2, OffsetDateTime.now());
+                ps.setLong(3, previousRunId);
+                ps.setString(4, pair[0]);
+                ps.setString(5, pair[1]);
+            });
+        int copied = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                copied += Math.max(0, count);
+            }
+        }
+        return copied;
+    }
+
+    // The latest finished run of campaignId against baseUri, the baseline of an incremental scan.
+    @Transactional(readOnly = true)
+    public Optional<Long> latestFinishedRun(long campaignId, URI baseUri) {
+        if (!properties.isEnabled()) {
+            return Optional.empty();
+        }
+        List<Long> ids = jdbcTemplate.query("""
+            SELECT id
+            FROM cyberscout.scan_run
+            WHERE campaign_id = ? AND base_url = ? AND status = 'FINISHED'
+            ORDER BY started_at DESC
+            LIMIT 1
+            """, (rs, rowNum) -> rs.getLong("id"), campaignId, baseUri.toString());
+        return ids.stream().findFirst();
     }
 
     @Transactional(readOnly = true)
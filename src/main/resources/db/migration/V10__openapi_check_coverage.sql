@@ -0,0 +1,10 @@
+-- OpenAPI operations a check could have probed in a run (eligible) and whether its request budget reached them.
+CREATE TABLE IF NOT EXISTS cyberscout.openapi_check_coverage (
+    scan_run_id BIGINT NOT NULL REFERENCES cyberscout.scan_run(id) ON DELETE CASCADE,
+    check_family VARCHAR(64) NOT NULL,
+    method VARCHAR(16) NOT NULL,
+    path VARCHAR(1024) NOT NULL,
+    score INTEGER NOT NULL,
+    tested BOOLEAN NOT NULL,
+    PRIMARY KEY (scan_run_id, check_family, method, path)
+);
@@ -0,0 +1,5 @@
+ALTER TABLE cyberscout.http_observation
+    ADD COLUMN IF NOT EXISTS queue_ms INTEGER,
+    ADD COLUMN IF NOT EXISTS dns_ms INTEGER,
+    ADD COLUMN IF NOT EXISTS ttfb_ms INTEGER,
+    ADD COLUMN IF NOT EXISTS download_ms INTEGER;
@@ -0,0 +1,4 @@
+ALTER TABLE cyberscout.http_observation
+    ADD COLUMN IF NOT EXISTS outcome VARCHAR(20);
+
+CREATE INDEX IF NOT EXISTS idx_observation_run_outcome ON cyberscout.http_observation(scan_run_id, outcome);
@@ -0,0 +1,20 @@
+CREATE TABLE IF NOT EXISTS cyberscout.endpoint_inventory (
+    id BIGSERIAL PRIMARY KEY,
+    scan_run_id BIGINT REFERENCES cyberscout.scan_run(id) ON DELETE CASCADE,
+    base_url VARCHAR(512) NOT NULL,
+    path_count INTEGER NOT NULL,
+    target_count INTEGER NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+-- One row per distinct path; methods is a bitmask (GET=1, HEAD=2, POST=4, PUT=8, PATCH=16, DELETE=32, OPTIONS=64, TRACE=128).
+CREATE TABLE IF NOT EXISTS cyberscout.endpoint_inventory_path (
+    inventory_id BIGINT NOT NULL REFERENCES cyberscout.endpoint_inventory(id) ON DELETE CASCADE,
+    ordinal INTEGER NOT NULL,
+    path VARCHAR(1024) NOT NULL,
+    methods SMALLINT NOT NULL,
+    tech VARCHAR(40),
+    PRIMARY KEY (inventory_id, ordinal)
+);
+
+CREATE INDEX IF NOT EXISTS idx_endpoint_inventory_scan_run ON cyberscout.endpoint_inventory(scan_run_id);
@@ -0,0 +1,18 @@
+-- What each path answered to a plain GET in an incremental run, and which methods were checked against it.
+CREATE TABLE IF NOT EXISTS cyberscout.endpoint_fingerprint (
+    scan_run_id BIGINT NOT NULL REFERENCES cyberscout.scan_run(id) ON DELETE CASCADE,
+    path VARCHAR(1024) NOT NULL,
+    methods SMALLINT NOT NULL,
+    status_code INTEGER NOT NULL,
+    etag VARCHAR(256),
+    last_modified VARCHAR(64),
+    content_hash CHAR(64) NOT NULL,
+    PRIMARY KEY (scan_run_id, path)
+);
+
+-- Findings copied from an earlier run for an endpoint that did not change point at the run that produced them.
+ALTER TABLE cyberscout.scan_finding
+    ADD COLUMN IF NOT EXISTS carried_from_run_id BIGINT REFERENCES cyberscout.scan_run(id) ON DELETE SET NULL;
+
+CREATE INDEX IF NOT EXISTS idx_scan_run_campaign_base_url ON cyberscout.scan_run(campaign_id, base_url, started_at);
+CREATE INDEX IF NOT EXISTS idx_finding_scan_run_target ON cyberscout.scan_finding(scan_run_id, target);
@@ -0,0 +1,6 @@
+-- A path chosen to represent a cluster of equivalent paths keeps the cluster's template and how many paths it stands for.
+ALTER TABLE cyberscout.endpoint_inventory_path
+    ADD COLUMN IF NOT EXISTS template VARCHAR(1024);
+
+ALTER TABLE cyberscout.endpoint_inventory_path
+    ADD COLUMN IF NOT EXISTS cluster_size INTEGER NOT NULL DEFAULT 1;
@@ -0,0 +1,57 @@
+package org.hat.cyberscout.attack.checks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Set;
+import org.hat.cyberscout.attack.checks.OperationScheduler.ScoredOperation;
+import org.hat.cyberscout.openapi.BodySchema;
+import org.hat.cyberscout.openapi.OpenApiOperation;
+import org.junit.jupiter.api.Test;
+
+class OperationSchedulerTest {
+
+    @Test
+    void shouldRankSecuredMutatingSensitiveOperationsFirstForTypeValidationAndKeepDocumentOrderOnTies() {
+        OpenApiOperation health = new OpenApiOperation("/health", "GET", false, null, null);
+        OpenApiOperation docs = new OpenApiOperation("/docs", "GET", false, null, null);
+        OpenApiOperation deleteUser = new OpenApiOperation("/admin/users/{id}", "DELETE", true, null, null);
+        OpenApiOperation createOrder = new OpenApiOperation("/orders", "POST", false, "application/json", new BodySchema("object", false, List.of()));
+
+        List<ScoredOperation> plan = OperationScheduler.prioritize(List.of(health, docs, deleteUser, createOrder), Set.of(), true);
+
+        assertThat(plan).extracting(ScoredOperation::operation).containsExactly(deleteUser, createOrder, health, docs);
+    }
+
+    @Test
+    void shouldRankSafeMethodsFirstForUnauthenticatedChecks() {
+        OpenApiOperation deleteUser = new OpenApiOperation("/users/{id}", "DELETE", true, null, null);
+        OpenApiOperation readUser = new OpenApiOperation("/users/{id}", "GET", true, null, null);
+        OpenApiOperation updateUser = new OpenApiOperation("/users/{id}", "PUT", true, null, null);
+
+        List<ScoredOperation> plan = OperationScheduler.prioritize(List.of(deleteUser, readUser, updateUser), Set.of(), false);
+
+        assertThat(plan).extracting(ScoredOperation::operation).containsExactly(readUser, deleteUser, updateUser);
+    }
+
+    @Test
+    void shouldNotRankTemplatedPathsAheadOfPlainOnes() {
+        OpenApiOperation listItems = new OpenApiOperation("/items", "GET", false, null, null);
+        OpenApiOperation readItem = new OpenApiOperation("/items/{id}/parts/{part}", "GET", false, null, null);
+
+        List<ScoredOperation> plan = OperationScheduler.prioritize(List.of(listItems, readItem), Set.of(), false);
+
+        assertThat(plan).extracting(ScoredOperation::operation).containsExactly(listItems, readItem);
+        assertThat(plan.get(1).score()).isEqualTo(plan.get(0).score());
+    }
+
+    @Test
+    void shouldMoveOperationsTestedByEarlierRunsBehindUntestedOnes() {
+        OpenApiOperation users = new OpenApiOperation("/users", "POST", true, null, null);
+        OpenApiOperation items = new OpenApiOperation("/items", "POST", true, null, null);
+
+        List<ScoredOperation> plan = OperationScheduler.prioritize(List.of(users, items), Set.of(OperationScheduler.key(users)), false);
+
+        assertThat(plan).extracting(ScoredOperation::operation).containsExactly(items, users);
+    }
+}
@@ -0,0 +1,112 @@
+package org.hat.cyberscout.attack.checks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.hat.cyberscout.attack.checks.OperationScheduler.ScoredOperation;
+import org.hat.cyberscout.openapi.OpenApiOperation;
+import org.hat.cyberscout.scan.model.Finding;
+import org.hat.cyberscout.scan.model.Severity;
+import org.junit.jupiter.api.Test;
+
+class OperationSweepTest {
+
+    private static final Duration LONG = Duration.ofMinutes(1);
+
+    @Test
+    void shouldKeepAtMostParallelismOperationsInFlightAndStartThemInPlanOrder() {
+        List<ScoredOperation> plan = plan(5);
+        List<String> started = new ArrayList<>();
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+
+        CompletableFuture<OperationSweep.Result> sweep = OperationSweep.run(plan, 10, 2, LONG, (op, slot) -> {
+            slot.takeRequest();
+            started.add(op.path());
+            return respondLater(pending, slot, op);
+        });
+
+        assertThat(started).containsExactly("/op0", "/op1");
+        pending.get(0).complete(null);
+        assertThat(started).containsExactly("/op0", "/op1", "/op2");
+        while (!sweep.isDone()) {
+            pending.stream().filter(f -> !f.isDone()).findFirst().orElseThrow().complete(null);
+        }
+
+        OperationSweep.Result result = sweep.join();
+        assertThat(result.findings()).hasSize(5);
+        assertThat(result.timedOut()).isFalse();
+    }
+
+    @Test
+    void shouldStopStartingOperationsOnceTheSharedBudgetIsSpent() {
+        OperationSweep.Result result = OperationSweep.run(plan(5), 3, 4, LONG, (op, slot) -> {
+            if (slot.takeRequest()) {
+                slot.answered();
+            }
+            return CompletableFuture.completedFuture(null);
+        }).join();
+
+        assertThat(result.answered()[2]).isTrue();
+        assertThat(result.answered()[3]).isFalse();
+        assertThat(result.timedOut()).isFalse();
+    }
+
+    @Test
+    void shouldGiveBackTheRequestsOfACheckThatThrows() {
+        OperationSweep.Result result = OperationSweep.run(plan(3), 2, 1, LONG, (op, slot) -> {
+            slot.takeRequest();
+            if (op.path().equals("/op0")) {
+                throw new IllegalArgumentException("Illegal character in path");
+            }
+            slot.answered();
+            return CompletableFuture.completedFuture(null);
+        }).join();
+
+        assertThat(result.answered()[0]).isFalse();
+        assertThat(result.answered()[1]).isTrue();
+        assertThat(result.answered()[2]).isTrue();
+        assertThat(result.timedOut()).isFalse();
+    }
+
+    @Test
+    void shouldReturnPartialResultsAtTheDeadline() {
+        OperationSweep.Result result = OperationSweep.run(plan(3), 10, 3, Duration.ofMillis(50), (op, slot) -> {
+            slot.takeRequest();
+            if (op.path().equals("/op0")) {
+                slot.answered();
+                slot.report(finding(op));
+                return CompletableFuture.completedFuture(null);
+            }
+            return new CompletableFuture<>();
+        }).join();
+
+        assertThat(result.timedOut()).isTrue();
+        assertThat(result.findings()).hasSize(1);
+        assertThat(result.answered()[0]).isTrue();
+        assertThat(result.answered()[1]).isFalse();
+    }
+
+    private static CompletableFuture<Void> respondLater(List<CompletableFuture<Void>> pending, OperationSweep.Slot slot, OpenApiOperation op) {
+        CompletableFuture<Void> response = new CompletableFuture<>();
+        pending.add(response);
+        return response.thenRun(() -> {
+            slot.answered();
+            slot.report(finding(op));
+        });
+    }
+
+    private static List<ScoredOperation> plan(int size) {
+        List<ScoredOperation> plan = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            plan.add(new ScoredOperation(new OpenApiOperation("/op" + i, "GET", true, null, null), 0));
+        }
+        return plan;
+    }
+
+    private static Finding finding(OpenApiOperation op) {
+        return new Finding(null, "TEST", op.path(), Severity.LOW, 1.0, "test", "{}");
+    }
+}
@@ -0,0 +1,86 @@
+package org.hat.cyberscout.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Flow;
+import org.junit.jupiter.api.Test;
+
+class BoundedBodyHandlerTest {
+
+    @Test
+    void shouldStopConsumingAfterLimit() {
+        BoundedBodyHandler.BoundedBodySubscriber subscriber = new BoundedBodyHandler.BoundedBodySubscriber(5, null);
+        RecordingSubscription subscription = new RecordingSubscription();
+        subscriber.onSubscribe(subscription);
+
+        subscriber.onNext(List.of(ByteBuffer.wrap("abc".getBytes(StandardCharsets.UTF_8))));
+        subscriber.onNext(List.of(ByteBuffer.wrap("defgh".getBytes(StandardCharsets.UTF_8))));
+
+        BoundedBody body = subscriber.getBody().toCompletableFuture().join();
+        assertThat(body.truncated()).isTrue();
+        assertThat(body.utf8()).isEqualTo("abcde");
+        assertThat(subscription.cancelled).isTrue();
+    }
+
+    @Test
+    void shouldReturnWholeBodyUnderLimit() {
+        BoundedBodyHandler.BoundedBodySubscriber subscriber = new BoundedBodyHandler.BoundedBodySubscriber(100, null);
+        RecordingSubscription subscription = new RecordingSubscription();
+        subscriber.onSubscribe(subscription);
+
+        subscriber.onNext(List.of(ByteBuffer.wrap("{\"ok\":true}".getBytes(StandardCharsets.UTF_8))));
+        subscriber.onComplete();
+
+        BoundedBody body = subscriber.getBody().toCompletableFuture().join();
+        assertThat(body.truncated()).isFalse();
+        assertThat(body.utf8()).isEqualTo("{\"ok\":true}");
+        assertThat(subscription.cancelled).isFalse();
+    }
+
+    @Test
+    void shouldHandOnlyTheCapturedBytesToTheTap() {
+        StringBuilder tapped = new StringBuilder();
+        BoundedBodyHandler.BoundedBodySubscriber subscriber = new BoundedBodyHandler.BoundedBodySubscriber(
+                5, (bytes, offset, length) -> tapped.append(new String(bytes, offset, length, StandardCharsets.UTF_8)).append('|'));
+        subscriber.onSubscribe(new RecordingSubscription());
+
+        subscriber.onNext(List.of(ByteBuffer.wrap("abc".getBytes(StandardCharsets.UTF_8))));
+        subscriber.onNext(List.of(ByteBuffer.wrap("defgh".getBytes(StandardCharsets.UTF_8))));
+
+        assertThat(tapped.toString()).isEqualTo("abc|de|");
+    }
+
+    @Test
+    void shouldNotSplitMultiByteSequenceAtLimit() {
+        byte[] bytes = "abé€".getBytes(StandardCharsets.UTF_8); // a b (2 bytes) (3 bytes)
+        // Cut in the middle of the euro sign.
+        byte[] cut = java.util.Arrays.copyOf(bytes, 5);
+
+        BoundedBody body = new BoundedBody(cut, true);
+
+        assertThat(body.utf8()).isEqualTo("abé");
+    }
+
+    @Test
+    void excerptShouldNotSplitSurrogatePair() {
+        BoundedBody body = new BoundedBody("a😀b".getBytes(StandardCharsets.UTF_8), false);
+
+        assertThat(body.excerpt(2)).isEqualTo("a");
+    }
+
+    private static final class RecordingSubscription implements Flow.Subscription {
+        private boolean cancelled;
+
+        @Override
+        public void request(long n) {
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.hat.cyberscout.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.http.HttpConnectTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import org.junit.jupiter.api.Test;
+
+class HostCircuitBreakerTest {
+
+    private static final String HOST = "localhost:8080";
+
+    @Test
+    void shouldOpenAfterConsecutiveConnectFailures() {
+        HttpTransportProperties properties = new HttpTransportProperties();
+        properties.setCircuitBreakerFailureThreshold(2);
+        HostCircuitBreaker breaker = new HostCircuitBreaker(properties);
+
+        assertThat(breaker.tryAcquire(HOST)).isTrue();
+        breaker.onFailure(HOST, new CompletionException(new ConnectException("refused")));
+        assertThat(breaker.tryAcquire(HOST)).isTrue();
+        breaker.onFailure(HOST, new HttpConnectTimeoutException("timed out"));
+
+        assertThat(breaker.isOpen(HOST)).isTrue();
+        assertThat(breaker.tryAcquire(HOST)).isFalse();
+        assertThat(breaker.tryAcquire("127.0.0.1:8080")).isTrue();
+        assertThat(breaker.snapshot().get(HOST).state()).isEqualTo(HostCircuitBreaker.State.OPEN);
+        assertThat(breaker.snapshot().get(HOST).shortCircuited()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldIgnoreNonConnectivityFailuresAndResetOnResponse() {
+        HttpTransportProperties properties = new HttpTransportProperties();
+        properties.setCircuitBreakerFailureThreshold(2);
+        HostCircuitBreaker breaker = new HostCircuitBreaker(properties);
+
+        breaker.onFailure(HOST, new ConnectException("refused"));
+        breaker.onResponse(HOST);
+        breaker.onFailure(HOST, new ConnectException("refused"));
+        breaker.onFailure(HOST, new IOException("connection reset"));
+
+        assertThat(breaker.isOpen(HOST)).isFalse();
+        assertThat(breaker.snapshot().get(HOST).consecutiveFailures()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldLetOneTrialThroughWhenHalfOpen() {
+        HttpTransportProperties properties = new HttpTransportProperties();
+        properties.setCircuitBreakerFailureThreshold(1);
+        properties.setCircuitBreakerOpenDuration(Duration.ZERO);
+        HostCircuitBreaker breaker = new HostCircuitBreaker(properties);
+        breaker.onFailure(HOST, new ConnectException("refused"));
+
+        assertThat(breaker.tryAcquire(HOST)).isTrue();
+        assertThat(breaker.snapshot().get(HOST).state()).isEqualTo(HostCircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire(HOST)).isFalse();
+
+        breaker.onResponse(HOST);
+        assertThat(breaker.snapshot().get(HOST).state()).isEqualTo(HostCircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire(HOST)).isTrue();
+    }
+
+    @Test
+    void shouldGiveBackAnAbandonedTrialWithoutAVerdict() {
+        HttpTransportProperties properties = new HttpTransportProperties();
+        properties.setCircuitBreakerFailureThreshold(1);
+        properties.setCircuitBreakerOpenDuration(Duration.ZERO);
+        HostCircuitBreaker breaker = new HostCircuitBreaker(properties);
+        breaker.onFailure(HOST, new ConnectException("refused"));
+
+        assertThat(breaker.tryAcquire(HOST)).isTrue();
+        breaker.onAbandoned(HOST);
+
+        assertThat(breaker.snapshot().get(HOST).state()).isEqualTo(HostCircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.snapshot().get(HOST).consecutiveFailures()).isEqualTo(1);
+        assertThat(breaker.tryAcquire(HOST)).isTrue();
+    }
+}
@@ -0,0 +1,90 @@
+package org.hat.cyberscout.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import org.hat.cyberscout.policy.PolicyProperties;
+import org.hat.cyberscout.scan.persist.ObservationSink;
+import org.hat.cyberscout.scan.persist.ScanPersistenceProperties;
+import org.hat.cyberscout.scan.persist.ScanRunRepository;
+import org.junit.jupiter.api.Test;
+
+class HostGateTest {
+
+    private static final URI TARGET = URI.create("http://localhost:8080/sitemap.xml");
+
+    @Test
+    void shouldHoldTheInFlightSlotUntilThePermitCompletesOnce() {
+        HostGate gate = gate(new HttpTransportProperties(), 1);
+
+        HostGate.Permit first = gate.enter(TARGET, false).join();
+        CompletableFuture<HostGate.Permit> second = gate.enter(TARGET, false);
+        assertThat(second.isDone()).isFalse();
+
+        first.completed(null, new IllegalStateException("stream closed"));
+        first.completed(null, new IllegalStateException("stream closed"));
+        assertThat(second.isDone()).isTrue();
+        assertThat(gate.enter(TARGET, false).isDone()).isFalse();
+    }
+
+    @Test
+    void shouldRefuseRequestsOnceTheHostCircuitIsOpen() {
+        HttpTransportProperties properties = new HttpTransportProperties();
+        properties.setCircuitBreakerFailureThreshold(1);
+        HostGate gate = gate(properties, 4);
+
+        gate.enter(TARGET, false).join().completed(null, new ConnectException("refused"));
+        CompletableFuture<HostGate.Permit> refused = gate.enter(TARGET, true);
+
+        assertThat(refused.isCompletedExceptionally()).isTrue();
+        assertThat(refused.exceptionNow()).isInstanceOf(HostUnavailableException.class);
+    }
+
+    @Test
+    void shouldGiveBackASlotGrantedAfterTheWaiterWasInterruptedWithoutRecordingIt() throws InterruptedException {
+        ScanPersistenceProperties persistence = new ScanPersistenceProperties();
+        persistence.setEnabled(true);
+        ObservationSink sink = new ObservationSink(persistence, new ScanRunRepository(persistence, null));
+        HostGate gate = gate(new HttpTransportProperties(), 1, sink);
+        HostGate.Permit first = gate.enter(TARGET, false).join();
+
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+        Thread waiter = new Thread(() -> {
+            try {
+                gate.acquire(7L, HttpRequest.newBuilder(TARGET).GET().build());
+            } catch (Exception e) {
+                thrown.set(e);
+            }
+        });
+        waiter.start();
+        while (waiter.getState() != Thread.State.WAITING) {
+            Thread.onSpinWait();
+        }
+        waiter.interrupt();
+        waiter.join();
+        first.abandon();
+
+        assertThat(thrown.get()).isInstanceOf(InterruptedException.class);
+        assertThat(gate.enter(TARGET, false).isDone()).isTrue();
+        assertThat(sink.stats().enqueued()).isZero();
+    }
+
+    private static HostGate gate(HttpTransportProperties properties, int maxInFlight) {
+        ScanPersistenceProperties persistence = new ScanPersistenceProperties();
+        return gate(properties, maxInFlight, new ObservationSink(persistence, new ScanRunRepository(persistence, null)));
+    }
+
+    private static HostGate gate(HttpTransportProperties properties, int maxInFlight, ObservationSink sink) {
+        PolicyProperties policy = new PolicyProperties();
+        policy.setMaxConcurrentAttacks(maxInFlight);
+        return new HostGate(
+                new HostRateLimiter(properties),
+                new HostInFlightLimiter(policy),
+                new HostCircuitBreaker(properties),
+                sink);
+    }
+}
@@ -0,0 +1,51 @@
+package org.hat.cyberscout.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CompletableFuture;
+import org.hat.cyberscout.policy.PolicyProperties;
+import org.junit.jupiter.api.Test;
+
+class HostInFlightLimiterTest {
+
+    @Test
+    void shouldQueueBeyondMaxConcurrentAttacksPerHost() {
+        PolicyProperties properties = new PolicyProperties();
+        properties.setMaxConcurrentAttacks(2);
+        HostInFlightLimiter limiter = new HostInFlightLimiter(properties);
+
+        CompletableFuture<Void> first = limiter.acquire("localhost:8080");
+        CompletableFuture<Void> second = limiter.acquire("localhost:8080");
+        CompletableFuture<Void> third = limiter.acquire("localhost:8080");
+        CompletableFuture<Void> otherHost = limiter.acquire("127.0.0.1:8080");
+
+        assertThat(first.isDone()).isTrue();
+        assertThat(second.isDone()).isTrue();
+        assertThat(third.isDone()).isFalse();
+        assertThat(otherHost.isDone()).isTrue();
+        assertThat(limiter.snapshot().get("localhost:8080").queued()).isEqualTo(1);
+
+        limiter.release("localhost:8080");
+
+        assertThat(third.isDone()).isTrue();
+        assertThat(limiter.snapshot().get("localhost:8080").inFlight()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldSkipCancelledWaiters() {
+        PolicyProperties properties = new PolicyProperties();
+        properties.setMaxConcurrentAttacks(1);
+        HostInFlightLimiter limiter = new HostInFlightLimiter(properties);
+
+        limiter.acquire("localhost:8080");
+        CompletableFuture<Void> cancelled = limiter.acquire("localhost:8080");
+        CompletableFuture<Void> waiting = limiter.acquire("localhost:8080");
+        cancelled.cancel(false);
+
+        limiter.release("localhost:8080");
+
+        assertThat(waiting.isDone()).isTrue();
+        limiter.release("localhost:8080");
+        assertThat(limiter.snapshot().get("localhost:8080").inFlight()).isEqualTo(0);
+    }
+}
@@ -0,0 +1,61 @@
+package org.hat.cyberscout.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+
+class HostRateLimiterTest {
+
+    @Test
+    void shouldDelayRequestsBeyondBurst() {
+        HttpTransportProperties properties = new HttpTransportProperties();
+        properties.setRateLimitInitialPerSecond(1);
+        properties.setRateLimitBurst(2);
+        HostRateLimiter limiter = new HostRateLimiter(properties);
+
+        CompletableFuture<Void> first = limiter.acquire("localhost:8080");
+        CompletableFuture<Void> second = limiter.acquire("localhost:8080");
+        CompletableFuture<Void> third = limiter.acquire("localhost:8080");
+
+        assertThat(first.isDone()).isTrue();
+        assertThat(second.isDone()).isTrue();
+        assertThat(third.isDone()).isFalse();
+        assertThat(limiter.acquire("127.0.0.1:8080").isDone()).isTrue();
+        assertThat(limiter.snapshot().get("localhost:8080").delayedRequests()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldBackOffOnThrottlingAndRecoverAdditively() {
+        HttpTransportProperties properties = new HttpTransportProperties();
+        properties.setRateLimitInitialPerSecond(8);
+        properties.setRateLimitIncreaseStep(1);
+        HostRateLimiter limiter = new HostRateLimiter(properties);
+
+        limiter.onResponse("localhost:8080", 429, Optional.empty());
+        assertThat(limiter.snapshot().get("localhost:8080").ratePerSecond()).isEqualTo(4.0);
+
+        limiter.onResponse("localhost:8080", 200, Optional.empty());
+        assertThat(limiter.snapshot().get("localhost:8080").ratePerSecond()).isEqualTo(5.0);
+
+        limiter.onResponse("localhost:8080", 503, Optional.of("30"));
+        HostRateLimiter.RateStats stats = limiter.snapshot().get("localhost:8080");
+        assertThat(stats.ratePerSecond()).isEqualTo(2.5);
+        assertThat(stats.retryAfterPauses()).isEqualTo(1);
+        assertThat(stats.pausedForMs()).isGreaterThan(20_000);
+        assertThat(limiter.acquire("localhost:8080").isDone()).isFalse();
+    }
+
+    @Test
+    void shouldParseRetryAfterSecondsAndHttpDate() {
+        ZonedDateTime now = ZonedDateTime.of(2024, 1, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+
+        assertThat(HostRateLimiter.parseRetryAfter("120", now)).isEqualTo(Duration.ofSeconds(120));
+        assertThat(HostRateLimiter.parseRetryAfter("Mon, 01 Jan 2024 12:00:30 GMT", now)).isEqualTo(Duration.ofSeconds(30));
+        assertThat(HostRateLimiter.parseRetryAfter("soon", now)).isNull();
+    }
+}
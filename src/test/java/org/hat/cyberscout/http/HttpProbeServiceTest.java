@@ -0,0 +1,67 @@
+package org.hat.cyberscout.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hat.cyberscout.http.LocalHttpServer.respond;
+
+import java.net.URI;
+import org.hat.cyberscout.policy.PolicyEnforcer;
+import org.hat.cyberscout.scan.persist.ObservationSink;
+import org.hat.cyberscout.scan.persist.ScanPersistenceProperties;
+import org.hat.cyberscout.scan.persist.ScanRunRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class HttpProbeServiceTest {
+
+    private LocalHttpServer server;
+
+    @BeforeEach
+    void startServer() {
+        server = LocalHttpServer.start(routes -> routes.createContext("/page", exchange -> respond(exchange, 200, "hello")));
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.close();
+    }
+
+    @Test
+    void shouldKeepFreshCacheHitsOutOfTheLatencyHistograms() {
+        LatencyRecorder latencyRecorder = new LatencyRecorder();
+        HttpProbeService prober = prober(latencyRecorder);
+
+        HttpProbeResult first = prober.probe(1L, server.origin(), "/page", "GET");
+        HttpProbeResult second = prober.probe(1L, server.origin(), "/page", "GET");
+
+        assertThat(first.outcome()).isEqualTo(ProbeOutcome.RESPONSE);
+        assertThat(second.outcome()).isEqualTo(ProbeOutcome.CACHED);
+        assertThat(second.statusCode()).isEqualTo(200);
+        String host = HostInFlightLimiter.hostKey(server.origin());
+        assertThat(latencyRecorder.hosts().get(host).get("total").count()).isEqualTo(1L);
+    }
+
+    @Test
+    void shouldTimeTheLookupOfAHostName() {
+        HttpProbeService prober = prober(new LatencyRecorder());
+        try {
+            HttpProbeResult result = prober.probe(null, URI.create("http://localhost:" + server.port()), "/page", "GET");
+
+            assertThat(result.statusCode()).isEqualTo(200);
+            assertThat(result.timings().dnsMs()).isNotNull();
+        } finally {
+            prober.shutdown();
+        }
+    }
+
+    private HttpProbeService prober(LatencyRecorder latencyRecorder) {
+        ScanPersistenceProperties persistence = new ScanPersistenceProperties();
+        return new HttpProbeService(
+                server.transport(),
+                new PolicyEnforcer(server.policy()),
+                new ObservationSink(persistence, new ScanRunRepository(persistence, null)),
+                server.cache(),
+                latencyRecorder,
+                server.gate());
+    }
+}
@@ -0,0 +1,64 @@
+package org.hat.cyberscout.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.junit.jupiter.api.Test;
+
+class HttpTransportTest {
+
+    @Test
+    void shouldCountRequestsAndResponsesPerHost() throws Exception {
+        try (LocalHttpServer server = LocalHttpServer.start(s ->
+                s.createContext("/", exchange -> LocalHttpServer.respond(exchange, 200, "ok")))) {
+            HttpTransport transport = server.transport();
+            HttpRequest request = HttpRequest.newBuilder(server.origin().resolve("/a")).GET().build();
+
+            transport.send(request, HttpResponse.BodyHandlers.ofString());
+            List<CompletableFuture<HttpResponse<String>>> async = List.of(
+                    transport.sendAsync(request, HttpResponse.BodyHandlers.ofString()),
+                    transport.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+            CompletableFuture.allOf(async.toArray(CompletableFuture[]::new)).join();
+
+            HttpTransport.HostConnectionStats stats = transport.hostStats().get("127.0.0.1:" + server.port());
+            assertThat(stats.requests()).isEqualTo(3);
+            assertThat(stats.http1Responses()).isEqualTo(3);
+            assertThat(stats.http2Responses()).isZero();
+            assertThat(stats.failures()).isZero();
+            assertThat(stats.inFlight()).isZero();
+            assertThat(stats.peakInFlight()).isBetween(1, 2);
+            assertThat(stats.estimatedConnections()).isEqualTo(stats.peakInFlight());
+        }
+    }
+
+    @Test
+    void shouldCountAFailedExchangeAndLeaveNothingInFlight() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        try (LocalHttpServer server = LocalHttpServer.start(s -> { })) {
+            HttpTransport transport = server.transport();
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/")).GET().build();
+
+            assertThatThrownBy(() -> transport.send(request, HttpResponse.BodyHandlers.discarding()))
+                    .isInstanceOf(IOException.class);
+            CompletableFuture<HttpResponse<Void>> async = transport.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+            assertThatThrownBy(async::join).isInstanceOf(CompletionException.class);
+
+            HttpTransport.HostConnectionStats stats = transport.hostStats().get("127.0.0.1:" + port);
+            assertThat(stats.requests()).isEqualTo(2);
+            assertThat(stats.failures()).isEqualTo(2);
+            assertThat(stats.inFlight()).isZero();
+            assertThat(transport.hostStats()).doesNotContainKey("127.0.0.1:" + server.port());
+        }
+    }
+}
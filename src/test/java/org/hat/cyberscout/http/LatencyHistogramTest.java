@@ -0,0 +1,39 @@
+package org.hat.cyberscout.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    @Test
+    void shouldReportPercentilesWithinBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int ms = 1; ms <= 1000; ms++) {
+            histogram.record(ms);
+        }
+
+        LatencyHistogram.LatencySummary summary = histogram.summary();
+        assertThat(summary.count()).isEqualTo(1000);
+        assertThat(summary.max()).isEqualTo(1000);
+        assertThat(summary.p50()).isBetween(500L, 563L);
+        assertThat(summary.p95()).isBetween(950L, 1000L);
+        assertThat(summary.p99()).isBetween(990L, 1000L);
+    }
+
+    @Test
+    void shouldMapEveryValueIntoABucketThatContainsIt() {
+        for (long v : new long[] {0, 1, 7, 8, 9, 15, 16, 17, 100, 1023, 1024, 65_537, Integer.MAX_VALUE}) {
+            int bucket = LatencyHistogram.bucket(v);
+            assertThat(LatencyHistogram.upperBound(bucket)).isGreaterThanOrEqualTo(v);
+            if (bucket > 0) {
+                assertThat(LatencyHistogram.upperBound(bucket - 1)).isLessThan(v);
+            }
+        }
+    }
+
+    @Test
+    void shouldBeEmptyWithoutSamples() {
+        assertThat(new LatencyHistogram().summary().count()).isZero();
+    }
+}
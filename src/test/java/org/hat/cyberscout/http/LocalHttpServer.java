@@ -0,0 +1,106 @@
+package org.hat.cyberscout.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import org.hat.cyberscout.policy.PolicyProperties;
+import org.hat.cyberscout.scan.persist.ObservationSink;
+import org.hat.cyberscout.scan.persist.ScanPersistenceProperties;
+import org.hat.cyberscout.scan.persist.ScanRunRepository;
+
+// A loopback server plus an HTTP/1.1 transport pointed at it; close() stops both.
+public final class LocalHttpServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final HttpTransport transport;
+    private final URI origin;
+    private HostGate gate;
+
+    private LocalHttpServer(HttpServer server, ExecutorService executor, HttpTransport transport) {
+        this.server = server;
+        this.executor = executor;
+        this.transport = transport;
+        this.origin = URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    public static LocalHttpServer start(Consumer<HttpServer> routes) {
+        HttpServer server;
+        try {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ExecutorService executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        routes.accept(server);
+        server.start();
+
+        HttpTransportProperties props = new HttpTransportProperties();
+        props.setHttp2Enabled(false);
+        return new LocalHttpServer(server, executor, new HttpTransport(props));
+    }
+
+    public URI origin() {
+        return origin;
+    }
+
+    public int port() {
+        return origin.getPort();
+    }
+
+    public HttpTransport transport() {
+        return transport;
+    }
+
+    // One gate per server, with default limits and no observation persistence.
+    public synchronized HostGate gate() {
+        if (gate == null) {
+            ScanPersistenceProperties persistence = new ScanPersistenceProperties();
+            gate = new HostGate(
+                    new HostRateLimiter(transport.properties()),
+                    new HostInFlightLimiter(policy()),
+                    new HostCircuitBreaker(transport.properties()),
+                    new ObservationSink(persistence, new ScanRunRepository(persistence, null)));
+        }
+        return gate;
+    }
+
+    public ScanResponseCache cache() {
+        return new ScanResponseCache(transport, gate());
+    }
+
+    // Default policy with this server's port allowed.
+    public PolicyProperties policy() {
+        PolicyProperties policy = new PolicyProperties();
+        policy.setAllowedPorts(Set.of(port()));
+        return policy;
+    }
+
+    public static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        respond(exchange, status, body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            exchange.getResponseBody().write(body);
+        }
+        exchange.close();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        transport.shutdown();
+    }
+}
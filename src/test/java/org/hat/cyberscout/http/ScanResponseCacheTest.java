@@ -0,0 +1,105 @@
+package org.hat.cyberscout.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ScanResponseCacheTest {
+
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger notModified = new AtomicInteger();
+    private LocalHttpServer server;
+    private HttpTransport transport;
+    private URI base;
+
+    @BeforeEach
+    void startServer() {
+        server = LocalHttpServer.start(routes -> routes.createContext("/doc", exchange -> {
+            hits.incrementAndGet();
+            if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            exchange.getResponseHeaders().add("ETag", "\"v1\"");
+            LocalHttpServer.respond(exchange, 200, "{\"openapi\":\"3.0.0\"}");
+        }));
+        base = server.origin();
+        transport = server.transport();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.close();
+    }
+
+    @Test
+    void shouldServeRepeatedGetFromCache() {
+        ScanResponseCache cache = server.cache();
+
+        HttpResponse<BoundedBody> first = cache.fetch(1L, get(), 1000).join();
+        HttpResponse<BoundedBody> second = cache.fetch(1L, get(), 1000).join();
+
+        assertThat(hits.get()).isEqualTo(1);
+        assertThat(second.statusCode()).isEqualTo(200);
+        assertThat(second.body().utf8()).isEqualTo(first.body().utf8());
+        assertThat(cache.lookupFresh(1L, get(), 1000)).isPresent();
+        assertThat(cache.lookupFresh(2L, get(), 1000)).isEmpty();
+        assertThat(cache.stats().hits()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldHandTheBodyToTheTapWhetherFetchedOrCached() {
+        ScanResponseCache cache = server.cache();
+        StringBuilder tapped = new StringBuilder();
+        BoundedBodyHandler.BodyTap tap = (bytes, offset, length) ->
+                tapped.append(new String(bytes, offset, length, StandardCharsets.UTF_8));
+
+        cache.fetch(1L, get(), 1000, info -> info.statusCode() == 200 ? tap : null).join();
+        String fetched = tapped.toString();
+        tapped.setLength(0);
+        cache.fetch(1L, get(), 1000, info -> info.statusCode() == 200 ? tap : null).join();
+
+        assertThat(hits.get()).isEqualTo(1);
+        assertThat(fetched).isEqualTo("{\"openapi\":\"3.0.0\"}");
+        assertThat(tapped.toString()).isEqualTo(fetched);
+    }
+
+    @Test
+    void shouldRevalidateStaleEntryWithEtag() {
+        transport.properties().setResponseCacheFreshFor(Duration.ZERO);
+        ScanResponseCache cache = server.cache();
+
+        cache.fetch(1L, get(), 1000).join();
+        HttpResponse<BoundedBody> revalidated = cache.fetch(1L, get(), 1000).join();
+
+        assertThat(hits.get()).isEqualTo(2);
+        assertThat(notModified.get()).isEqualTo(1);
+        assertThat(revalidated.statusCode()).isEqualTo(200);
+        assertThat(revalidated.body().utf8()).contains("openapi");
+        assertThat(cache.stats().revalidated()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotCacheWithoutScanRun() {
+        ScanResponseCache cache = server.cache();
+
+        cache.fetch(null, get(), 1000).join();
+        cache.fetch(null, get(), 1000).join();
+
+        assertThat(hits.get()).isEqualTo(2);
+    }
+
+    private HttpRequest get() {
+        return HttpRequest.newBuilder(base.resolve("/doc")).timeout(Duration.ofSeconds(5)).GET().build();
+    }
+}
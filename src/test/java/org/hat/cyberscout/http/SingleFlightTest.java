@@ -0,0 +1,50 @@
+package org.hat.cyberscout.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+    @Test
+    void shouldShareInFlightCallAndReleaseKeyWhenDone() {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<Integer> exchange = new CompletableFuture<>();
+
+        CompletableFuture<Integer> first = flight.run("GET /a", () -> {
+            calls.incrementAndGet();
+            return exchange;
+        });
+        CompletableFuture<Integer> second = flight.run("GET /a", () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture(-1);
+        });
+        assertThat(second.isDone()).isFalse();
+
+        exchange.complete(200);
+        assertThat(first.join()).isEqualTo(200);
+        assertThat(second.join()).isEqualTo(200);
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(flight.stats().coalesced()).isEqualTo(1);
+        assertThat(flight.stats().inFlight()).isZero();
+
+        assertThat(flight.run("GET /a", () -> CompletableFuture.completedFuture(404)).join()).isEqualTo(404);
+        assertThat(flight.stats().executed()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotPropagateOneWaitersCancellation() {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        CompletableFuture<Integer> exchange = new CompletableFuture<>();
+
+        CompletableFuture<Integer> first = flight.run("k", () -> exchange);
+        CompletableFuture<Integer> second = flight.run("k", () -> exchange);
+        first.cancel(true);
+        exchange.complete(7);
+
+        assertThat(second.join()).isEqualTo(7);
+    }
+}
@@ -0,0 +1,134 @@
+package org.hat.cyberscout.jmh;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.hat.cyberscout.recon.HtmlLinkScanner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// HtmlLinkScanner over the raw bytes, in one piece and in the chunks a response arrives in, against the
+// previous decode-then-indexOf scans. Those only find quoted values, so they do less work per page.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HtmlLinkScannerBenchmark {
+
+    @Param({"65536", "1000000"})
+    public int pageBytes;
+
+    private static final int CHUNK_BYTES = 16 * 1024;
+
+    private byte[] page;
+
+    @Setup
+    public void setUp() {
+        StringBuilder html = new StringBuilder("<!DOCTYPE html><html><head><script src=\"/js/app.js\"></script></head><body>\n");
+        for (int i = 0; html.length() < pageBytes; i++) {
+            html.append("<div class=\"row\"><a class='item' href=\"/catalog/item/").append(i)
+                    .append("?ref=list\">Item ").append(i).append("</a> <img src=\"/img/").append(i)
+                    .append(".png\" alt=\"\"> <p>Lorem ipsum dolor sit amet, consectetur adipiscing elit.</p></div>\n");
+        }
+        html.append("</body></html>");
+        page = html.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<String> scanner() {
+        List<String> links = new ArrayList<>();
+        HtmlLinkScanner.scan(page, page.length, (tag, attribute, value) -> links.add(value));
+        return links;
+    }
+
+    @Benchmark
+    public List<String> streamedScanner() {
+        List<String> links = new ArrayList<>();
+        HtmlLinkScanner scanner = new HtmlLinkScanner((tag, attribute, value) -> links.add(value));
+        for (int offset = 0; offset < page.length; offset += CHUNK_BYTES) {
+            scanner.feed(page, offset, Math.min(CHUNK_BYTES, page.length - offset));
+        }
+        return links;
+    }
+
+    @Benchmark
+    public List<String> decodeAndExtract() {
+        return extractLinks(new String(page, StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public List<String> decodeAndIndexOf() {
+        return indexOfLinks(new String(page, StandardCharsets.UTF_8));
+    }
+
+    // The extraction recon used before the scanner, without its 30-link cap.
+    private static List<String> indexOfLinks(String body) {
+        List<String> links = new ArrayList<>();
+        int idx = 0;
+        while (idx < body.length()) {
+            int href = body.indexOf("href=\"/", idx);
+            if (href < 0) {
+                break;
+            }
+            int start = href + "href=\"".length();
+            int end = body.indexOf("\"", start);
+            if (end < 0) {
+                break;
+            }
+            links.add(body.substring(start, end));
+            idx = end + 1;
+        }
+        return links;
+    }
+
+    // The crawler's extraction before it streamed pages through the scanner.
+    private static List<String> extractLinks(String html) {
+        List<String> links = new ArrayList<>();
+        int idx = html.indexOf('=');
+        while (idx > 0 && idx + 2 < html.length()) {
+            char quote = html.charAt(idx + 1);
+            if ((quote != '"' && quote != '\'') || !isLinkAttribute(html, idx)) {
+                idx = html.indexOf('=', idx + 1);
+                continue;
+            }
+            int start = idx + 2;
+            int end = html.indexOf(quote, start);
+            if (end < 0) {
+                break;
+            }
+            String value = html.substring(start, end).trim();
+            if (!value.isEmpty()) {
+                links.add(value.indexOf('&') >= 0 ? value.replace("&amp;", "&") : value);
+            }
+            idx = html.indexOf('=', end + 1);
+        }
+        return links;
+    }
+
+    private static boolean isLinkAttribute(String html, int equals) {
+        for (String name : new String[] {"href", "src", "action", "formaction"}) {
+            int start = equals - name.length();
+            if (start > 0 && Character.isWhitespace(html.charAt(start - 1))
+                    && html.regionMatches(true, start, name, 0, name.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static void main(String[] args) throws Exception {
+        org.openjdk.jmh.Main.main(args.length == 0 ? new String[] {HtmlLinkScannerBenchmark.class.getSimpleName()} : args);
+    }
+}
@@ -0,0 +1,80 @@
+package org.hat.cyberscout.jmh;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.hat.cyberscout.openapi.OpenApiOperation;
+import org.hat.cyberscout.openapi.OpenApiParser;
+import org.hat.cyberscout.openapi.OpenApiStreamParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// OpenApiStreamParser against reading the whole document into a tree and walking it with OpenApiParser, on
+// generated specs shaped like real ones. Run with -prof gc: the allocation rate matters as much as the time.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class OpenApiParserBenchmark {
+
+    @Param({"5000000", "40000000"})
+    public int specBytes;
+
+    @Param({"200", "2147483647"})
+    public int limit;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private byte[] spec;
+
+    @Setup
+    public void setUp() {
+        StringBuilder json = new StringBuilder(specBytes + 4096)
+                .append("{\"openapi\":\"3.0.3\",\"info\":{\"title\":\"bench\",\"version\":\"1\"},")
+                .append("\"security\":[{\"bearer\":[]}],\"paths\":{");
+        for (int i = 0; json.length() < specBytes; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("\"/resources").append(i).append("/{id}\":{")
+                    .append("\"parameters\":[{\"name\":\"id\",\"in\":\"path\",\"required\":true,\"schema\":{\"type\":\"string\",\"format\":\"uuid\"}}],")
+                    .append("\"get\":{\"operationId\":\"get").append(i).append("\",\"responses\":{\"200\":{\"description\":\"ok\",")
+                    .append("\"content\":{\"application/json\":{\"schema\":{\"type\":\"object\",\"properties\":{")
+                    .append("\"id\":{\"type\":\"string\"},\"name\":{\"type\":\"string\",\"maxLength\":120},")
+                    .append("\"createdAt\":{\"type\":\"string\",\"format\":\"date-time\"},\"tags\":{\"type\":\"array\",\"items\":{\"type\":\"string\"}}}}}}},")
+                    .append("\"404\":{\"description\":\"Not found\"}}},")
+                    .append("\"put\":{\"security\":[],\"requestBody\":{\"content\":{\"application/json\":{\"schema\":{\"type\":\"object\",")
+                    .append("\"required\":[\"name\"],\"properties\":{\"name\":{\"type\":\"string\"},\"count\":{\"type\":\"integer\"}}}}}},")
+                    .append("\"responses\":{\"204\":{\"description\":\"Updated\"},\"400\":{\"description\":\"Invalid input\"}}}}");
+        }
+        json.append("}}");
+        spec = json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<OpenApiOperation> tree() throws IOException {
+        return OpenApiParser.parseOperations(mapper.readTree(spec), limit);
+    }
+
+    @Benchmark
+    public List<OpenApiOperation> streaming() throws IOException {
+        return OpenApiStreamParser.parseOperations(mapper.getFactory(), new ByteArrayInputStream(spec), limit);
+    }
+
+    public static void main(String[] args) throws Exception {
+        org.openjdk.jmh.Main.main(args.length == 0 ? new String[] {OpenApiParserBenchmark.class.getSimpleName()} : args);
+    }
+}
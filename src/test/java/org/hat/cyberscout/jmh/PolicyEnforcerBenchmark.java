@@ -0,0 +1,100 @@
+package org.hat.cyberscout.jmh;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.hat.cyberscout.policy.AttackExecutionRequest;
+import org.hat.cyberscout.policy.PolicyDecision;
+import org.hat.cyberscout.policy.PolicyEnforcer;
+import org.hat.cyberscout.policy.PolicyProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Compiled PolicyEnforcer against the previous linear evaluation; run with -prof gc for the allocation rate.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PolicyEnforcerBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int prefixCount;
+
+    private PolicyProperties properties;
+    private PolicyEnforcer enforcer;
+    private AttackExecutionRequest allowed;
+    private AttackExecutionRequest blocked;
+
+    @Setup
+    public void setUp() {
+        List<String> prefixes = new ArrayList<>();
+        for (int i = 0; i < prefixCount; i++) {
+            prefixes.add("/api/v1/resource" + i + "/");
+        }
+        properties = new PolicyProperties();
+        properties.setAllowedHosts(Set.of("localhost", "127.0.0.1", "*.staging.example", "10.0.0.0/8"));
+        properties.setAllowedPathPrefixes(prefixes);
+        enforcer = new PolicyEnforcer(properties);
+        // Worst case for the linear scan: only the last prefix matches.
+        allowed = new AttackExecutionRequest("localhost", 8080, "get", "/api/v1/resource" + (prefixCount - 1) + "/items", 1);
+        blocked = new AttackExecutionRequest("localhost", 8080, "GET", "/admin", 1);
+    }
+
+    @Benchmark
+    public PolicyDecision compiledAllowed() {
+        return enforcer.evaluate(allowed);
+    }
+
+    @Benchmark
+    public PolicyDecision linearAllowed() {
+        return linear(properties, allowed);
+    }
+
+    @Benchmark
+    public PolicyDecision compiledBlocked() {
+        return enforcer.evaluate(blocked);
+    }
+
+    @Benchmark
+    public PolicyDecision linearBlocked() {
+        return linear(properties, blocked);
+    }
+
+    // The evaluation PolicyEnforcer used before it was compiled (exact hosts only).
+    private static PolicyDecision linear(PolicyProperties properties, AttackExecutionRequest request) {
+        List<String> violations = new ArrayList<>();
+        if (!properties.getAllowedHosts().contains(request.host())) {
+            violations.add("Host not allowed: " + request.host());
+        }
+        if (!properties.getAllowedPorts().contains(request.port())) {
+            violations.add("Port not allowed: " + request.port());
+        }
+        if (!properties.getAllowedMethods().contains(request.method().toUpperCase(Locale.ROOT))) {
+            violations.add("HTTP method not allowed: " + request.method());
+        }
+        if (properties.getAllowedPathPrefixes().stream().noneMatch(request.path()::startsWith)) {
+            violations.add("Path outside allowed prefixes: " + request.path());
+        }
+        if (request.payloadCount() > properties.getMaxPayloadsPerTarget()) {
+            violations.add("Payload count exceeds max allowed: " + request.payloadCount());
+        }
+        return new PolicyDecision(violations.isEmpty(), violations);
+    }
+
+    public static void main(String[] args) throws Exception {
+        org.openjdk.jmh.Main.main(args.length == 0 ? new String[] {PolicyEnforcerBenchmark.class.getSimpleName()} : args);
+    }
+}
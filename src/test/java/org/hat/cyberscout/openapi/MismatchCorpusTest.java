@@ -0,0 +1,70 @@
+package org.hat.cyberscout.openapi;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class MismatchCorpusTest {
+
+    private static final BodySchema USER = new BodySchema("object", false, List.of(
+            new BodySchema.Property("name", "string", null, true, false, 1, 3, null, null, null),
+            new BodySchema.Property("age", "integer", null, false, false, null, null, BigDecimal.ZERO, null, null),
+            new BodySchema.Property("role", "string", null, true, false, null, null, null, null, List.of("admin", "user"))
+    ));
+
+    @Test
+    void shouldOrderBodiesBySignalWithValidValuesForTheOtherRequiredProperties() {
+        List<String> bodies = MismatchCorpus.of(USER).take(8);
+
+        assertThat(bodies).containsExactly(
+                "{\"name\":123,\"role\":\"admin\"}",
+                "{\"name\":\"a\",\"role\":123}",
+                "{\"name\":null,\"role\":\"admin\"}",
+                "{\"name\":\"a\",\"role\":null}",
+                "{\"role\":\"admin\"}",
+                "{\"name\":\"a\"}",
+                "{\"name\":\"a\",\"age\":\"x\",\"role\":\"admin\"}",
+                "{\"name\":\"aaaa\",\"role\":\"admin\"}");
+    }
+
+    @Test
+    void shouldFillRequiredNestedObjectsAndTargetTheirProperties() {
+        BodySchema order = new BodySchema("object", false, List.of(
+                new BodySchema.Property("customer", "object", null, true, false, null, null, null, null, null, List.of(
+                        new BodySchema.Property("id", "string", "uuid", true, false, null, null, null, null, null),
+                        new BodySchema.Property("email", "string", "email", false, false, null, null, null, null, null))),
+                new BodySchema.Property("quantity", "integer", null, true, false, null, null, BigDecimal.ONE, null, null)
+        ));
+
+        List<String> all = new ArrayList<>();
+        MismatchCorpus.of(order).forEach(all::add);
+
+        assertThat(all.get(0)).isEqualTo("{\"customer\":\"x\",\"quantity\":1}");
+        assertThat(all.get(1)).isEqualTo("{\"customer\":{\"id\":123},\"quantity\":1}");
+        assertThat(all).contains(
+                "{\"customer\":{\"id\":\"00000000-0000-4000-8000-000000000000\"},\"quantity\":\"x\"}",
+                "{\"customer\":{},\"quantity\":1}",
+                "{\"customer\":{\"id\":\"00000000-0000-4000-8000-000000000000\",\"email\":\"not-a-email\"},\"quantity\":1}");
+    }
+
+    @Test
+    void shouldCoverBoundariesAndNeverRepeatABody() {
+        List<String> all = new ArrayList<>();
+        MismatchCorpus.of(USER).forEach(all::add);
+
+        assertThat(new HashSet<>(all)).hasSize(all.size());
+        assertThat(all).contains(
+                "{\"name\":\"\",\"role\":\"admin\"}",
+                "{\"name\":\"a\",\"age\":-1,\"role\":\"admin\"}",
+                "{\"name\":\"a\",\"age\":9223372036854775808,\"role\":\"admin\"}",
+                "{\"name\":\"a\",\"role\":\"admin-not-allowed\"}",
+                "{\"name\":\"a\",\"age\":null,\"role\":\"admin\"}",
+                "null");
+        assertThat(MismatchCorpus.of(new BodySchema("string", false, List.of())).take(5)).containsExactly("123", "null");
+        assertThat(MismatchCorpus.of(null).first()).isNull();
+    }
+}
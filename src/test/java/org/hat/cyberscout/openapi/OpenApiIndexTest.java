@@ -0,0 +1,50 @@
+package org.hat.cyberscout.openapi;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.hat.cyberscout.scan.persist.ScanPersistenceProperties;
+import org.junit.jupiter.api.Test;
+
+class OpenApiIndexTest {
+
+    private static final List<OpenApiOperation> OPS = List.of(
+            new OpenApiOperation("/items", "GET", true, null, null),
+            new OpenApiOperation("/items", "POST", false, "application/json", new BodySchema("object", false, List.of())),
+            new OpenApiOperation("/items/{id}", "PUT", false, "application/vnd.shop+json", new BodySchema("string", false, List.of())),
+            new OpenApiOperation("/items/{id}", "DELETE", true, null, null)
+    );
+
+    @Test
+    void shouldLookUpOperationsByTemplateMethodSecurityAndContentType() {
+        OpenApiIndex index = OpenApiIndex.of("h1", OPS);
+
+        assertThat(index.byPath("/items/{id}")).extracting(OpenApiOperation::method).containsExactly("PUT", "DELETE");
+        assertThat(index.find("/items", "post")).contains(OPS.get(1));
+        assertThat(index.find("/items", "PATCH")).isEmpty();
+        assertThat(index.byMethod("get")).containsExactly(OPS.get(0));
+        assertThat(index.bySecured(true)).containsExactly(OPS.get(0), OPS.get(3));
+        assertThat(index.bySecured(false)).containsExactly(OPS.get(1), OPS.get(2));
+        assertThat(index.byRequestContentType("Application/JSON; charset=utf-8")).containsExactly(OPS.get(1));
+    }
+
+    @Test
+    void shouldShareOneIndexPerDocumentAndForgetFinishedScans() {
+        ScanPersistenceProperties properties = new ScanPersistenceProperties();
+        properties.setOpenApiIndexCacheSize(1);
+        OpenApiIndexCache cache = new OpenApiIndexCache(properties);
+
+        OpenApiIndex first = cache.intern(OpenApiIndex.of("h1", OPS));
+        assertThat(cache.intern(OpenApiIndex.of("h1", OPS))).isSameAs(first);
+
+        cache.assign(7L, first);
+        cache.assign(8L, first);
+        cache.evictScan(7L);
+        assertThat(cache.forScan(7L)).isEmpty();
+        assertThat(cache.forScan(8L)).containsSame(first);
+
+        // A second document pushes the first out; the scan that used it no longer finds an index.
+        cache.intern(OpenApiIndex.of("h2", List.of()));
+        assertThat(cache.forScan(8L)).isEmpty();
+    }
+}
@@ -0,0 +1,28 @@
+package org.hat.cyberscout.openapi;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class OpenApiOperationTest {
+
+    @Test
+    void shouldFillPathVariablesWithASampleValue() {
+        assertThat(operation("/users/{id}/orders/{orderId}").samplePath()).isEqualTo("/users/1/orders/1");
+        assertThat(operation("/files/{name}.json").samplePath()).isEqualTo("/files/1.json");
+        assertThat(operation("/health").samplePath()).isEqualTo("/health");
+    }
+
+    @Test
+    void shouldGiveNoSamplePathForMalformedTemplates() {
+        assertThat(operation("/users/{id").samplePath()).isNull();
+        assertThat(operation("/users/{}").samplePath()).isNull();
+        assertThat(operation("/users/{a{b}}").samplePath()).isNull();
+        assertThat(operation("/users/id}").samplePath()).isNull();
+        assertThat(operation("/users/{id} x").samplePath()).isNull();
+    }
+
+    private static OpenApiOperation operation(String path) {
+        return new OpenApiOperation(path, "GET", false, null, null);
+    }
+}
@@ -4,6 +4,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import org.junit.jupiter.api.Test;
 
@@ -51,5 +53,92 @@ class OpenApiParserTest {
 
         assertThat(op.jsonTypeMismatchBody()).isEqualTo("{\"name\":123}");
     }
-}
 
+    @Test
+    void shouldResolveComponentSchemasThroughRefsAllOfOneOfAndCycles() throws Exception {
+        String json = """
+            {
+              "openapi":"3.0.0",
+              "paths":{
+                "/users":{"post":{"requestBody":{"content":{"application/json":{"schema":{"$ref":"#/components/schemas/NewUser"}}}}}},
+                "/nodes":{"put":{"requestBody":{"content":{"application/json":{"schema":{"$ref":"#/components/schemas/Node"}}}}}},
+                "/pets":{"post":{"requestBody":{"content":{"application/json":{"schema":{"oneOf":[{"$ref":"#/components/schemas/Cat"},{"type":"object"}]}}}}}},
+                "/batch":{"post":{"requestBody":{"content":{"application/json":{"schema":{"type":"array","items":{"$ref":"#/components/schemas/Cat"}}}}}}},
+                "/aliases":{"post":{"requestBody":{"content":{"application/json":{"schema":{"$ref":"#/components/schemas/Loop"}}}}}}
+              },
+              "components":{"schemas":{
+                "Audited":{"type":"object","properties":{"createdAt":{"type":"string"}}},
+                "NewUser":{"allOf":[{"$ref":"#/components/schemas/Audited"},{"required":["age"],"properties":{"age":{"type":"integer"}}}]},
+                "Node":{"type":"object","properties":{"parent":{"$ref":"#/components/schemas/Node"},"label":{"type":"string"}},"required":["parent"]},
+                "Cat":{"properties":{"lives":{"type":["integer","null"]}}},
+                "Loop":{"$ref":"#/components/schemas/Loop"}
+              }}
+            }
+            """;
+        ObjectMapper om = new ObjectMapper();
+
+        List<OpenApiOperation> ops = OpenApiParser.parseOperations(om.readTree(json), 50);
+
+        assertThat(ops).extracting(OpenApiOperation::jsonTypeMismatchBody).containsExactly(
+                "{\"age\":\"x\"}",
+                "{\"parent\":\"x\"}",
+                "{\"lives\":\"x\"}",
+                "[{\"lives\":\"x\"}]",
+                null);
+        assertThat(OpenApiStreamParser.parseOperations(om.getFactory(),
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), 50))
+                .containsExactlyElementsOf(ops);
+    }
+    @Test
+    void shouldCarryNestedObjectPropertiesIntoTheBodySchema() throws Exception {
+        String json = """
+            {
+              "openapi":"3.0.0",
+              "paths":{
+                "/orders":{"post":{"requestBody":{"content":{"application/json":{"schema":{"$ref":"#/components/schemas/Order"}}}}}}
+              },
+              "components":{"schemas":{
+                "Order":{"type":"object","required":["customer"],"properties":{"customer":{"$ref":"#/components/schemas/Customer"}}},
+                "Customer":{"type":"object","required":["id"],"properties":{"id":{"type":"integer"}}}
+              }}
+            }
+            """;
+
+        BodySchema schema = OpenApiParser.parseOperations(new ObjectMapper().readTree(json), 50).get(0).requestSchema();
+
+        assertThat(schema.properties().get(0).properties()).containsExactly(
+                new BodySchema.Property("id", "integer", null, true, false, null, null, null, null, null));
+        assertThat(MismatchCorpus.of(schema).take(2)).containsExactly(
+                "{\"customer\":\"x\"}",
+                "{\"customer\":{\"id\":\"x\"}}");
+    }
+
+    @Test
+    void shouldShareTheBodySchemaOfAComponentBetweenOperations() throws Exception {
+        String json = """
+            {
+              "openapi":"3.0.0",
+              "paths":{
+                "/orders":{"post":{"requestBody":{"content":{"application/json":{"schema":{"$ref":"#/components/schemas/Order"}}}}},
+                           "put":{"requestBody":{"content":{"application/json":{"schema":{"$ref":"#/components/schemas/Order"}}}}}},
+                "/customers":{"post":{"requestBody":{"content":{"application/json":{"schema":{"$ref":"#/components/schemas/Customer"}}}}}}
+              },
+              "components":{"schemas":{
+                "Order":{"type":"object","required":["customer"],"properties":{"customer":{"$ref":"#/components/schemas/Customer"}}},
+                "Customer":{"type":"object","required":["id"],"properties":{"id":{"type":"integer"}}}
+              }}
+            }
+            """;
+        ObjectMapper om = new ObjectMapper();
+
+        for (List<OpenApiOperation> ops : List.of(
+                OpenApiParser.parseOperations(om.readTree(json), 50),
+                OpenApiStreamParser.parseOperations(om.getFactory(),
+                        new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), 50))) {
+            assertThat(ops).hasSize(3);
+            assertThat(ops.get(0).requestSchema()).isSameAs(ops.get(1).requestSchema());
+            assertThat(ops.get(2).requestSchema().properties()).containsExactlyElementsOf(
+                    ops.get(0).requestSchema().properties().get(0).properties());
+        }
+    }
+}
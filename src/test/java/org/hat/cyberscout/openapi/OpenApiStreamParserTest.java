@@ -0,0 +1,97 @@
+package org.hat.cyberscout.openapi;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class OpenApiStreamParserTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // Root security after paths, keys in unusual orders, and every shape the tree parser gives up on.
+    private static final String SPEC = """
+            {
+              "openapi": "3.0.0",
+              "info": {"title": "shop", "x-tags": [{"paths": {"/fake": {"get": {}}}}]},
+              "paths": {
+                "/items": {
+                  "parameters": [{"name": "q", "in": "query"}],
+                  "get": {"responses": {"200": {"description": "ok"}}},
+                  "POST": {"requestBody": {"content": {
+                      "text/plain": {"schema": {"type": "string"}},
+                      "application/vnd.shop+json": {"schema": {"properties": {"count": {"type": "integer"}}, "type": "object"}},
+                      "application/json": {"schema": {"type": "object", "properties": {"name": {"type": "string"}, "tags": {"type": "array"}}}}}}}
+                },
+                "/items/{id}": {
+                  "put": {"security": [], "requestBody": {"content": {"application/problem+json": {"schema": {"type": "OBJECT", "properties": {"flag": {"type": "boolean"}}}}}}},
+                  "patch": {"requestBody": {"content": {"application/json": {"schema": {"$ref": "#/components/schemas/Item"}}}}},
+                  "delete": {"security": [{"oauth": ["admin"]}]},
+                  "trace": {}
+                },
+                "/notes": {
+                  "post": {"requestBody": {"content": {"application/json": {"schema": {"type": "object", "properties": {"body": {"type": ["string", "null"]}}}}}}},
+                  "put": {"requestBody": {"content": {"application/json": {"schema": {"type": "object", "properties": {"body": true}}}}}},
+                  "get": "not an operation"
+                }
+              },
+              "components": {"schemas": {"Item": {"type": "object", "properties": {"id": {"type": "integer"}}}}},
+              "security": [{"bearer": []}]
+            }
+            """;
+
+    @Test
+    void shouldReadTheSameOperationsAsTheTreeParser() throws Exception {
+        List<OpenApiOperation> tree = OpenApiParser.parseOperations(MAPPER.readTree(SPEC), 50);
+
+        List<OpenApiOperation> streamed = parse(SPEC, 50);
+
+        assertThat(streamed).containsExactlyElementsOf(tree);
+        assertThat(streamed).extracting(OpenApiOperation::method)
+                .containsExactly("GET", "POST", "PUT", "PATCH", "DELETE", "POST", "PUT");
+        assertThat(streamed.get(0).secured()).isTrue();
+        assertThat(streamed.get(1).jsonTypeMismatchBody()).isEqualTo("{\"name\":123}");
+        assertThat(streamed.get(2).secured()).isFalse();
+        // The $ref is resolved against components read after paths.
+        assertThat(streamed.get(3).jsonTypeMismatchBody()).isEqualTo("{\"id\":\"x\"}");
+    }
+
+    @Test
+    void shouldStopReadingOnceTheLimitIsSettled() throws Exception {
+        String spec = """
+                {"security": [], "paths": {"/a": {"get": {}}, "/b": {"get": {}}, "/c": {"get": {}, this is never read
+                """;
+
+        List<OpenApiOperation> ops = parse(spec, 2);
+
+        assertThat(ops).extracting(OpenApiOperation::path).containsExactly("/a", "/b");
+    }
+
+    @Test
+    void shouldDeliverWhatWasReadBeforeTheDocumentBreaks() {
+        String truncated = SPEC.substring(0, SPEC.indexOf("\"/notes\""));
+        List<OpenApiOperation> ops = new ArrayList<>();
+
+        try {
+            OpenApiStreamParser.parse(MAPPER.getFactory().createParser(truncated), 50, ops::add);
+        } catch (IOException expected) {
+            // end of input inside paths
+        }
+
+        // The root security was never read, so nothing is secured by inheritance.
+        assertThat(ops).extracting(OpenApiOperation::path)
+                .containsExactly("/items", "/items", "/items/{id}", "/items/{id}", "/items/{id}");
+        assertThat(ops.get(0).secured()).isFalse();
+        assertThat(ops.get(4).secured()).isTrue();
+    }
+
+    private static List<OpenApiOperation> parse(String json, int limit) throws IOException {
+        return OpenApiStreamParser.parseOperations(
+                MAPPER.getFactory(), new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), limit);
+    }
+}
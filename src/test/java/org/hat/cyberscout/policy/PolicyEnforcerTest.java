@@ -64,4 +64,40 @@ class PolicyEnforcerTest {
         assertThat(decision.allowed()).isFalse();
         assertThat(decision.reasons()).anyMatch(r -> r.contains("Path outside allowed prefixes"));
     }
+
+    @Test
+    void shouldMatchWildcardAndCidrHostRules() {
+        PolicyProperties properties = new PolicyProperties();
+        properties.setAllowedHosts(Set.of("localhost", "*.staging.example", "10.20.0.0/16"));
+        PolicyEnforcer enforcer = new PolicyEnforcer(properties);
+
+        assertThat(enforcer.evaluate(request("api.staging.example", "get", "/")).allowed()).isTrue();
+        assertThat(enforcer.evaluate(request("API.Staging.Example", "GET", "/")).allowed()).isTrue();
+        assertThat(enforcer.evaluate(request("10.20.3.4", "GET", "/")).allowed()).isTrue();
+        assertThat(enforcer.evaluate(request("staging.example", "GET", "/")).allowed()).isFalse();
+        assertThat(enforcer.evaluate(request("10.21.3.4", "GET", "/")).allowed()).isFalse();
+        assertThat(enforcer.evaluate(request("10.20.3", "GET", "/")).allowed()).isFalse();
+    }
+
+    @Test
+    void shouldMatchAnyOfManyPrefixesAndReuseAllowedDecision() {
+        PolicyProperties properties = new PolicyProperties();
+        List<String> prefixes = new java.util.ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            prefixes.add("/api/v1/resource" + i + "/");
+        }
+        properties.setAllowedPathPrefixes(prefixes);
+        PolicyEnforcer enforcer = new PolicyEnforcer(properties);
+
+        PolicyDecision allowed = enforcer.evaluate(request("localhost", "GET", "/api/v1/resource9999/items"));
+        assertThat(allowed.allowed()).isTrue();
+        assertThat(enforcer.evaluate(request("localhost", "GET", "/api/v1/resource42/"))).isSameAs(allowed);
+        assertThat(enforcer.evaluate(request("localhost", "GET", "/api/v1/resource42")).allowed()).isFalse();
+        assertThat(enforcer.evaluate(request("localhost", "TRACE", "/api/v1/resource1/")).reasons())
+                .containsExactly("HTTP method not allowed: TRACE");
+    }
+
+    private static AttackExecutionRequest request(String host, String method, String path) {
+        return new AttackExecutionRequest(host, 8080, method, path, 1);
+    }
 }
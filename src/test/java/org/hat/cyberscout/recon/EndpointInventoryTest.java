@@ -0,0 +1,73 @@
+package org.hat.cyberscout.recon;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class EndpointInventoryTest {
+
+    @Test
+    void shouldStoreEachPathOnceWithItsMethods() {
+        EndpointInventory inventory = EndpointInventory.of(List.of(
+                new EndpointCandidate("/api/users", "POST", "OPENAPI"),
+                new EndpointCandidate("/api/users", "GET", "OPENAPI"),
+                new EndpointCandidate("/", "GET", "GENERIC"),
+                new EndpointCandidate("/api/users", "delete", "GENERIC"),
+                new EndpointCandidate("/ignored", "CONNECT", "GENERIC")
+        ));
+
+        assertThat(inventory.pathCount()).isEqualTo(2);
+        assertThat(inventory.targetCount()).isEqualTo(4);
+        assertThat(inventory.methodMask(0)).isEqualTo(EndpointInventory.methodBit("GET")
+                | EndpointInventory.methodBit("POST") | EndpointInventory.methodBit("DELETE"));
+        // Targets are ordered by path, then by method bit; a path keeps its first tech hint.
+        assertThat(inventory.targets()).containsExactly(
+                new EndpointCandidate("/api/users", "GET", "OPENAPI"),
+                new EndpointCandidate("/api/users", "POST", "OPENAPI"),
+                new EndpointCandidate("/api/users", "DELETE", "OPENAPI"),
+                new EndpointCandidate("/", "GET", "GENERIC")
+        );
+    }
+
+    @Test
+    void shouldAddressLargeInventoriesByIndex() {
+        List<EndpointCandidate> endpoints = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            endpoints.add(new EndpointCandidate("/items/" + i, "GET", "CRAWL"));
+            if (i % 3 == 0) {
+                endpoints.add(new EndpointCandidate("/items/" + i, "PUT", "CRAWL"));
+            }
+        }
+
+        EndpointInventory inventory = EndpointInventory.of(endpoints);
+
+        assertThat(inventory.pathCount()).isEqualTo(10_000);
+        assertThat(inventory.targetCount()).isEqualTo(endpoints.size());
+        assertThat(inventory.target(0)).isEqualTo(new EndpointCandidate("/items/0", "GET", "CRAWL"));
+        assertThat(inventory.target(1)).isEqualTo(new EndpointCandidate("/items/0", "PUT", "CRAWL"));
+        assertThat(inventory.target(2)).isEqualTo(new EndpointCandidate("/items/1", "GET", "CRAWL"));
+        assertThat(inventory.target(endpoints.size() - 1)).isEqualTo(new EndpointCandidate("/items/9999", "PUT", "CRAWL"));
+        assertThat(inventory.pathIndex(1)).isEqualTo(0);
+        assertThat(inventory.pathIndex(2)).isEqualTo(1);
+        assertThatThrownBy(() -> inventory.target(endpoints.size())).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void shouldRebuildFromStoredMasks() {
+        EndpointInventory original = EndpointInventory.of(List.of(
+                new EndpointCandidate("/a", "GET", "GENERIC"),
+                new EndpointCandidate("/a", "PATCH", "GENERIC"),
+                new EndpointCandidate("/b", "OPTIONS", null)
+        ));
+
+        EndpointInventory.Builder builder = EndpointInventory.builder();
+        for (int p = 0; p < original.pathCount(); p++) {
+            builder.addPath(original.path(p), original.methodMask(p), original.techHint(p));
+        }
+
+        assertThat(builder.build().targets()).containsExactlyElementsOf(original.targets());
+    }
+}
@@ -0,0 +1,75 @@
+package org.hat.cyberscout.recon;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class HtmlLinkScannerTest {
+
+    private static final String PAGE = """
+            <!DOCTYPE html>
+            <html><head>
+            <link rel=stylesheet HREF=/css/site.css>
+            <script src='/js/app.js'></script>
+            <script>if (a<b) { document.write('<a href="/from-script">'); }</script>
+            <style>a[href="/from-style"] { color: red }</style>
+            </head><body>
+            <!-- <a href="/commented-out"> -->
+            <a class="nav" href = " /about " title="x > y">About</a>
+            <a href="/search?q=1&amp;page=2">Search</a>
+            <img alt="é" src="/img/logo.png"/>
+            <form method="post" action="login"><button formaction="/logout">x</button></form>
+            <a data-href="/not-a-link" href="">empty</a>
+            </a href="/end-tag">
+            </body></html>
+            """;
+
+    private static final List<String> EXPECTED = List.of(
+            "link href /css/site.css",
+            "script src /js/app.js",
+            "a href /about",
+            "a href /search?q=1&page=2",
+            "img src /img/logo.png",
+            "form action login",
+            "button formaction /logout"
+    );
+
+    @Test
+    void shouldReportLinkAttributesOutsideCommentsAndRawText() {
+        byte[] html = PAGE.getBytes(StandardCharsets.UTF_8);
+        List<String> links = new ArrayList<>();
+
+        HtmlLinkScanner.scan(html, html.length, (tag, attribute, value) ->
+                links.add(tag + " " + attribute.name().toLowerCase() + " " + value));
+
+        assertThat(links).containsExactlyElementsOf(EXPECTED);
+    }
+
+    @Test
+    void shouldGiveTheSameResultWhateverTheChunking() {
+        byte[] html = PAGE.getBytes(StandardCharsets.UTF_8);
+        for (int chunk = 1; chunk <= 7; chunk++) {
+            List<String> links = new ArrayList<>();
+            HtmlLinkScanner scanner = new HtmlLinkScanner((tag, attribute, value) ->
+                    links.add(tag + " " + attribute.name().toLowerCase() + " " + value));
+            for (int offset = 0; offset < html.length; offset += chunk) {
+                scanner.feed(html, offset, Math.min(chunk, html.length - offset));
+            }
+
+            assertThat(links).as("chunk size %d", chunk).containsExactlyElementsOf(EXPECTED);
+        }
+    }
+
+    @Test
+    void shouldDropAValueCutOffAtTheEndOfTheInput() {
+        byte[] html = "<a href=\"/one\"></a><a href=\"/tw".getBytes(StandardCharsets.UTF_8);
+        List<String> links = new ArrayList<>();
+
+        HtmlLinkScanner.scan(html, html.length, (tag, attribute, value) -> links.add(value));
+
+        assertThat(links).containsExactly("/one");
+    }
+}
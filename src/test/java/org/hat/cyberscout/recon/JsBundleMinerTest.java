@@ -0,0 +1,94 @@
+package org.hat.cyberscout.recon;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static org.hat.cyberscout.http.LocalHttpServer.respond;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.hat.cyberscout.http.HttpTransport;
+import org.hat.cyberscout.http.LocalHttpServer;
+import org.hat.cyberscout.policy.PolicyEnforcer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class JsBundleMinerTest {
+
+    private LocalHttpServer server;
+    private HttpTransport transport;
+    private URI origin;
+    private ReconProperties properties;
+    private PolicyEnforcer policyEnforcer;
+
+    @BeforeEach
+    void startServer() {
+        server = LocalHttpServer.start(routes -> {
+            routes.createContext("/static/main.js", exchange -> respond(exchange, 200, """
+                    import("/static/chunk-admin.js");
+                    const client = axios.create();
+                    export const save = order => client.put("/orders/" + order.id, order);
+                    export const icon = "/static/icon.svg";
+                    """));
+            routes.createContext("/static/chunk-admin.js", exchange -> respond(exchange, 200,
+                    "fetch(`${base}/x`); const users = '/api/admin/users';"));
+            // A bundle far larger than the budget, streamed as the client reads it.
+            routes.createContext("/static/vendor.js", exchange -> {
+                exchange.sendResponseHeaders(200, 0);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    for (int i = 0; i < 100_000; i++) {
+                        out.write(("const r" + i + " = \"/api/r/" + i + "\";\n").getBytes(StandardCharsets.UTF_8));
+                    }
+                } catch (IOException clientStoppedReading) {
+                    // expected once the budget is spent
+                }
+            });
+        });
+        origin = server.origin();
+        transport = server.transport();
+        properties = new ReconProperties();
+        policyEnforcer = new PolicyEnforcer(server.policy());
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.close();
+    }
+
+    @Test
+    void shouldFollowLazyChunksAndReportCalledRoutes() throws Exception {
+        JsBundleMiner miner = new JsBundleMiner(transport, server.gate(), policyEnforcer, properties);
+        List<EndpointCandidate> found = new CopyOnWriteArrayList<>();
+
+        JsBundleMiner.MiningStats stats = miner
+                .mine(null, origin, List.of("/", "/about", "/static/main.js"), System.nanoTime() + TimeUnit.SECONDS.toNanos(10), found::add)
+                .get(15, TimeUnit.SECONDS);
+
+        assertThat(found).containsExactlyInAnyOrder(
+                new EndpointCandidate("/orders", "PUT", "JS_BUNDLE"),
+                new EndpointCandidate("/api/admin/users", "GET", "JS_BUNDLE"));
+        assertThat(stats.scriptsRead()).isEqualTo(2);
+        assertThat(stats.budgetExhausted()).isFalse();
+    }
+
+    @Test
+    void shouldStopReadingWhenTheByteBudgetIsSpent() throws Exception {
+        properties.setBundleMaxBytes(64 * 1024);
+        JsBundleMiner miner = new JsBundleMiner(transport, server.gate(), policyEnforcer, properties);
+        List<EndpointCandidate> found = new CopyOnWriteArrayList<>();
+
+        JsBundleMiner.MiningStats stats = miner
+                .mine(null, origin, List.of("/static/vendor.js"), System.nanoTime() + TimeUnit.SECONDS.toNanos(10), found::add)
+                .get(15, TimeUnit.SECONDS);
+
+        assertThat(stats.budgetExhausted()).isTrue();
+        assertThat(stats.bytesScanned()).isEqualTo(64 * 1024);
+        assertThat(found).contains(new EndpointCandidate("/api/r/0", "GET", "JS_BUNDLE"));
+        assertThat(found.size()).isBetween(1000, 3000);
+    }
+}
@@ -0,0 +1,71 @@
+package org.hat.cyberscout.recon;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class JsEndpointScannerTest {
+
+    private static final String SCRIPT = """
+            // fetch("/commented-out")
+            const api = axios.create({baseURL: "/api"});
+            /* "/api/in-block-comment" */
+            const re = /["'`]/g, half = total / 2;
+            api.post('/api/orders', body);
+            window.fetch ( `/api/users/${user.id}/roles`, {method: "GET"} );
+            const msg = "say \\"hi\\"";
+            http.delete("/items/" + id);
+            """;
+
+    private static final List<String> EXPECTED = List.of(
+            "/api",
+            "/api/orders POST",
+            "/api/users/ GET",
+            "GET",
+            "say \"hi\"",
+            "/items/ DELETE"
+    );
+
+    @Test
+    void shouldReportLiteralsOutsideCommentsAndRegexesWithTheirCall() {
+        byte[] script = SCRIPT.getBytes(StandardCharsets.UTF_8);
+        List<String> literals = new ArrayList<>();
+
+        JsEndpointScanner.scan(script, script.length, (value, method) ->
+                literals.add(method == null ? value : value + " " + method));
+
+        assertThat(literals).containsExactlyElementsOf(EXPECTED);
+    }
+
+    @Test
+    void shouldGiveTheSameResultWhateverTheChunking() {
+        byte[] script = SCRIPT.getBytes(StandardCharsets.UTF_8);
+        for (int chunk = 1; chunk <= 7; chunk++) {
+            List<String> literals = new ArrayList<>();
+            JsEndpointScanner scanner = new JsEndpointScanner((value, method) ->
+                    literals.add(method == null ? value : value + " " + method));
+            for (int offset = 0; offset < script.length; offset += chunk) {
+                scanner.feed(script, offset, Math.min(chunk, script.length - offset));
+            }
+            assertThat(literals).as("chunk size %d", chunk).containsExactlyElementsOf(EXPECTED);
+        }
+    }
+
+    @Test
+    void shouldKeepOnlySameOriginApiLookingPathsUnlessTheyAreRequested() {
+        URI origin = URI.create("https://shop.example.com");
+
+        assertThat(JsBundleMiner.endpointPath(origin, "/api/v2/carts?page=1", false)).isEqualTo("/api/v2/carts");
+        assertThat(JsBundleMiner.endpointPath(origin, "https://shop.example.com/graphql", false)).isEqualTo("/graphql");
+        assertThat(JsBundleMiner.endpointPath(origin, "/checkout/confirm", false)).isNull();
+        assertThat(JsBundleMiner.endpointPath(origin, "/checkout/confirm", true)).isEqualTo("/checkout/confirm");
+        assertThat(JsBundleMiner.endpointPath(origin, "https://cdn.example.com/api/x", true)).isNull();
+        assertThat(JsBundleMiner.endpointPath(origin, "//cdn.example.com/api/x", true)).isNull();
+        assertThat(JsBundleMiner.endpointPath(origin, "/api/logo.png", true)).isNull();
+        assertThat(JsBundleMiner.endpointPath(origin, "Loading /api data", false)).isNull();
+    }
+}
@@ -0,0 +1,101 @@
+package org.hat.cyberscout.recon;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class PathClustererTest {
+
+    @Test
+    void shouldKeepOneRepresentativePerTemplate() {
+        List<EndpointCandidate> endpoints = new ArrayList<>();
+        endpoints.add(new EndpointCandidate("/", "GET", "GENERIC"));
+        for (int i = 1; i <= 500; i++) {
+            endpoints.add(new EndpointCandidate("/items/" + i, "GET", "CRAWL"));
+        }
+        endpoints.add(new EndpointCandidate("/orders/3f2b8c1e-9d4a-4c6b-8e2f-1a2b3c4d5e6f/invoice", "GET", "CRAWL"));
+        endpoints.add(new EndpointCandidate("/orders/7c9e6679-7425-40de-944b-e07fc1f90ae7/invoice", "GET", "CRAWL"));
+        endpoints.add(new EndpointCandidate("/blog/how-we-scan-apis", "GET", "CRAWL"));
+        endpoints.add(new EndpointCandidate("/blog/release-notes-2026", "GET", "CRAWL"));
+        endpoints.add(new EndpointCandidate("/assets/5f4dcc3b5aa765d6.js", "GET", "CRAWL"));
+        endpoints.add(new EndpointCandidate("/swagger-ui", "GET", "OPENAPI"));
+        endpoints.add(new EndpointCandidate("/h2-console", "GET", "GENERIC"));
+
+        EndpointInventory inventory = PathClusterer.cluster(endpoints, 1);
+
+        assertThat(inventory.targets()).containsExactly(
+                new EndpointCandidate("/", "GET", "GENERIC"),
+                new EndpointCandidate("/items/1", "GET", "CRAWL"),
+                new EndpointCandidate("/orders/3f2b8c1e-9d4a-4c6b-8e2f-1a2b3c4d5e6f/invoice", "GET", "CRAWL"),
+                new EndpointCandidate("/blog/how-we-scan-apis", "GET", "CRAWL"),
+                new EndpointCandidate("/assets/5f4dcc3b5aa765d6.js", "GET", "CRAWL"),
+                new EndpointCandidate("/swagger-ui", "GET", "OPENAPI"),
+                new EndpointCandidate("/h2-console", "GET", "GENERIC"));
+        assertThat(inventory.template(1)).isEqualTo("/items/{int}");
+        assertThat(inventory.clusterSize(1)).isEqualTo(500);
+        assertThat(inventory.template(2)).isEqualTo("/orders/{uuid}/invoice");
+        assertThat(inventory.template(3)).isEqualTo("/blog/{slug}");
+        // A cluster of one stays a plain path.
+        assertThat(inventory.template(4)).isNull();
+        assertThat(inventory.representedPathCount()).isEqualTo(endpoints.size());
+    }
+
+    @Test
+    void shouldProbeOpenApiTemplatesThroughTheConcretePathsThatMatchedThem() {
+        List<EndpointCandidate> endpoints = List.of(
+                new EndpointCandidate("/api/users/{id}", "GET", "OPENAPI"),
+                new EndpointCandidate("/api/users/{id}", "DELETE", "OPENAPI"),
+                new EndpointCandidate("/api/users/{id}", "HEAD", "OPENAPI"),
+                new EndpointCandidate("/api/users/me", "GET", "OPENAPI"),
+                new EndpointCandidate("/api/orders/{orderId}", "GET", "OPENAPI"),
+                new EndpointCandidate("/api/users/42", "GET", "CRAWL"),
+                new EndpointCandidate("/api/users/alice", "GET", "CRAWL"),
+                new EndpointCandidate("/api/users/me", "GET", "CRAWL"));
+
+        EndpointInventory inventory = PathClusterer.cluster(endpoints, 1);
+
+        assertThat(inventory.pathCount()).isEqualTo(3);
+        assertThat(inventory.path(0)).isEqualTo("/api/users/42");
+        assertThat(inventory.template(0)).isEqualTo("/api/users/{id}");
+        assertThat(inventory.clusterSize(0)).isEqualTo(2);
+        // The template's safe methods carry over to the real id, its DELETE does not.
+        assertThat(inventory.methodMask(0)).isEqualTo(EndpointInventory.methodBit("GET") | EndpointInventory.methodBit("HEAD"));
+        assertThat(inventory.path(1)).isEqualTo("/api/users/me");
+        assertThat(inventory.template(1)).isNull();
+        // Nothing was crawled under /api/orders, so only the template is known.
+        assertThat(inventory.path(2)).isEqualTo("/api/orders/{orderId}");
+        assertThat(inventory.template(2)).isNull();
+    }
+
+    @Test
+    void shouldKeepHyphenatedApiRoutesApart() {
+        List<EndpointCandidate> endpoints = List.of(
+                new EndpointCandidate("/api/reset-password-token", "POST", "JS_BUNDLE"),
+                new EndpointCandidate("/api/verify-email-address", "POST", "JS_BUNDLE"),
+                new EndpointCandidate("/news/spring-sale-starts-today", "GET", "CRAWL"),
+                new EndpointCandidate("/news/new-office-in-lyon", "GET", "CRAWL"));
+
+        EndpointInventory inventory = PathClusterer.cluster(endpoints, 1);
+
+        assertThat(inventory.pathCount()).isEqualTo(3);
+        assertThat(inventory.template(0)).isNull();
+        assertThat(inventory.template(1)).isNull();
+        assertThat(inventory.template(2)).isEqualTo("/news/{slug}");
+    }
+
+    @Test
+    void shouldSplitAClusterBetweenItsRepresentatives() {
+        List<EndpointCandidate> endpoints = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            endpoints.add(new EndpointCandidate("/p/" + i, "GET", "CRAWL"));
+        }
+
+        EndpointInventory inventory = PathClusterer.cluster(endpoints, 3);
+
+        assertThat(inventory.pathCount()).isEqualTo(3);
+        assertThat(List.of(inventory.clusterSize(0), inventory.clusterSize(1), inventory.clusterSize(2))).containsExactly(3, 2, 2);
+        assertThat(PathClusterer.cluster(endpoints, 0).pathCount()).isEqualTo(7);
+    }
+}
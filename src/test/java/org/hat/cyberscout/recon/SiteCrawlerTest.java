@@ -0,0 +1,140 @@
+package org.hat.cyberscout.recon;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import org.hat.cyberscout.http.HttpTransport;
+import org.hat.cyberscout.http.LocalHttpServer;
+import org.hat.cyberscout.policy.PolicyEnforcer;
+import org.hat.cyberscout.policy.PolicyProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SiteCrawlerTest {
+
+    private static final Map<String, String> PAGES = Map.of(
+            "/", "<a href=\"/a\">a</a> <A HREF='b/'>b</A> <a href=\"http://other.example/x\">x</a> <a href=\"/a#top\">",
+            "/a", "<a href=\"/c?x=1\">c</a> <a href=\"../a\">self</a> <a href=\"//c\">c again</a>",
+            "/b", "<p>no links</p>",
+            "/c", "<a href=\"/d\">d</a>",
+            "/d", "<a href=\"/e\">e</a>"
+    );
+
+    private final Map<String, String> pages = new HashMap<>(PAGES);
+    private LocalHttpServer server;
+    private HttpTransport transport;
+    private URI origin;
+    private final Queue<String> served = new ConcurrentLinkedQueue<>();
+
+    @BeforeEach
+    void startServer() {
+        server = LocalHttpServer.start(routes -> routes.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            served.add(path);
+            String page = pages.get(path);
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+            LocalHttpServer.respond(exchange, page == null ? 404 : 200, page == null ? "" : page);
+        }));
+        origin = server.origin();
+        transport = server.transport();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.close();
+    }
+
+    @Test
+    void shouldCrawlBreadthFirstUpToTheConfiguredDepth() {
+        ReconProperties recon = new ReconProperties();
+        recon.setCrawlMaxDepth(2);
+        Queue<String> discovered = new ConcurrentLinkedQueue<>();
+
+        SiteCrawler.CrawlStats stats = crawler(recon, List.of("/"))
+                .crawl(null, origin, farDeadline(), c -> discovered.add(c.path()))
+                .join();
+
+        // /d is three hops away: reported, never fetched, and its own link /e is never seen.
+        assertThat(discovered).containsExactly("/", "/a", "/b", "/c", "/d");
+        assertThat(served).containsExactlyInAnyOrder("/", "/a", "/b", "/c");
+        assertThat(stats.pagesFetched()).isEqualTo(4);
+        assertThat(stats.frontierLeft()).isZero();
+    }
+
+    @Test
+    void shouldStopAtTheRequestBudget() {
+        ReconProperties recon = new ReconProperties();
+        recon.setCrawlMaxRequests(2);
+        recon.setCrawlWorkers(1);
+
+        SiteCrawler.CrawlStats stats = crawler(recon, List.of("/"))
+                .crawl(null, origin, farDeadline(), c -> {})
+                .join();
+
+        assertThat(served).hasSize(2);
+        assertThat(stats.frontierLeft()).isPositive();
+    }
+
+    @Test
+    void shouldNotFetchPathsOutsideThePolicy() {
+        Queue<String> discovered = new ConcurrentLinkedQueue<>();
+
+        crawler(new ReconProperties(), List.of("/public"))
+                .crawl(null, origin, farDeadline(), c -> discovered.add(c.path()))
+                .join();
+
+        assertThat(served).isEmpty();
+        assertThat(discovered).containsExactly("/");
+    }
+
+    @Test
+    void shouldNormalizeToSameOriginPaths() {
+        URI page = origin.resolve("/docs/guide/");
+
+        assertThat(SiteCrawler.normalize(origin, page, "../api//v1/?q=1#x")).isEqualTo("/docs/api/v1");
+        assertThat(SiteCrawler.normalize(origin, page, origin + "/Login/")).isEqualTo("/Login");
+        assertThat(SiteCrawler.normalize(origin, page, "https://127.0.0.1/x")).isNull();
+        assertThat(SiteCrawler.normalize(origin, page, "mailto:security@example.org")).isNull();
+        assertThat(SiteCrawler.normalize(origin, page, "/a b")).isNull();
+    }
+
+    @Test
+    void shouldFollowLinkAttributesButNotScriptSources() {
+        pages.put("/", """
+                <link rel=stylesheet HREF='/css/site.css'><script src="/js/app.js"></script>
+                <a href = " /about ">About</a> <a href="/search?q=1&amp;page=2">Search</a>
+                <form method="post" action="login"><button formaction='/logout'>x</button></form>
+                <a data-href="/not-a-link" href="">empty</a> <p>a=b</p> <a href=/unquoted>
+                <!-- <a href="/commented"> --><script>var s = '<a href="/in-script">';</script>
+                """);
+        ReconProperties recon = new ReconProperties();
+        recon.setCrawlMaxDepth(1);
+        Queue<String> discovered = new ConcurrentLinkedQueue<>();
+
+        crawler(recon, List.of("/"))
+                .crawl(null, origin, farDeadline(), c -> discovered.add(c.path()))
+                .join();
+
+        assertThat(discovered).containsExactly(
+                "/", "/css/site.css", "/js/app.js", "/about", "/search", "/login", "/logout", "/unquoted");
+        assertThat(served).containsExactlyInAnyOrder(
+                "/", "/css/site.css", "/about", "/search", "/login", "/logout", "/unquoted");
+    }
+
+    private SiteCrawler crawler(ReconProperties recon, List<String> allowedPrefixes) {
+        PolicyProperties policy = server.policy();
+        policy.setAllowedPathPrefixes(allowedPrefixes);
+        return new SiteCrawler(transport, server.cache(), new PolicyEnforcer(policy), recon);
+    }
+
+    private static long farDeadline() {
+        return System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    }
+}
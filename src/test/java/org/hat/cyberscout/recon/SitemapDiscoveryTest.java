@@ -0,0 +1,123 @@
+package org.hat.cyberscout.recon;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static org.hat.cyberscout.http.LocalHttpServer.respond;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import org.hat.cyberscout.http.HttpTransport;
+import org.hat.cyberscout.http.LocalHttpServer;
+import org.hat.cyberscout.policy.PolicyEnforcer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SitemapDiscoveryTest {
+
+    private static final String URLSET_OPEN = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\""
+            + " xmlns:image=\"http://www.google.com/schemas/sitemap-image/1.1\">\n";
+
+    private LocalHttpServer server;
+    private HttpTransport transport;
+    private URI origin;
+    private ReconProperties properties;
+    private PolicyEnforcer policyEnforcer;
+
+    @BeforeEach
+    void startServer() {
+        server = LocalHttpServer.start(routes -> {
+            routes.createContext("/robots.txt", exchange -> respond(exchange, 200, """
+                    User-agent: *
+                    Disallow: /private/*.json$
+                    Allow: /public   # kept
+                    Disallow:
+                    Sitemap: /sitemap_index.xml
+                    Sitemap: http://cdn.example.com/sitemap.xml
+                    """.getBytes(StandardCharsets.UTF_8)));
+            routes.createContext("/sitemap_index.xml", exchange -> respond(exchange, 200, """
+                    <?xml version="1.0" encoding="UTF-8"?>
+                    <sitemapindex xmlns="http://www.sitemaps.org/schemas/sitemap/0.9">
+                      <sitemap><loc>%1$s/sitemaps/pages.xml.gz</loc><lastmod>2026-01-01</lastmod></sitemap>
+                      <sitemap><loc>%1$s/sitemaps/blog.xml</loc></sitemap>
+                    </sitemapindex>
+                    """.formatted(origin).getBytes(StandardCharsets.UTF_8)));
+            routes.createContext("/sitemaps/pages.xml.gz", exchange -> respond(exchange, 200, gzip(URLSET_OPEN + """
+                      <url><loc>%1$s/</loc></url>
+                      <url><loc>%1$s/products/42?color=red</loc>
+                        <image:image><image:loc>%1$s/img/42.png</image:loc></image:image></url>
+                      <url><loc><![CDATA[%1$s/contact/]]></loc></url>
+                      <url><loc>https://elsewhere.example.com/page</loc></url>
+                    </urlset>
+                    """.formatted(origin))));
+            // Far more entries than the discovery will take; written in chunks as the client reads.
+            routes.createContext("/sitemaps/blog.xml", exchange -> {
+                exchange.sendResponseHeaders(200, 0);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(URLSET_OPEN.getBytes(StandardCharsets.UTF_8));
+                    for (int i = 0; i < 200_000; i++) {
+                        out.write(("<url><loc>" + origin + "/blog/post-" + i + "</loc></url>\n").getBytes(StandardCharsets.UTF_8));
+                    }
+                    out.write("</urlset>".getBytes(StandardCharsets.UTF_8));
+                } catch (IOException clientStoppedReading) {
+                    // expected once the entry limit is reached
+                }
+            });
+        });
+        origin = server.origin();
+        transport = server.transport();
+        properties = new ReconProperties();
+        policyEnforcer = new PolicyEnforcer(server.policy());
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.close();
+    }
+
+    @Test
+    void shouldCollectRobotsRulesAndSitemapPagesAcrossAnIndex() throws Exception {
+        properties.setSitemapMaxEntries(20);
+        SitemapDiscovery discovery = new SitemapDiscovery(transport, server.gate(), policyEnforcer, properties);
+        List<String> paths = new ArrayList<>();
+
+        SitemapDiscovery.DiscoveryStats stats = discovery
+                .discover(null, origin, System.nanoTime() + TimeUnit.SECONDS.toNanos(10), c -> paths.add(c.path()))
+                .get(15, TimeUnit.SECONDS);
+
+        assertThat(paths).startsWith("/private", "/public", "/", "/products/42", "/contact", "/blog/post-0");
+        assertThat(paths).doesNotContain("/img/42.png", "/page").hasSize(20);
+        assertThat(stats.documentsRead()).isEqualTo(4);
+        assertThat(stats.entryLimitReached()).isTrue();
+    }
+
+    @Test
+    void shouldKeepEntriesReadBeforeTheByteLimit() throws Exception {
+        properties.setSitemapMaxBytes(URLSET_OPEN.length() + 1000);
+        SitemapDiscovery discovery = new SitemapDiscovery(transport, server.gate(), policyEnforcer, properties);
+        List<String> paths = new ArrayList<>();
+
+        SitemapDiscovery.DiscoveryStats stats = discovery
+                .discover(null, origin, System.nanoTime() + TimeUnit.SECONDS.toNanos(10), c -> paths.add(c.path()))
+                .get(15, TimeUnit.SECONDS);
+
+        assertThat(stats.entryLimitReached()).isFalse();
+        assertThat(paths).contains("/blog/post-0", "/blog/post-9").doesNotContain("/blog/post-100");
+    }
+
+    private static byte[] gzip(String text) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,111 @@
+package org.hat.cyberscout.recon;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static org.hat.cyberscout.http.LocalHttpServer.respond;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.hat.cyberscout.http.HttpProbeResult;
+import org.hat.cyberscout.http.HttpTransport;
+import org.hat.cyberscout.http.LocalHttpServer;
+import org.hat.cyberscout.policy.PolicyEnforcer;
+import org.hat.cyberscout.policy.PolicyProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class Soft404DetectorTest {
+
+    private static final String CATCH_ALL = """
+            <html><head><title>Acme Store</title></head><body>
+            <nav><a href="/">Home</a> <a href="/shop">Shop</a> <a href="/contact">Contact</a></nav>
+            <h1>Sorry, we could not find %s</h1>
+            <p>The page you are looking for may have moved. Try the search box or browse our categories.</p>
+            <footer>Copyright 2026 Acme Incorporated. All rights reserved.</footer>
+            </body></html>
+            """;
+
+    private LocalHttpServer server;
+    private HttpTransport transport;
+    private URI origin;
+    private final Queue<String> served = new ConcurrentLinkedQueue<>();
+
+    @BeforeEach
+    void startServer() {
+        server = LocalHttpServer.start(routes -> routes.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            served.add(path);
+            switch (path) {
+                case "/admin" -> respond(exchange, 200, "<html><body><form action=\"/admin/login\">"
+                        + "<input name=\"user\"><input type=\"password\" name=\"password\"></form></body></html>");
+                case "/robots.txt" -> respond(exchange, 200, "User-agent: *\nDisallow: /private\n");
+                case "/login" -> {
+                    exchange.getResponseHeaders().set("Location", "/login/");
+                    respond(exchange, 301, "");
+                }
+                default -> {
+                    // Unknown paths either bounce to the login page or get the store's generic page.
+                    if (path.startsWith("/account")) {
+                        exchange.getResponseHeaders().set("Location", "/login?next=" + path);
+                        respond(exchange, 302, "");
+                    } else {
+                        respond(exchange, 200, CATCH_ALL.formatted(path));
+                    }
+                }
+            }
+        }));
+        origin = server.origin();
+        transport = server.transport();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.close();
+    }
+
+    @Test
+    void shouldDropPathsAnsweredLikeARandomPath() {
+        Soft404Baselines baselines = new Soft404Baselines();
+        Soft404Detector detector = new Soft404Detector(transport, server.cache(), baselines, new PolicyEnforcer(server.policy()));
+
+        Set<String> absent = detector.absentPaths(7L, origin, List.of("/admin", "/robots.txt", "/login", "/actuator", "/h2-console")).join();
+
+        assertThat(absent).containsExactlyInAnyOrder("/actuator", "/h2-console");
+
+        // The baseline stays available for probe results of the same scan.
+        HttpProbeResult generic = new HttpProbeResult(origin + "/actuator/health", "GET", 200, 5, Map.of(),
+                CATCH_ALL.formatted("/actuator/health"));
+        HttpProbeResult real = new HttpProbeResult(origin + "/actuator/health", "GET", 200, 5, Map.of(), "{\"status\":\"UP\"}");
+        assertThat(baselines.isSoft404(7L, origin, generic)).isTrue();
+        assertThat(baselines.isSoft404(7L, origin, real)).isFalse();
+        assertThat(baselines.isSoft404(8L, origin, generic)).isFalse();
+    }
+
+    @Test
+    void shouldNotFetchPathsOutsideThePolicy() {
+        PolicyProperties policy = server.policy();
+        // Random baseline paths start with /cs.
+        policy.setAllowedPathPrefixes(List.of("/cs", "/h2-console"));
+        Soft404Detector detector = new Soft404Detector(transport, server.cache(), new Soft404Baselines(), new PolicyEnforcer(policy));
+
+        Set<String> absent = detector.absentPaths(7L, origin, List.of("/actuator", "/h2-console")).join();
+
+        assertThat(absent).containsExactly("/h2-console");
+        assertThat(served).noneMatch(path -> path.equals("/actuator"));
+    }
+
+    @Test
+    void shouldCompareRedirectsByTargetWithoutTheEchoedPath() {
+        ResponseFingerprint a = ResponseFingerprint.of("/account/x1", 302, "/login?next=/account/x1", "", true);
+        ResponseFingerprint b = ResponseFingerprint.of("/account/settings", 302, "/login?next=/account/settings", "", true);
+        ResponseFingerprint elsewhere = ResponseFingerprint.of("/docs", 302, "/docs/index.html", "", true);
+
+        assertThat(a.similarTo(b)).isTrue();
+        assertThat(a.similarTo(elsewhere)).isFalse();
+    }
+}
@@ -0,0 +1,152 @@
+package org.hat.cyberscout.recon;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static org.hat.cyberscout.http.LocalHttpServer.respond;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import org.hat.cyberscout.http.HttpTransport;
+import org.hat.cyberscout.http.LocalHttpServer;
+import org.hat.cyberscout.http.ScanResponseCache;
+import org.hat.cyberscout.openapi.OpenApiDocumentService;
+import org.hat.cyberscout.openapi.OpenApiIndexCache;
+import org.hat.cyberscout.policy.PolicyEnforcer;
+import org.hat.cyberscout.policy.PolicyProperties;
+import org.hat.cyberscout.scan.persist.ObservationSink;
+import org.hat.cyberscout.scan.persist.ScanPersistenceProperties;
+import org.hat.cyberscout.scan.persist.ScanRunRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class UrlReconServiceTest {
+
+    private LocalHttpServer server;
+    private HttpTransport transport;
+    private String baseUrl;
+
+    @BeforeEach
+    void startServer() {
+        server = LocalHttpServer.start(routes -> routes.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            if (path.equals("/v3/api-docs")) {
+                respond(exchange, 200, "{\"paths\":{\"/api/users\":{\"get\":{},\"post\":{}}}}");
+            } else if (path.equals("/robots.txt")) {
+                sleep(3000);
+                respond(exchange, 404, "");
+            } else if (path.equals("/")) {
+                respond(exchange, 200, "<a href=\"/about\">about</a><script src=\"/static/app.js\"></script>");
+            } else if (path.equals("/static/app.js")) {
+                respond(exchange, 200, "const load = () => fetch('/orders/recent').then(r => r.json());");
+            } else if (path.equals("/orders/recent")) {
+                respond(exchange, 200, "[]");
+            } else {
+                respond(exchange, 404, "");
+            }
+        }));
+        baseUrl = server.origin().toString();
+        transport = server.transport();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.close();
+    }
+
+    @Test
+    void shouldReturnPartialResultsWhenAStepMissesTheDeadline() {
+        ReconProperties reconProperties = new ReconProperties();
+        reconProperties.setDeadline(Duration.ofMillis(800));
+        // All recon steps pass the host gate; pacing at the default rate would not fit this deadline.
+        transport.properties().setRateLimitEnabled(false);
+        UrlReconService service = service(server, reconProperties);
+
+        ReconResult result = service.recon(baseUrl);
+
+        assertThat(result.durationMs()).isLessThan(2500);
+        assertThat(result.partial()).isTrue();
+        assertThat(result.steps()).anyMatch(s -> s.name().equals("sitemaps") && s.status() == ReconStep.Status.TIMED_OUT);
+        assertThat(result.steps()).noneMatch(s -> s.name().equals("openapi-json"));
+        assertThat(result.steps()).anyMatch(s -> s.name().equals("crawl") && s.status() == ReconStep.Status.COMPLETED);
+        assertThat(result.endpoints()).anyMatch(e -> e.path().equals("/api/users") && e.method().equals("POST"));
+        assertThat(result.endpoints()).anyMatch(e -> e.path().equals("/about"));
+        assertThat(result.endpoints()).anyMatch(e -> e.path().equals("/orders/recent") && e.techHint().equals("JS_BUNDLE"));
+    }
+
+    @Test
+    void shouldFallBackToOpenApiJsonWithoutApiDocs() {
+        try (LocalHttpServer target = LocalHttpServer.start(routes -> routes.createContext("/", exchange -> {
+            if (exchange.getRequestURI().getPath().equals("/openapi.json")) {
+                respond(exchange, 200, "{\"paths\":{\"/api/invoices\":{\"delete\":{}}}}");
+            } else {
+                respond(exchange, 404, "");
+            }
+        }))) {
+            target.transport().properties().setRateLimitEnabled(false);
+            ReconProperties reconProperties = new ReconProperties();
+            reconProperties.setDeadline(Duration.ofSeconds(5));
+
+            ReconResult result = service(target, reconProperties).recon(target.origin().toString());
+
+            assertThat(result.steps()).anyMatch(s -> s.name().equals("openapi-json") && s.status() == ReconStep.Status.COMPLETED);
+            assertThat(result.endpoints()).anyMatch(e -> e.path().equals("/api/invoices") && e.method().equals("DELETE"));
+        }
+    }
+
+    @Test
+    void shouldDropRobotsAndScriptPathsAnsweredLikeAMissingPage() {
+        String fallback = "<html><body><div id=\"app\">Loading the shop front end, please wait.</div></body></html>";
+        try (LocalHttpServer spa = LocalHttpServer.start(routes -> routes.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            if (path.equals("/robots.txt")) {
+                respond(exchange, 200, "User-agent: *\nDisallow: /private/\nAllow: /docs\n");
+            } else if (path.equals("/docs")) {
+                respond(exchange, 200, "<html><body><h1>API documentation</h1><p>Orders, customers and invoices.</p>"
+                        + "<script src=\"/static/app.js\"></script></body></html>");
+            } else if (path.equals("/")) {
+                respond(exchange, 200, "<a href=\"/docs\">docs</a>");
+            } else if (path.equals("/static/app.js")) {
+                respond(exchange, 200, "fetch('/api/ghost'); axios.post('/api/orders', order);");
+            } else {
+                respond(exchange, 200, fallback);
+            }
+        }))) {
+            spa.transport().properties().setRateLimitEnabled(false);
+            ReconProperties reconProperties = new ReconProperties();
+            reconProperties.setDeadline(Duration.ofSeconds(5));
+
+            ReconResult result = service(spa, reconProperties).recon(7L, spa.origin().toString());
+
+            assertThat(result.steps()).anyMatch(s -> s.name().equals("soft-404-discovered") && s.status() == ReconStep.Status.COMPLETED);
+            assertThat(result.endpoints()).anyMatch(e -> e.path().equals("/docs"));
+            assertThat(result.endpoints()).noneMatch(e -> e.path().equals("/private/"));
+            assertThat(result.endpoints()).noneMatch(e -> e.path().equals("/api/ghost"));
+            assertThat(result.endpoints()).anyMatch(e -> e.path().equals("/api/orders") && e.method().equals("POST"));
+        }
+    }
+
+    private static UrlReconService service(LocalHttpServer target, ReconProperties reconProperties) {
+        HttpTransport transport = target.transport();
+        ScanResponseCache cache = target.cache();
+        PolicyProperties policy = target.policy();
+        SiteCrawler crawler = new SiteCrawler(transport, cache, new PolicyEnforcer(policy), reconProperties);
+        Soft404Detector soft404Detector = new Soft404Detector(transport, cache, new Soft404Baselines(), new PolicyEnforcer(policy));
+        SitemapDiscovery sitemapDiscovery = new SitemapDiscovery(transport, target.gate(), new PolicyEnforcer(policy), reconProperties);
+        JsBundleMiner bundleMiner = new JsBundleMiner(transport, target.gate(), new PolicyEnforcer(policy), reconProperties);
+        ScanPersistenceProperties persistence = new ScanPersistenceProperties();
+        OpenApiDocumentService openApiDocumentService = new OpenApiDocumentService(transport, target.gate(), new ObjectMapper(),
+                new PolicyEnforcer(policy), new ObservationSink(persistence, new ScanRunRepository(persistence, null)),
+                new OpenApiIndexCache(persistence));
+        return new UrlReconService(
+                transport, target.gate(), crawler, soft404Detector, sitemapDiscovery, bundleMiner, openApiDocumentService, reconProperties);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package org.hat.cyberscout.scan;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hat.cyberscout.http.LocalHttpServer;
+import org.hat.cyberscout.policy.PolicyEnforcer;
+import org.hat.cyberscout.recon.EndpointCandidate;
+import org.hat.cyberscout.recon.EndpointInventory;
+import org.hat.cyberscout.scan.persist.EndpointFingerprint;
+import org.hat.cyberscout.scan.persist.EndpointFingerprintRepository;
+import org.hat.cyberscout.scan.persist.ScanPersistenceProperties;
+import org.hat.cyberscout.scan.persist.ScanRunRepository;
+import org.junit.jupiter.api.Test;
+
+class IncrementalScanTest {
+
+    private static final int GET = EndpointInventory.methodBit("GET");
+    private static final int POST = EndpointInventory.methodBit("POST");
+
+    @Test
+    void shouldOnlyTargetNewOrChangedEndpoints() {
+        EndpointInventory inventory = EndpointInventory.of(List.of(
+                new EndpointCandidate("/orders", "GET", "GENERIC"),
+                new EndpointCandidate("/orders", "POST", "GENERIC"),
+                new EndpointCandidate("/orders", "DELETE", "GENERIC"),
+                new EndpointCandidate("/profile", "GET", "GENERIC"),
+                new EndpointCandidate("/news", "GET", "CRAWL"),
+                new EndpointCandidate("/archive", "GET", "CRAWL")
+        ));
+        Map<String, EndpointFingerprint> previous = Map.of(
+                "/orders", fingerprint("/orders", GET | POST, 200, "aa"),
+                "/profile", fingerprint("/profile", GET, 200, "bb"));
+        // /archive is past the revalidation limit, so it has no current fingerprint.
+        List<EndpointFingerprint> current = Arrays.asList(
+                fingerprint("/orders", 0, 200, "aa"),
+                fingerprint("/profile", 0, 200, "b2"),
+                fingerprint("/news", 0, 200, "cc"));
+
+        IncrementalScan.Comparison comparison = IncrementalScan.compare(inventory, current, previous, 3);
+
+        assertThat(comparison.unchangedPaths()).containsExactly("/orders");
+        assertThat(comparison.carriedCheckIds()).containsEntry("/orders",
+                List.of("A01_AUTHZ_SMOKE_UNAUTH_2XX", "A05_JSON_MALFORMED_5XX", "A05_VERBOSE_ERROR_LEAK"));
+        assertThat(comparison.targets().targets()).containsExactly(
+                new EndpointCandidate("/orders", "DELETE", "GENERIC"),
+                new EndpointCandidate("/profile", "GET", "GENERIC"),
+                new EndpointCandidate("/news", "GET", "CRAWL"),
+                new EndpointCandidate("/archive", "GET", "CRAWL"));
+        // Carried-forward methods plus what the first three targets will check.
+        assertThat(comparison.fingerprints()).containsExactly(
+                fingerprint("/orders", GET | POST | EndpointInventory.methodBit("DELETE"), 200, "aa"),
+                fingerprint("/profile", GET, 200, "b2"),
+                fingerprint("/news", GET, 200, "cc"));
+    }
+
+    @Test
+    void shouldLeaveTargetsPastTheBudgetUncheckedForTheNextRun() {
+        EndpointInventory inventory = EndpointInventory.of(List.of(
+                new EndpointCandidate("/a", "GET", "CRAWL"),
+                new EndpointCandidate("/b", "GET", "CRAWL")
+        ));
+        List<EndpointFingerprint> current = List.of(fingerprint("/a", 0, 200, "aa"), fingerprint("/b", 0, 404, "bb"));
+
+        IncrementalScan.Comparison comparison = IncrementalScan.compare(inventory, current, Map.of(), 1);
+
+        assertThat(comparison.targets().targetCount()).isEqualTo(2);
+        assertThat(comparison.fingerprints()).containsExactly(fingerprint("/a", GET, 200, "aa"), fingerprint("/b", 0, 404, "bb"));
+    }
+
+    @Test
+    void shouldOnlyCarryForwardAttackFindingsOfMethodsNotCheckedAgain() {
+        AtomicInteger newsVersion = new AtomicInteger();
+        try (LocalHttpServer server = LocalHttpServer.start(routes -> routes.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            LocalHttpServer.respond(exchange, 200, path.equals("/news") ? "news " + newsVersion.incrementAndGet() : "page " + path);
+        }))) {
+            ScanPersistenceProperties props = new ScanPersistenceProperties();
+            props.setEnabled(true);
+            RecordingFingerprints fingerprints = new RecordingFingerprints(props);
+            RecordingRuns runs = new RecordingRuns(props);
+            IncrementalScan scan = new IncrementalScan(server.transport(), server.cache(),
+                    new PolicyEnforcer(server.policy()), fingerprints, runs, props);
+            EndpointInventory inventory = EndpointInventory.of(List.of(
+                    new EndpointCandidate("/orders", "GET", "GENERIC"),
+                    new EndpointCandidate("/orders", "POST", "GENERIC"),
+                    new EndpointCandidate("/orders", "PUT", "GENERIC"),
+                    new EndpointCandidate("/profile", "GET", "GENERIC"),
+                    new EndpointCandidate("/news", "GET", "CRAWL")
+            ));
+
+            // The first run only reaches GET and POST /orders.
+            scan.plan(1L, null, server.origin(), inventory, 2);
+            IncrementalScan.Plan plan = scan.plan(2L, 1L, server.origin(), inventory, 10);
+
+            assertThat(plan.unchangedPaths()).isEqualTo(2);
+            assertThat(plan.targets().targets()).containsExactly(
+                    new EndpointCandidate("/orders", "PUT", "GENERIC"),
+                    new EndpointCandidate("/profile", "GET", "GENERIC"),
+                    new EndpointCandidate("/news", "GET", "CRAWL"));
+            // PUT /orders is checked again and reports JSON findings afresh; GET /profile was never checked.
+            assertThat(runs.carried).containsExactly(Map.of(server.origin() + "/orders", List.of("A01_AUTHZ_SMOKE_UNAUTH_2XX")));
+            assertThat(plan.carriedFindings()).isEqualTo(1);
+        }
+    }
+
+    private static EndpointFingerprint fingerprint(String path, int methods, int status, String hash) {
+        return new EndpointFingerprint(path, methods, status, null, null, hash);
+    }
+
+    private static final class RecordingFingerprints extends EndpointFingerprintRepository {
+        private final Map<Long, Map<String, EndpointFingerprint>> byRun = new HashMap<>();
+
+        RecordingFingerprints(ScanPersistenceProperties props) {
+            super(props, null);
+        }
+
+        @Override
+        public Map<String, EndpointFingerprint> findByRun(long scanRunId) {
+            return byRun.getOrDefault(scanRunId, Map.of());
+        }
+
+        @Override
+        public void saveAll(long scanRunId, List<EndpointFingerprint> fingerprints) {
+            Map<String, EndpointFingerprint> byPath = new HashMap<>();
+            fingerprints.forEach(f -> byPath.put(f.path(), f));
+            byRun.put(scanRunId, byPath);
+        }
+    }
+
+    private static final class RecordingRuns extends ScanRunRepository {
+        private final List<Map<String, List<String>>> carried = new ArrayList<>();
+
+        RecordingRuns(ScanPersistenceProperties props) {
+            super(props, null);
+        }
+
+        @Override
+        public int carryForwardFindings(long scanRunId, long previousRunId, Map<String, List<String>> checkIdsByTarget) {
+            carried.add(Map.copyOf(checkIdsByTarget));
+            return checkIdsByTarget.values().stream().mapToInt(List::size).sum();
+        }
+    }
+}
@@ -9,6 +9,7 @@ import java.util.Map;
 import org.hat.cyberscout.http.HttpProbeResult;
 import org.hat.cyberscout.http.HttpProber;
 import org.hat.cyberscout.recon.EndpointCandidate;
+import org.hat.cyberscout.recon.Soft404Baselines;
 import org.hat.cyberscout.recon.TechFingerprint;
 import org.hat.cyberscout.scan.model.Finding;
 import org.hat.cyberscout.scan.persist.ScanPersistenceProperties;
@@ -28,7 +29,7 @@ class ReconChecksTest {
                 return new HttpProbeResult(baseUri.resolve(path).toString(), method, 200, 10, Map.of("content-type", "application/json"), "{}");
             }
         };
-        ReconChecks checks = new ReconChecks(om, props, prober);
+        ReconChecks checks = new ReconChecks(om, props, prober, new Soft404Baselines());
 
         TechFingerprint fp = new TechFingerprint(null, null, false, false, false, false, Map.of());
         List<EndpointCandidate> endpoints = List.of(
@@ -0,0 +1,35 @@
+package org.hat.cyberscout.scan.persist;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import org.hat.cyberscout.recon.EndpointCandidate;
+import org.hat.cyberscout.recon.EndpointInventory;
+import org.junit.jupiter.api.Test;
+
+class EndpointInventoryRepositoryTest {
+
+    @Test
+    void shouldKeepUnsavedInventoriesUntilReleasedWhateverTheCacheSize() {
+        ScanPersistenceProperties props = new ScanPersistenceProperties();
+        props.setInventoryCacheSize(1);
+        EndpointInventoryRepository repository = new EndpointInventoryRepository(props, null);
+        URI base = URI.create("http://localhost:8080");
+
+        List<Long> ids = new ArrayList<>();
+        for (long run = 1; run <= 3; run++) {
+            ids.add(repository.save(run, base, EndpointInventory.of(List.of(new EndpointCandidate("/run" + run, "GET", "CRAWL")))));
+        }
+
+        assertThat(repository.find(ids.get(0))).isPresent();
+        assertThat(repository.find(ids.get(0)).get().path(0)).isEqualTo("/run1");
+        assertThat(repository.find(ids.get(2))).isPresent();
+
+        repository.release(ids.get(0));
+
+        assertThat(repository.find(ids.get(0))).isEmpty();
+        assertThat(repository.find(ids.get(1))).isPresent();
+    }
+}
@@ -0,0 +1,128 @@
+package org.hat.cyberscout.scan.persist;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+class ObservationSinkTest {
+
+    @Test
+    void shouldFlushInBatchesOfConfiguredSize() {
+        ScanPersistenceProperties props = new ScanPersistenceProperties();
+        props.setEnabled(true);
+        props.setObservationBatchSize(2);
+        RecordingRepository repository = new RecordingRepository(props);
+        ObservationSink sink = new ObservationSink(props, repository);
+
+        for (int i = 0; i < 5; i++) {
+            sink.record(observation(i));
+        }
+        assertThat(repository.batches).isEmpty();
+
+        sink.flush();
+
+        assertThat(repository.batches).hasSize(3);
+        assertThat(repository.batches.get(0)).hasSize(2);
+        assertThat(repository.batches.get(2)).hasSize(1);
+        assertThat(sink.stats().written()).isEqualTo(5);
+        assertThat(sink.stats().queueDepth()).isEqualTo(0);
+    }
+
+    @Test
+    void shouldDropAndCountWhenQueueIsFull() {
+        ScanPersistenceProperties props = new ScanPersistenceProperties();
+        props.setEnabled(true);
+        props.setObservationQueueCapacity(2);
+        props.setObservationOfferTimeoutMs(0);
+        ObservationSink sink = new ObservationSink(props, new RecordingRepository(props));
+
+        sink.record(observation(1));
+        sink.record(observation(2));
+        sink.record(observation(3));
+
+        ObservationSink.ObservationSinkStats stats = sink.stats();
+        assertThat(stats.enqueued()).isEqualTo(2);
+        assertThat(stats.dropped()).isEqualTo(1);
+        assertThat(stats.backpressureWaits()).isEqualTo(0);
+        assertThat(stats.queueHighWater()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldOnlyWaitForRoomOnVirtualThreads() throws InterruptedException {
+        ScanPersistenceProperties props = new ScanPersistenceProperties();
+        props.setEnabled(true);
+        props.setObservationQueueCapacity(1);
+        props.setObservationOfferTimeoutMs(1);
+        ObservationSink sink = new ObservationSink(props, new RecordingRepository(props));
+
+        sink.record(observation(1));
+        Thread.ofVirtual().start(() -> sink.record(observation(2))).join();
+
+        assertThat(sink.stats().backpressureWaits()).isEqualTo(1);
+        assertThat(sink.stats().dropped()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRetryARefusedBatchRowByRow() {
+        ScanPersistenceProperties props = new ScanPersistenceProperties();
+        props.setEnabled(true);
+        RecordingRepository repository = new RecordingRepository(props);
+        repository.refusedUrl = "http://localhost:8080/1";
+        ObservationSink sink = new ObservationSink(props, repository);
+
+        for (int i = 0; i < 3; i++) {
+            sink.record(observation(i));
+        }
+        sink.flush();
+
+        assertThat(repository.batches).hasSize(2);
+        assertThat(sink.stats().written()).isEqualTo(2);
+        assertThat(sink.stats().dropped()).isEqualTo(1);
+        assertThat(sink.stats().failedBatches()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldCutUrlsToTheColumnSize() {
+        String longUrl = "http://localhost:8080/" + "a".repeat(2000);
+        HttpObservation o = new HttpObservation(1L, "GET", longUrl, 200, "RESPONSE", 3, 0, null, 2, 1, null, null, OffsetDateTime.now());
+
+        assertThat(ObservationSink.fitted(o).url()).isEqualTo(longUrl.substring(0, 1024));
+        HttpObservation fits = observation(1);
+        assertThat(ObservationSink.fitted(fits)).isSameAs(fits);
+    }
+
+    @Test
+    void shouldIgnoreObservationsWhenPersistenceDisabled() {
+        ScanPersistenceProperties props = new ScanPersistenceProperties();
+        ObservationSink sink = new ObservationSink(props, new RecordingRepository(props));
+
+        sink.record(observation(1));
+
+        assertThat(sink.stats().enqueued()).isEqualTo(0);
+    }
+
+    private static HttpObservation observation(int i) {
+        return new HttpObservation(1L, "GET", "http://localhost:8080/" + i, 200, "RESPONSE", 3, 0, null, 2, 1, null, null, OffsetDateTime.now());
+    }
+
+    private static final class RecordingRepository extends ScanRunRepository {
+        private final List<List<HttpObservation>> batches = new ArrayList<>();
+        private String refusedUrl;
+
+        RecordingRepository(ScanPersistenceProperties props) {
+            super(props, null);
+        }
+
+        @Override
+        public void insertObservations(List<HttpObservation> observations) {
+            if (observations.stream().anyMatch(o -> o.url().equals(refusedUrl))) {
+                throw new DataIntegrityViolationException("value too long for type character varying(1024)");
+            }
+            batches.add(List.copyOf(observations));
+        }
+    }
+}